@@ -0,0 +1,22 @@
+-- MariaDB / MySQL
+-- Wrapper audit, one row per /api call (batch items as <requestId>#<index>).
+-- Payloads are stored in full: up to wrapper.audit.inline-max-bytes in the TEXT column, larger ones
+-- in the *_blob column (6-byte codec header + DEFLATE body, see PayloadCodec) with the TEXT column NULL.
+-- api_name / latency_ms (time from admission to response) are what a replay needs, see ReplayEngine.
+-- Existing tables: run db/migrations/004_bank_validation_audit_payload_blobs.sql, then
+-- db/migrations/005_bank_validation_audit_api_name_latency.sql.
+
+CREATE TABLE IF NOT EXISTS bank_validation_audit (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  request_id VARCHAR(128),
+  request_payload TEXT,
+  response_payload TEXT,
+  status VARCHAR(32),
+  created_at TIMESTAMP NULL,
+  request_payload_blob MEDIUMBLOB NULL,
+  response_payload_blob MEDIUMBLOB NULL,
+  api_name VARCHAR(64) NULL,
+  latency_ms BIGINT NULL,
+  KEY idx_bank_validation_audit_request_id (request_id),
+  KEY idx_bank_validation_audit_created_at (created_at)
+);
@@ -1,11 +1,15 @@
 -- MariaDB / MySQL
 -- Creates a per-client mapping used by the wrapper token generator.
+-- updated_at lets the in-memory client directory re-read only changed rows.
+-- Existing tables: run db/migrations/002_client_profile_updated_at.sql.
 
 CREATE TABLE IF NOT EXISTS client_profile (
   client_id VARCHAR(64) NOT NULL,
   transaction_userid VARCHAR(64) NOT NULL,
   transaction_merchantid VARCHAR(64) NOT NULL,
-  PRIMARY KEY (client_id)
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (client_id),
+  KEY idx_client_profile_updated_at (updated_at)
 );
 
 -- Example seed (edit values as needed):
@@ -0,0 +1,49 @@
+-- MariaDB / MySQL
+-- Wrapper tokens. Validation looks tokens up by token_hash (SHA-256 hex of transaction_token);
+-- one merchant transaction (client_id, transaction_timestamp, processor) has at most one token.
+-- Existing tables: run the scripts in db/migrations/ in order instead.
+--
+-- Partitioned by day of transaction_timestamp so expired tokens can be removed with DROP PARTITION
+-- (wrapper.token-sweeper.*). MySQL requires the partitioning column in every unique key, hence
+-- (id, transaction_timestamp) and (token_hash, transaction_timestamp); a token encodes its
+-- transaction timestamp, so token_hash stays unique in practice. Day partitions (pYYYYMMDD) are
+-- split off p_future by the sweeper; until it first runs every row lives in p_future.
+
+CREATE TABLE IF NOT EXISTS master_transactions (
+  id VARCHAR(36) NOT NULL,
+  order_reference VARCHAR(64),
+  transaction_token VARCHAR(512) NOT NULL,
+  token_hash CHAR(64) NOT NULL,
+  transaction_timestamp TIMESTAMP NOT NULL,
+  transaction_userid VARCHAR(64),
+  transaction_merchantid VARCHAR(64),
+  client_id VARCHAR(64) NOT NULL,
+  processor VARCHAR(32) NOT NULL,
+  initiated_at TIMESTAMP NULL,
+  completed_at TIMESTAMP NULL,
+  PRIMARY KEY (id, transaction_timestamp),
+  UNIQUE KEY uk_master_transactions_token_hash (token_hash, transaction_timestamp),
+  UNIQUE KEY uk_master_transactions_txn (client_id, transaction_timestamp, processor),
+  KEY idx_master_transactions_txn_ts (transaction_timestamp)
+)
+PARTITION BY RANGE (UNIX_TIMESTAMP(transaction_timestamp)) (
+  PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+-- Optional: target for wrapper.token-sweeper.archive-table=master_transactions_archive.
+-- Same columns, unpartitioned, so archived rows can be kept or exported on their own schedule.
+CREATE TABLE IF NOT EXISTS master_transactions_archive (
+  id VARCHAR(36) NOT NULL,
+  order_reference VARCHAR(64),
+  transaction_token VARCHAR(512) NOT NULL,
+  token_hash CHAR(64) NOT NULL,
+  transaction_timestamp TIMESTAMP NOT NULL,
+  transaction_userid VARCHAR(64),
+  transaction_merchantid VARCHAR(64),
+  client_id VARCHAR(64) NOT NULL,
+  processor VARCHAR(32) NOT NULL,
+  initiated_at TIMESTAMP NULL,
+  completed_at TIMESTAMP NULL,
+  PRIMARY KEY (id),
+  KEY idx_master_transactions_archive_ts (transaction_timestamp)
+);
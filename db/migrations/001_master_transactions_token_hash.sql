@@ -0,0 +1,32 @@
+-- MariaDB / MySQL
+-- Adds token_hash and the unique keys from db/master_transactions.sql to an existing table.
+-- Run once, with the application stopped (new code looks tokens up by token_hash only).
+
+ALTER TABLE master_transactions ADD COLUMN token_hash CHAR(64) NULL AFTER transaction_token;
+
+UPDATE master_transactions
+SET token_hash = SHA2(transaction_token, 256)
+WHERE token_hash IS NULL;
+
+-- Older code could store several tokens for one transaction; keep the most recent one.
+DELETE older
+FROM master_transactions older
+JOIN master_transactions newer
+  ON newer.client_id = older.client_id
+ AND newer.transaction_timestamp = older.transaction_timestamp
+ AND newer.processor = older.processor
+ AND (COALESCE(newer.initiated_at, '1970-01-01 00:00:01') > COALESCE(older.initiated_at, '1970-01-01 00:00:01')
+      OR (COALESCE(newer.initiated_at, '1970-01-01 00:00:01') = COALESCE(older.initiated_at, '1970-01-01 00:00:01')
+          AND newer.id > older.id));
+
+-- The same token text stored twice (should not happen) would also block the unique key.
+DELETE dup
+FROM master_transactions dup
+JOIN master_transactions keep
+  ON keep.token_hash = dup.token_hash
+ AND keep.id < dup.id;
+
+ALTER TABLE master_transactions
+  MODIFY token_hash CHAR(64) NOT NULL,
+  ADD UNIQUE KEY uk_master_transactions_token_hash (token_hash),
+  ADD UNIQUE KEY uk_master_transactions_txn (client_id, transaction_timestamp, processor);
@@ -0,0 +1,7 @@
+-- MariaDB / MySQL
+-- Adds updated_at to client_profile so the client directory can refresh incrementally.
+-- Without it the application still works, but every directory refresh re-reads the whole table.
+
+ALTER TABLE client_profile
+  ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  ADD KEY idx_client_profile_updated_at (updated_at);
@@ -0,0 +1,22 @@
+-- MariaDB / MySQL
+-- Partitions an existing master_transactions (after 001) by day of transaction_timestamp.
+-- Rebuilds the table: run in a maintenance window. Afterwards the token sweeper
+-- (wrapper.token-sweeper.enabled=true) adds day partitions ahead and drops expired ones.
+--
+-- Unique keys must contain the partitioning column, so the primary key and the token_hash key
+-- gain transaction_timestamp.
+
+ALTER TABLE master_transactions
+  DROP PRIMARY KEY,
+  ADD PRIMARY KEY (id, transaction_timestamp),
+  DROP INDEX uk_master_transactions_token_hash,
+  ADD UNIQUE KEY uk_master_transactions_token_hash (token_hash, transaction_timestamp),
+  ADD KEY idx_master_transactions_txn_ts (transaction_timestamp);
+
+-- Existing rows go to p_future; the sweeper's first run splits it into day partitions from today
+-- on (older rows land in today's partition and are removed with it), or delete them first with
+-- the unpartitioned sweeper.
+ALTER TABLE master_transactions
+  PARTITION BY RANGE (UNIX_TIMESTAMP(transaction_timestamp)) (
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+  );
@@ -0,0 +1,8 @@
+-- MariaDB / MySQL
+-- Adds the compressed payload columns. Rows written before this keep their (truncated) TEXT payloads
+-- and are still read from there.
+
+ALTER TABLE bank_validation_audit
+  ADD COLUMN request_payload_blob MEDIUMBLOB NULL,
+  ADD COLUMN response_payload_blob MEDIUMBLOB NULL,
+  ADD KEY idx_bank_validation_audit_request_id (request_id);
@@ -0,0 +1,8 @@
+-- MariaDB / MySQL
+-- Adds the apiName and latency of each call, and an index for reading a created_at window in order.
+-- Rows written before this have both NULL; a replay of them needs transbnk.replay.api-name.
+
+ALTER TABLE bank_validation_audit
+  ADD COLUMN api_name VARCHAR(64) NULL,
+  ADD COLUMN latency_ms BIGINT NULL,
+  ADD KEY idx_bank_validation_audit_created_at (created_at);
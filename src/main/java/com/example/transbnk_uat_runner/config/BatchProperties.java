@@ -0,0 +1,81 @@
+package com.example.transbnk_uat_runner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for {@code POST /api/batch}.
+ *
+ * <pre>
+ * transbnk.batch.max-items=20
+ * transbnk.batch.threads=32                     # platform threads (virtual threads ignore it)
+ * transbnk.batch.max-concurrent-per-api=4       # across all batches in flight
+ * transbnk.batch.item-timeout=30s
+ * transbnk.batch.endpoints.docuflow-create.max-concurrent=2
+ * transbnk.batch.endpoints.aadhaar-validation.timeout=10s
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "transbnk.batch")
+public class BatchProperties {
+
+    /** Larger batches are rejected with 400. */
+    private int maxItems = 20;
+
+    /** Worker pool size when virtual threads are off. */
+    private int threads = 32;
+
+    /** Batch items of one apiName that may call TrustHub at the same time. */
+    private int maxConcurrentPerApi = 4;
+
+    /** Time from batch start until an unfinished item is reported as TIMEOUT. */
+    private Duration itemTimeout = Duration.ofSeconds(30);
+
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    public int maxConcurrentFor(String apiName) {
+        Endpoint endpoint = endpoints.get(apiName);
+        if (endpoint == null || endpoint.getMaxConcurrent() == null || endpoint.getMaxConcurrent() <= 0) {
+            return maxConcurrentPerApi;
+        }
+        return endpoint.getMaxConcurrent();
+    }
+
+    public Duration timeoutFor(String apiName) {
+        Endpoint endpoint = endpoints.get(apiName);
+        if (endpoint == null || endpoint.getTimeout() == null) {
+            return itemTimeout;
+        }
+        return endpoint.getTimeout();
+    }
+
+    public int getMaxItems() { return maxItems; }
+    public void setMaxItems(int maxItems) { this.maxItems = maxItems; }
+
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+
+    public int getMaxConcurrentPerApi() { return maxConcurrentPerApi; }
+    public void setMaxConcurrentPerApi(int maxConcurrentPerApi) { this.maxConcurrentPerApi = maxConcurrentPerApi; }
+
+    public Duration getItemTimeout() { return itemTimeout; }
+    public void setItemTimeout(Duration itemTimeout) { this.itemTimeout = itemTimeout; }
+
+    public Map<String, Endpoint> getEndpoints() { return endpoints; }
+    public void setEndpoints(Map<String, Endpoint> endpoints) { this.endpoints = endpoints; }
+
+    public static class Endpoint {
+
+        private Integer maxConcurrent;
+
+        private Duration timeout;
+
+        public Integer getMaxConcurrent() { return maxConcurrent; }
+        public void setMaxConcurrent(Integer maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+
+        public Duration getTimeout() { return timeout; }
+        public void setTimeout(Duration timeout) { this.timeout = timeout; }
+    }
+}
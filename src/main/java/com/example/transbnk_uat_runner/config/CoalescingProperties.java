@@ -0,0 +1,39 @@
+package com.example.transbnk_uat_runner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coalescing of identical TrustHub calls in flight, see {@code RequestCoalescer}. A call joins one
+ * already running when it has the same apiName and the same request body, field order ignored.
+ *
+ * <pre>
+ * transbnk.coalescing.enabled=true
+ * transbnk.coalescing.apis=docuflow-status,nach-status,vpa-validation,upi-validate-vpa,bank-account-validation
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "transbnk.coalescing")
+public class CoalescingProperties {
+
+    private boolean enabled = true;
+
+    private List<String> apis = new ArrayList<>(List.of(
+            "docuflow-status",
+            "nach-status",
+            "vpa-validation",
+            "upi-validate-vpa",
+            "bank-account-validation"
+    ));
+
+    public boolean isEnabledFor(String apiName) {
+        return enabled && apis.contains(apiName);
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public List<String> getApis() { return apis; }
+    public void setApis(List<String> apis) { this.apis = apis; }
+}
@@ -0,0 +1,108 @@
+package com.example.transbnk_uat_runner.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the application's internal executors and threads.
+ *
+ * <p>With {@code spring.threads.virtual.enabled=true} on a Java 21+ runtime, Spring Boot runs
+ * Tomcat request handling on virtual threads and this factory hands out thread-per-task virtual
+ * executors. Otherwise executors are bounded platform-thread pools of the requested size. Every
+ * executor created here is shut down with the application context.
+ */
+@Component
+public class ExecutorFactory implements DisposableBean {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(ExecutorFactory.class);
+
+    private final boolean virtual;
+    private final List<ExecutorService> executors = new CopyOnWriteArrayList<>();
+
+    public ExecutorFactory(@Value("${spring.threads.virtual.enabled:false}") boolean virtualRequested) {
+        if (virtualRequested && !VirtualThreads.isSupported()) {
+            log.warn(" spring.threads.virtual.enabled=true ignored: Java {} has no virtual threads", Runtime.version());
+        }
+        this.virtual = virtualRequested && VirtualThreads.isSupported();
+        log.info(" Thread mode={}", virtual ? "VIRTUAL" : "PLATFORM");
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * @param platformThreads pool size used when virtual threads are off
+     */
+    public ExecutorService newExecutor(String name, int platformThreads) {
+        ExecutorService executor;
+        if (virtual) {
+            executor = VirtualThreads.newThreadPerTaskExecutor(name + "-");
+        } else {
+            int size = Math.max(1, platformThreads);
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    size,
+                    size,
+                    60,
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    platformThreadFactory(name)
+            );
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        executors.add(executor);
+        return executor;
+    }
+
+    /**
+     * A single long-running thread, e.g. a background writer.
+     */
+    public Thread newThread(String name, Runnable task) {
+        Thread thread = virtual ? VirtualThreads.factory(name).newThread(task) : new Thread(task);
+        thread.setName(name);
+        if (!virtual) {
+            thread.setDaemon(true);
+        }
+        return thread;
+    }
+
+    private static ThreadFactory platformThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() {
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+        for (ExecutorService executor : executors) {
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException ex) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
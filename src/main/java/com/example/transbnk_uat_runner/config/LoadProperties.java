@@ -0,0 +1,81 @@
+package com.example.transbnk_uat_runner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Load / soak mode, active with {@code --spring.profiles.active=load}. Requests go through
+ * {@code ApiRunnerService} exactly as {@code POST /api/{apiName}} would send them.
+ *
+ * <pre>
+ * transbnk.load.apis=vpa-validation,bank-account-validation   # request templates; empty = all read-only ones
+ * transbnk.load.bodies-file=/path/bodies.jsonl                # {"apiName":..,"body":{..}} per line, instead of apis
+ * transbnk.load.rps=50                                        # 0 = as fast as concurrency allows
+ * transbnk.load.concurrency=16
+ * transbnk.load.duration=60s
+ * transbnk.load.report-file=load-report.json
+ * transbnk.load.allow-non-idempotent=false                    # true to also send calls that are not read-only
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "transbnk.load")
+public class LoadProperties {
+
+    private List<String> apis = new ArrayList<>();
+
+    private String bodiesFile;
+
+    /**
+     * Requests started per second, spread evenly over the run. When set, {@code concurrency} caps
+     * the requests in flight and starts beyond it are counted as not sent.
+     */
+    private double rps = 0;
+
+    private int concurrency = 16;
+
+    private Duration duration = Duration.ofSeconds(60);
+
+    /** Longest wait for requests still in flight when the duration is over. */
+    private Duration drainTimeout = Duration.ofSeconds(30);
+
+    private String reportFile = "load-report.json";
+
+    /** Stop the application once the report is written. */
+    private boolean exitWhenDone = true;
+
+    /**
+     * Allow calls that are not read-only in {@code apis} or {@code bodies-file}. Each one creates,
+     * resends or cancels a payout, mandate or document at {@code transbnk.base-url}; off, the run
+     * refuses to start with them.
+     */
+    private boolean allowNonIdempotent = false;
+
+    public List<String> getApis() { return apis; }
+    public void setApis(List<String> apis) { this.apis = apis; }
+
+    public String getBodiesFile() { return bodiesFile; }
+    public void setBodiesFile(String bodiesFile) { this.bodiesFile = bodiesFile; }
+
+    public double getRps() { return rps; }
+    public void setRps(double rps) { this.rps = rps; }
+
+    public int getConcurrency() { return concurrency; }
+    public void setConcurrency(int concurrency) { this.concurrency = concurrency; }
+
+    public Duration getDuration() { return duration; }
+    public void setDuration(Duration duration) { this.duration = duration; }
+
+    public Duration getDrainTimeout() { return drainTimeout; }
+    public void setDrainTimeout(Duration drainTimeout) { this.drainTimeout = drainTimeout; }
+
+    public String getReportFile() { return reportFile; }
+    public void setReportFile(String reportFile) { this.reportFile = reportFile; }
+
+    public boolean isExitWhenDone() { return exitWhenDone; }
+    public void setExitWhenDone(boolean exitWhenDone) { this.exitWhenDone = exitWhenDone; }
+
+    public boolean isAllowNonIdempotent() { return allowNonIdempotent; }
+    public void setAllowNonIdempotent(boolean allowNonIdempotent) { this.allowNonIdempotent = allowNonIdempotent; }
+}
@@ -0,0 +1,42 @@
+package com.example.transbnk_uat_runner.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Beans for the reactive stack ({@code --spring.profiles.active=reactive}).
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    /**
+     * Tomcat is on the classpath for the servlet stack and would otherwise be picked; Netty shares
+     * its event loops with the upstream {@code WebClient}.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Runs the blocking work of a reactive request - JDBC, response files, audit hand-off - so it
+     * never lands on an event-loop thread. Backed by {@link ExecutorFactory}, so it uses virtual
+     * threads when those are enabled.
+     */
+    @Bean
+    public Scheduler blockingScheduler(
+            ExecutorFactory executorFactory,
+            @Value("${transbnk.reactive.blocking-threads:32}") int blockingThreads
+    ) {
+        return Schedulers.fromExecutorService(
+                executorFactory.newExecutor("reactive-blocking", blockingThreads),
+                "reactive-blocking"
+        );
+    }
+}
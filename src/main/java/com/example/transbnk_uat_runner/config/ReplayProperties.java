@@ -0,0 +1,143 @@
+package com.example.transbnk_uat_runner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Replay mode, active with {@code --spring.profiles.active=replay}. Recorded requests are sent
+ * again to {@code POST {base-url}/api/{apiName}} and compared with how they went the first time.
+ *
+ * <pre>
+ * transbnk.replay.source=AUDIT                       # AUDIT | VALIDATION_LOG | FILE
+ * transbnk.replay.api-name=vpa-validation            # AUDIT only: rows of this apiName; also the one of old rows
+ * transbnk.replay.from=2024-05-01T00:00:00           # AUDIT only: created_at window
+ * transbnk.replay.file=requests.jsonl                # FILE only
+ * transbnk.replay.base-url=http://uat-host:8080
+ * transbnk.replay.token=...
+ * transbnk.replay.pacing=ACCELERATED                 # RECORDED | ACCELERATED | MAX
+ * transbnk.replay.speed=10
+ * transbnk.replay.allow-non-idempotent=false         # true to also send records that are not read-only
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "transbnk.replay")
+public class ReplayProperties {
+
+    public enum Source {
+        /** {@code bank_validation_audit}; rows written before {@code api_name} existed need {@code api-name}. */
+        AUDIT,
+        /** {@code bank_account_validation_log}, always {@code bank-account-validation}. */
+        VALIDATION_LOG,
+        /** JSON lines, see {@code ReplayRecord}; what a replay writes to {@code output-file}. */
+        FILE
+    }
+
+    public enum Pacing {
+        /** The recorded gaps between requests. */
+        RECORDED,
+        /** The recorded gaps divided by {@code speed}. */
+        ACCELERATED,
+        /** As fast as {@code concurrency} allows. */
+        MAX
+    }
+
+    private Source source = Source.AUDIT;
+
+    /** Only replay this apiName; rows with no {@code api_name} of their own are taken to be of it. */
+    private String apiName;
+
+    private String file;
+
+    /** ISO local date-time, inclusive. */
+    private String from;
+
+    /** ISO local date-time, exclusive. */
+    private String to;
+
+    /**
+     * Rows per round trip of the database cursor. MySQL only streams with
+     * {@code useCursorFetch=true} on the JDBC URL; without it the driver reads the whole result.
+     */
+    private int fetchSize = 500;
+
+    /** Read at most this many rows or lines, skipped ones included; 0 = all of them. */
+    private long limit = 0;
+
+    private String baseUrl = "http://localhost:8080";
+
+    /** Sent as {@code Authorization: Bearer}. */
+    private String token;
+
+    private Pacing pacing = Pacing.RECORDED;
+
+    private double speed = 1;
+
+    private int concurrency = 16;
+
+    private Duration timeout = Duration.ofSeconds(30);
+
+    /** One line per replayed request, in the {@code FILE} format; blank = not written. */
+    private String outputFile = "replay-results.jsonl";
+
+    private String reportFile = "replay-report.json";
+
+    /** Stop the application once the report is written. */
+    private boolean exitWhenDone = true;
+
+    /**
+     * Send records of apiNames that are not read-only again. Each one creates, resends or cancels a
+     * payout, mandate or document at {@code base-url}; off, they are skipped and counted.
+     */
+    private boolean allowNonIdempotent = false;
+
+    public Source getSource() { return source; }
+    public void setSource(Source source) { this.source = source; }
+
+    public String getApiName() { return apiName; }
+    public void setApiName(String apiName) { this.apiName = apiName; }
+
+    public String getFile() { return file; }
+    public void setFile(String file) { this.file = file; }
+
+    public String getFrom() { return from; }
+    public void setFrom(String from) { this.from = from; }
+
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+
+    public int getFetchSize() { return fetchSize; }
+    public void setFetchSize(int fetchSize) { this.fetchSize = fetchSize; }
+
+    public long getLimit() { return limit; }
+    public void setLimit(long limit) { this.limit = limit; }
+
+    public String getBaseUrl() { return baseUrl; }
+    public void setBaseUrl(String baseUrl) { this.baseUrl = baseUrl; }
+
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+
+    public Pacing getPacing() { return pacing; }
+    public void setPacing(Pacing pacing) { this.pacing = pacing; }
+
+    public double getSpeed() { return speed; }
+    public void setSpeed(double speed) { this.speed = speed; }
+
+    public int getConcurrency() { return concurrency; }
+    public void setConcurrency(int concurrency) { this.concurrency = concurrency; }
+
+    public Duration getTimeout() { return timeout; }
+    public void setTimeout(Duration timeout) { this.timeout = timeout; }
+
+    public String getOutputFile() { return outputFile; }
+    public void setOutputFile(String outputFile) { this.outputFile = outputFile; }
+
+    public String getReportFile() { return reportFile; }
+    public void setReportFile(String reportFile) { this.reportFile = reportFile; }
+
+    public boolean isExitWhenDone() { return exitWhenDone; }
+    public void setExitWhenDone(boolean exitWhenDone) { this.exitWhenDone = exitWhenDone; }
+
+    public boolean isAllowNonIdempotent() { return allowNonIdempotent; }
+    public void setAllowNonIdempotent(boolean allowNonIdempotent) { this.allowNonIdempotent = allowNonIdempotent; }
+}
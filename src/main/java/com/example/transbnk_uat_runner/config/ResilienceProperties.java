@@ -0,0 +1,150 @@
+package com.example.transbnk_uat_runner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bulkhead and circuit breaker settings for TrustHub calls, applied per apiName.
+ *
+ * <pre>
+ * transbnk.resilience.enabled=true
+ * transbnk.resilience.max-concurrent=20          # calls in flight per apiName
+ * transbnk.resilience.max-queue=20               # calls waiting for a slot; beyond that BULKHEAD_FULL
+ * transbnk.resilience.queue-timeout=2s
+ * transbnk.resilience.window-size=50             # last N calls the rates are computed over
+ * transbnk.resilience.minimum-calls=20
+ * transbnk.resilience.failure-rate-threshold=50  # percent of 5xx / transport failures
+ * transbnk.resilience.slow-call-duration=10s
+ * transbnk.resilience.slow-call-rate-threshold=80
+ * transbnk.resilience.open-duration=30s
+ * transbnk.resilience.half-open-calls=5
+ * transbnk.resilience.endpoints.docuflow-create.max-concurrent=4
+ * transbnk.resilience.endpoints.docuflow-create.slow-call-duration=20s
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "transbnk.resilience")
+public class ResilienceProperties {
+
+    private boolean enabled = true;
+
+    private int maxConcurrent = 20;
+
+    private int maxQueue = 20;
+
+    /** Longest a queued call waits for a slot before it is rejected. */
+    private Duration queueTimeout = Duration.ofSeconds(2);
+
+    private int windowSize = 50;
+
+    /** Calls recorded before the rates can open the circuit. */
+    private int minimumCalls = 20;
+
+    private int failureRateThreshold = 50;
+
+    /** A call taking longer than this counts as slow, whatever its outcome. */
+    private Duration slowCallDuration = Duration.ofSeconds(10);
+
+    private int slowCallRateThreshold = 80;
+
+    /** Time an open circuit fails fast before trial calls are let through. */
+    private Duration openDuration = Duration.ofSeconds(30);
+
+    /** Trial calls in half-open state; all must succeed to close the circuit again. */
+    private int halfOpenCalls = 5;
+
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    public int maxConcurrentFor(String apiName) {
+        Endpoint endpoint = endpoints.get(apiName);
+        if (endpoint == null || endpoint.getMaxConcurrent() == null || endpoint.getMaxConcurrent() <= 0) {
+            return maxConcurrent;
+        }
+        return endpoint.getMaxConcurrent();
+    }
+
+    public int maxQueueFor(String apiName) {
+        Endpoint endpoint = endpoints.get(apiName);
+        if (endpoint == null || endpoint.getMaxQueue() == null || endpoint.getMaxQueue() < 0) {
+            return maxQueue;
+        }
+        return endpoint.getMaxQueue();
+    }
+
+    public Duration slowCallDurationFor(String apiName) {
+        Endpoint endpoint = endpoints.get(apiName);
+        if (endpoint == null || endpoint.getSlowCallDuration() == null) {
+            return slowCallDuration;
+        }
+        return endpoint.getSlowCallDuration();
+    }
+
+    public int failureRateThresholdFor(String apiName) {
+        Endpoint endpoint = endpoints.get(apiName);
+        if (endpoint == null || endpoint.getFailureRateThreshold() == null || endpoint.getFailureRateThreshold() <= 0) {
+            return failureRateThreshold;
+        }
+        return endpoint.getFailureRateThreshold();
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getMaxConcurrent() { return maxConcurrent; }
+    public void setMaxConcurrent(int maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+
+    public int getMaxQueue() { return maxQueue; }
+    public void setMaxQueue(int maxQueue) { this.maxQueue = maxQueue; }
+
+    public Duration getQueueTimeout() { return queueTimeout; }
+    public void setQueueTimeout(Duration queueTimeout) { this.queueTimeout = queueTimeout; }
+
+    public int getWindowSize() { return windowSize; }
+    public void setWindowSize(int windowSize) { this.windowSize = windowSize; }
+
+    public int getMinimumCalls() { return minimumCalls; }
+    public void setMinimumCalls(int minimumCalls) { this.minimumCalls = minimumCalls; }
+
+    public int getFailureRateThreshold() { return failureRateThreshold; }
+    public void setFailureRateThreshold(int failureRateThreshold) { this.failureRateThreshold = failureRateThreshold; }
+
+    public Duration getSlowCallDuration() { return slowCallDuration; }
+    public void setSlowCallDuration(Duration slowCallDuration) { this.slowCallDuration = slowCallDuration; }
+
+    public int getSlowCallRateThreshold() { return slowCallRateThreshold; }
+    public void setSlowCallRateThreshold(int slowCallRateThreshold) { this.slowCallRateThreshold = slowCallRateThreshold; }
+
+    public Duration getOpenDuration() { return openDuration; }
+    public void setOpenDuration(Duration openDuration) { this.openDuration = openDuration; }
+
+    public int getHalfOpenCalls() { return halfOpenCalls; }
+    public void setHalfOpenCalls(int halfOpenCalls) { this.halfOpenCalls = halfOpenCalls; }
+
+    public Map<String, Endpoint> getEndpoints() { return endpoints; }
+    public void setEndpoints(Map<String, Endpoint> endpoints) { this.endpoints = endpoints; }
+
+    public static class Endpoint {
+
+        private Integer maxConcurrent;
+
+        private Integer maxQueue;
+
+        private Duration slowCallDuration;
+
+        private Integer failureRateThreshold;
+
+        public Integer getMaxConcurrent() { return maxConcurrent; }
+        public void setMaxConcurrent(Integer maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+
+        public Integer getMaxQueue() { return maxQueue; }
+        public void setMaxQueue(Integer maxQueue) { this.maxQueue = maxQueue; }
+
+        public Duration getSlowCallDuration() { return slowCallDuration; }
+        public void setSlowCallDuration(Duration slowCallDuration) { this.slowCallDuration = slowCallDuration; }
+
+        public Integer getFailureRateThreshold() { return failureRateThreshold; }
+        public void setFailureRateThreshold(Integer failureRateThreshold) { this.failureRateThreshold = failureRateThreshold; }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.transbnk_uat_runner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response cache for read-only lookups, see {@code ResponseCache}. An apiName is cached when it has
+ * key fields: the business fields of the request that decide the answer. The defaults cover
+ * {@code vpa-validation} and {@code upi-validate-vpa} ({@code vpa}) and
+ * {@code bank-account-validation} ({@code custAcctNo}, {@code custIfsc}).
+ *
+ * <pre>
+ * transbnk.cache.enabled=true
+ * transbnk.cache.ttl=10m
+ * transbnk.cache.max-entries=10000               # per apiName, on the heap
+ * transbnk.cache.off-heap.enabled=false          # entries evicted from the heap move to direct memory
+ * transbnk.cache.off-heap.max-bytes=64MB         # per apiName
+ * transbnk.cache.endpoints.bank-account-validation.ttl=1h
+ * transbnk.cache.endpoints.vpa-validation.key-fields=vpa
+ * transbnk.cache.endpoints.upi-validate-vpa.enabled=false
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "transbnk.cache")
+public class ResponseCacheProperties {
+
+    private static final Map<String, List<String>> DEFAULT_KEY_FIELDS = Map.of(
+            "vpa-validation", List.of("vpa"),
+            "upi-validate-vpa", List.of("vpa"),
+            "bank-account-validation", List.of("custAcctNo", "custIfsc")
+    );
+
+    private boolean enabled = true;
+
+    /** How long a successful answer is reused. */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    private int maxEntries = 10_000;
+
+    private OffHeap offHeap = new OffHeap();
+
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    /**
+     * @return the request fields the cache key is built from; empty when the apiName is not cached
+     */
+    public List<String> keyFieldsFor(String apiName) {
+        Endpoint endpoint = endpoints.get(apiName);
+        if (!enabled || (endpoint != null && Boolean.FALSE.equals(endpoint.getEnabled()))) {
+            return List.of();
+        }
+        if (endpoint == null || endpoint.getKeyFields() == null || endpoint.getKeyFields().isEmpty()) {
+            return DEFAULT_KEY_FIELDS.getOrDefault(apiName, List.of());
+        }
+        return endpoint.getKeyFields();
+    }
+
+    public Duration ttlFor(String apiName) {
+        Endpoint endpoint = endpoints.get(apiName);
+        if (endpoint == null || endpoint.getTtl() == null) {
+            return ttl;
+        }
+        return endpoint.getTtl();
+    }
+
+    public int maxEntriesFor(String apiName) {
+        Endpoint endpoint = endpoints.get(apiName);
+        if (endpoint == null || endpoint.getMaxEntries() == null || endpoint.getMaxEntries() <= 0) {
+            return Math.max(1, maxEntries);
+        }
+        return endpoint.getMaxEntries();
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration ttl) { this.ttl = ttl; }
+
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+
+    public OffHeap getOffHeap() { return offHeap; }
+    public void setOffHeap(OffHeap offHeap) { this.offHeap = offHeap; }
+
+    public Map<String, Endpoint> getEndpoints() { return endpoints; }
+    public void setEndpoints(Map<String, Endpoint> endpoints) { this.endpoints = endpoints; }
+
+    public static class OffHeap {
+
+        private boolean enabled = false;
+
+        /** Direct memory per apiName; the least recently used entries are dropped beyond it. */
+        private DataSize maxBytes = DataSize.ofMegabytes(64);
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public DataSize getMaxBytes() { return maxBytes; }
+        public void setMaxBytes(DataSize maxBytes) { this.maxBytes = maxBytes; }
+    }
+
+    public static class Endpoint {
+
+        private Boolean enabled;
+
+        private List<String> keyFields;
+
+        private Duration ttl;
+
+        private Integer maxEntries;
+
+        public Boolean getEnabled() { return enabled; }
+        public void setEnabled(Boolean enabled) { this.enabled = enabled; }
+
+        public List<String> getKeyFields() { return keyFields; }
+        public void setKeyFields(List<String> keyFields) { this.keyFields = keyFields; }
+
+        public Duration getTtl() { return ttl; }
+        public void setTtl(Duration ttl) { this.ttl = ttl; }
+
+        public Integer getMaxEntries() { return maxEntries; }
+        public void setMaxEntries(Integer maxEntries) { this.maxEntries = maxEntries; }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.transbnk_uat_runner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retry and hedging for TrustHub calls that are safe to repeat. Only the apiNames in
+ * {@code idempotent-apis} are ever sent twice; names that are not read-only lookups are ignored
+ * there.
+ *
+ * <pre>
+ * transbnk.retry.idempotent-apis=docuflow-status,nach-status,vpa-validation,upi-validate-vpa
+ * transbnk.retry.max-attempts=3                  # first call included
+ * transbnk.retry.initial-backoff=100ms           # doubled per attempt, full jitter
+ * transbnk.retry.max-backoff=1s
+ * transbnk.retry.hedge.enabled=false
+ * transbnk.retry.hedge.percentile=0.95           # of recent latencies of the apiName
+ * transbnk.retry.hedge.min-delay=50ms
+ * transbnk.retry.hedge.max-delay=5s
+ * transbnk.retry.endpoints.nach-status.max-attempts=2
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "transbnk.retry")
+public class RetryProperties {
+
+    private List<String> idempotentApis = new ArrayList<>(List.of(
+            "docuflow-status",
+            "nach-status",
+            "vpa-validation",
+            "upi-validate-vpa"
+    ));
+
+    /** Attempts per call, the first one included; 1 turns retries off. */
+    private int maxAttempts = 3;
+
+    private Duration initialBackoff = Duration.ofMillis(100);
+
+    private Duration maxBackoff = Duration.ofSeconds(1);
+
+    private Hedge hedge = new Hedge();
+
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    public int maxAttemptsFor(String apiName) {
+        Endpoint endpoint = endpoints.get(apiName);
+        if (endpoint == null || endpoint.getMaxAttempts() == null || endpoint.getMaxAttempts() <= 0) {
+            return Math.max(1, maxAttempts);
+        }
+        return endpoint.getMaxAttempts();
+    }
+
+    public boolean hedgeEnabledFor(String apiName) {
+        Endpoint endpoint = endpoints.get(apiName);
+        if (endpoint == null || endpoint.getHedge() == null) {
+            return hedge.isEnabled();
+        }
+        return endpoint.getHedge();
+    }
+
+    public List<String> getIdempotentApis() { return idempotentApis; }
+    public void setIdempotentApis(List<String> idempotentApis) { this.idempotentApis = idempotentApis; }
+
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+
+    public Duration getInitialBackoff() { return initialBackoff; }
+    public void setInitialBackoff(Duration initialBackoff) { this.initialBackoff = initialBackoff; }
+
+    public Duration getMaxBackoff() { return maxBackoff; }
+    public void setMaxBackoff(Duration maxBackoff) { this.maxBackoff = maxBackoff; }
+
+    public Hedge getHedge() { return hedge; }
+    public void setHedge(Hedge hedge) { this.hedge = hedge; }
+
+    public Map<String, Endpoint> getEndpoints() { return endpoints; }
+    public void setEndpoints(Map<String, Endpoint> endpoints) { this.endpoints = endpoints; }
+
+    public static class Hedge {
+
+        /** Send a second attempt when the first has not answered within the latency percentile. */
+        private boolean enabled = false;
+
+        private double percentile = 0.95;
+
+        /** Recent answers needed before the percentile is trusted; no hedging until then. */
+        private int minSamples = 20;
+
+        private Duration minDelay = Duration.ofMillis(50);
+
+        private Duration maxDelay = Duration.ofSeconds(5);
+
+        /** Threads running hedged attempts on the servlet stack when virtual threads are off. */
+        private int threads = 32;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public double getPercentile() { return percentile; }
+        public void setPercentile(double percentile) { this.percentile = percentile; }
+
+        public int getMinSamples() { return minSamples; }
+        public void setMinSamples(int minSamples) { this.minSamples = minSamples; }
+
+        public Duration getMinDelay() { return minDelay; }
+        public void setMinDelay(Duration minDelay) { this.minDelay = minDelay; }
+
+        public Duration getMaxDelay() { return maxDelay; }
+        public void setMaxDelay(Duration maxDelay) { this.maxDelay = maxDelay; }
+
+        public int getThreads() { return threads; }
+        public void setThreads(int threads) { this.threads = threads; }
+    }
+
+    public static class Endpoint {
+
+        private Integer maxAttempts;
+
+        private Boolean hedge;
+
+        public Integer getMaxAttempts() { return maxAttempts; }
+        public void setMaxAttempts(Integer maxAttempts) { this.maxAttempts = maxAttempts; }
+
+        public Boolean getHedge() { return hedge; }
+        public void setHedge(Boolean hedge) { this.hedge = hedge; }
+    }
+}
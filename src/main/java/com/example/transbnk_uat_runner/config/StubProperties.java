@@ -0,0 +1,179 @@
+package com.example.transbnk_uat_runner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Local stand-in for TrustHub, see {@code UpstreamStubServer}. Started by the {@code stub} profile,
+ * which also points {@code transbnk.base-url} at it, or from tests.
+ *
+ * <pre>
+ * transbnk.stub.port=18080
+ * transbnk.stub.defaults.latency-distribution=LOG_NORMAL
+ * transbnk.stub.defaults.latency=80ms                        # median
+ * transbnk.stub.defaults.latency-high=600ms                  # p99
+ * transbnk.stub.endpoints.docuflow-create.error-rate=0.05    # 503 with error-body
+ * transbnk.stub.endpoints.vpa-validation.failure-rate=0.2    # 200 with the apiName's failure answer
+ * transbnk.stub.endpoints.payout-create.timeout-rate=0.01    # no answer for timeout-hold
+ * transbnk.stub.endpoints.nach-status.drip-chunk-bytes=16    # body sent 16 bytes per drip-interval
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "transbnk.stub")
+public class StubProperties {
+
+    public enum LatencyDistribution {
+        /** Always {@code latency}. */
+        FIXED,
+        /** Evenly between {@code latency} and {@code latency-high}. */
+        UNIFORM,
+        /** Median {@code latency}, 99th percentile {@code latency-high}: a long right tail. */
+        LOG_NORMAL
+    }
+
+    /** 0 = any free port. */
+    private int port = 18080;
+
+    /** Requests handled at once; held timeouts and slow drips each keep one. */
+    private int threads = 200;
+
+    private Behaviour defaults = Behaviour.defaults();
+
+    private Map<String, Behaviour> endpoints = new LinkedHashMap<>();
+
+    /**
+     * The behaviour of {@code apiName}: its {@code endpoints} entry with unset fields taken from
+     * {@code defaults}.
+     */
+    public Behaviour behaviourFor(String apiName) {
+        Behaviour endpoint = endpoints.get(apiName);
+        return endpoint == null ? defaults : defaults.overriddenBy(endpoint);
+    }
+
+    /** The {@code endpoints} entry of {@code apiName}, created when missing. */
+    public Behaviour endpoint(String apiName) {
+        return endpoints.computeIfAbsent(apiName, k -> new Behaviour());
+    }
+
+    public int getPort() { return port; }
+    public void setPort(int port) { this.port = port; }
+
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+
+    public Behaviour getDefaults() { return defaults; }
+    public void setDefaults(Behaviour defaults) { this.defaults = defaults; }
+
+    public Map<String, Behaviour> getEndpoints() { return endpoints; }
+    public void setEndpoints(Map<String, Behaviour> endpoints) { this.endpoints = endpoints; }
+
+    /**
+     * Rates are fractions of requests, 0 to 1. A request first may be held as a timeout, then waits
+     * its latency, then is answered with an error, a business failure or success, in that order.
+     * Fields left {@code null} in an {@code endpoints} entry come from {@code defaults}.
+     */
+    public static class Behaviour {
+
+        private LatencyDistribution latencyDistribution;
+
+        private Duration latency;
+
+        /** UNIFORM: upper bound; LOG_NORMAL: 99th percentile. */
+        private Duration latencyHigh;
+
+        /** Answered with {@code error-status} and {@code error-body}. */
+        private Double errorRate;
+
+        /** Requests 1, 1 + n, 1 + 2n, ... get the error; 0 = off. Deterministic, unlike the rate. */
+        private Integer errorEvery;
+
+        private Integer errorStatus;
+
+        private String errorBody;
+
+        /** Answered 200 with the apiName's failure body, e.g. {@code result_code} 102. */
+        private Double failureRate;
+
+        /** Not answered for {@code timeout-hold}, then the connection is closed. */
+        private Double timeoutRate;
+
+        private Duration timeoutHold;
+
+        /** The body is sent in chunks of this many bytes, {@code drip-interval} apart; 0 = at once. */
+        private Integer dripChunkBytes;
+
+        private Duration dripInterval;
+
+        static Behaviour defaults() {
+            Behaviour behaviour = new Behaviour();
+            behaviour.latencyDistribution = LatencyDistribution.FIXED;
+            behaviour.latency = Duration.ZERO;
+            behaviour.latencyHigh = Duration.ZERO;
+            behaviour.errorRate = 0.0;
+            behaviour.errorEvery = 0;
+            behaviour.errorStatus = 503;
+            behaviour.errorBody = "{\"message\":\"stub error\"}";
+            behaviour.failureRate = 0.0;
+            behaviour.timeoutRate = 0.0;
+            behaviour.timeoutHold = Duration.ofSeconds(60);
+            behaviour.dripChunkBytes = 0;
+            behaviour.dripInterval = Duration.ofMillis(100);
+            return behaviour;
+        }
+
+        Behaviour overriddenBy(Behaviour other) {
+            Behaviour merged = new Behaviour();
+            merged.latencyDistribution = other.latencyDistribution != null ? other.latencyDistribution : latencyDistribution;
+            merged.latency = other.latency != null ? other.latency : latency;
+            merged.latencyHigh = other.latencyHigh != null ? other.latencyHigh : latencyHigh;
+            merged.errorRate = other.errorRate != null ? other.errorRate : errorRate;
+            merged.errorEvery = other.errorEvery != null ? other.errorEvery : errorEvery;
+            merged.errorStatus = other.errorStatus != null ? other.errorStatus : errorStatus;
+            merged.errorBody = other.errorBody != null ? other.errorBody : errorBody;
+            merged.failureRate = other.failureRate != null ? other.failureRate : failureRate;
+            merged.timeoutRate = other.timeoutRate != null ? other.timeoutRate : timeoutRate;
+            merged.timeoutHold = other.timeoutHold != null ? other.timeoutHold : timeoutHold;
+            merged.dripChunkBytes = other.dripChunkBytes != null ? other.dripChunkBytes : dripChunkBytes;
+            merged.dripInterval = other.dripInterval != null ? other.dripInterval : dripInterval;
+            return merged;
+        }
+
+        public LatencyDistribution getLatencyDistribution() { return latencyDistribution; }
+        public void setLatencyDistribution(LatencyDistribution latencyDistribution) { this.latencyDistribution = latencyDistribution; }
+
+        public Duration getLatency() { return latency; }
+        public void setLatency(Duration latency) { this.latency = latency; }
+
+        public Duration getLatencyHigh() { return latencyHigh; }
+        public void setLatencyHigh(Duration latencyHigh) { this.latencyHigh = latencyHigh; }
+
+        public Double getErrorRate() { return errorRate; }
+        public void setErrorRate(Double errorRate) { this.errorRate = errorRate; }
+
+        public Integer getErrorEvery() { return errorEvery; }
+        public void setErrorEvery(Integer errorEvery) { this.errorEvery = errorEvery; }
+
+        public Integer getErrorStatus() { return errorStatus; }
+        public void setErrorStatus(Integer errorStatus) { this.errorStatus = errorStatus; }
+
+        public String getErrorBody() { return errorBody; }
+        public void setErrorBody(String errorBody) { this.errorBody = errorBody; }
+
+        public Double getFailureRate() { return failureRate; }
+        public void setFailureRate(Double failureRate) { this.failureRate = failureRate; }
+
+        public Double getTimeoutRate() { return timeoutRate; }
+        public void setTimeoutRate(Double timeoutRate) { this.timeoutRate = timeoutRate; }
+
+        public Duration getTimeoutHold() { return timeoutHold; }
+        public void setTimeoutHold(Duration timeoutHold) { this.timeoutHold = timeoutHold; }
+
+        public Integer getDripChunkBytes() { return dripChunkBytes; }
+        public void setDripChunkBytes(Integer dripChunkBytes) { this.dripChunkBytes = dripChunkBytes; }
+
+        public Duration getDripInterval() { return dripInterval; }
+        public void setDripInterval(Duration dripInterval) { this.dripInterval = dripInterval; }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.transbnk_uat_runner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for the HTTP client used to call TrustHub ({@code transbnk.base-url}).
+ *
+ * <pre>
+ * transbnk.http.engine=POOLED            # SIMPLE | POOLED | HTTP2
+ * transbnk.http.connect-timeout=5s
+ * transbnk.http.read-timeout=30s
+ * transbnk.http.response-timeout=30s
+ * transbnk.http.max-connections=20       # per apiName (POOLED only)
+ * transbnk.http.endpoints.docuflow-create.max-connections=5
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "transbnk.http")
+public class UpstreamHttpProperties {
+
+    public enum Engine {
+        /** JDK {@code HttpURLConnection}, one connection per call. */
+        SIMPLE,
+        /** Apache HttpClient 5, keep-alive pool per apiName. */
+        POOLED,
+        /** JDK {@code HttpClient}, HTTP/2 with HTTP/1.1 fallback. */
+        HTTP2
+    }
+
+    private Engine engine = Engine.POOLED;
+
+    /** TCP connect (and TLS handshake) timeout. */
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /** Max inactivity between two packets of the response. */
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    /** Max wait from request sent until response headers arrive. */
+    private Duration responseTimeout = Duration.ofSeconds(30);
+
+    /** Max wait to lease a connection from a saturated pool. */
+    private Duration poolAcquireTimeout = Duration.ofSeconds(2);
+
+    /** Default pool size for each apiName. */
+    private int maxConnections = 20;
+
+    /** Idle connections older than this are closed by the evictor. */
+    private Duration idleEviction = Duration.ofSeconds(30);
+
+    /** Hard upper bound on the lifetime of a pooled connection. */
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+    /** Re-check a pooled connection before reuse once it was idle this long. */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    public int maxConnectionsFor(String apiName) {
+        Endpoint endpoint = endpoints.get(apiName);
+        if (endpoint == null || endpoint.getMaxConnections() == null || endpoint.getMaxConnections() <= 0) {
+            return maxConnections;
+        }
+        return endpoint.getMaxConnections();
+    }
+
+    public Engine getEngine() { return engine; }
+    public void setEngine(Engine engine) { this.engine = engine; }
+
+    public Duration getConnectTimeout() { return connectTimeout; }
+    public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+
+    public Duration getReadTimeout() { return readTimeout; }
+    public void setReadTimeout(Duration readTimeout) { this.readTimeout = readTimeout; }
+
+    public Duration getResponseTimeout() { return responseTimeout; }
+    public void setResponseTimeout(Duration responseTimeout) { this.responseTimeout = responseTimeout; }
+
+    public Duration getPoolAcquireTimeout() { return poolAcquireTimeout; }
+    public void setPoolAcquireTimeout(Duration poolAcquireTimeout) { this.poolAcquireTimeout = poolAcquireTimeout; }
+
+    public int getMaxConnections() { return maxConnections; }
+    public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+
+    public Duration getIdleEviction() { return idleEviction; }
+    public void setIdleEviction(Duration idleEviction) { this.idleEviction = idleEviction; }
+
+    public Duration getTimeToLive() { return timeToLive; }
+    public void setTimeToLive(Duration timeToLive) { this.timeToLive = timeToLive; }
+
+    public Duration getValidateAfterInactivity() { return validateAfterInactivity; }
+    public void setValidateAfterInactivity(Duration validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+
+    public Map<String, Endpoint> getEndpoints() { return endpoints; }
+    public void setEndpoints(Map<String, Endpoint> endpoints) { this.endpoints = endpoints; }
+
+    public static class Endpoint {
+
+        private Integer maxConnections;
+
+        public Integer getMaxConnections() { return maxConnections; }
+        public void setMaxConnections(Integer maxConnections) { this.maxConnections = maxConnections; }
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.transbnk_uat_runner.controller;
+
+import com.example.transbnk_uat_runner.model.ApiResult;
+import com.example.transbnk_uat_runner.service.ApiRunnerService;
+import com.example.transbnk_uat_runner.service.StageMetrics;
+import com.example.transbnk_uat_runner.wrapper.filter.RequestEnvelope;
+import com.example.transbnk_uat_runner.wrapper.service.WrapperAuditService;
+import com.example.transbnk_uat_runner.wrapper.service.WrapperPayloadCryptoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The request/response rules of {@code POST /api/{apiName}} that do not depend on the web stack:
+ * envelope checks, audit and the optional {@code encData} response. Used by {@link RunController}
+ * and {@link ReactiveRunController}.
+ */
+@Component
+class ApiCallHandler {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(ApiCallHandler.class);
+
+    /** The key of the archived response, for {@code GET /api/v1/archive/responses/{requestId}}. */
+    static final String REQUEST_ID_HEADER = "X-Request-Id";
+    static final String ARCHIVE_ID_HEADER = "X-Archive-Id";
+
+    /** {@code HIT} or {@code MISS} on apiNames answered from the response cache. */
+    static final String CACHE_HEADER = "X-Cache";
+
+    /** The classified outcome, so callers such as a replay need not know each API's status fields. */
+    static final String BUSINESS_STATUS_HEADER = "X-Business-Status";
+
+    private static final byte[] EMPTY_JSON = "{}".getBytes(StandardCharsets.US_ASCII);
+
+    private final ApiRunnerService service;
+    private final WrapperAuditService auditService;
+    private final WrapperPayloadCryptoService payloadCryptoService;
+    private final ObjectMapper objectMapper;
+    private final StageMetrics stageMetrics;
+    private final boolean payloadRequired;
+
+    ApiCallHandler(
+            ApiRunnerService service,
+            WrapperAuditService auditService,
+            WrapperPayloadCryptoService payloadCryptoService,
+            ObjectMapper objectMapper,
+            StageMetrics stageMetrics,
+            @Value("${wrapper.payload-required:false}") boolean payloadRequired
+    ) {
+        this.service = service;
+        this.auditService = auditService;
+        this.payloadCryptoService = payloadCryptoService;
+        this.objectMapper = objectMapper;
+        this.stageMetrics = stageMetrics;
+        this.payloadRequired = payloadRequired;
+    }
+
+    /**
+     * Checks the envelope and resolves the business payload. When the request cannot be run the
+     * returned admission carries the response to send instead.
+     */
+    Admission admit(String apiName, RequestEnvelope envelope) {
+        long admittedAt = System.nanoTime();
+        log.info(" Incoming request | apiName={}", apiName);
+
+        if (envelope.isMalformed()) {
+            ObjectNode error = objectMapper.createObjectNode();
+            error.put("message", "Invalid JSON request body");
+            return Admission.rejected(apiName, ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error));
+        }
+
+        boolean encryptedMode = payloadRequired || envelope.isEncrypted();
+
+        if (!envelope.isEncrypted() && payloadRequired) {
+            ObjectNode error = objectMapper.createObjectNode();
+            error.put("message", "encData is required");
+            return Admission.rejected(apiName,
+                    ResponseEntity.status(HttpStatus.BAD_REQUEST).body(encryptIfNeeded(apiName, error, true)));
+        }
+
+        JsonNode sanitizedBody;
+        long start = System.nanoTime();
+        try {
+            sanitizedBody = envelope.payload();
+        } catch (IllegalArgumentException ex) {
+            ObjectNode error = objectMapper.createObjectNode();
+            error.put("message", "Invalid encrypted request payload");
+            error.put("error", ex.getMessage() == null ? "Bad request" : ex.getMessage());
+            return Admission.rejected(apiName,
+                    ResponseEntity.status(HttpStatus.BAD_REQUEST).body(encryptIfNeeded(apiName, error, true)));
+        } finally {
+            if (envelope.isEncrypted()) {
+                stageMetrics.record(apiName, StageMetrics.DECRYPT, System.nanoTime() - start);
+            }
+        }
+
+        String requestPayload = sanitizedBody == null ? null : sanitizedBody.toString();
+        return new Admission(apiName, sanitizedBody, requestPayload, envelope.requestId(), encryptedMode, admittedAt, null);
+    }
+
+    ResponseEntity<JsonNode> completed(Admission admission, ApiResult result) {
+        int statusCode = result.getStatusCode();
+
+        String auditStatus = (statusCode >= 200 && statusCode < 300) ? "SUCCESS" : "FAILED";
+        JsonNode fullResponseJson = result.getResponse();
+        if (fullResponseJson == null) {
+            fullResponseJson = objectMapper.createObjectNode();
+        }
+
+        JsonNode customizedResponseJson = service.buildCustomizedResponse(admission.apiName(), result);
+        if (customizedResponseJson == null) {
+            customizedResponseJson = objectMapper.createObjectNode();
+        }
+
+        audit(admission.apiName(), admission.requestId(), admission.requestPayload(), fullResponseJson.toString(), auditStatus,
+                admission.elapsedMillis());
+
+        log.info(
+                "Completed | apiName={} | httpStatus={} | businessStatus={}",
+                admission.apiName(),
+                result.getStatusCode(),
+                result.getBusinessStatus()
+        );
+
+        JsonNode outgoing = encryptIfNeeded(admission.apiName(), customizedResponseJson, admission.encryptedMode());
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(statusCode)
+                .header(REQUEST_ID_HEADER, result.getRequestId());
+        if (result.getArchiveId() != null) {
+            response.header(ARCHIVE_ID_HEADER, result.getArchiveId());
+        }
+        if (result.getCache() != null) {
+            response.header(CACHE_HEADER, result.getCache());
+        }
+        if (result.getBusinessStatus() != null) {
+            response.header(BUSINESS_STATUS_HEADER, result.getBusinessStatus());
+        }
+        return response.body(outgoing);
+    }
+
+    ResponseEntity<JsonNode> failed(Admission admission, Throwable ex) {
+        ObjectNode error = objectMapper.createObjectNode();
+        error.put("message", "Failed to run api");
+        error.put("error", ex.getMessage() == null ? "Internal server error" : ex.getMessage());
+
+        audit(admission.apiName(), admission.requestId(), admission.requestPayload(), error.toString(), "ERROR",
+                admission.elapsedMillis());
+
+        HttpStatus status = isUnknownApiName(ex) ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR;
+        JsonNode outgoing = encryptIfNeeded(admission.apiName(), error, admission.encryptedMode());
+        return ResponseEntity.status(status).header(BUSINESS_STATUS_HEADER, "ERROR").body(outgoing);
+    }
+
+    /**
+     * @param latencyMs time since admission, {@code null} when there is none of its own (batch items)
+     */
+    void audit(String apiName, String requestId, String requestPayload, String responsePayload, String status,
+               Long latencyMs) {
+        long start = System.nanoTime();
+        auditService.writeAudit(apiName, requestId, requestPayload, responsePayload, status, latencyMs);
+        stageMetrics.record(apiName, StageMetrics.AUDIT, System.nanoTime() - start);
+    }
+
+    JsonNode encryptIfNeeded(String apiName, JsonNode plainJson, boolean encryptedMode) {
+        if (!encryptedMode) {
+            return plainJson;
+        }
+
+        long start = System.nanoTime();
+        try {
+            byte[] plain = plainJson == null ? EMPTY_JSON : objectMapper.writeValueAsBytes(plainJson);
+            byte[] encrypted = payloadCryptoService.encryptPayload(plain);
+            ObjectNode envelope = objectMapper.createObjectNode();
+            envelope.put("encData", new String(encrypted, StandardCharsets.US_ASCII));
+            return envelope;
+        } catch (Exception ex) {
+            ObjectNode fallback = objectMapper.createObjectNode();
+            fallback.put("message", "Failed to encrypt response");
+            return fallback;
+        } finally {
+            stageMetrics.record(apiName, StageMetrics.ENCRYPT, System.nanoTime() - start);
+        }
+    }
+
+    static boolean isUnknownApiName(Throwable ex) {
+        if (ex == null || ex.getMessage() == null) {
+            return false;
+        }
+        return ex.getMessage().startsWith("Unknown apiName:");
+    }
+
+    /**
+     * @param rejection response to send without running the API, {@code null} when admitted
+     */
+    record Admission(
+            String apiName,
+            JsonNode payload,
+            String requestPayload,
+            String requestId,
+            boolean encryptedMode,
+            long admittedAt,
+            ResponseEntity<JsonNode> rejection
+    ) {
+
+        static Admission rejected(String apiName, ResponseEntity<JsonNode> rejection) {
+            return new Admission(apiName, null, null, null, false, 0, rejection);
+        }
+
+        boolean isRejected() {
+            return rejection != null;
+        }
+
+        long elapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - admittedAt);
+        }
+    }
+}
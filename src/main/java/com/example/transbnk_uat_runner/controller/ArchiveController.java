@@ -0,0 +1,48 @@
+package com.example.transbnk_uat_runner.controller;
+
+import com.example.transbnk_uat_runner.service.ResponseArchive;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * {@code GET /api/v1/archive/responses/{archiveId}}: the archived TrustHub response of an earlier
+ * call, keyed by the {@code X-Archive-Id} it was answered with. The id is generated by the server,
+ * so one client cannot read or replace another's records by reusing its requestId.
+ */
+@RestController
+@RequestMapping("/api/v1/archive")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ArchiveController {
+
+    private final ResponseArchive archive;
+    private final ObjectMapper objectMapper;
+
+    public ArchiveController(ResponseArchive archive, ObjectMapper objectMapper) {
+        this.archive = archive;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping(value = "/responses/{archiveId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<JsonNode> find(@PathVariable String archiveId) {
+        return toResponse(archive, objectMapper, archiveId);
+    }
+
+    static ResponseEntity<JsonNode> toResponse(ResponseArchive archive, ObjectMapper objectMapper, String archiveId) {
+        return archive.find(archiveId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> {
+                    ObjectNode error = objectMapper.createObjectNode();
+                    error.put("message", "No archived response for archiveId");
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+                });
+    }
+}
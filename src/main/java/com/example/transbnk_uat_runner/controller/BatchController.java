@@ -0,0 +1,232 @@
+package com.example.transbnk_uat_runner.controller;
+
+import com.example.transbnk_uat_runner.config.BatchProperties;
+import com.example.transbnk_uat_runner.model.ApiResult;
+import com.example.transbnk_uat_runner.service.ApiRunnerService;
+import com.example.transbnk_uat_runner.service.BatchRunnerService;
+import com.example.transbnk_uat_runner.service.BatchRunnerService.BatchItem;
+import com.example.transbnk_uat_runner.service.BatchRunnerService.ItemResult;
+import com.example.transbnk_uat_runner.wrapper.filter.RequestEnvelope;
+import com.example.transbnk_uat_runner.wrapper.service.WrapperPayloadCryptoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code POST /api/batch}: several TrustHub calls behind one token check and one envelope.
+ *
+ * <pre>
+ * {"items": [
+ *     {"apiName": "vpa-validation", "body": {...}},
+ *     {"apiName": "bank-account-validation", "body": {...}}
+ * ]}
+ * </pre>
+ * The body may also be sent as {@code encData}. By default the response lists the results in
+ * input order. With {@code Accept: application/x-ndjson} each result is written as its own line
+ * as soon as it completes; lines are individually encrypted when the request was.
+ */
+@RestController
+@RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BatchController {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(BatchController.class);
+
+    private static final String BATCH = "batch";
+
+    private final BatchRunnerService batchRunner;
+    private final ApiRunnerService apiRunnerService;
+    private final ApiCallHandler callHandler;
+    private final WrapperPayloadCryptoService payloadCryptoService;
+    private final ObjectMapper objectMapper;
+    private final BatchProperties properties;
+
+    public BatchController(
+            BatchRunnerService batchRunner,
+            ApiRunnerService apiRunnerService,
+            ApiCallHandler callHandler,
+            WrapperPayloadCryptoService payloadCryptoService,
+            ObjectMapper objectMapper,
+            BatchProperties properties
+    ) {
+        this.batchRunner = batchRunner;
+        this.apiRunnerService = apiRunnerService;
+        this.callHandler = callHandler;
+        this.payloadCryptoService = payloadCryptoService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    @PostMapping(value = "/" + BATCH, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<JsonNode> run(HttpServletRequest httpRequest) throws IOException {
+        AcceptedBatch batch = accept(httpRequest);
+        if (batch.rejection() != null) {
+            return batch.rejection();
+        }
+
+        ArrayNode results = objectMapper.createArrayNode();
+        for (ItemResult itemResult : batchRunner.runAll(batch.items())) {
+            results.add(toJson(batch, itemResult));
+        }
+
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("requestId", batch.admission().requestId());
+        response.set("items", results);
+        return ResponseEntity.ok(callHandler.encryptIfNeeded(BATCH, response, batch.admission().encryptedMode()));
+    }
+
+    @PostMapping(value = "/" + BATCH, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream(HttpServletRequest httpRequest) throws IOException {
+        AcceptedBatch batch = accept(httpRequest);
+        if (batch.rejection() != null) {
+            byte[] rejection = objectMapper.writeValueAsBytes(batch.rejection().getBody());
+            return ResponseEntity.status(batch.rejection().getStatusCode())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> out.write(rejection));
+        }
+
+        StreamingResponseBody body = out -> batchRunner.run(batch.items(), itemResult -> {
+            JsonNode line = callHandler.encryptIfNeeded(BATCH, toJson(batch, itemResult), batch.admission().encryptedMode());
+            try {
+                out.write(objectMapper.writeValueAsBytes(line));
+                out.write('\n');
+                out.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to stream batch result", ex);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private AcceptedBatch accept(HttpServletRequest httpRequest) throws IOException {
+        RequestEnvelope envelope = RequestEnvelope.from(httpRequest, objectMapper, payloadCryptoService);
+
+        ApiCallHandler.Admission admission = callHandler.admit(BATCH, envelope);
+        if (admission.isRejected()) {
+            return new AcceptedBatch(admission, null, null, admission.rejection());
+        }
+
+        List<String> itemPayloads = new ArrayList<>();
+        try {
+            List<BatchItem> items = parseItems(admission.payload(), itemPayloads);
+            log.info(" Batch accepted | requestId={} | items={}", admission.requestId(), items.size());
+            return new AcceptedBatch(admission, items, itemPayloads, null);
+        } catch (IllegalArgumentException ex) {
+            ObjectNode error = objectMapper.createObjectNode();
+            error.put("message", "Invalid batch request");
+            error.put("error", ex.getMessage());
+            return new AcceptedBatch(admission, null, null, ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(callHandler.encryptIfNeeded(BATCH, error, admission.encryptedMode())));
+        }
+    }
+
+    private List<BatchItem> parseItems(JsonNode payload, List<String> itemPayloads) {
+        JsonNode items = payload == null ? null : payload.get("items");
+        if (items == null || !items.isArray() || items.isEmpty()) {
+            throw new IllegalArgumentException("items must be a non-empty array");
+        }
+        if (items.size() > properties.getMaxItems()) {
+            throw new IllegalArgumentException("At most " + properties.getMaxItems() + " items per batch");
+        }
+
+        List<BatchItem> parsed = new ArrayList<>(items.size());
+        for (int index = 0; index < items.size(); index++) {
+            JsonNode item = items.get(index);
+            JsonNode apiName = item.get("apiName");
+            if (apiName == null || !apiName.isTextual() || apiName.asText().isBlank()) {
+                throw new IllegalArgumentException("items[" + index + "].apiName is required");
+            }
+
+            JsonNode body = item.get("body");
+            if (body != null && body.isNull()) {
+                body = null;
+            }
+            parsed.add(new BatchItem(apiName.asText(), body));
+            itemPayloads.add(body == null ? null : body.toString());
+        }
+        return parsed;
+    }
+
+    /**
+     * One result entry; also writes the item's audit row as {@code <requestId>#<index>}.
+     */
+    private ObjectNode toJson(AcceptedBatch batch, ItemResult itemResult) {
+        ObjectNode out = objectMapper.createObjectNode();
+        out.put("index", itemResult.index());
+        out.put("apiName", itemResult.apiName());
+
+        String auditStatus;
+        if (itemResult.result() != null) {
+            ApiResult result = itemResult.result();
+            out.put("requestId", result.getRequestId());
+            if (result.getArchiveId() != null) {
+                out.put("archiveId", result.getArchiveId());
+            }
+            out.put("statusCode", result.getStatusCode());
+            out.put("businessStatus", result.getBusinessStatus());
+            if (result.getCache() != null) {
+                out.put("cache", result.getCache());
+            }
+            out.set("response", apiRunnerService.buildCustomizedResponse(itemResult.apiName(), result));
+            auditStatus = result.getStatusCode() >= 200 && result.getStatusCode() < 300 ? "SUCCESS" : "FAILED";
+        } else if (itemResult.timedOut()) {
+            out.put("statusCode", HttpStatus.GATEWAY_TIMEOUT.value());
+            out.put("businessStatus", "TIMEOUT");
+            out.put("message", "Timed out after " + properties.timeoutFor(itemResult.apiName()));
+            auditStatus = "TIMEOUT";
+        } else {
+            Throwable error = itemResult.error();
+            HttpStatus status = ApiCallHandler.isUnknownApiName(error)
+                    ? HttpStatus.BAD_REQUEST
+                    : HttpStatus.INTERNAL_SERVER_ERROR;
+            out.put("statusCode", status.value());
+            out.put("businessStatus", "ERROR");
+            out.put("message", "Failed to run api");
+            out.put("error", error.getMessage() == null ? "Internal server error" : error.getMessage());
+            auditStatus = "ERROR";
+        }
+
+        JsonNode fullResponse = itemResult.result() != null && itemResult.result().getResponse() != null
+                ? itemResult.result().getResponse()
+                : out;
+        callHandler.audit(
+                itemResult.apiName(),
+                batch.admission().requestId() + "#" + itemResult.index(),
+                batch.itemPayloads().get(itemResult.index()),
+                fullResponse.toString(),
+                auditStatus,
+                null
+        );
+        return out;
+    }
+
+    /**
+     * @param itemPayloads request JSON per item, captured before defaults are added, for the audit
+     * @param rejection    response to send instead of running the batch
+     */
+    private record AcceptedBatch(
+            ApiCallHandler.Admission admission,
+            List<BatchItem> items,
+            List<String> itemPayloads,
+            ResponseEntity<JsonNode> rejection
+    ) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.transbnk_uat_runner.controller;
+
+import com.example.transbnk_uat_runner.service.UpstreamGuard;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/circuitbreakers} shows the breaker state, failure and slow-call rates and
+ * bulkhead occupancy of every apiName called so far; {@code GET /actuator/circuitbreakers/{apiName}}
+ * shows one. {@code POST /actuator/circuitbreakers/{apiName}} closes that circuit and needs
+ * {@code wrapper.admin-token}. Needs {@code circuitbreakers} in
+ * {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "circuitbreakers")
+public class CircuitBreakerEndpoint {
+
+    private final UpstreamGuard guard;
+
+    public CircuitBreakerEndpoint(UpstreamGuard guard) {
+        this.guard = guard;
+    }
+
+    @ReadOperation
+    public Map<String, UpstreamGuard.Snapshot> all() {
+        return guard.snapshot();
+    }
+
+    @ReadOperation
+    public UpstreamGuard.Snapshot one(@Selector String apiName) {
+        return guard.snapshot().get(apiName);
+    }
+
+    @WriteOperation
+    public UpstreamGuard.Snapshot reset(@Selector String apiName) {
+        guard.reset(apiName);
+        return guard.snapshot().get(apiName);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.transbnk_uat_runner.controller;
+
+import com.example.transbnk_uat_runner.service.ResponseArchive;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * {@link ArchiveController} for the reactive stack; the segment read runs on the blocking scheduler.
+ */
+@RestController
+@RequestMapping("/api/v1/archive")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveArchiveController {
+
+    private final ResponseArchive archive;
+    private final ObjectMapper objectMapper;
+    private final Scheduler blockingScheduler;
+
+    public ReactiveArchiveController(ResponseArchive archive, ObjectMapper objectMapper, Scheduler blockingScheduler) {
+        this.archive = archive;
+        this.objectMapper = objectMapper;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    @GetMapping(value = "/responses/{archiveId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<JsonNode>> find(@PathVariable String archiveId) {
+        return Mono.fromCallable(() -> ArchiveController.toResponse(archive, objectMapper, archiveId))
+                .subscribeOn(blockingScheduler);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.transbnk_uat_runner.controller;
+
+import com.example.transbnk_uat_runner.service.ReactiveApiRunnerService;
+import com.example.transbnk_uat_runner.wrapper.filter.RequestEnvelope;
+import com.example.transbnk_uat_runner.wrapper.service.WrapperPayloadCryptoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * {@link RunController} for the reactive stack. No thread is held while TrustHub is answering;
+ * audit and persistence run on the blocking scheduler.
+ */
+@RestController
+@RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRunController {
+
+    private final ReactiveApiRunnerService service;
+    private final ApiCallHandler callHandler;
+    private final WrapperPayloadCryptoService payloadCryptoService;
+    private final ObjectMapper objectMapper;
+    private final Scheduler blockingScheduler;
+
+    public ReactiveRunController(
+            ReactiveApiRunnerService service,
+            ApiCallHandler callHandler,
+            WrapperPayloadCryptoService payloadCryptoService,
+            ObjectMapper objectMapper,
+            Scheduler blockingScheduler
+    ) {
+        this.service = service;
+        this.callHandler = callHandler;
+        this.payloadCryptoService = payloadCryptoService;
+        this.objectMapper = objectMapper;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    @PostMapping(value = "/{apiName}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<JsonNode>> run(@PathVariable String apiName, ServerWebExchange exchange) {
+        return RequestEnvelope.from(exchange, objectMapper, payloadCryptoService).flatMap(envelope -> {
+            ApiCallHandler.Admission admission = callHandler.admit(apiName, envelope);
+            if (admission.isRejected()) {
+                return Mono.just(admission.rejection());
+            }
+
+            return service.runApi(apiName, admission.payload())
+                    .map(result -> callHandler.completed(admission, result))
+                    .onErrorResume(ex -> Mono.fromCallable(() -> callHandler.failed(admission, ex))
+                            .subscribeOn(blockingScheduler));
+        });
+    }
+}
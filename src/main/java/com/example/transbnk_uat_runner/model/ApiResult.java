@@ -5,15 +5,24 @@ import com.fasterxml.jackson.databind.JsonNode;
 public class ApiResult {
 
     private String apiName;
+    private String requestId;        // the request's requestId / request_id, or a generated UUID
+    private String archiveId;        // server-generated archive key, null when not archived
     private int statusCode;          // HTTP status
     private String statusCategory;   // SUCCESS / CLIENT_ERROR / SERVER_ERROR
     private String businessStatus;   // SUCCESS / FAILED / NO_RECORD / HTTP_ERROR
     private JsonNode request;
     private JsonNode response;
+    private String cache;            // HIT / MISS, null when the apiName is not cached
 
     public String getApiName() { return apiName; }
     public void setApiName(String apiName) { this.apiName = apiName; }
 
+    public String getRequestId() { return requestId; }
+    public void setRequestId(String requestId) { this.requestId = requestId; }
+
+    public String getArchiveId() { return archiveId; }
+    public void setArchiveId(String archiveId) { this.archiveId = archiveId; }
+
     public int getStatusCode() { return statusCode; }
     public void setStatusCode(int statusCode) { this.statusCode = statusCode; }
 
@@ -32,4 +41,7 @@ public class ApiResult {
 
     public JsonNode getResponse() { return response; }
     public void setResponse(JsonNode response) { this.response = response; }
+
+    public String getCache() { return cache; }
+    public void setCache(String cache) { this.cache = cache; }
 }
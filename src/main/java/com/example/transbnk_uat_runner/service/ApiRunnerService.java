@@ -7,16 +7,19 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.*;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
 
-import java.io.File;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 public class ApiRunnerService {
@@ -39,15 +42,43 @@ public class ApiRunnerService {
     @Value("${transbnk.nach-program-id:${transbnk.program-id}}")
     private String nachProgramId;
 
-    private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper mapper = new ObjectMapper();
     private final JdbcTemplate jdbcTemplate;
+    private final UpstreamCaller upstreamCaller;
+    private final RequestTemplateRegistry templateRegistry;
+    private final BusinessStatusClassifier businessStatusClassifier;
+    private final ResponseArchive responseArchive;
+    private final ResponseCache responseCache;
+    private final RequestCoalescer requestCoalescer;
+    private final StageMetrics stageMetrics;
 
     private static final Logger log =
             LoggerFactory.getLogger(ApiRunnerService.class);
 
-    public ApiRunnerService(JdbcTemplate jdbcTemplate) {
+    /** Ids TrustHub gave the upstream transaction a cached answer came from; not this call's. */
+    /** apiName to TrustHub path; the one list of the APIs this runner can call. */
+    private static final Map<String, String> ENDPOINTS = endpoints();
+
+    private static final List<String> UPSTREAM_TRANSACTION_FIELDS = List.of("responseId", "utr", "referenceNo");
+
+    public ApiRunnerService(
+            JdbcTemplate jdbcTemplate,
+            UpstreamCaller upstreamCaller,
+            RequestTemplateRegistry templateRegistry,
+            BusinessStatusClassifier businessStatusClassifier,
+            ResponseArchive responseArchive,
+            ResponseCache responseCache,
+            RequestCoalescer requestCoalescer,
+            StageMetrics stageMetrics
+    ) {
         this.jdbcTemplate = jdbcTemplate;
+        this.upstreamCaller = upstreamCaller;
+        this.templateRegistry = templateRegistry;
+        this.businessStatusClassifier = businessStatusClassifier;
+        this.responseArchive = responseArchive;
+        this.responseCache = responseCache;
+        this.requestCoalescer = requestCoalescer;
+        this.stageMetrics = stageMetrics;
     }
 
     // ================= MAIN METHOD =================
@@ -56,12 +87,64 @@ public class ApiRunnerService {
     }
 
     public ApiResult runApi(String apiName, JsonNode incomingRequest) throws Exception {
+        return runApi(apiName, incomingRequest, false);
+    }
+
+    /**
+     * @param requestOwned true when the caller hands over {@code incomingRequest} and will not read
+     *                     it again, so defaults may be added in place instead of on a copy
+     */
+    public ApiResult runApi(String apiName, JsonNode incomingRequest, boolean requestOwned) throws Exception {
+
+        PreparedCall call = prepare(apiName, incomingRequest, requestOwned);
+
+        Optional<ApiResult> cached = cached(call);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        String flightKey = requestCoalescer.keyFor(apiName, call.requestJson());
+        if (flightKey == null) {
+            return callUpstream(call);
+        }
+        return requestCoalescer.join(apiName, flightKey, () -> callUpstream(call), shared -> forFollower(call, shared));
+    }
+
+    private ApiResult callUpstream(PreparedCall call) throws Exception {
+        String apiName = call.apiName();
+
+        UpstreamCaller.Answer answer;
+        try {
+            answer = upstreamCaller.call(call);
+        } catch (UpstreamGuard.RejectedException ex) {
+            ApiResult rejected = rejected(call, ex);
+            cache(call, rejected);
+            record(call, rejected);
+            return rejected;
+        }
+
+        ApiResult result = complete(call, answer.statusCode(), answer.body());
+        stageMetrics.recordUpstream(apiName, answer.statusCode(), result.getBusinessStatus(), answer.elapsedNanos());
+
+        cache(call, result);
+        record(call, result);
+        return result;
+    }
+
+    /**
+     * Builds everything needed for the upstream call without sending it, so the servlet and the
+     * reactive runner share the request side.
+     */
+    public PreparedCall prepare(String apiName, JsonNode incomingRequest, boolean requestOwned) throws Exception {
 
         log.info(" Running API: {}", apiName);
 
-        RequestPayload requestPayload = buildRequestPayload(apiName, incomingRequest);
+        long start = System.nanoTime();
+        RequestPayload requestPayload = buildRequestPayload(apiName, incomingRequest, requestOwned);
 
-        log.debug(" Request body: {}", requestPayload.body());
+        if (log.isDebugEnabled()) {
+            log.debug(" Request body: {}", new String(requestPayload.body(), StandardCharsets.UTF_8));
+        }
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -69,51 +152,135 @@ public class ApiRunnerService {
 
         log.debug(" Headers: {}", headers);
 
-        HttpEntity<String> request = new HttpEntity<>(requestPayload.body(), headers);
-
-        ApiResult result = new ApiResult();
-        result.setApiName(apiName);
-        result.setRequest(requestPayload.json());
         String endpointPath = endpoint(apiName);
-        String url = baseUrl + endpointPath;
+        String requestId = firstNonBlank(
+                jsonText(requestPayload.json(), "requestId"),
+                jsonText(requestPayload.json(), "request_id")
+        );
+        String cacheKey = responseCache.keyFor(apiName, requestPayload.json());
+        stageMetrics.record(apiName, StageMetrics.TEMPLATE_BUILD, System.nanoTime() - start);
+        return new PreparedCall(
+                apiName,
+                requestId == null ? UUID.randomUUID().toString() : requestId,
+                UUID.randomUUID().toString(),
+                endpointPath,
+                baseUrl + endpointPath,
+                headers,
+                requestPayload.json(),
+                requestPayload.body(),
+                cacheKey
+        );
+    }
 
-        try {
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.POST,
-                    request,
-                    String.class
-            );
+    /**
+     * The cached answer for {@code call}, marked {@link ResponseCache#HIT}; empty when the apiName is
+     * not cached or nothing fresh is held for the request's key fields.
+     *
+     * <p>The stored body is that of an earlier call. Its requestId is replaced with this call's and
+     * the upstream transaction ids ({@code responseId}, {@code utr}, {@code referenceNo}) are
+     * dropped. A hit is not {@link #record recorded}: no TrustHub call was made, so there is no
+     * validation log row and nothing to archive.
+     */
+    public Optional<ApiResult> cached(PreparedCall call) throws Exception {
+        if (call.cacheKey() == null) {
+            return Optional.empty();
+        }
+        Optional<ResponseCache.Hit> hit = responseCache.get(call.apiName(), call.cacheKey());
+        if (hit.isEmpty()) {
+            return Optional.empty();
+        }
 
-            int httpStatus = response.getStatusCode().value();
-            result.setStatusCode(httpStatus);
-            classifyHttpStatus(httpStatus, result);
+        ApiResult result = new ApiResult();
+        result.setApiName(call.apiName());
+        result.setRequestId(call.requestId());
+        result.setRequest(call.requestJson());
+        result.setStatusCode(hit.get().statusCode());
+        classifyHttpStatus(result.getStatusCode(), result);
+        result.setBusinessStatus(hit.get().businessStatus());
+        result.setResponse(forThisCall(mapper.readTree(hit.get().body()), call.requestId()));
+        result.setCache(ResponseCache.HIT);
+
+        log.info(" Cache hit | apiName={} | businessStatus={}", call.apiName(), result.getBusinessStatus());
+        return Optional.of(result);
+    }
 
-            String responseBody =
-                    response.getBody() == null ? "{}" : response.getBody();
+    /**
+     * The result of a call coalesced with {@code call}, for {@code call}'s caller. Like a cache
+     * hit it carries this call's requestId and none of the ids that belong to the call that was
+     * actually sent: no {@code archiveId}, {@code responseId}, {@code utr} or {@code referenceNo}.
+     */
+    public ApiResult forFollower(PreparedCall call, ApiResult shared) {
+        ApiResult result = new ApiResult();
+        result.setApiName(call.apiName());
+        result.setRequestId(call.requestId());
+        result.setRequest(call.requestJson());
+        result.setStatusCode(shared.getStatusCode());
+        result.setStatusCategory(shared.getStatusCategory());
+        result.setBusinessStatus(shared.getBusinessStatus());
+        result.setResponse(shared.getResponse() == null ? null : forThisCall(shared.getResponse().deepCopy(), call.requestId()));
+        result.setCache(shared.getCache());
+        return result;
+    }
 
-            result.setResponse(mapper.readTree(responseBody));
-            classifyBusinessStatus(responseBody, result);
+    private static JsonNode forThisCall(JsonNode sharedResponse, String requestId) {
+        if (!(sharedResponse instanceof ObjectNode response)) {
+            return sharedResponse;
+        }
+        response.remove(UPSTREAM_TRANSACTION_FIELDS);
+        for (String field : List.of("requestId", "request_id")) {
+            if (response.has(field)) {
+                response.put(field, requestId);
+            }
+        }
+        return response;
+    }
 
-            log.info(" HTTP {} | {}", httpStatus, apiName);
-            log.debug(" Response body: {}", responseBody);
+    /**
+     * Marks the result of a cacheable call {@link ResponseCache#MISS} and keeps it when it is a
+     * 2xx {@code SUCCESS}.
+     */
+    public void cache(PreparedCall call, ApiResult result) throws Exception {
+        if (call.cacheKey() == null) {
+            return;
+        }
+        result.setCache(ResponseCache.MISS);
+        if (ResponseCache.isCacheable(result.getStatusCode(), result.getBusinessStatus()) && result.getResponse() != null) {
+            responseCache.put(call.apiName(), call.cacheKey(), result.getStatusCode(), result.getBusinessStatus(),
+                    mapper.writeValueAsBytes(result.getResponse()));
+        }
+    }
 
-        } catch (HttpStatusCodeException ex) {
+    /**
+     * Classifies the upstream answer. A status of 400 or above is treated the way
+     * {@link HttpStatusCodeException} was: {@code HTTP_ERROR} with the error body kept as is.
+     */
+    public ApiResult complete(PreparedCall call, int httpStatus, String responseBody) throws Exception {
+        String apiName = call.apiName();
 
-            int httpStatus = ex.getStatusCode().value();
-            result.setStatusCode(httpStatus);
-            classifyHttpStatus(httpStatus, result);
+        ApiResult result = new ApiResult();
+        result.setApiName(apiName);
+        result.setRequestId(call.requestId());
+        result.setRequest(call.requestJson());
+        result.setStatusCode(httpStatus);
+        classifyHttpStatus(httpStatus, result);
 
-            String errorBody =
-                    ex.getResponseBodyAsString() == null
-                            ? "{}"
-                            : ex.getResponseBodyAsString();
+        if (httpStatus >= 400) {
+            String errorBody = responseBody == null ? "{}" : responseBody;
 
             result.setResponse(mapper.readTree(errorBody));
             result.setBusinessStatus("HTTP_ERROR");
 
             log.error(" HTTP {} | {}", httpStatus, apiName);
             log.error(" Error body: {}", errorBody);
+        } else {
+            String body = responseBody == null ? "{}" : responseBody;
+
+            JsonNode responseJson = mapper.readTree(body);
+            result.setResponse(responseJson);
+            result.setBusinessStatus(businessStatusClassifier.classify(apiName, responseJson));
+
+            log.info(" HTTP {} | {}", httpStatus, apiName);
+            log.debug(" Response body: {}", body);
         }
 
         log.info(
@@ -122,36 +289,83 @@ public class ApiRunnerService {
             result.getStatusCategory(),
             result.getBusinessStatus()
         );
+        return result;
+    }
 
-        saveToDatabase(apiName, endpointPath, url, result);
-        save(apiName, result);
+    /**
+     * The answer for a call that {@link UpstreamGuard} did not let through: 503 with the rejection
+     * reason ({@code CIRCUIT_OPEN} / {@code BULKHEAD_FULL}) as businessStatus.
+     */
+    public ApiResult rejected(PreparedCall call, UpstreamGuard.RejectedException ex) {
+        ApiResult result = new ApiResult();
+        result.setApiName(call.apiName());
+        result.setRequestId(call.requestId());
+        result.setRequest(call.requestJson());
+        result.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE.value());
+        classifyHttpStatus(result.getStatusCode(), result);
+        result.setBusinessStatus(ex.reason());
+
+        ObjectNode response = mapper.createObjectNode();
+        response.put("message", ex.getMessage());
+        response.put("businessStatus", ex.reason());
+        result.setResponse(response);
+
+        log.warn(" Upstream call rejected | apiName={} | reason={}", call.apiName(), ex.reason());
         return result;
     }
 
-    private RequestPayload buildRequestPayload(String apiName, JsonNode incomingRequest) throws Exception {
-        if (incomingRequest == null || incomingRequest.isNull()) {
-            ClassPathResource resource =
-                    new ClassPathResource("api-requests/" + apiName + ".json");
+    /**
+     * Writes the validation log row, which blocks, so reactive callers run this off the event
+     * loop, and queues the response for the archive.
+     */
+    public void record(PreparedCall call, ApiResult result) throws Exception {
+        saveToDatabase(call.apiName(), call.endpointPath(), call.url(), result);
+
+        long start = System.nanoTime();
+        archive(call, result);
+        stageMetrics.record(call.apiName(), StageMetrics.ARCHIVE, System.nanoTime() - start);
+    }
 
-            InputStream is = resource.getInputStream();
-            String body = new String(is.readAllBytes(), StandardCharsets.UTF_8)
-                    .replace("{{entityId}}", entityId)
-                    .replace("{{programId}}", programId)
-                    .replace("{{nachProgramId}}", nachProgramId);
+    /**
+     * @param requestId the request's {@code requestId} / {@code request_id}, or a generated UUID
+     * @param archiveId generated for every call; the key of the archived response, as the
+     *                  client-supplied requestId can be reused or guessed by another client
+     * @param cacheKey  see {@link ResponseCache#keyFor}; {@code null} when the call is not cached
+     */
+    public record PreparedCall(
+            String apiName,
+            String requestId,
+            String archiveId,
+            String endpointPath,
+            String url,
+            HttpHeaders headers,
+            JsonNode requestJson,
+            byte[] body,
+            String cacheKey
+    ) {
+    }
 
-            return new RequestPayload(mapper.readTree(body), body);
+    private RequestPayload buildRequestPayload(
+            String apiName,
+            JsonNode incomingRequest,
+            boolean requestOwned
+    ) throws Exception {
+        if (incomingRequest == null || incomingRequest.isNull()) {
+            RequestTemplateRegistry.RenderedTemplate template = templateRegistry.find(apiName)
+                    .orElseThrow(() -> new IllegalStateException("No request template for apiName: " + apiName));
+            return new RequestPayload(template.json(), template.body());
         }
 
-        JsonNode prepared = applyDefaults(incomingRequest);
-        return new RequestPayload(prepared, mapper.writeValueAsString(prepared));
+        JsonNode prepared = applyDefaults(incomingRequest, requestOwned);
+        return new RequestPayload(prepared, mapper.writeValueAsBytes(prepared));
     }
 
-    private JsonNode applyDefaults(JsonNode incomingRequest) {
+    private JsonNode applyDefaults(JsonNode incomingRequest, boolean requestOwned) {
         if (!(incomingRequest instanceof ObjectNode objectNode)) {
             return incomingRequest;
         }
 
-        ObjectNode copy = objectNode.deepCopy();
+        ObjectNode copy = requestOwned ? objectNode : objectNode.deepCopy();
         putIfMissing(copy, "entityId", entityId);
         putIfMissing(copy, "programId", programId);
         putIfMissing(copy, "nachProgramId", nachProgramId);
@@ -169,7 +383,7 @@ public class ApiRunnerService {
         }
     }
 
-    private record RequestPayload(JsonNode json, String body) {
+    private record RequestPayload(JsonNode json, byte[] body) {
     }
 
     // ================= HELPERS =================
@@ -185,72 +399,29 @@ public class ApiRunnerService {
         }
     }
 
-    private void classifyBusinessStatus(String body, ApiResult result)
-            throws Exception {
-
-        if (body == null || body.isBlank()) {
-            result.setBusinessStatus("EMPTY_RESPONSE");
-            return;
-        }
-
-        JsonNode json = mapper.readTree(body);
-
-        if (json.has("result_code")) {
-            int code = json.get("result_code").asInt();
-            if (code == 101) {
-                result.setBusinessStatus("SUCCESS");
-            } else if (code == 102 || code == 103) {
-                result.setBusinessStatus("NO_RECORD");
-            } else {
-                result.setBusinessStatus("FAILED");
-            }
-            return;
-        }
-
-        if (json.has("statuscode")) {
-            int sc = json.get("statuscode").asInt();
-            result.setBusinessStatus(sc == 200 ? "SUCCESS" : "FAILED");
-            return;
-        }
-
-        if (json.has("status")) {
-            result.setBusinessStatus(json.get("status").asText());
-            return;
-        }
-
-        result.setBusinessStatus("UNKNOWN");
-    }
-
-    private void save(String apiName, ApiResult result) throws Exception {
+    private void archive(PreparedCall call, ApiResult result) {
         if (result == null) {
             return;
         }
+        String apiName = call.apiName();
 
         int statusCode = result.getStatusCode();
         if (statusCode < 200 || statusCode >= 300) {
-            log.info(" Response file not saved (non-2xx) | apiName={} httpStatus={}", apiName, statusCode);
+            log.info(" Response not archived (non-2xx) | apiName={} httpStatus={}", apiName, statusCode);
             return;
         }
 
         if ("bank-account-validation".equals(apiName)) {
             JsonNode responseJson = result.getResponse();
             if (responseJson == null || !(responseJson.hasNonNull("statusCode") || responseJson.hasNonNull("status_code"))) {
-                log.info(" Response file not saved (missing statusCode) | apiName={} httpStatus={}", apiName, statusCode);
+                log.info(" Response not archived (missing statusCode) | apiName={} httpStatus={}", apiName, statusCode);
                 return;
             }
         }
 
-        File dir = new File("responses");
-        if (!dir.exists()) {
-            dir.mkdirs();
-            log.info(" Created responses directory");
+        if (responseArchive.append(call.archiveId(), result.getRequestId(), apiName, buildCustomizedResponse(apiName, result))) {
+            result.setArchiveId(call.archiveId());
         }
-
-        File file = new File(dir, apiName + "-response.json");
-        JsonNode customized = buildCustomizedResponse(apiName, result);
-        mapper.writerWithDefaultPrettyPrinter().writeValue(file, customized);
-
-        log.info(" Response saved: {}", file.getAbsolutePath());
     }
 
     public JsonNode buildCustomizedResponse(String apiName, ApiResult result) {
@@ -387,6 +558,7 @@ public class ApiRunnerService {
                 )
                 """;
 
+        long start = System.nanoTime();
         try {
             JsonNode requestJson = result.getRequest();
             JsonNode responseJson = result.getResponse();
@@ -421,6 +593,8 @@ public class ApiRunnerService {
             log.info(" DB saved | apiName={}", apiName);
         } catch (Exception e) {
             log.error(" DB save failed | apiName={}", apiName, e);
+        } finally {
+            stageMetrics.record(apiName, StageMetrics.DB_LOG, System.nanoTime() - start);
         }
     }
 
@@ -438,26 +612,43 @@ public class ApiRunnerService {
         return value.toString();
     }
 
-    private String endpoint(String apiName) {
-        return switch (apiName) {
-            case "aadhaar-validation" -> "/basic-aadhaar-validation";
-            case "bank-account-validation" -> "/validate-acct-3";
-            case "vpa-validation" -> "/vpa-lookup";
+    /** Whether {@code apiName} is one of the TrustHub APIs this runner can call. */
+    public static boolean supports(String apiName) {
+        return apiName != null && ENDPOINTS.containsKey(apiName);
+    }
+
+    /** Every apiName this runner can call, in a fixed order. */
+    public static Set<String> apiNames() {
+        return ENDPOINTS.keySet();
+    }
+
+    /** TrustHub path of {@code apiName}, relative to {@code transbnk.base-url}. */
+    public static String endpoint(String apiName) {
+        String path = apiName == null ? null : ENDPOINTS.get(apiName);
+        if (path == null) {
+            throw new RuntimeException("Unknown apiName: " + apiName);
+        }
+        return path;
+    }
 
-            case "docuflow-create" -> "/docuflow-1call";
-            case "docuflow-status" -> "/docuflow-status";
-            case "docuflow-resend" -> "/docuflow-resend-link";
-            case "docuflow-cancel" -> "/docuflow-cancel";
+    private static Map<String, String> endpoints() {
+        Map<String, String> endpoints = new LinkedHashMap<>();
+        endpoints.put("aadhaar-validation", "/basic-aadhaar-validation");
+        endpoints.put("bank-account-validation", "/validate-acct-3");
+        endpoints.put("vpa-validation", "/vpa-lookup");
 
-            case "nach-mandate-create" -> "/nach-mandate-request";
-            case "nach-status" -> "/nach-mandate-status";
+        endpoints.put("docuflow-create", "/docuflow-1call");
+        endpoints.put("docuflow-status", "/docuflow-status");
+        endpoints.put("docuflow-resend", "/docuflow-resend-link");
+        endpoints.put("docuflow-cancel", "/docuflow-cancel");
 
-            case "upi-validate-vpa" -> "/upiap-validate-vpa";
-            case "upi-mandate-create" -> "/upiap-mandate-request";
+        endpoints.put("nach-mandate-create", "/nach-mandate-request");
+        endpoints.put("nach-status", "/nach-mandate-status");
 
-            case "payout-create" -> "/bank-payout";
+        endpoints.put("upi-validate-vpa", "/upiap-validate-vpa");
+        endpoints.put("upi-mandate-create", "/upiap-mandate-request");
 
-            default -> throw new RuntimeException("Unknown apiName: " + apiName);
-        };
+        endpoints.put("payout-create", "/bank-payout");
+        return Collections.unmodifiableMap(endpoints);
     }
 }
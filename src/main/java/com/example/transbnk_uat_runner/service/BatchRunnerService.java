@@ -0,0 +1,192 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.BatchProperties;
+import com.example.transbnk_uat_runner.config.ExecutorFactory;
+import com.example.transbnk_uat_runner.model.ApiResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Runs several {@link ApiRunnerService#runApi} calls concurrently.
+ *
+ * <p>Each apiName has a semaphore shared by all batches, so a batch of ten {@code docuflow-create}
+ * items cannot take every upstream connection. An item that has not finished within its timeout
+ * (counted from the start of the batch, queueing included) is reported as timed out and its
+ * worker is interrupted; a late upstream answer is discarded.
+ */
+@Service
+public class BatchRunnerService {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(BatchRunnerService.class);
+
+    private final ApiRunnerService apiRunnerService;
+    private final BatchProperties properties;
+    private final ExecutorService executor;
+
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    public BatchRunnerService(
+            ApiRunnerService apiRunnerService,
+            BatchProperties properties,
+            ExecutorFactory executorFactory
+    ) {
+        this.apiRunnerService = apiRunnerService;
+        this.properties = properties;
+        this.executor = executorFactory.newExecutor("batch-runner", properties.getThreads());
+    }
+
+    /**
+     * Results in input order, once every item has finished or timed out.
+     */
+    public List<ItemResult> runAll(List<BatchItem> items) {
+        ItemResult[] results = new ItemResult[items.size()];
+        run(items, result -> results[result.index()] = result);
+        return List.of(results);
+    }
+
+    /**
+     * Hands each result to {@code onResult} as soon as it is known, on the calling thread.
+     */
+    public void run(List<BatchItem> items, Consumer<ItemResult> onResult) {
+        long startNanos = System.nanoTime();
+        CompletionService<ItemResult> completions = new ExecutorCompletionService<>(executor);
+        Map<Future<ItemResult>, Pending> pending = new IdentityHashMap<>();
+
+        for (int index = 0; index < items.size(); index++) {
+            BatchItem item = items.get(index);
+            long deadline = startNanos + properties.timeoutFor(item.apiName()).toNanos();
+            int itemIndex = index;
+            Future<ItemResult> future = completions.submit(() -> runItem(itemIndex, item, deadline));
+            pending.put(future, new Pending(itemIndex, item.apiName(), deadline));
+        }
+
+        try {
+            while (!pending.isEmpty()) {
+                long waitNanos = nearestDeadline(pending) - System.nanoTime();
+                Future<ItemResult> done = waitNanos > 0 ? completions.poll(waitNanos, TimeUnit.NANOSECONDS) : completions.poll();
+
+                if (done != null) {
+                    Pending finished = pending.remove(done);
+                    if (finished != null) {
+                        onResult.accept(resultOf(done, finished));
+                    }
+                    continue;
+                }
+
+                long now = System.nanoTime();
+                List<Future<ItemResult>> expired = new ArrayList<>();
+                pending.forEach((future, item) -> {
+                    if (item.deadline() - now <= 0) {
+                        expired.add(future);
+                    }
+                });
+                for (Future<ItemResult> future : expired) {
+                    Pending timedOut = pending.remove(future);
+                    future.cancel(true);
+                    log.warn(" Batch item timed out | index={} apiName={}", timedOut.index(), timedOut.apiName());
+                    onResult.accept(ItemResult.timedOut(timedOut.index(), timedOut.apiName()));
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            pending.forEach((future, item) -> {
+                future.cancel(true);
+                onResult.accept(ItemResult.failed(item.index(), item.apiName(), ex));
+            });
+        }
+    }
+
+    private ItemResult runItem(int index, BatchItem item, long deadlineNanos) throws Exception {
+        if (!ApiRunnerService.supports(item.apiName())) {
+            // fails with the usual "Unknown apiName" error without creating a semaphore for it
+            return ItemResult.completed(index, item.apiName(), apiRunnerService.runApi(item.apiName(), item.body(), true));
+        }
+
+        Semaphore semaphore = permits.computeIfAbsent(
+                item.apiName(),
+                apiName -> new Semaphore(properties.maxConcurrentFor(apiName))
+        );
+
+        if (!semaphore.tryAcquire(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("No free slot for apiName: " + item.apiName());
+        }
+        try {
+            ApiResult result = apiRunnerService.runApi(item.apiName(), item.body(), true);
+            return ItemResult.completed(index, item.apiName(), result);
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    private static ItemResult resultOf(Future<ItemResult> done, Pending item) {
+        try {
+            return done.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause() == null ? ex : ex.getCause();
+            if (cause instanceof TimeoutException) {
+                return ItemResult.timedOut(item.index(), item.apiName());
+            }
+            return ItemResult.failed(item.index(), item.apiName(), cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return ItemResult.failed(item.index(), item.apiName(), ex);
+        }
+    }
+
+    private static long nearestDeadline(Map<Future<ItemResult>, Pending> pending) {
+        long nearest = Long.MAX_VALUE;
+        boolean first = true;
+        for (Pending item : pending.values()) {
+            if (first || item.deadline() - nearest < 0) {
+                nearest = item.deadline();
+                first = false;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * @param body owned by the batch; {@code null} runs the apiName's request template
+     */
+    public record BatchItem(String apiName, JsonNode body) {
+    }
+
+    /**
+     * Exactly one of {@code result} and {@code error} is set unless the item timed out.
+     */
+    public record ItemResult(int index, String apiName, ApiResult result, Throwable error, boolean timedOut) {
+
+        static ItemResult completed(int index, String apiName, ApiResult result) {
+            return new ItemResult(index, apiName, result, null, false);
+        }
+
+        static ItemResult failed(int index, String apiName, Throwable error) {
+            return new ItemResult(index, apiName, null, error, false);
+        }
+
+        static ItemResult timedOut(int index, String apiName) {
+            return new ItemResult(index, apiName, null, null, true);
+        }
+    }
+
+    private record Pending(int index, String apiName, long deadline) {
+    }
+}
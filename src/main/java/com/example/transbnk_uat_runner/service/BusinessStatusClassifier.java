@@ -0,0 +1,99 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps an already parsed TrustHub response to a {@code businessStatus}.
+ *
+ * <p>Each apiName has an ordered list of rules; the first rule whose field is present in the
+ * response decides the status. The built-in rules are:
+ * <ul>
+ *     <li>{@code result_code} - 101 SUCCESS, 102/103 NO_RECORD, anything else FAILED</li>
+ *     <li>{@code statuscode} - 200 SUCCESS, anything else FAILED</li>
+ *     <li>{@code status} - the value itself</li>
+ * </ul>
+ * The order can be changed per API, e.g.
+ * {@code transbnk.business-status.docuflow-status=statuscode,status}.
+ */
+@Component
+public class BusinessStatusClassifier {
+
+    public static final String EMPTY_RESPONSE = "EMPTY_RESPONSE";
+    public static final String UNKNOWN = "UNKNOWN";
+
+    private static final Map<String, StatusRule> RULES = Map.of(
+            "result_code", new StatusRule("result_code", Map.of(
+                    101, "SUCCESS",
+                    102, "NO_RECORD",
+                    103, "NO_RECORD"
+            ), "FAILED"),
+            "statuscode", new StatusRule("statuscode", Map.of(200, "SUCCESS"), "FAILED"),
+            "status", new StatusRule("status", null, null)
+    );
+
+    private static final List<StatusRule> DEFAULT_RULES = List.of(
+            RULES.get("result_code"),
+            RULES.get("statuscode"),
+            RULES.get("status")
+    );
+
+    private final Map<String, List<StatusRule>> rulesByApi = new LinkedHashMap<>();
+
+    public BusinessStatusClassifier(Environment environment) {
+        for (String apiName : ApiRunnerService.apiNames()) {
+            String configured = environment.getProperty("transbnk.business-status." + apiName);
+            rulesByApi.put(apiName, configured == null || configured.isBlank()
+                    ? DEFAULT_RULES
+                    : parseRules(apiName, configured));
+        }
+    }
+
+    public String classify(String apiName, JsonNode response) {
+        if (response == null || response.isMissingNode()) {
+            return EMPTY_RESPONSE;
+        }
+
+        for (StatusRule rule : rulesByApi.getOrDefault(apiName, DEFAULT_RULES)) {
+            JsonNode value = response.get(rule.field());
+            if (value != null) {
+                return rule.apply(value);
+            }
+        }
+
+        return UNKNOWN;
+    }
+
+    private static List<StatusRule> parseRules(String apiName, String configured) {
+        List<StatusRule> rules = new ArrayList<>();
+        for (String name : configured.split(",")) {
+            StatusRule rule = RULES.get(name.trim());
+            if (rule == null) {
+                throw new IllegalStateException(
+                        "Unknown business-status rule '" + name.trim() + "' for apiName " + apiName
+                                + " (expected one of " + RULES.keySet() + ")");
+            }
+            rules.add(rule);
+        }
+        return List.copyOf(rules);
+    }
+
+    /**
+     * Numeric rule when {@code codes} is set, otherwise the field's text is the status.
+     */
+    private record StatusRule(String field, Map<Integer, String> codes, String otherwise) {
+
+        String apply(JsonNode value) {
+            if (codes == null) {
+                return value.asText();
+            }
+            return codes.getOrDefault(value.asInt(), otherwise);
+        }
+    }
+}
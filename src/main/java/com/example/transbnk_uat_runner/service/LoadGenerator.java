@@ -0,0 +1,194 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ExecutorFactory;
+import com.example.transbnk_uat_runner.model.ApiResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives {@link ApiRunnerService#runApi} with a fixed workload for a fixed time and reports on it,
+ * see {@link LoadReport}. The items are sent round-robin; an item without a body uses the apiName's
+ * request template.
+ *
+ * <p>With {@code rps} set the run is open-loop: request {@code i} is due at {@code start + i / rps}
+ * whether or not earlier ones have answered, and its latency is measured from that due time, so a
+ * stall shows up in the percentiles instead of slowing the load down. At most {@code concurrency}
+ * requests are in flight; a due request that finds none free is counted as
+ * {@link LoadReport#NOT_SENT}. Without {@code rps}, {@code concurrency} workers send back to back.
+ */
+@Service
+public class LoadGenerator {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(LoadGenerator.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ApiRunnerService apiRunnerService;
+    private final ExecutorFactory executorFactory;
+
+    public LoadGenerator(ApiRunnerService apiRunnerService, ExecutorFactory executorFactory) {
+        this.apiRunnerService = apiRunnerService;
+        this.executorFactory = executorFactory;
+    }
+
+    public LoadReport run(LoadPlan plan) throws InterruptedException {
+        if (plan.items().isEmpty()) {
+            throw new IllegalArgumentException("Nothing to send: no apiNames and no bodies");
+        }
+        int concurrency = Math.max(1, plan.concurrency());
+        String mode = plan.rps() > 0 ? "open-loop" : "closed-loop";
+        log.info(" Load run starting | mode={} | rps={} | concurrency={} | duration={} | items={}",
+                mode, plan.rps(), concurrency, plan.duration(), plan.items().size());
+
+        Recorder recorder = new Recorder();
+        ExecutorService executor = executorFactory.newExecutor("load", concurrency);
+        long start = System.nanoTime();
+        long deadline = start + plan.duration().toNanos();
+        try {
+            if (plan.rps() > 0) {
+                openLoop(plan, concurrency, executor, recorder, start, deadline);
+            } else {
+                closedLoop(plan, concurrency, executor, recorder, deadline);
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(plan.drainTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                log.warn(" Load run: requests still in flight after {}, not counted", plan.drainTimeout());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        LoadReport report = new LoadReport(mode, plan.rps(), concurrency, plan.duration(), elapsed,
+                recorder.total, recorder.apis);
+        log.info(" Load run finished | requests={} | failed={} | throughput={} rps",
+                report.requests(), report.failures(), String.format("%.1f", report.throughput()));
+        return report;
+    }
+
+    private void openLoop(LoadPlan plan, int concurrency, ExecutorService executor, Recorder recorder,
+                          long start, long deadline) {
+        long interval = (long) (1_000_000_000.0 / plan.rps());
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        for (long i = 0; ; i++) {
+            long due = start + i * interval;
+            if (due - deadline >= 0) {
+                return;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+
+            BatchRunnerService.BatchItem item = plan.items().get((int) (i % plan.items().size()));
+            if (!inFlight.tryAcquire()) {
+                recorder.record(item.apiName(), LoadReport.NOT_SENT, "CONCURRENCY_LIMIT", -1);
+                continue;
+            }
+            executor.execute(() -> {
+                try {
+                    send(item, due, recorder);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    private void closedLoop(LoadPlan plan, int concurrency, ExecutorService executor, Recorder recorder,
+                            long deadline) {
+        AtomicLong next = new AtomicLong();
+        for (int worker = 0; worker < concurrency; worker++) {
+            executor.execute(() -> {
+                while (System.nanoTime() - deadline < 0 && !Thread.currentThread().isInterrupted()) {
+                    BatchRunnerService.BatchItem item = plan.items().get((int) (next.getAndIncrement() % plan.items().size()));
+                    send(item, System.nanoTime(), recorder);
+                }
+            });
+        }
+    }
+
+    private void send(BatchRunnerService.BatchItem item, long startedAt, Recorder recorder) {
+        try {
+            JsonNode body = item.body() == null ? null : item.body().deepCopy();
+            ApiResult result = apiRunnerService.runApi(item.apiName(), body, true);
+            recorder.record(item.apiName(), result.getStatusCategory(), result.getBusinessStatus(), System.nanoTime() - startedAt);
+        } catch (Exception ex) {
+            recorder.record(item.apiName(), LoadReport.EXCEPTION, ex.getClass().getSimpleName(), -1);
+            log.debug(" Load request failed | apiName={}", item.apiName(), ex);
+        }
+    }
+
+    /**
+     * Reads {@code {"apiName":"vpa-validation","body":{...}}} per line, the shape of a
+     * {@code POST /api/batch} item. Blank lines are skipped.
+     */
+    public static List<BatchRunnerService.BatchItem> readItems(Path file) throws IOException {
+        List<BatchRunnerService.BatchItem> items = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = MAPPER.readTree(line);
+                String apiName = node.path("apiName").asText("");
+                if (apiName.isBlank()) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": apiName is required");
+                }
+                JsonNode body = node.get("body");
+                items.add(new BatchRunnerService.BatchItem(apiName, body == null || body.isNull() ? null : body));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * @param rps 0 for back-to-back requests on {@code concurrency} workers
+     */
+    public record LoadPlan(
+            List<BatchRunnerService.BatchItem> items,
+            double rps,
+            int concurrency,
+            Duration duration,
+            Duration drainTimeout
+    ) {
+    }
+
+    private static final class Recorder {
+
+        private final LoadReport.Stats total = new LoadReport.Stats();
+        private final Map<String, LoadReport.Stats> apis = new ConcurrentHashMap<>();
+
+        void record(String apiName, String statusCategory, String businessStatus, long latencyNanos) {
+            total.record(statusCategory, businessStatus, latencyNanos);
+            apis.computeIfAbsent(apiName, k -> new LoadReport.Stats()).record(statusCategory, businessStatus, latencyNanos);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome of a {@link LoadGenerator} run: latency percentiles, throughput and the
+ * {@code statusCategory} / {@code businessStatus} breakdown, in total and per apiName.
+ *
+ * <p>Latencies are kept in microseconds in HdrHistograms with three significant digits. Requests
+ * that were never sent (concurrency limit reached at a fixed rate) or that threw are counted in
+ * the breakdown as {@code NOT_SENT} / {@code EXCEPTION} but have no latency.
+ */
+public class LoadReport {
+
+    public static final String NOT_SENT = "NOT_SENT";
+    public static final String EXCEPTION = "EXCEPTION";
+
+    private static final String TOTAL = "TOTAL";
+
+    private final String mode;
+    private final double targetRps;
+    private final int concurrency;
+    private final Duration duration;
+    private final Duration elapsed;
+    private final Stats total;
+    private final Map<String, Stats> apis;
+
+    LoadReport(String mode, double targetRps, int concurrency, Duration duration, Duration elapsed,
+               Stats total, Map<String, Stats> apis) {
+        this.mode = mode;
+        this.targetRps = targetRps;
+        this.concurrency = concurrency;
+        this.duration = duration;
+        this.elapsed = elapsed;
+        this.total = total;
+        this.apis = new TreeMap<>(apis);
+    }
+
+    public long requests() {
+        return total.requests();
+    }
+
+    /** Completed requests per second, not-sent ones excluded. */
+    public double throughput() {
+        return total.throughput(elapsed);
+    }
+
+    /** Requests that did not end with statusCategory and businessStatus {@code SUCCESS}. */
+    public long failures() {
+        return total.failures();
+    }
+
+    public Histogram latency(String apiName) {
+        Stats stats = apiName == null ? total : apis.get(apiName);
+        return stats == null ? new Histogram(3) : stats.latency;
+    }
+
+    public Map<String, Long> outcomes(String apiName) {
+        Stats stats = apiName == null ? total : apis.get(apiName);
+        return stats == null ? Map.of() : stats.outcomes();
+    }
+
+    public ObjectNode toJson(ObjectMapper mapper) {
+        ObjectNode out = mapper.createObjectNode();
+        out.put("mode", mode);
+        if (targetRps > 0) {
+            out.put("targetRps", targetRps);
+        }
+        out.put("concurrency", concurrency);
+        out.put("durationSeconds", duration.toMillis() / 1000.0);
+        out.put("elapsedSeconds", elapsed.toMillis() / 1000.0);
+        out.set("total", total.toJson(mapper, elapsed));
+
+        ObjectNode perApi = out.putObject("apis");
+        apis.forEach((apiName, stats) -> perApi.set(apiName, stats.toJson(mapper, elapsed)));
+        return out;
+    }
+
+    /**
+     * Fixed-width summary: one latency line per apiName plus the total, then the non-success
+     * outcomes.
+     */
+    public String toTable() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "Load run: %s, %s, concurrency %d, %.1fs%n",
+                mode, targetRps > 0 ? String.format(Locale.ROOT, "%.1f rps target", targetRps) : "no rate limit",
+                concurrency, elapsed.toMillis() / 1000.0));
+        out.append(String.format(Locale.ROOT, "%-26s %9s %9s %9s %9s %9s %9s %9s %9s %9s%n",
+                "api", "requests", "failed", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "mean ms"));
+        apis.forEach((apiName, stats) -> row(out, apiName, stats));
+        row(out, TOTAL, total);
+
+        boolean header = false;
+        for (Map.Entry<String, Stats> api : apis.entrySet()) {
+            for (Map.Entry<String, Long> outcome : api.getValue().outcomes().entrySet()) {
+                if (outcome.getKey().equals("SUCCESS/SUCCESS")) {
+                    continue;
+                }
+                if (!header) {
+                    out.append(String.format(Locale.ROOT, "%nFailures (statusCategory/businessStatus)%n"));
+                    header = true;
+                }
+                out.append(String.format(Locale.ROOT, "%-26s %-40s %9d%n", api.getKey(), outcome.getKey(), outcome.getValue()));
+            }
+        }
+        return out.toString();
+    }
+
+    private void row(StringBuilder out, String name, Stats stats) {
+        Histogram latency = stats.latency;
+        out.append(String.format(Locale.ROOT, "%-26s %9d %9d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                name,
+                stats.requests(),
+                stats.failures(),
+                stats.throughput(elapsed),
+                millis(latency.getValueAtPercentile(50)),
+                millis(latency.getValueAtPercentile(90)),
+                millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMaxValue()),
+                latency.getTotalCount() == 0 ? 0 : latency.getMean() / 1000.0));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * Latencies and outcome counts of one apiName, or of the whole run; safe to record into from
+     * several threads.
+     */
+    static final class Stats {
+
+        private final ConcurrentHistogram latency = new ConcurrentHistogram(3);
+        private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+        void record(String statusCategory, String businessStatus, long latencyNanos) {
+            if (latencyNanos >= 0) {
+                latency.recordValue(Math.max(1, latencyNanos / 1_000));
+            }
+            String outcome = (statusCategory == null ? "UNKNOWN" : statusCategory)
+                    + '/' + (businessStatus == null ? "UNKNOWN" : businessStatus);
+            outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+        }
+
+        long requests() {
+            return outcomes.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        long failures() {
+            return requests() - outcomes().getOrDefault("SUCCESS/SUCCESS", 0L);
+        }
+
+        double throughput(Duration elapsed) {
+            long nanos = Math.max(1, elapsed.toNanos());
+            return latency.getTotalCount() * 1_000_000_000.0 / nanos;
+        }
+
+        Map<String, Long> outcomes() {
+            Map<String, Long> counts = new TreeMap<>();
+            outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+            return counts;
+        }
+
+        ObjectNode toJson(ObjectMapper mapper, Duration elapsed) {
+            ObjectNode out = mapper.createObjectNode();
+            out.put("requests", requests());
+            out.put("completed", latency.getTotalCount());
+            out.put("failed", failures());
+            out.put("throughputRps", throughput(elapsed));
+
+            ObjectNode latencyMs = out.putObject("latencyMs");
+            latencyMs.put("min", millis(latency.getTotalCount() == 0 ? 0 : latency.getMinValue()));
+            latencyMs.put("mean", latency.getTotalCount() == 0 ? 0 : latency.getMean() / 1000.0);
+            latencyMs.put("p50", millis(latency.getValueAtPercentile(50)));
+            latencyMs.put("p75", millis(latency.getValueAtPercentile(75)));
+            latencyMs.put("p90", millis(latency.getValueAtPercentile(90)));
+            latencyMs.put("p95", millis(latency.getValueAtPercentile(95)));
+            latencyMs.put("p99", millis(latency.getValueAtPercentile(99)));
+            latencyMs.put("p999", millis(latency.getValueAtPercentile(99.9)));
+            latencyMs.put("max", millis(latency.getMaxValue()));
+
+            ObjectNode statusCategory = out.putObject("statusCategory");
+            ObjectNode businessStatus = out.putObject("businessStatus");
+            outcomes().forEach((outcome, count) -> {
+                int slash = outcome.indexOf('/');
+                String category = outcome.substring(0, slash);
+                String business = outcome.substring(slash + 1);
+                statusCategory.put(category, statusCategory.path(category).asLong() + count);
+                businessStatus.put(business, businessStatus.path(business).asLong() + count);
+            });
+            return out;
+        }
+    }
+}
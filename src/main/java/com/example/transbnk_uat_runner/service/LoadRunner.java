@@ -0,0 +1,110 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.LoadProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Runs {@link LoadGenerator} once at startup with {@code --spring.profiles.active=load}, logs the
+ * summary table, writes the JSON report to {@code transbnk.load.report-file} and stops the
+ * application. The exit code is 1 when any request failed.
+ *
+ * <p>Without {@code transbnk.load.apis} only the read-only templates are used. Any other apiName,
+ * such as {@code payout-create} or {@code docuflow-cancel}, is refused unless
+ * {@code transbnk.load.allow-non-idempotent=true}.
+ */
+@Component
+@Profile("load")
+public class LoadRunner implements ApplicationRunner {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(LoadRunner.class);
+
+    private final LoadProperties properties;
+    private final LoadGenerator loadGenerator;
+    private final RequestTemplateRegistry templateRegistry;
+    private final ConfigurableApplicationContext context;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public LoadRunner(
+            LoadProperties properties,
+            LoadGenerator loadGenerator,
+            RequestTemplateRegistry templateRegistry,
+            ConfigurableApplicationContext context
+    ) {
+        this.properties = properties;
+        this.loadGenerator = loadGenerator;
+        this.templateRegistry = templateRegistry;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<BatchRunnerService.BatchItem> items = items();
+        log.warn(" Load run sends synthetic traffic to transbnk.base-url; it is logged to bank_account_validation_log"
+                + " and archived like real calls | apiNames={} | allowNonIdempotent={}",
+                new TreeSet<>(items.stream().map(BatchRunnerService.BatchItem::apiName).toList()),
+                properties.isAllowNonIdempotent());
+        LoadGenerator.LoadPlan plan = new LoadGenerator.LoadPlan(
+                items,
+                properties.getRps(),
+                properties.getConcurrency(),
+                properties.getDuration(),
+                properties.getDrainTimeout()
+        );
+        LoadReport report = loadGenerator.run(plan);
+
+        log.info(" Load report\n{}", report.toTable());
+        Path reportFile = Path.of(properties.getReportFile());
+        Files.writeString(reportFile, mapper.writerWithDefaultPrettyPrinter().writeValueAsString(report.toJson(mapper)));
+        log.info(" Load report written | file={}", reportFile.toAbsolutePath());
+
+        if (properties.isExitWhenDone()) {
+            int exitCode = SpringApplication.exit(context, () -> report.failures() == 0 ? 0 : 1);
+            System.exit(exitCode);
+        }
+    }
+
+    private List<BatchRunnerService.BatchItem> items() throws Exception {
+        String bodiesFile = properties.getBodiesFile();
+        if (bodiesFile != null && !bodiesFile.isBlank()) {
+            List<BatchRunnerService.BatchItem> items = LoadGenerator.readItems(Path.of(bodiesFile));
+            items.forEach(item -> checkRepeatable(item.apiName()));
+            return items;
+        }
+
+        List<String> apiNames = properties.getApis().isEmpty()
+                ? new TreeSet<>(templateRegistry.apiNames()).stream()
+                        .filter(UpstreamRetryPolicy::isReadOnly)
+                        .toList()
+                : properties.getApis();
+        for (String apiName : apiNames) {
+            if (templateRegistry.find(apiName).isEmpty()) {
+                throw new IllegalArgumentException("No request template for apiName: " + apiName);
+            }
+            checkRepeatable(apiName);
+        }
+        return apiNames.stream()
+                .map(apiName -> new BatchRunnerService.BatchItem(apiName, null))
+                .toList();
+    }
+
+    private void checkRepeatable(String apiName) {
+        if (!UpstreamRetryPolicy.isReadOnly(apiName) && !properties.isAllowNonIdempotent()) {
+            throw new IllegalArgumentException("Refusing to load-test non-idempotent apiName " + apiName
+                    + "; set transbnk.load.allow-non-idempotent=true to send it anyway");
+        }
+    }
+}
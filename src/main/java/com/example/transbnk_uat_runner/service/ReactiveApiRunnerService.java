@@ -0,0 +1,202 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.model.ApiResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Reactive form of {@link ApiRunnerService#runApi(String, JsonNode, boolean)}: the same request
+ * building and classification, with the upstream call on {@link ReactiveUpstreamClient} and the
+ * result persisted on the blocking scheduler.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveApiRunnerService {
+
+    private final ApiRunnerService apiRunnerService;
+    private final ReactiveUpstreamClient upstreamClient;
+    private final Scheduler blockingScheduler;
+    private final StageMetrics stageMetrics;
+    private final UpstreamGuard upstreamGuard;
+    private final UpstreamRetryPolicy retryPolicy;
+    private final RequestCoalescer requestCoalescer;
+
+    public ReactiveApiRunnerService(
+            ApiRunnerService apiRunnerService,
+            ReactiveUpstreamClient upstreamClient,
+            Scheduler blockingScheduler,
+            StageMetrics stageMetrics,
+            UpstreamGuard upstreamGuard,
+            UpstreamRetryPolicy retryPolicy,
+            RequestCoalescer requestCoalescer
+    ) {
+        this.apiRunnerService = apiRunnerService;
+        this.upstreamClient = upstreamClient;
+        this.blockingScheduler = blockingScheduler;
+        this.stageMetrics = stageMetrics;
+        this.upstreamGuard = upstreamGuard;
+        this.retryPolicy = retryPolicy;
+        this.requestCoalescer = requestCoalescer;
+    }
+
+    /**
+     * @param incomingRequest owned by the call; defaults are added to it in place
+     */
+    public Mono<ApiResult> runApi(String apiName, JsonNode incomingRequest) {
+        return Mono.fromCallable(() -> apiRunnerService.prepare(apiName, incomingRequest, true))
+                .flatMap(call -> Mono.fromCallable(() -> apiRunnerService.cached(call).orElse(null))
+                        .switchIfEmpty(Mono.defer(() -> {
+                            String flightKey = requestCoalescer.keyFor(apiName, call.requestJson());
+                            return flightKey == null
+                                    ? call(call)
+                                    : requestCoalescer.join(apiName, flightKey, () -> call(call),
+                                            shared -> apiRunnerService.forFollower(call, shared));
+                        })));
+    }
+
+    /**
+     * The upstream call for a cache miss: classified, kept in the cache when successful and
+     * recorded.
+     */
+    private Mono<ApiResult> call(ApiRunnerService.PreparedCall call) {
+        return exchange(call)
+                .flatMap(answer -> Mono.fromCallable(() -> {
+                    ApiResult result = apiRunnerService.complete(call, answer.statusCode(), answer.body());
+                    stageMetrics.recordUpstream(call.apiName(), answer.statusCode(), result.getBusinessStatus(), answer.elapsedNanos());
+                    return result;
+                }))
+                .onErrorResume(UpstreamGuard.RejectedException.class,
+                        ex -> Mono.just(apiRunnerService.rejected(call, ex)))
+                .flatMap(result -> Mono.fromCallable(() -> {
+                    apiRunnerService.cache(call, result);
+                    return result;
+                }))
+                .flatMap(result -> record(call, result));
+    }
+
+    private Mono<ApiResult> record(ApiRunnerService.PreparedCall call, ApiResult result) {
+        return Mono.fromCallable(() -> {
+            apiRunnerService.record(call, result);
+            return result;
+        }).subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Same rules as {@link UpstreamCaller#call}: retries with backoff for idempotent apiNames, each
+     * attempt possibly hedged.
+     */
+    private Mono<UpstreamCaller.Answer> exchange(ApiRunnerService.PreparedCall call) {
+        String apiName = call.apiName();
+        int maxAttempts = retryPolicy.maxAttempts(apiName);
+        if (maxAttempts <= 1) {
+            return hedged(call);
+        }
+
+        return Mono.defer(() -> hedged(call))
+                .flatMap(answer -> retryPolicy.isRetryable(answer.statusCode())
+                        ? Mono.<UpstreamCaller.Answer>error(new RetryableAnswer(answer))
+                        : Mono.just(answer))
+                .retryWhen(Retry.max(maxAttempts - 1)
+                        .filter(ex -> ex instanceof RetryableAnswer || retryPolicy.isRetryable(ex))
+                        .doBeforeRetryAsync(signal -> {
+                            if (signal.failure() instanceof RetryableAnswer retryable) {
+                                stageMetrics.recordUpstream(apiName, retryable.answer.statusCode(), "RETRIED", retryable.answer.elapsedNanos());
+                            }
+                            retryPolicy.retried(apiName);
+                            return Mono.delay(retryPolicy.backoff((int) signal.totalRetries() + 1)).then();
+                        })
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .onErrorResume(RetryableAnswer.class, ex -> Mono.just(ex.answer));
+    }
+
+    /**
+     * One attempt, plus a second one when the first has not answered within the hedge delay; the
+     * first answer wins and the other attempt is cancelled.
+     */
+    private Mono<UpstreamCaller.Answer> hedged(ApiRunnerService.PreparedCall call) {
+        String apiName = call.apiName();
+        Mono<UpstreamCaller.Answer> primary = acquire(apiName).flatMap(permit -> send(call, permit));
+
+        Optional<Duration> delay = retryPolicy.hedgeDelay(apiName);
+        if (delay.isEmpty()) {
+            return primary;
+        }
+
+        Mono<UpstreamCaller.Answer> hedge = Mono.delay(delay.get())
+                .flatMap(tick -> tryAcquire(apiName))
+                .flatMap(permit -> {
+                    retryPolicy.hedged(apiName, "sent");
+                    return send(call, permit).doOnNext(answer -> retryPolicy.hedged(apiName, "won"));
+                });
+        return Mono.firstWithValue(primary, hedge)
+                .onErrorMap(NoSuchElementException.class,
+                        ex -> ex.getSuppressed().length > 0 ? ex.getSuppressed()[0] : ex);
+    }
+
+    /**
+     * A free bulkhead slot is taken on the calling thread; waiting for one is blocking and happens
+     * on the blocking scheduler.
+     */
+    private Mono<UpstreamGuard.Permit> acquire(String apiName) {
+        return Mono.defer(() -> upstreamGuard.tryAcquire(apiName)
+                .map(Mono::just)
+                .orElseGet(() -> Mono.fromCallable(() -> upstreamGuard.acquire(apiName))
+                        .subscribeOn(blockingScheduler)));
+    }
+
+    /**
+     * A slot for a hedge, never waited for; empty when none is free or the circuit is not closed.
+     */
+    private Mono<UpstreamGuard.Permit> tryAcquire(String apiName) {
+        return Mono.fromSupplier(() -> {
+            try {
+                return upstreamGuard.tryAcquire(apiName).orElse(null);
+            } catch (UpstreamGuard.RejectedException ex) {
+                return null;
+            }
+        });
+    }
+
+    private Mono<UpstreamCaller.Answer> send(ApiRunnerService.PreparedCall call, UpstreamGuard.Permit permit) {
+        String apiName = call.apiName();
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return upstreamClient.post(apiName, call.url(), call.headers(), call.body())
+                    .doOnError(ex -> {
+                        long elapsed = System.nanoTime() - start;
+                        permit.release(0, elapsed);
+                        stageMetrics.recordUpstream(apiName, 0, "ERROR", elapsed);
+                    })
+                    .doOnCancel(permit::cancel)
+                    .map(response -> {
+                        long elapsed = System.nanoTime() - start;
+                        permit.release(response.statusCode(), elapsed);
+                        if (!retryPolicy.isRetryable(response.statusCode())) {
+                            retryPolicy.recordLatency(apiName, elapsed);
+                        }
+                        return new UpstreamCaller.Answer(response.statusCode(), response.body(), elapsed);
+                    });
+        });
+    }
+
+    /**
+     * Carries a 5xx answer through {@code retryWhen}; handed back as is once retries run out.
+     */
+    private static final class RetryableAnswer extends RuntimeException {
+
+        private final UpstreamCaller.Answer answer;
+
+        RetryableAnswer(UpstreamCaller.Answer answer) {
+            super("HTTP " + answer.statusCode(), null, false, false);
+            this.answer = answer;
+        }
+    }
+}
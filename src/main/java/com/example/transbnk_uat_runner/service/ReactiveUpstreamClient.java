@@ -0,0 +1,100 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.UpstreamHttpProperties;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Non-blocking counterpart of {@link UpstreamHttpClient} on Reactor Netty. A call waiting for
+ * TrustHub holds a pooled connection but no thread.
+ *
+ * <p>Like the {@code POOLED} engine, each apiName gets its own connection pool sized by
+ * {@code transbnk.http.max-connections} / {@code transbnk.http.endpoints.<api>.max-connections}.
+ * Calls beyond that wait up to {@code pool-acquire-timeout} for a connection. With
+ * {@code engine=HTTP2} the client offers HTTP/2 and falls back to HTTP/1.1.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUpstreamClient implements DisposableBean {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(ReactiveUpstreamClient.class);
+
+    private final UpstreamHttpProperties properties;
+    private final WebClient.Builder webClientBuilder;
+
+    private final Map<String, PooledEndpoint> endpoints = new ConcurrentHashMap<>();
+
+    public ReactiveUpstreamClient(UpstreamHttpProperties properties, WebClient.Builder webClientBuilder) {
+        this.properties = properties;
+        this.webClientBuilder = webClientBuilder;
+    }
+
+    /**
+     * Emits the status and body for every HTTP status; only transport failures and timeouts are
+     * errors.
+     */
+    public Mono<UpstreamResponse> post(String apiName, String url, HttpHeaders headers, byte[] body) {
+        return endpoints.computeIfAbsent(apiName, this::createEndpoint).webClient()
+                .post()
+                .uri(url)
+                .headers(target -> target.addAll(headers))
+                .bodyValue(body)
+                .exchangeToMono(response -> response.bodyToMono(String.class)
+                        .map(responseBody -> new UpstreamResponse(response.statusCode().value(), responseBody))
+                        .defaultIfEmpty(new UpstreamResponse(response.statusCode().value(), null)));
+    }
+
+    private PooledEndpoint createEndpoint(String apiName) {
+        int maxConnections = properties.maxConnectionsFor(apiName);
+
+        ConnectionProvider provider = ConnectionProvider.builder("transbnk-" + apiName)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(properties.getPoolAcquireTimeout())
+                .maxIdleTime(properties.getIdleEviction())
+                .maxLifeTime(properties.getTimeToLive())
+                .evictInBackground(properties.getIdleEviction())
+                .build();
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout());
+        if (properties.getEngine() == UpstreamHttpProperties.Engine.HTTP2) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+
+        WebClient webClient = webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+
+        log.info(" Reactive upstream pool created | apiName={} | maxConnections={}", apiName, maxConnections);
+        return new PooledEndpoint(provider, webClient);
+    }
+
+    @Override
+    public void destroy() {
+        endpoints.forEach((apiName, endpoint) -> endpoint.provider().dispose());
+        endpoints.clear();
+    }
+
+    public record UpstreamResponse(int statusCode, String body) {
+    }
+
+    private record PooledEndpoint(ConnectionProvider provider, WebClient webClient) {
+    }
+}
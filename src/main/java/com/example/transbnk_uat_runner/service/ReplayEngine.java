@@ -0,0 +1,242 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ExecutorFactory;
+import com.example.transbnk_uat_runner.config.ReplayProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Sends recorded requests again to {@code POST {baseUrl}/api/{apiName}} and compares the outcome
+ * with the recorded one, see {@link ReplayReport}.
+ *
+ * <p>Records are sent while they are read, with at most {@code concurrency} in flight; reading
+ * waits for a free slot. With {@link ReplayProperties.Pacing#RECORDED} a record is due as long
+ * after the first one as it was recorded after it, {@code ACCELERATED} divides that gap by
+ * {@code speed}, {@code MAX} does not wait. Records without a timestamp are due at once. How far
+ * behind schedule sends got is reported, as a replay that cannot keep up is not the traffic that
+ * was recorded.
+ *
+ * <p>The replayed status is the wrapper's {@code X-Business-Status} header, or, from a wrapper
+ * without it, the response body classified with {@link BusinessStatusClassifier}.
+ */
+@Service
+public class ReplayEngine {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(ReplayEngine.class);
+
+    private static final String BUSINESS_STATUS_HEADER = "X-Business-Status";
+
+    private final ExecutorFactory executorFactory;
+    private final BusinessStatusClassifier classifier;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public ReplayEngine(ExecutorFactory executorFactory, BusinessStatusClassifier classifier) {
+        this.executorFactory = executorFactory;
+        this.classifier = classifier;
+    }
+
+    public ReplayReport run(RecordStream records, ReplayPlan plan) throws IOException, InterruptedException {
+        int concurrency = Math.max(1, plan.concurrency());
+        double speed = switch (plan.pacing()) {
+            case RECORDED -> 1;
+            case ACCELERATED -> {
+                if (plan.speed() <= 0) {
+                    throw new IllegalArgumentException("Replay speed must be positive, was: " + plan.speed());
+                }
+                yield plan.speed();
+            }
+            case MAX -> 0;
+        };
+        String pacing = speed == 0 ? "max speed" : String.format(Locale.ROOT, "%.1fx recorded pacing", speed);
+        log.info(" Replay starting | target={} | pacing={} | concurrency={}", plan.baseUrl(), pacing, concurrency);
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(plan.timeout())
+                .build();
+        Recorder recorder = new Recorder();
+        Semaphore inFlight = new Semaphore(concurrency);
+        ExecutorService executor = executorFactory.newExecutor("replay", concurrency);
+        BufferedWriter output = plan.output() == null ? null : Files.newBufferedWriter(plan.output(), StandardCharsets.UTF_8);
+        ReentrantLock outputLock = new ReentrantLock();
+
+        long start = System.nanoTime();
+        AtomicLong maxLag = new AtomicLong();
+        AtomicReference<Instant> first = new AtomicReference<>();
+        try {
+            records.forEach(record -> {
+                long due = start;
+                if (speed > 0 && record.at() != null) {
+                    first.compareAndSet(null, record.at());
+                    due = start + Math.max(0, (long) (Duration.between(first.get(), record.at()).toNanos() / speed));
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                inFlight.acquireUninterruptibly();
+                long lag = System.nanoTime() - due;
+                if (speed > 0 && record.at() != null) {
+                    maxLag.accumulateAndGet(lag, Math::max);
+                }
+                executor.execute(() -> {
+                    try {
+                        send(client, plan, record, recorder, output, outputLock);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            });
+            executor.shutdown();
+            if (!executor.awaitTermination(plan.timeout().toNanos() + TimeUnit.SECONDS.toNanos(5), TimeUnit.NANOSECONDS)) {
+                log.warn(" Replay: requests still in flight after the timeout, not counted");
+            }
+        } finally {
+            executor.shutdownNow();
+            if (output != null) {
+                output.close();
+            }
+        }
+
+        ReplayReport report = new ReplayReport(pacing, Duration.ofNanos(System.nanoTime() - start),
+                TimeUnit.NANOSECONDS.toMillis(maxLag.get()), recorder.total, recorder.apis);
+        log.info(" Replay finished | requests={} | statusChanged={}", report.requests(), report.mismatches());
+        return report;
+    }
+
+    private void send(HttpClient client, ReplayPlan plan, ReplayRecord record, Recorder recorder,
+                      BufferedWriter output, ReentrantLock outputLock) {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create(plan.baseUrl().replaceAll("/+$", "") + "/api/" + record.apiName()))
+                .timeout(plan.timeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(record.body() == null ? "{}" : record.body().toString()));
+        if (plan.token() != null && !plan.token().isBlank()) {
+            request.header("Authorization", "Bearer " + plan.token());
+        }
+
+        String businessStatus;
+        Integer statusCode = null;
+        long latencyNanos = -1;
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            latencyNanos = System.nanoTime() - started;
+            statusCode = response.statusCode();
+            businessStatus = response.headers().firstValue(BUSINESS_STATUS_HEADER)
+                    .orElseGet(() -> classify(record.apiName(), response));
+        } catch (IOException ex) {
+            businessStatus = LoadReport.EXCEPTION;
+            log.debug(" Replay request failed | apiName={} | requestId={}", record.apiName(), record.requestId(), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        recorder.record(record, businessStatus, latencyNanos);
+        if (output != null) {
+            write(output, outputLock, record, businessStatus, statusCode, latencyNanos);
+        }
+    }
+
+    private String classify(String apiName, HttpResponse<String> response) {
+        if (response.statusCode() >= 400) {
+            return ReplayReport.HTTP_ERROR;
+        }
+        try {
+            return classifier.classify(apiName, mapper.readTree(response.body()));
+        } catch (IOException ex) {
+            return BusinessStatusClassifier.UNKNOWN;
+        }
+    }
+
+    /**
+     * The replayed request in the {@link ReplayRecord} format, so it can be the baseline of the next
+     * replay, with the recorded outcome under {@code original}.
+     */
+    private void write(BufferedWriter output, ReentrantLock outputLock, ReplayRecord record,
+                       String businessStatus, Integer statusCode, long latencyNanos) {
+        Long latencyMs = latencyNanos < 0 ? null : TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        ObjectNode line = new ReplayRecord(record.apiName(), record.requestId(), record.at(), record.body(),
+                businessStatus, latencyMs).toJson(mapper);
+        if (statusCode != null) {
+            line.put("statusCode", statusCode);
+        }
+        ObjectNode original = line.putObject("original");
+        if (record.businessStatus() != null) {
+            original.put("businessStatus", record.businessStatus());
+        }
+        if (record.latencyMs() != null) {
+            original.put("latencyMs", record.latencyMs());
+        }
+
+        outputLock.lock();
+        try {
+            output.write(line.toString());
+            output.newLine();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
+    /** Where the records come from, e.g. {@link ReplaySource}; read once, in order. */
+    @FunctionalInterface
+    public interface RecordStream {
+        void forEach(Consumer<ReplayRecord> action) throws IOException;
+    }
+
+    /**
+     * @param output replay results as JSON lines, {@code null} for none
+     */
+    public record ReplayPlan(
+            String baseUrl,
+            String token,
+            ReplayProperties.Pacing pacing,
+            double speed,
+            int concurrency,
+            Duration timeout,
+            Path output
+    ) {
+    }
+
+    private static final class Recorder {
+
+        private final ReplayReport.Diff total = new ReplayReport.Diff();
+        private final Map<String, ReplayReport.Diff> apis = new ConcurrentHashMap<>();
+
+        void record(ReplayRecord record, String businessStatus, long latencyNanos) {
+            total.record(record.businessStatus(), record.latencyMs(), businessStatus, latencyNanos);
+            apis.computeIfAbsent(record.apiName(), k -> new ReplayReport.Diff())
+                    .record(record.businessStatus(), record.latencyMs(), businessStatus, latencyNanos);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.Instant;
+
+/**
+ * One request to replay and how it went the first time. As a JSON line:
+ *
+ * <pre>
+ * {"apiName":"vpa-validation","requestId":"R1","at":"2024-05-01T10:15:30.120Z",
+ *  "body":{"vpa":"a@upi"},"businessStatus":"SUCCESS","latencyMs":412}
+ * </pre>
+ * Only {@code apiName} is required. Without {@code at} the request is sent as soon as it is read;
+ * without {@code businessStatus} / {@code latencyMs} it has nothing to be compared with.
+ *
+ * @param at             when the request was received, for recorded pacing
+ * @param businessStatus the original outcome
+ * @param latencyMs      the original latency, {@code null} when not recorded
+ */
+public record ReplayRecord(
+        String apiName,
+        String requestId,
+        Instant at,
+        JsonNode body,
+        String businessStatus,
+        Long latencyMs
+) {
+
+    public static ReplayRecord fromJson(JsonNode json) {
+        String apiName = json.path("apiName").asText("");
+        if (apiName.isBlank()) {
+            throw new IllegalArgumentException("apiName is required");
+        }
+        JsonNode body = json.get("body");
+        return new ReplayRecord(
+                apiName,
+                json.path("requestId").asText(null),
+                json.hasNonNull("at") ? Instant.parse(json.get("at").asText()) : null,
+                body == null || body.isNull() ? null : body,
+                json.path("businessStatus").asText(null),
+                json.hasNonNull("latencyMs") ? json.get("latencyMs").asLong() : null
+        );
+    }
+
+    public ObjectNode toJson(ObjectMapper mapper) {
+        ObjectNode out = mapper.createObjectNode();
+        out.put("apiName", apiName);
+        if (requestId != null) {
+            out.put("requestId", requestId);
+        }
+        if (at != null) {
+            out.put("at", at.toString());
+        }
+        if (body != null) {
+            out.set("body", body);
+        }
+        if (businessStatus != null) {
+            out.put("businessStatus", businessStatus);
+        }
+        if (latencyMs != null) {
+            out.put("latencyMs", latencyMs);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome of a {@link ReplayEngine} run: how many replayed requests ended with another
+ * {@code businessStatus} than the first time, which changes those were, and the latency
+ * percentiles of both runs, in total and per apiName.
+ *
+ * <p>Only records with an original status are compared, and only records with an original latency
+ * go into the original percentiles. Original latencies from the audit are measured inside the
+ * wrapper, replay latencies at the client, so the replay side includes the network.
+ *
+ * <p>The audit only records a non-2xx answer as {@code FAILED}, which the source reads as
+ * {@code HTTP_ERROR}. A {@code BULKHEAD_FULL} or {@code CIRCUIT_OPEN} rejection is therefore
+ * compared as {@code HTTP_ERROR} on both sides, so it does not show up as a change.
+ */
+public class ReplayReport {
+
+    static final String HTTP_ERROR = "HTTP_ERROR";
+
+    private static final String TOTAL = "TOTAL";
+
+    private final String pacing;
+    private final Duration elapsed;
+    private final long maxLagMillis;
+    private final Diff total;
+    private final Map<String, Diff> apis;
+
+    ReplayReport(String pacing, Duration elapsed, long maxLagMillis, Diff total, Map<String, Diff> apis) {
+        this.pacing = pacing;
+        this.elapsed = elapsed;
+        this.maxLagMillis = maxLagMillis;
+        this.total = total;
+        this.apis = new TreeMap<>(apis);
+    }
+
+    public long requests() {
+        return total.requests.sum();
+    }
+
+    /** Records that had an original business status and now have another one. */
+    public long mismatches() {
+        return total.mismatched.sum();
+    }
+
+    /** {@code "SUCCESS -> FAILED"} counts; unchanged statuses are not listed. */
+    public Map<String, Long> changes(String apiName) {
+        Diff diff = apiName == null ? total : apis.get(apiName);
+        return diff == null ? Map.of() : diff.changes();
+    }
+
+    public Histogram originalLatency(String apiName) {
+        Diff diff = apiName == null ? total : apis.get(apiName);
+        return diff == null ? new Histogram(3) : diff.original;
+    }
+
+    public Histogram replayLatency(String apiName) {
+        Diff diff = apiName == null ? total : apis.get(apiName);
+        return diff == null ? new Histogram(3) : diff.replay;
+    }
+
+    public ObjectNode toJson(ObjectMapper mapper) {
+        ObjectNode out = mapper.createObjectNode();
+        out.put("pacing", pacing);
+        out.put("elapsedSeconds", elapsed.toMillis() / 1000.0);
+        out.put("maxScheduleLagMs", maxLagMillis);
+        out.set("total", total.toJson(mapper));
+
+        ObjectNode perApi = out.putObject("apis");
+        apis.forEach((apiName, diff) -> perApi.set(apiName, diff.toJson(mapper)));
+        return out;
+    }
+
+    /**
+     * Fixed-width summary: counts and p50/p99 of both runs per apiName plus the total, then the
+     * business status changes.
+     */
+    public String toTable() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "Replay: %s, %.1fs, sends up to %d ms behind schedule%n",
+                pacing, elapsed.toMillis() / 1000.0, maxLagMillis));
+        out.append(String.format(Locale.ROOT, "%-26s %9s %9s %9s %11s %11s %8s %11s %11s %8s%n",
+                "api", "requests", "compared", "changed",
+                "p50 was ms", "p50 now ms", "p50 %", "p99 was ms", "p99 now ms", "p99 %"));
+        apis.forEach((apiName, diff) -> row(out, apiName, diff));
+        row(out, TOTAL, total);
+
+        boolean header = false;
+        for (Map.Entry<String, Diff> api : apis.entrySet()) {
+            for (Map.Entry<String, Long> change : api.getValue().changes().entrySet()) {
+                if (!header) {
+                    out.append(String.format(Locale.ROOT, "%nBusiness status changes (was -> now)%n"));
+                    header = true;
+                }
+                out.append(String.format(Locale.ROOT, "%-26s %-40s %9d%n", api.getKey(), change.getKey(), change.getValue()));
+            }
+        }
+        return out.toString();
+    }
+
+    private static void row(StringBuilder out, String name, Diff diff) {
+        out.append(String.format(Locale.ROOT, "%-26s %9d %9d %9d %11s %11s %8s %11s %11s %8s%n",
+                name,
+                diff.requests.sum(),
+                diff.compared.sum(),
+                diff.mismatched.sum(),
+                millis(diff.original, 50),
+                millis(diff.replay, 50),
+                change(diff, 50),
+                millis(diff.original, 99),
+                millis(diff.replay, 99),
+                change(diff, 99)));
+    }
+
+    private static String millis(Histogram latency, double percentile) {
+        return latency.getTotalCount() == 0
+                ? "-"
+                : String.format(Locale.ROOT, "%.1f", latency.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    private static String change(Diff diff, double percentile) {
+        if (diff.original.getTotalCount() == 0 || diff.replay.getTotalCount() == 0) {
+            return "-";
+        }
+        double was = diff.original.getValueAtPercentile(percentile);
+        double now = diff.replay.getValueAtPercentile(percentile);
+        return String.format(Locale.ROOT, "%+.0f", (now - was) * 100 / was);
+    }
+
+    /**
+     * Status changes and latencies of one apiName, or of the whole replay; safe to record into
+     * from several threads.
+     */
+    static final class Diff {
+
+        private final ConcurrentHistogram original = new ConcurrentHistogram(3);
+        private final ConcurrentHistogram replay = new ConcurrentHistogram(3);
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder compared = new LongAdder();
+        private final LongAdder mismatched = new LongAdder();
+        private final Map<String, LongAdder> changes = new ConcurrentHashMap<>();
+
+        /**
+         * @param originalMillis {@code null} when not recorded
+         * @param replayNanos    negative when the replay got no response
+         */
+        void record(String originalStatus, Long originalMillis, String replayStatus, long replayNanos) {
+            requests.increment();
+            if (originalMillis != null) {
+                original.recordValue(Math.max(1, originalMillis * 1_000));
+            }
+            if (replayNanos >= 0) {
+                replay.recordValue(Math.max(1, replayNanos / 1_000));
+            }
+            if (originalStatus == null) {
+                return;
+            }
+            originalStatus = comparable(originalStatus);
+            replayStatus = comparable(replayStatus);
+            compared.increment();
+            if (!originalStatus.equals(replayStatus)) {
+                mismatched.increment();
+                changes.computeIfAbsent(originalStatus + " -> " + replayStatus, k -> new LongAdder()).increment();
+            }
+        }
+
+        private static String comparable(String businessStatus) {
+            return UpstreamGuard.BULKHEAD_FULL.equals(businessStatus) || UpstreamGuard.CIRCUIT_OPEN.equals(businessStatus)
+                    ? HTTP_ERROR
+                    : businessStatus;
+        }
+
+        Map<String, Long> changes() {
+            Map<String, Long> counts = new TreeMap<>();
+            changes.forEach((change, count) -> counts.put(change, count.sum()));
+            return counts;
+        }
+
+        ObjectNode toJson(ObjectMapper mapper) {
+            ObjectNode out = mapper.createObjectNode();
+            out.put("requests", requests.sum());
+            out.put("compared", compared.sum());
+            out.put("changed", mismatched.sum());
+            ObjectNode changed = out.putObject("businessStatusChanges");
+            changes().forEach(changed::put);
+            out.set("originalLatencyMs", latencyJson(mapper, original));
+            out.set("replayLatencyMs", latencyJson(mapper, replay));
+            return out;
+        }
+
+        private static ObjectNode latencyJson(ObjectMapper mapper, Histogram latency) {
+            ObjectNode out = mapper.createObjectNode();
+            out.put("count", latency.getTotalCount());
+            if (latency.getTotalCount() == 0) {
+                return out;
+            }
+            out.put("mean", latency.getMean() / 1000.0);
+            out.put("p50", latency.getValueAtPercentile(50) / 1000.0);
+            out.put("p90", latency.getValueAtPercentile(90) / 1000.0);
+            out.put("p99", latency.getValueAtPercentile(99) / 1000.0);
+            out.put("max", latency.getMaxValue() / 1000.0);
+            return out;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ReplayProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs {@link ReplayEngine} once at startup with {@code --spring.profiles.active=replay} over the
+ * records of {@link ReplaySource}, logs the summary table, writes the JSON report to
+ * {@code transbnk.replay.report-file} and stops the application. The exit code is 1 when any
+ * business status changed.
+ */
+@Component
+@Profile("replay")
+public class ReplayRunner implements ApplicationRunner {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(ReplayRunner.class);
+
+    private final ReplayProperties properties;
+    private final ReplaySource replaySource;
+    private final ReplayEngine replayEngine;
+    private final ConfigurableApplicationContext context;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public ReplayRunner(
+            ReplayProperties properties,
+            ReplaySource replaySource,
+            ReplayEngine replayEngine,
+            ConfigurableApplicationContext context
+    ) {
+        this.properties = properties;
+        this.replaySource = replaySource;
+        this.replayEngine = replayEngine;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        String outputFile = properties.getOutputFile();
+        ReplayEngine.ReplayPlan plan = new ReplayEngine.ReplayPlan(
+                properties.getBaseUrl(),
+                properties.getToken(),
+                properties.getPacing(),
+                properties.getSpeed(),
+                properties.getConcurrency(),
+                properties.getTimeout(),
+                outputFile == null || outputFile.isBlank() ? null : Path.of(outputFile)
+        );
+        ReplayReport report = replayEngine.run(action -> replaySource.forEach(properties, action), plan);
+
+        log.info(" Replay report\n{}", report.toTable());
+        Path reportFile = Path.of(properties.getReportFile());
+        Files.writeString(reportFile, mapper.writerWithDefaultPrettyPrinter().writeValueAsString(report.toJson(mapper)));
+        log.info(" Replay report written | file={}", reportFile.toAbsolutePath());
+
+        if (properties.isExitWhenDone()) {
+            int exitCode = SpringApplication.exit(context, () -> report.mismatches() == 0 ? 0 : 1);
+            System.exit(exitCode);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ReplayProperties;
+import com.example.transbnk_uat_runner.wrapper.service.WrapperAuditService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.function.Consumer;
+
+/**
+ * Reads the requests to replay, one at a time, from {@code bank_validation_audit},
+ * {@code bank_account_validation_log} or a JSON lines file, see {@link ReplayProperties.Source}.
+ * The tables are read through a forward-only cursor of {@code fetch-size} rows, so a replay of
+ * millions of rows holds one fetch in memory.
+ *
+ * <p>Rows that cannot be replayed are skipped with a count in the log: rejected tokens, requests
+ * without a JSON body and, for the audit, rows of another apiName or of none. Records of apiNames
+ * that are not read-only are skipped too unless {@code allow-non-idempotent} is set: sending them
+ * again would create, resend or cancel the payout, mandate or document again.
+ */
+@Component
+public class ReplaySource {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(ReplaySource.class);
+
+    private static final String VALIDATION_LOG_SQL = """
+            SELECT
+                request_id,
+                business_status,
+                request_json
+            FROM bank_account_validation_log
+            WHERE id <= ?
+            ORDER BY id
+            """;
+
+    private final WrapperAuditService auditService;
+    private final JdbcTemplate jdbcTemplate;
+    private final BusinessStatusClassifier classifier;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public ReplaySource(
+            WrapperAuditService auditService,
+            JdbcTemplate jdbcTemplate,
+            BusinessStatusClassifier classifier
+    ) {
+        this.auditService = auditService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.classifier = classifier;
+    }
+
+    public void forEach(ReplayProperties properties, Consumer<ReplayRecord> action) throws IOException {
+        Counts counts = new Counts();
+        switch (properties.getSource()) {
+            case AUDIT -> readAudit(properties, counts, action);
+            case VALIDATION_LOG -> readValidationLog(properties, counts, action);
+            case FILE -> readFile(properties, counts, action);
+        }
+        log.info(" Replay source read | source={} | records={} | skipped={} | nonIdempotentSkipped={}",
+                properties.getSource(), counts.read, counts.skipped, counts.nonIdempotent);
+    }
+
+    private void readAudit(ReplayProperties properties, Counts counts, Consumer<ReplayRecord> action) {
+        String wanted = blankToNull(properties.getApiName());
+        // without an end, stop at rows that existed when the replay started rather than read its own
+        LocalDateTime to = dateTime(properties.getTo());
+        auditService.forEachEntry(
+                dateTime(properties.getFrom()),
+                to == null ? LocalDateTime.now() : to,
+                limit(properties),
+                properties.getFetchSize(),
+                entry -> {
+                    // rows written before api_name existed belong to the configured apiName
+                    String apiName = entry.apiName() != null ? entry.apiName() : wanted;
+                    JsonNode body = parse(entry.requestPayload());
+                    if (apiName == null
+                            || (wanted != null && !wanted.equals(apiName))
+                            || "TOKEN_INVALID".equals(entry.status())
+                            || body == null) {
+                        counts.skipped++;
+                        return;
+                    }
+                    if (skipNonIdempotent(properties, apiName, counts)) {
+                        return;
+                    }
+
+                    Instant at = null;
+                    if (entry.createdAt() != null) {
+                        // written when the response went out
+                        at = entry.createdAt().atZone(ZoneId.systemDefault()).toInstant();
+                        if (entry.latencyMs() != null) {
+                            at = at.minusMillis(entry.latencyMs());
+                        }
+                    }
+                    // the audit status is SUCCESS for 2xx, FAILED otherwise (HTTP_ERROR, or a
+                    // BULKHEAD_FULL / CIRCUIT_OPEN rejection) and ERROR when the call threw
+                    String businessStatus = switch (String.valueOf(entry.status())) {
+                        case "SUCCESS" -> classifier.classify(apiName, parse(entry.responsePayload()));
+                        case "FAILED" -> ReplayReport.HTTP_ERROR;
+                        default -> entry.status();
+                    };
+                    counts.read++;
+                    action.accept(new ReplayRecord(apiName, entry.requestId(), at, body, businessStatus, entry.latencyMs()));
+                }
+        );
+    }
+
+    /**
+     * The log has neither a timestamp nor a latency: its records are sent back to back and compared
+     * on business status only.
+     */
+    private void readValidationLog(ReplayProperties properties, Counts counts, Consumer<ReplayRecord> action) {
+        // the replayed calls are logged too
+        Long lastId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM bank_account_validation_log", Long.class);
+        if (lastId == null) {
+            return;
+        }
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(VALIDATION_LOG_SQL,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(properties.getFetchSize());
+                    ps.setMaxRows(limit(properties));
+                    ps.setLong(1, lastId);
+                    return ps;
+                },
+                (ResultSet rs) -> {
+                    JsonNode body = parse(rs.getString("request_json"));
+                    if (body == null) {
+                        counts.skipped++;
+                        return;
+                    }
+                    counts.read++;
+                    action.accept(new ReplayRecord("bank-account-validation", rs.getString("request_id"), null,
+                            body, rs.getString("business_status"), null));
+                }
+        );
+    }
+
+    private void readFile(ReplayProperties properties, Counts counts, Consumer<ReplayRecord> action) throws IOException {
+        if (properties.getFile() == null || properties.getFile().isBlank()) {
+            throw new IllegalArgumentException("transbnk.replay.file is required for source FILE");
+        }
+        Path file = Path.of(properties.getFile());
+        long limit = properties.getLimit();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null && (limit <= 0 || counts.read < limit)) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                ReplayRecord record;
+                try {
+                    record = ReplayRecord.fromJson(mapper.readTree(line));
+                } catch (RuntimeException | JsonProcessingException ex) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": " + ex.getMessage(), ex);
+                }
+                if (skipNonIdempotent(properties, record.apiName(), counts)) {
+                    continue;
+                }
+                counts.read++;
+                action.accept(record);
+            }
+        }
+    }
+
+    private static boolean skipNonIdempotent(ReplayProperties properties, String apiName, Counts counts) {
+        if (properties.isAllowNonIdempotent() || UpstreamRetryPolicy.isReadOnly(apiName)) {
+            return false;
+        }
+        counts.skipped++;
+        counts.nonIdempotent++;
+        return true;
+    }
+
+    private JsonNode parse(String json) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode node = mapper.readTree(json);
+            return node.isObject() ? node : null;
+        } catch (JsonProcessingException ex) {
+            return null;
+        }
+    }
+
+    private static int limit(ReplayProperties properties) {
+        return (int) Math.min(Math.max(0, properties.getLimit()), Integer.MAX_VALUE);
+    }
+
+    private static LocalDateTime dateTime(String value) {
+        return value == null || value.isBlank() ? null : LocalDateTime.parse(value.trim());
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static final class Counts {
+        private long read;
+        private long skipped;
+        private long nonIdempotent;
+    }
+}
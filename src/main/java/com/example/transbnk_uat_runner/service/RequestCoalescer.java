@@ -0,0 +1,191 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.CoalescingProperties;
+import com.example.transbnk_uat_runner.model.ApiResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single flight for identical TrustHub calls: while one call for a key is running, further calls
+ * with the same key wait for it and get a copy of its {@link ApiResult} instead of going upstream
+ * themselves. Keys are only built for the apiNames in {@link CoalescingProperties}.
+ *
+ * <p>The key is a SHA-256 of the apiName and the prepared request with object fields sorted, so
+ * two bodies that differ only in field order or whitespace share a call. The entry is removed as
+ * soon as the call completes; later calls start a new one.
+ */
+@Component
+public class RequestCoalescer {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(RequestCoalescer.class);
+
+    private final CoalescingProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, CompletableFuture<ApiResult>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> coalesced = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("transbnk.coalescing.in.flight", inFlight, Map::size)
+                .description("Distinct coalescable calls currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the key {@code request} is coalesced under, or {@code null} when the apiName is not
+     * coalesced
+     */
+    public String keyFor(String apiName, JsonNode request) {
+        if (!properties.isEnabledFor(apiName) || request == null) {
+            return null;
+        }
+        StringBuilder canonical = new StringBuilder(apiName).append('\n');
+        appendCanonical(request, canonical);
+        return HexFormat.of().formatHex(sha256().digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Runs {@code call}, or waits for the call already running under {@code key}. A failure of the
+     * shared call is thrown to every caller.
+     *
+     * @param forFollower turns the shared result into the one a waiting caller gets; the result
+     *                    itself belongs to the caller that ran the call
+     */
+    public ApiResult join(String apiName, String key, Callable<ApiResult> call,
+                          UnaryOperator<ApiResult> forFollower) throws Exception {
+        CompletableFuture<ApiResult> mine = new CompletableFuture<>();
+        CompletableFuture<ApiResult> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            joined(apiName);
+            return forFollower.apply(await(running));
+        }
+
+        try {
+            ApiResult result = call.call();
+            mine.complete(result);
+            return result;
+        } catch (Exception ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Reactive form of {@link #join(String, String, Callable, UnaryOperator)}. The shared call is
+     * subscribed once and runs to completion even when the caller that started it goes away.
+     */
+    public Mono<ApiResult> join(String apiName, String key, Supplier<Mono<ApiResult>> call,
+                                UnaryOperator<ApiResult> forFollower) {
+        return Mono.defer(() -> {
+            CompletableFuture<ApiResult> mine = new CompletableFuture<>();
+            CompletableFuture<ApiResult> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                joined(apiName);
+                return Mono.fromFuture(running, true).map(forFollower);
+            }
+
+            call.get()
+                    .doFinally(signal -> inFlight.remove(key, mine))
+                    .subscribe(
+                            mine::complete,
+                            mine::completeExceptionally,
+                            () -> {
+                                if (!mine.isDone()) {
+                                    mine.completeExceptionally(new IllegalStateException("No result for apiName: " + apiName));
+                                }
+                            });
+            return Mono.fromFuture(mine, true);
+        });
+    }
+
+    private void joined(String apiName) {
+        log.info(" Coalesced with call in flight | apiName={}", apiName);
+        coalesced.computeIfAbsent(apiName, k -> Counter.builder("transbnk.coalesced.calls")
+                .description("Calls answered by an identical call already in flight")
+                .tag("api", apiName)
+                .register(meterRegistry)).increment();
+    }
+
+    private static ApiResult await(CompletableFuture<ApiResult> running) throws Exception {
+        try {
+            return running.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw ex;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause() == null ? ex : ex.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static void appendCanonical(JsonNode node, StringBuilder out) {
+        if (node.isObject()) {
+            List<String> names = new ArrayList<>();
+            for (Iterator<String> it = node.fieldNames(); it.hasNext(); ) {
+                names.add(it.next());
+            }
+            Collections.sort(names);
+
+            out.append('{');
+            for (int i = 0; i < names.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(TextNode.valueOf(names.get(i))).append(':');
+                appendCanonical(node.get(names.get(i)), out);
+            }
+            out.append('}');
+        } else if (node.isArray()) {
+            out.append('[');
+            for (int i = 0; i < node.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                appendCanonical(node.get(i), out);
+            }
+            out.append(']');
+        } else {
+            out.append(node);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
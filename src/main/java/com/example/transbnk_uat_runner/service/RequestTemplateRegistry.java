@@ -0,0 +1,205 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Request bodies from {@code classpath:api-requests/*.json}, loaded once at startup.
+ *
+ * <p>Each template is compiled into literal segments and {@code {{placeholder}}} slots, rendered
+ * with the configured {@code transbnk.*} ids and validated as JSON before the application accepts
+ * traffic. A template with an unknown placeholder or invalid JSON fails startup.
+ *
+ * <p>For local development, {@code transbnk.templates.watch-dir} (e.g.
+ * {@code src/main/resources/api-requests}) re-compiles a template whenever its file changes.
+ */
+@Component
+public class RequestTemplateRegistry {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(RequestTemplateRegistry.class);
+
+    private static final String LOCATION_PATTERN = "classpath:api-requests/*.json";
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{(\\w+)}}");
+
+    private final ObjectMapper mapper;
+    private final Map<String, String> placeholderValues;
+    private final String watchDir;
+
+    private final Map<String, RenderedTemplate> templates = new ConcurrentHashMap<>();
+    private WatchService watchService;
+
+    public RequestTemplateRegistry(
+            ObjectMapper mapper,
+            @Value("${transbnk.entity-id}") String entityId,
+            @Value("${transbnk.program-id}") String programId,
+            @Value("${transbnk.nach-program-id:${transbnk.program-id}}") String nachProgramId,
+            @Value("${transbnk.templates.watch-dir:}") String watchDir
+    ) {
+        this.mapper = mapper;
+        this.placeholderValues = Map.of(
+                "entityId", entityId,
+                "programId", programId,
+                "nachProgramId", nachProgramId
+        );
+        this.watchDir = watchDir;
+    }
+
+    @PostConstruct
+    void load() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(LOCATION_PATTERN);
+        for (Resource resource : resources) {
+            String filename = resource.getFilename();
+            if (filename == null) {
+                continue;
+            }
+            try (InputStream is = resource.getInputStream()) {
+                String apiName = apiNameOf(filename);
+                templates.put(apiName, compile(apiName, new String(is.readAllBytes(), StandardCharsets.UTF_8)));
+            }
+        }
+
+        log.info(" Request templates loaded | count={} | apis={}", templates.size(), templates.keySet());
+
+        if (watchDir != null && !watchDir.isBlank()) {
+            startWatcher(Paths.get(watchDir));
+        }
+    }
+
+    public Optional<RenderedTemplate> find(String apiName) {
+        return Optional.ofNullable(templates.get(apiName));
+    }
+
+    public Set<String> apiNames() {
+        return Set.copyOf(templates.keySet());
+    }
+
+    private RenderedTemplate compile(String apiName, String source) throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER.matcher(source);
+        int last = 0;
+        while (matcher.find()) {
+            String slot = matcher.group(1);
+            if (!placeholderValues.containsKey(slot)) {
+                throw new IllegalStateException(
+                        "Unknown placeholder {{" + slot + "}} in api-requests/" + apiName + ".json");
+            }
+            segments.add(new Segment(source.substring(last, matcher.start()), null));
+            segments.add(new Segment(null, slot));
+            last = matcher.end();
+        }
+        segments.add(new Segment(source.substring(last), null));
+
+        StringBuilder rendered = new StringBuilder(source.length());
+        for (Segment segment : segments) {
+            rendered.append(segment.slot() == null ? segment.literal() : placeholderValues.get(segment.slot()));
+        }
+
+        String body = rendered.toString();
+        JsonNode json = mapper.readTree(body);
+        if (json == null || !json.isObject()) {
+            throw new IllegalStateException("api-requests/" + apiName + ".json must contain a JSON object");
+        }
+        return new RenderedTemplate(apiName, body.getBytes(StandardCharsets.UTF_8), json);
+    }
+
+    private void startWatcher(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            log.warn(" Template watch-dir not found, reload disabled | dir={}", dir.toAbsolutePath());
+            return;
+        }
+
+        watchService = FileSystems.getDefault().newWatchService();
+        dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread watcher = new Thread(() -> watch(dir), "request-template-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info(" Watching request templates for changes | dir={}", dir.toAbsolutePath());
+    }
+
+    private void watch(Path dir) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path changed && changed.toString().endsWith(".json")) {
+                        reload(dir.resolve(changed));
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // shutting down
+        }
+    }
+
+    private void reload(Path file) {
+        String apiName = apiNameOf(file.getFileName().toString());
+        try {
+            templates.put(apiName, compile(apiName, Files.readString(file, StandardCharsets.UTF_8)));
+            log.info(" Request template reloaded | apiName={}", apiName);
+        } catch (Exception ex) {
+            log.warn(" Request template reload failed, keeping previous version | apiName={} message={}",
+                    apiName, ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stopWatcher() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private static String apiNameOf(String filename) {
+        return filename.substring(0, filename.length() - ".json".length());
+    }
+
+    private record Segment(String literal, String slot) {
+    }
+
+    /**
+     * A template rendered with the configured ids. {@link #json()} hands out a copy so callers may
+     * modify it freely.
+     */
+    public record RenderedTemplate(String apiName, byte[] body, JsonNode parsed) {
+
+        public JsonNode json() {
+            return parsed.deepCopy();
+        }
+
+        public String bodyText() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+}
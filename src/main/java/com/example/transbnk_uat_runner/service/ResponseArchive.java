@@ -0,0 +1,449 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ExecutorFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only archive of successful TrustHub responses, replacing the per-API
+ * {@code responses/{apiName}-response.json} files that concurrent calls overwrote.
+ *
+ * <p>{@link #append} only queues the record; one writer thread appends queued records as compact
+ * JSON lines to the current segment file under {@code transbnk.archive.dir}. A segment is closed
+ * once it reaches {@code segment-max-bytes} or {@code segment-max-age-ms}. Segments older than
+ * {@code retention-hours}, or the oldest ones while the archive is larger than
+ * {@code max-total-bytes}, are deleted. An in-memory archiveId &rarr; (segment, offset, length)
+ * index serves {@link #find} with one positioned read. When the queue is full a record is dropped
+ * and counted rather than slowing the request down.
+ *
+ * <p>Records are keyed by an archiveId the server generates per call, not by the client's
+ * requestId, which any client could reuse to read or replace another's record. The index of the
+ * existing segments is rebuilt on a background thread, reading only each line's leading
+ * {@code archiveId}, so startup does not wait for it; until it is done, older records are not
+ * found. Records written before archiveIds existed have none and are not indexed.
+ */
+@Service
+public class ResponseArchive {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(ResponseArchive.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{20})\\.ndjson");
+    private static final long HOUSEKEEPING_INTERVAL_MS = 60_000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final MeterRegistry meterRegistry;
+    private final ExecutorFactory executorFactory;
+
+    @Value("${transbnk.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${transbnk.archive.dir:responses}")
+    private String dir;
+
+    @Value("${transbnk.archive.segment-max-bytes:67108864}")
+    private long segmentMaxBytes;
+
+    @Value("${transbnk.archive.segment-max-age-ms:3600000}")
+    private long segmentMaxAgeMs;
+
+    @Value("${transbnk.archive.retention-hours:168}")
+    private long retentionHours;
+
+    @Value("${transbnk.archive.max-total-bytes:1073741824}")
+    private long maxTotalBytes;
+
+    @Value("${transbnk.archive.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${transbnk.archive.batch-size:256}")
+    private int batchSize;
+
+    private Path directory;
+    private BlockingQueue<Pending> queue;
+    private Thread writer;
+    private Thread indexer;
+    private volatile boolean running;
+
+    /** Segment id (creation time in epoch millis) to its current size. */
+    private final ConcurrentSkipListMap<Long, Long> segments = new ConcurrentSkipListMap<>();
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+
+    // writer thread only
+    private FileChannel current;
+    private long currentId;
+    private long currentSize;
+    private long lastHousekeeping;
+
+    private Counter writtenCounter;
+    private Counter droppedCounter;
+    private Counter failedCounter;
+
+    public ResponseArchive(MeterRegistry meterRegistry, ExecutorFactory executorFactory) {
+        this.meterRegistry = meterRegistry;
+        this.executorFactory = executorFactory;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        writtenCounter = recordCounter("written");
+        droppedCounter = recordCounter("dropped");
+        failedCounter = recordCounter("failed");
+
+        if (!enabled) {
+            log.info(" Response archive disabled");
+            return;
+        }
+
+        directory = Paths.get(dir);
+        Files.createDirectories(directory);
+        listSegments();
+
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        Gauge.builder("transbnk.archive.queue.depth", queue, BlockingQueue::size)
+                .description("Archive records waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("transbnk.archive.index.size", index, Map::size)
+                .description("Archived responses that can be looked up by archiveId")
+                .register(meterRegistry);
+        Gauge.builder("transbnk.archive.bytes", segments, s -> s.values().stream().mapToLong(Long::longValue).sum())
+                .description("Size of all archive segments")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        running = true;
+        writer = executorFactory.newThread("response-archive-writer", this::runWriter);
+        writer.start();
+        List<Long> existing = new ArrayList<>(segments.descendingKeySet());
+        indexer = executorFactory.newThread("response-archive-indexer", () -> rebuildIndex(existing));
+        indexer.start();
+
+        log.info(" Response archive started | dir={} segments={}", directory.toAbsolutePath(), segments.size());
+    }
+
+    /**
+     * Queues {@code response} for the archive under {@code archiveId}, which must be unique, e.g. a
+     * random UUID.
+     *
+     * @return whether the record was queued; false when the archive is off or its queue is full
+     */
+    public boolean append(String archiveId, String requestId, String apiName, JsonNode response) {
+        if (!running || archiveId == null) {
+            return false;
+        }
+
+        // archiveId first: the index rebuild reads only that field
+        ObjectNode record = mapper.createObjectNode();
+        record.put("archiveId", archiveId);
+        record.put("requestId", requestId);
+        record.put("apiName", apiName);
+        record.put("archivedAt", Instant.now().toString());
+        record.set("response", response);
+
+        byte[] line;
+        try {
+            line = mapper.writeValueAsBytes(record);
+        } catch (IOException ex) {
+            failedCounter.increment();
+            return false;
+        }
+
+        if (!queue.offer(new Pending(archiveId, line))) {
+            droppedCounter.increment();
+            log.warn(" Response archive queue full, record dropped | requestId={}", requestId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * The archived record ({@code archiveId}, {@code requestId}, {@code apiName}, {@code archivedAt},
+     * {@code response}), or empty when it was never archived or its segment has been deleted.
+     */
+    public Optional<JsonNode> find(String archiveId) {
+        Location location = archiveId == null ? null : index.get(archiveId);
+        if (location == null) {
+            return Optional.empty();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(location.length());
+        try (FileChannel channel = FileChannel.open(segmentPath(location.segment()), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, location.offset() + buffer.position()) < 0) {
+                    return Optional.empty();
+                }
+            }
+            return Optional.of(mapper.readTree(buffer.array()));
+        } catch (NoSuchFileException ex) {
+            index.remove(archiveId, location);
+            return Optional.empty();
+        } catch (IOException ex) {
+            log.warn(" Response archive read failed | archiveId={} message={}", archiveId, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    write(batch);
+                }
+                housekeeping(false);
+            } catch (InterruptedException ex) {
+                if (!running) {
+                    queue.drainTo(batch);
+                    write(batch);
+                }
+            } catch (Exception ex) {
+                log.warn(" Response archive writer error | message={}", ex.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+        closeCurrent();
+    }
+
+    private void write(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            int length = 0;
+            for (Pending record : batch) {
+                length += record.line().length + 1;
+            }
+            rollIfNeeded(length);
+
+            // one write per batch; offsets are known before it because the channel only appends
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            List<Location> locations = new ArrayList<>(batch.size());
+            long offset = currentSize;
+            for (Pending record : batch) {
+                locations.add(new Location(currentId, offset, record.line().length));
+                buffer.put(record.line()).put((byte) '\n');
+                offset += record.line().length + 1;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                current.write(buffer);
+            }
+            currentSize = offset;
+            segments.put(currentId, currentSize);
+
+            for (int i = 0; i < batch.size(); i++) {
+                index.put(batch.get(i).archiveId(), locations.get(i));
+            }
+            writtenCounter.increment(batch.size());
+        } catch (IOException ex) {
+            failedCounter.increment(batch.size());
+            log.warn(" Response archive write failed | records={} message={}", batch.size(), ex.getMessage());
+            closeCurrent();
+        }
+    }
+
+    private void rollIfNeeded(int incoming) throws IOException {
+        long now = System.currentTimeMillis();
+        boolean full = currentSize > 0 && currentSize + incoming > segmentMaxBytes;
+        boolean old = now - currentId >= segmentMaxAgeMs;
+        if (current != null && !full && !old) {
+            return;
+        }
+
+        closeCurrent();
+        long id = Math.max(now, segments.isEmpty() ? 0 : segments.lastKey() + 1);
+        current = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        currentId = id;
+        currentSize = 0;
+        segments.put(id, 0L);
+        log.info(" Response archive segment opened | segment={}", segmentPath(id).getFileName());
+        housekeeping(true);
+    }
+
+    /**
+     * Deletes closed segments past retention, then the oldest closed ones while over the size cap.
+     */
+    private void housekeeping(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && now - lastHousekeeping < HOUSEKEEPING_INTERVAL_MS) {
+            return;
+        }
+        lastHousekeeping = now;
+
+        long cutoff = now - TimeUnit.HOURS.toMillis(retentionHours);
+        long total = segments.values().stream().mapToLong(Long::longValue).sum();
+        for (Map.Entry<Long, Long> segment : new ArrayList<>(segments.entrySet())) {
+            long id = segment.getKey();
+            if (current != null && id == currentId) {
+                break;
+            }
+            // a segment's records are at most segment-max-age newer than its id
+            boolean expired = id + segmentMaxAgeMs < cutoff;
+            if (!expired && total <= maxTotalBytes) {
+                break;
+            }
+            deleteSegment(id);
+            total -= segment.getValue();
+        }
+    }
+
+    private void deleteSegment(long id) {
+        try {
+            Files.deleteIfExists(segmentPath(id));
+        } catch (IOException ex) {
+            log.warn(" Response archive segment delete failed | segment={} message={}", id, ex.getMessage());
+            return;
+        }
+        segments.remove(id);
+        index.values().removeIf(location -> location.segment() == id);
+        log.info(" Response archive segment deleted | segment={}", segmentPath(id).getFileName());
+    }
+
+    private void listSegments() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.put(Long.parseLong(matcher.group(1)), Files.size(file));
+                }
+            }
+        }
+    }
+
+    /**
+     * Indexes the segments that existed at startup, newest first. The writer only appends to
+     * segments opened after startup and archiveIds are unique, so the two never index the same id.
+     */
+    private void rebuildIndex(List<Long> existing) {
+        long start = System.nanoTime();
+        for (long id : existing) {
+            if (!running) {
+                return;
+            }
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(segmentPath(id)))) {
+                ByteArrayOutputStream line = new ByteArrayOutputStream(1024);
+                long offset = 0;
+                long lineStart = 0;
+                int b;
+                while ((b = in.read()) >= 0) {
+                    offset++;
+                    if (b != '\n') {
+                        line.write(b);
+                        continue;
+                    }
+                    indexLine(id, lineStart, line);
+                    line.reset();
+                    lineStart = offset;
+                }
+                // a torn last line from a crash is ignored; new records go to a new segment
+            } catch (NoSuchFileException ex) {
+                // deleted by housekeeping meanwhile
+            } catch (IOException ex) {
+                log.warn(" Response archive index rebuild failed | segment={} message={}", id, ex.getMessage());
+            }
+        }
+        log.info(" Response archive index rebuilt | indexed={} | tookMs={}",
+                index.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void indexLine(long segment, long offset, ByteArrayOutputStream line) {
+        try (JsonParser parser = mapper.getFactory().createParser(line.toByteArray())) {
+            if (parser.nextToken() == JsonToken.START_OBJECT
+                    && parser.nextToken() == JsonToken.FIELD_NAME
+                    && "archiveId".equals(parser.currentName())
+                    && parser.nextToken() == JsonToken.VALUE_STRING) {
+                index.putIfAbsent(parser.getText(), new Location(segment, offset, line.size()));
+            }
+        } catch (IOException ex) {
+            log.warn(" Response archive skipped unreadable record | segment={} offset={}", segment, offset);
+        }
+    }
+
+    private void closeCurrent() {
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (IOException ex) {
+            log.warn(" Response archive segment close failed | message={}", ex.getMessage());
+        }
+        current = null;
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("segment-%020d.ndjson", id));
+    }
+
+    private Counter recordCounter(String outcome) {
+        return Counter.builder("transbnk.archive.records")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (writer == null) {
+            return;
+        }
+
+        running = false;
+        try {
+            indexer.join(1000);
+            writer.join(10_000);
+            if (writer.isAlive()) {
+                writer.interrupt();
+                writer.join(1000);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Pending(String archiveId, byte[] line) {
+    }
+
+    private record Location(long segment, long offset, int length) {
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ResponseCacheProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Successful TrustHub answers of read-only lookups, reused for {@link ResponseCacheProperties}
+ * {@code ttl} instead of calling again.
+ *
+ * <p>The key is a SHA-256 of the apiName and the request's key fields, trimmed and lower-cased, so
+ * {@code " Test@UPI"} and {@code "test@upi"} share an entry and no account number or VPA is held
+ * as a key. Each apiName has its own LRU of {@code max-entries} on the heap. With the off-heap tier
+ * enabled, entries pushed out of it are copied to direct memory and promoted back on their next hit.
+ * Only 2xx answers classified {@code SUCCESS} are stored.
+ */
+@Component
+public class ResponseCache {
+
+    public static final String HIT = "HIT";
+    public static final String MISS = "MISS";
+
+    private static final String SUCCESS = "SUCCESS";
+
+    private final ResponseCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, Region> regions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return the cache key of {@code request}, or {@code null} when the apiName is not cached or a
+     * key field is missing or blank
+     */
+    public String keyFor(String apiName, JsonNode request) {
+        List<String> keyFields = properties.keyFieldsFor(apiName);
+        if (keyFields.isEmpty() || request == null) {
+            return null;
+        }
+
+        StringBuilder material = new StringBuilder(apiName);
+        for (String field : keyFields) {
+            JsonNode value = request.get(field);
+            if (value == null || !value.isValueNode() || value.isNull()) {
+                return null;
+            }
+            String normalized = value.asText().trim().toLowerCase(Locale.ROOT);
+            if (normalized.isEmpty()) {
+                return null;
+            }
+            material.append('\n').append(field).append('=').append(normalized);
+        }
+        return HexFormat.of().formatHex(sha256().digest(material.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public Optional<Hit> get(String apiName, String key) {
+        Region region = region(apiName);
+        Hit hit = region.get(key, nanoClock.getAsLong());
+        region.requests(hit == null ? "miss" : "hit").increment();
+        return Optional.ofNullable(hit);
+    }
+
+    /**
+     * Stores the answer when it is a 2xx with businessStatus {@code SUCCESS}; anything else is ignored.
+     */
+    public void put(String apiName, String key, int statusCode, String businessStatus, byte[] body) {
+        if (!isCacheable(statusCode, businessStatus) || body == null) {
+            return;
+        }
+        Region region = region(apiName);
+        long now = nanoClock.getAsLong();
+        region.put(key, new Hit(statusCode, businessStatus, body), now + region.ttlNanos, now);
+    }
+
+    public static boolean isCacheable(int statusCode, String businessStatus) {
+        return statusCode >= 200 && statusCode < 300 && SUCCESS.equals(businessStatus);
+    }
+
+    public void invalidateAll() {
+        regions.values().forEach(Region::clear);
+    }
+
+    /** Entries held for {@code apiName} on the heap and off-heap, expired ones included until evicted. */
+    int size(String apiName) {
+        Region region = regions.get(apiName);
+        return region == null ? 0 : region.heap.size() + region.offHeap.size();
+    }
+
+    private Region region(String apiName) {
+        return regions.computeIfAbsent(apiName, this::newRegion);
+    }
+
+    private Region newRegion(String apiName) {
+        ResponseCacheProperties.OffHeap offHeap = properties.getOffHeap();
+        Region region = new Region(
+                apiName,
+                properties.ttlFor(apiName).toNanos(),
+                properties.maxEntriesFor(apiName),
+                offHeap.isEnabled() ? offHeap.getMaxBytes().toBytes() : 0
+        );
+        Gauge.builder("transbnk.cache.size", region, r -> r.heap.size())
+                .tag("api", apiName)
+                .tag("tier", "heap")
+                .register(meterRegistry);
+        if (region.offHeapMaxBytes > 0) {
+            Gauge.builder("transbnk.cache.size", region, r -> r.offHeap.size())
+                    .tag("api", apiName)
+                    .tag("tier", "off-heap")
+                    .register(meterRegistry);
+            Gauge.builder("transbnk.cache.off.heap.bytes", region, r -> r.offHeapBytes)
+                    .tag("api", apiName)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+        return region;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * @param body the upstream response body as received; shared between hits, never modify it
+     */
+    public record Hit(int statusCode, String businessStatus, byte[] body) {
+    }
+
+    private record Entry(Hit hit, long expiresAt) {
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    /**
+     * The entries of one apiName. Both tiers are access-ordered {@link LinkedHashMap}s behind one
+     * lock; an off-heap entry is a direct buffer of
+     * {@code expiresAt(8) statusCode(4) businessStatusLength(2) businessStatus body}.
+     */
+    private final class Region {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Entry> heap = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<String, ByteBuffer> offHeap = new LinkedHashMap<>(16, 0.75f, true);
+
+        private final String apiName;
+        private final long ttlNanos;
+        private final int maxEntries;
+        private final long offHeapMaxBytes;
+        private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+        private long offHeapBytes;
+
+        Region(String apiName, long ttlNanos, int maxEntries, long offHeapMaxBytes) {
+            this.apiName = apiName;
+            this.ttlNanos = ttlNanos;
+            this.maxEntries = maxEntries;
+            this.offHeapMaxBytes = offHeapMaxBytes;
+        }
+
+        Hit get(String key, long now) {
+            lock.lock();
+            try {
+                Entry entry = heap.get(key);
+                if (entry != null) {
+                    if (entry.isExpired(now)) {
+                        heap.remove(key);
+                        evicted("heap", "expired");
+                        return null;
+                    }
+                    return entry.hit();
+                }
+
+                ByteBuffer buffer = offHeap.remove(key);
+                if (buffer == null) {
+                    return null;
+                }
+                offHeapBytes -= buffer.capacity();
+                entry = decode(buffer);
+                if (entry.isExpired(now)) {
+                    evicted("off-heap", "expired");
+                    return null;
+                }
+                putOnHeap(key, entry, now);
+                return entry.hit();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(String key, Hit hit, long expiresAt, long now) {
+            lock.lock();
+            try {
+                ByteBuffer stale = offHeap.remove(key);
+                if (stale != null) {
+                    offHeapBytes -= stale.capacity();
+                }
+                putOnHeap(key, new Entry(hit, expiresAt), now);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                heap.clear();
+                offHeap.clear();
+                offHeapBytes = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void putOnHeap(String key, Entry entry, long now) {
+            heap.put(key, entry);
+            if (heap.size() <= maxEntries) {
+                return;
+            }
+
+            Iterator<Map.Entry<String, Entry>> eldest = heap.entrySet().iterator();
+            Map.Entry<String, Entry> evicted = eldest.next();
+            eldest.remove();
+            if (evicted.getValue().isExpired(now)) {
+                evicted("heap", "expired");
+            } else if (offHeapMaxBytes > 0) {
+                moveOffHeap(evicted.getKey(), evicted.getValue());
+            } else {
+                evicted("heap", "size");
+            }
+        }
+
+        private void moveOffHeap(String key, Entry entry) {
+            ByteBuffer buffer = encode(entry);
+            if (buffer.capacity() > offHeapMaxBytes) {
+                evicted("off-heap", "size");
+                return;
+            }
+            offHeap.put(key, buffer);
+            offHeapBytes += buffer.capacity();
+
+            Iterator<ByteBuffer> eldest = offHeap.values().iterator();
+            while (offHeapBytes > offHeapMaxBytes && eldest.hasNext()) {
+                offHeapBytes -= eldest.next().capacity();
+                eldest.remove();
+                evicted("off-heap", "size");
+            }
+        }
+
+        private void evicted(String tier, String cause) {
+            counters.computeIfAbsent("evictions|" + tier + '|' + cause, k -> Counter.builder("transbnk.cache.evictions")
+                    .tag("api", apiName)
+                    .tag("tier", tier)
+                    .tag("cause", cause)
+                    .register(meterRegistry)).increment();
+        }
+
+        Counter requests(String result) {
+            return counters.computeIfAbsent("requests|" + result, k -> Counter.builder("transbnk.cache.requests")
+                    .tag("api", apiName)
+                    .tag("result", result)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static ByteBuffer encode(Entry entry) {
+        Hit hit = entry.hit();
+        byte[] businessStatus = hit.businessStatus().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(8 + 4 + 2 + businessStatus.length + hit.body().length);
+        buffer.putLong(entry.expiresAt())
+                .putInt(hit.statusCode())
+                .putShort((short) businessStatus.length)
+                .put(businessStatus)
+                .put(hit.body())
+                .flip();
+        return buffer;
+    }
+
+    private static Entry decode(ByteBuffer stored) {
+        ByteBuffer buffer = stored.duplicate();
+        long expiresAt = buffer.getLong();
+        int statusCode = buffer.getInt();
+        byte[] businessStatus = new byte[buffer.getShort()];
+        buffer.get(businessStatus);
+        byte[] body = new byte[buffer.remaining()];
+        buffer.get(body);
+        return new Entry(new Hit(statusCode, new String(businessStatus, StandardCharsets.UTF_8), body), expiresAt);
+    }
+}
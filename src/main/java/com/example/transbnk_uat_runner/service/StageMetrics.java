@@ -0,0 +1,105 @@
+package com.example.transbnk_uat_runner.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of each stage of an {@code /api/{apiName}} call, so that our own overhead can be told
+ * apart from TrustHub's.
+ *
+ * <ul>
+ *     <li>{@code transbnk.request.stage{api, stage}}: body capture, decrypt, token validation,
+ *     template build, DB log, audit, archive and encrypt</li>
+ *     <li>{@code transbnk.upstream.call{api, http_status, business_status}}: the TrustHub call
+ *     itself; {@code http_status=none} when no response came back</li>
+ * </ul>
+ * Both are timers with percentile histograms, so their counts also give the throughput per stage.
+ * Only the apiNames this runner serves are tagged; any other name, such as an unknown path posted
+ * before the token check, is reported as {@code other} so that it cannot grow the registry.
+ */
+@Component
+public class StageMetrics {
+
+    public static final String BODY_CAPTURE = "body-capture";
+    public static final String DECRYPT = "decrypt";
+    public static final String TOKEN_VALIDATION = "token-validation";
+    public static final String TEMPLATE_BUILD = "template-build";
+    public static final String DB_LOG = "db-log";
+    public static final String AUDIT = "audit";
+    public static final String ARCHIVE = "archive";
+    public static final String ENCRYPT = "encrypt";
+
+    static final String OTHER_API = "other";
+
+    private static final Duration MIN_EXPECTED = Duration.ofNanos(50_000);
+    private static final Duration MAX_EXPECTED = Duration.ofMinutes(2);
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<StageKey, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<UpstreamKey, Timer> upstreamTimers = new ConcurrentHashMap<>();
+
+    public StageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String apiName, String stage, long elapsedNanos) {
+        stageTimers.computeIfAbsent(new StageKey(apiTag(apiName), stage), key -> Timer.builder("transbnk.request.stage")
+                        .description("Time spent in one stage of an /api call")
+                        .tag("api", key.api())
+                        .tag("stage", key.stage())
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(MIN_EXPECTED)
+                        .maximumExpectedValue(MAX_EXPECTED)
+                        .register(meterRegistry))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param httpStatus {@code 0} when the call failed without a response
+     */
+    public void recordUpstream(String apiName, int httpStatus, String businessStatus, long elapsedNanos) {
+        UpstreamKey key = new UpstreamKey(
+                apiTag(apiName),
+                httpStatus <= 0 ? "none" : Integer.toString(httpStatus),
+                businessStatus == null || businessStatus.isBlank() ? "UNKNOWN" : businessStatus
+        );
+        upstreamTimers.computeIfAbsent(key, k -> Timer.builder("transbnk.upstream.call")
+                        .description("TrustHub call latency by outcome")
+                        .tag("api", k.api())
+                        .tag("http_status", k.httpStatus())
+                        .tag("business_status", k.businessStatus())
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(MIN_EXPECTED)
+                        .maximumExpectedValue(MAX_EXPECTED)
+                        .register(meterRegistry))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The apiName of an {@code /api/{apiName}} path, {@code other} for any other path or an unknown
+     * apiName.
+     */
+    public static String apiNameOf(String path) {
+        if (path == null || !path.startsWith("/api/")) {
+            return OTHER_API;
+        }
+        return apiTag(path.substring("/api/".length()));
+    }
+
+    static String apiTag(String apiName) {
+        return apiName != null && ApiRunnerService.supports(apiName) ? apiName : OTHER_API;
+    }
+
+    private record StageKey(String api, String stage) {
+    }
+
+    private record UpstreamKey(String api, String httpStatus, String businessStatus) {
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ExecutorFactory;
+import com.example.transbnk_uat_runner.config.RetryProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Blocking TrustHub call behind {@link UpstreamGuard}, with the retries and hedging of
+ * {@link UpstreamRetryPolicy} for idempotent apiNames.
+ *
+ * <p>A hedged call runs its attempts on the {@code upstream-hedge} executor: when the first has
+ * not answered within the hedge delay a second one is sent and the first answer is kept. Every
+ * attempt holds its own bulkhead slot; no hedge is sent when none is free. The other attempt is
+ * not interrupted, as its blocking I/O would not stop: it keeps its slot until its request
+ * finishes, so the bulkhead never lets more requests reach TrustHub than it allows.
+ */
+@Component
+public class UpstreamCaller {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(UpstreamCaller.class);
+
+    private final UpstreamHttpClient upstreamHttpClient;
+    private final UpstreamGuard upstreamGuard;
+    private final UpstreamRetryPolicy retryPolicy;
+    private final StageMetrics stageMetrics;
+    private final ExecutorService hedgeExecutor;
+
+    public UpstreamCaller(
+            UpstreamHttpClient upstreamHttpClient,
+            UpstreamGuard upstreamGuard,
+            UpstreamRetryPolicy retryPolicy,
+            StageMetrics stageMetrics,
+            RetryProperties retryProperties,
+            ExecutorFactory executorFactory
+    ) {
+        this.upstreamHttpClient = upstreamHttpClient;
+        this.upstreamGuard = upstreamGuard;
+        this.retryPolicy = retryPolicy;
+        this.stageMetrics = stageMetrics;
+        this.hedgeExecutor = executorFactory.newExecutor("upstream-hedge", retryProperties.getHedge().getThreads());
+    }
+
+    /**
+     * The answer to use for {@code call}; 4xx and 5xx included. Attempts that were retried are
+     * recorded in {@link StageMetrics} here, the returned one is left to the caller.
+     *
+     * @throws UpstreamGuard.RejectedException when an attempt is not let through
+     * @throws RuntimeException                the transport error of the last attempt
+     */
+    public Answer call(ApiRunnerService.PreparedCall call) {
+        String apiName = call.apiName();
+        int maxAttempts = retryPolicy.maxAttempts(apiName);
+
+        for (int attempt = 1; ; attempt++) {
+            Answer answer;
+            try {
+                answer = hedged(call, upstreamGuard.acquire(apiName));
+            } catch (UpstreamGuard.RejectedException ex) {
+                throw ex;
+            } catch (RuntimeException ex) {
+                if (attempt >= maxAttempts || !retryPolicy.isRetryable(ex)) {
+                    throw ex;
+                }
+                log.warn(" Upstream attempt failed, retrying | apiName={} attempt={} error={}", apiName, attempt, ex.getMessage());
+                backoff(apiName, attempt);
+                continue;
+            }
+
+            if (attempt >= maxAttempts || !retryPolicy.isRetryable(answer.statusCode())) {
+                return answer;
+            }
+            stageMetrics.recordUpstream(apiName, answer.statusCode(), "RETRIED", answer.elapsedNanos());
+            log.warn(" Upstream answered {}, retrying | apiName={} attempt={}", answer.statusCode(), apiName, attempt);
+            backoff(apiName, attempt);
+        }
+    }
+
+    private Answer hedged(ApiRunnerService.PreparedCall call, UpstreamGuard.Permit permit) {
+        Optional<Duration> delay = retryPolicy.hedgeDelay(call.apiName());
+        if (delay.isEmpty()) {
+            return attempt(call, permit);
+        }
+
+        String apiName = call.apiName();
+        CompletionService<Answer> attempts = new ExecutorCompletionService<>(hedgeExecutor);
+        HedgeAttempt primary = new HedgeAttempt(attempts, call, permit);
+        HedgeAttempt hedge = null;
+        try {
+            Future<Answer> first = attempts.poll(delay.get().toNanos(), TimeUnit.NANOSECONDS);
+            if (first == null) {
+                UpstreamGuard.Permit hedgePermit = tryAcquire(apiName);
+                if (hedgePermit != null) {
+                    hedge = new HedgeAttempt(attempts, call, hedgePermit);
+                    retryPolicy.hedged(apiName, "sent");
+                }
+                first = attempts.take();
+            }
+
+            try {
+                Answer answer = first.get();
+                if (hedge != null && first == hedge.future) {
+                    retryPolicy.hedged(apiName, "won");
+                }
+                return answer;
+            } catch (ExecutionException ex) {
+                if (hedge == null) {
+                    throw unwrap(ex);
+                }
+                // the first attempt to finish failed; the other one may still answer
+                Future<Answer> second = attempts.take();
+                try {
+                    Answer answer = second.get();
+                    if (second == hedge.future) {
+                        retryPolicy.hedged(apiName, "won");
+                    }
+                    return answer;
+                } catch (ExecutionException secondEx) {
+                    throw unwrap(ex);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for apiName: " + apiName, ex);
+        } finally {
+            primary.abandon();
+            if (hedge != null) {
+                hedge.abandon();
+            }
+        }
+    }
+
+    /**
+     * One TrustHub request on the current thread; always releases {@code permit}.
+     */
+    private Answer attempt(ApiRunnerService.PreparedCall call, UpstreamGuard.Permit permit) {
+        String apiName = call.apiName();
+        HttpEntity<byte[]> request = new HttpEntity<>(call.body(), call.headers());
+
+        int httpStatus;
+        String responseBody;
+        long start = System.nanoTime();
+        try {
+            ResponseEntity<String> response = upstreamHttpClient.post(apiName, call.url(), request);
+            httpStatus = response.getStatusCode().value();
+            responseBody = response.getBody();
+        } catch (HttpStatusCodeException ex) {
+            httpStatus = ex.getStatusCode().value();
+            responseBody = ex.getResponseBodyAsString();
+        } catch (RuntimeException ex) {
+            long elapsed = System.nanoTime() - start;
+            permit.release(0, elapsed);
+            stageMetrics.recordUpstream(apiName, 0, "ERROR", elapsed);
+            throw ex;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        permit.release(httpStatus, elapsed);
+        if (!retryPolicy.isRetryable(httpStatus)) {
+            retryPolicy.recordLatency(apiName, elapsed);
+        }
+        return new Answer(httpStatus, responseBody, elapsed);
+    }
+
+    private UpstreamGuard.Permit tryAcquire(String apiName) {
+        try {
+            return upstreamGuard.tryAcquire(apiName).orElse(null);
+        } catch (UpstreamGuard.RejectedException ex) {
+            return null;
+        }
+    }
+
+    private void backoff(String apiName, int attempt) {
+        retryPolicy.retried(apiName);
+        LockSupport.parkNanos(retryPolicy.backoff(attempt).toNanos());
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IllegalStateException("Interrupted before retrying apiName: " + apiName);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException ex) {
+        Throwable cause = ex.getCause() == null ? ex : ex.getCause();
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
+    /**
+     * An attempt on the hedge executor and its permit. Whichever comes first owns the permit: the
+     * attempt starting, which then releases it when its request finishes, or {@link #abandon()},
+     * which frees it for an attempt still waiting in the executor's queue.
+     */
+    private final class HedgeAttempt {
+
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final UpstreamGuard.Permit permit;
+        private final Future<Answer> future;
+
+        HedgeAttempt(CompletionService<Answer> attempts, ApiRunnerService.PreparedCall call, UpstreamGuard.Permit permit) {
+            this.permit = permit;
+            try {
+                this.future = attempts.submit(() -> {
+                    if (!started.compareAndSet(false, true)) {
+                        throw new CancellationException("Abandoned before it started");
+                    }
+                    return attempt(call, permit);
+                });
+            } catch (RuntimeException ex) {
+                permit.cancel();
+                throw ex;
+            }
+        }
+
+        /** The answer is no longer needed; a running attempt is left to finish. */
+        void abandon() {
+            if (started.compareAndSet(false, true)) {
+                future.cancel(false);
+                permit.cancel();
+            }
+        }
+    }
+
+    /**
+     * @param elapsedNanos time of the attempt whose answer this is
+     */
+    public record Answer(int statusCode, String body, long elapsedNanos) {
+    }
+}
@@ -0,0 +1,498 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ResilienceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bulkhead and circuit breaker per apiName, so that one slow TrustHub endpoint cannot take the
+ * threads and connections of the others.
+ *
+ * <p>The bulkhead lets {@code max-concurrent} calls run and up to {@code max-queue} more wait
+ * {@code queue-timeout} for a slot; anything beyond is rejected as {@link #BULKHEAD_FULL}. The
+ * circuit breaker looks at the last {@code window-size} calls: once the share of failures (5xx or
+ * no response) or of calls slower than {@code slow-call-duration} reaches its threshold, it opens
+ * and calls are rejected as {@link #CIRCUIT_OPEN} without reaching TrustHub. After
+ * {@code open-duration} it lets {@code half-open-calls} trial calls through; it closes when all of
+ * them succeed and opens again on the first that does not. 4xx answers count as successes, since
+ * they say nothing about the endpoint's health.
+ */
+@Component
+public class UpstreamGuard {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(UpstreamGuard.class);
+
+    public static final String CIRCUIT_OPEN = "CIRCUIT_OPEN";
+    public static final String BULKHEAD_FULL = "BULKHEAD_FULL";
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final Permit NO_OP = new Permit(null, false);
+
+    private final ResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Guard> guards = new ConcurrentHashMap<>();
+
+    public UpstreamGuard(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * A permit for one call, waiting up to {@code queue-timeout} for a slot.
+     *
+     * @throws RejectedException when the circuit is open or the bulkhead and its queue are full
+     */
+    public Permit acquire(String apiName) {
+        if (!properties.isEnabled()) {
+            return NO_OP;
+        }
+
+        Guard guard = guardFor(apiName);
+        boolean trial = admit(guard, apiName);
+        try {
+            guard.bulkhead.acquire(apiName);
+        } catch (RejectedException ex) {
+            guard.breaker.cancel(trial);
+            guard.rejected(ex.reason());
+            throw ex;
+        }
+        return new Permit(guard, trial);
+    }
+
+    /**
+     * Non-blocking form of {@link #acquire}: empty when the call would have to queue, so that a
+     * reactive caller can do the waiting off the event loop.
+     *
+     * @throws RejectedException when the circuit is open
+     */
+    public Optional<Permit> tryAcquire(String apiName) {
+        if (!properties.isEnabled()) {
+            return Optional.of(NO_OP);
+        }
+
+        Guard guard = guardFor(apiName);
+        boolean trial = admit(guard, apiName);
+        if (!guard.bulkhead.slots.tryAcquire()) {
+            guard.breaker.cancel(trial);
+            return Optional.empty();
+        }
+        return Optional.of(new Permit(guard, trial));
+    }
+
+    /**
+     * Lets the call through the circuit breaker; a fail-fast on an open circuit is counted like a
+     * full bulkhead.
+     */
+    private static boolean admit(Guard guard, String apiName) {
+        try {
+            return guard.breaker.tryAcquire(apiName);
+        } catch (RejectedException ex) {
+            guard.rejected(ex.reason());
+            throw ex;
+        }
+    }
+
+    public State state(String apiName) {
+        Guard guard = guards.get(apiName);
+        return guard == null ? State.CLOSED : guard.breaker.state();
+    }
+
+    /**
+     * Closes the circuit of {@code apiName} and clears its call history.
+     */
+    public void reset(String apiName) {
+        Guard guard = guards.get(apiName);
+        if (guard != null) {
+            guard.breaker.reset(apiName);
+        }
+    }
+
+    /**
+     * Current state of every apiName called so far, sorted by apiName.
+     */
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> out = new TreeMap<>();
+        guards.forEach((apiName, guard) -> out.put(apiName, guard.snapshot()));
+        return out;
+    }
+
+    private Guard guardFor(String apiName) {
+        Guard guard = guards.get(apiName);
+        return guard != null ? guard : guards.computeIfAbsent(apiName, this::createGuard);
+    }
+
+    private Guard createGuard(String apiName) {
+        Bulkhead bulkhead = new Bulkhead(
+                properties.maxConcurrentFor(apiName),
+                properties.maxQueueFor(apiName),
+                properties.getQueueTimeout().toNanos()
+        );
+        CircuitBreaker breaker = new CircuitBreaker(
+                Math.max(1, properties.getWindowSize()),
+                Math.max(1, properties.getMinimumCalls()),
+                properties.failureRateThresholdFor(apiName),
+                properties.getSlowCallRateThreshold(),
+                properties.slowCallDurationFor(apiName).toNanos(),
+                properties.getOpenDuration().toNanos(),
+                Math.max(1, properties.getHalfOpenCalls())
+        );
+
+        Gauge.builder("transbnk.upstream.circuit.state", breaker, b -> b.state().ordinal())
+                .description("Circuit state: 0 closed, 1 open, 2 half-open")
+                .tag("api", apiName)
+                .register(meterRegistry);
+        Gauge.builder("transbnk.upstream.bulkhead.active", bulkhead, Bulkhead::active)
+                .description("TrustHub calls in flight")
+                .tag("api", apiName)
+                .register(meterRegistry);
+        Gauge.builder("transbnk.upstream.bulkhead.queued", bulkhead, b -> b.queued.get())
+                .description("TrustHub calls waiting for a bulkhead slot")
+                .tag("api", apiName)
+                .register(meterRegistry);
+
+        return new Guard(apiName, bulkhead, breaker);
+    }
+
+    private final class Guard {
+
+        private final String apiName;
+        private final Bulkhead bulkhead;
+        private final CircuitBreaker breaker;
+        private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+        Guard(String apiName, Bulkhead bulkhead, CircuitBreaker breaker) {
+            this.apiName = apiName;
+            this.bulkhead = bulkhead;
+            this.breaker = breaker;
+        }
+
+        void rejected(String reason) {
+            rejections.computeIfAbsent(reason, r -> Counter.builder("transbnk.upstream.rejected")
+                            .description("TrustHub calls rejected before they were sent")
+                            .tag("api", apiName)
+                            .tag("reason", r)
+                            .register(meterRegistry))
+                    .increment();
+        }
+
+        Snapshot snapshot() {
+            return breaker.snapshot(bulkhead);
+        }
+    }
+
+    /**
+     * One admitted call. Exactly one of {@link #release} and {@link #cancel} should be called;
+     * later calls are ignored.
+     */
+    public static final class Permit {
+
+        private final Guard guard;
+        private final boolean trial;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Guard guard, boolean trial) {
+            this.guard = guard;
+            this.trial = trial;
+        }
+
+        /**
+         * @param httpStatus {@code 0} when no response came back
+         */
+        public void release(int httpStatus, long elapsedNanos) {
+            if (guard == null || !released.compareAndSet(false, true)) {
+                return;
+            }
+            guard.bulkhead.slots.release();
+            guard.breaker.record(guard.apiName, trial, httpStatus <= 0 || httpStatus >= 500, elapsedNanos);
+        }
+
+        /** Frees the slot without counting the call, e.g. when the caller gave up on it. */
+        public void cancel() {
+            if (guard == null || !released.compareAndSet(false, true)) {
+                return;
+            }
+            guard.bulkhead.slots.release();
+            guard.breaker.cancel(trial);
+        }
+    }
+
+    public static final class RejectedException extends RuntimeException {
+
+        private final String reason;
+
+        RejectedException(String reason, String message) {
+            super(message);
+            this.reason = reason;
+        }
+
+        /** {@link #CIRCUIT_OPEN} or {@link #BULKHEAD_FULL}; used as the businessStatus. */
+        public String reason() {
+            return reason;
+        }
+    }
+
+    /**
+     * @param failureRate   percent of the recorded calls, {@code -1} before {@code minimum-calls}
+     * @param slowCallRate  percent of the recorded calls, {@code -1} before {@code minimum-calls}
+     */
+    public record Snapshot(
+            State state,
+            int bufferedCalls,
+            double failureRate,
+            double slowCallRate,
+            int active,
+            int queued,
+            int maxConcurrent,
+            int maxQueue
+    ) {
+    }
+
+    private static final class Bulkhead {
+
+        private final Semaphore slots;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final int maxConcurrent;
+        private final int maxQueue;
+        private final long queueTimeoutNanos;
+
+        Bulkhead(int maxConcurrent, int maxQueue, long queueTimeoutNanos) {
+            this.slots = new Semaphore(maxConcurrent, true);
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueue = maxQueue;
+            this.queueTimeoutNanos = queueTimeoutNanos;
+        }
+
+        void acquire(String apiName) {
+            if (slots.tryAcquire()) {
+                return;
+            }
+            if (queued.incrementAndGet() > maxQueue) {
+                queued.decrementAndGet();
+                throw new RejectedException(BULKHEAD_FULL, "Too many concurrent calls for apiName: " + apiName);
+            }
+            try {
+                if (!slots.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    throw new RejectedException(BULKHEAD_FULL, "No free slot for apiName: " + apiName);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RejectedException(BULKHEAD_FULL, "Interrupted waiting for a slot for apiName: " + apiName);
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+
+        int active() {
+            return maxConcurrent - slots.availablePermits();
+        }
+    }
+
+    /**
+     * Count-based circuit breaker over a ring of the last {@code windowSize} outcomes.
+     */
+    private static final class CircuitBreaker {
+
+        private static final byte FAILED = 1;
+        private static final byte SLOW = 2;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final byte[] window;
+        private final int minimumCalls;
+        private final int failureRateThreshold;
+        private final int slowCallRateThreshold;
+        private final long slowCallNanos;
+        private final long openNanos;
+        private final int halfOpenCalls;
+
+        private volatile State state = State.CLOSED;
+        private int next;
+        private int recorded;
+        private int failures;
+        private int slowCalls;
+        private long openedAt;
+        private int trialsInFlight;
+        private int trialsSucceeded;
+
+        CircuitBreaker(
+                int windowSize,
+                int minimumCalls,
+                int failureRateThreshold,
+                int slowCallRateThreshold,
+                long slowCallNanos,
+                long openNanos,
+                int halfOpenCalls
+        ) {
+            this.window = new byte[windowSize];
+            this.minimumCalls = Math.min(minimumCalls, windowSize);
+            this.failureRateThreshold = failureRateThreshold;
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            this.slowCallNanos = slowCallNanos;
+            this.openNanos = openNanos;
+            this.halfOpenCalls = halfOpenCalls;
+        }
+
+        State state() {
+            return state;
+        }
+
+        /**
+         * @return true when the call is a half-open trial
+         * @throws RejectedException while open, or when all trial calls are taken
+         */
+        boolean tryAcquire(String apiName) {
+            if (state == State.CLOSED) {
+                return false;
+            }
+
+            lock.lock();
+            try {
+                if (state == State.OPEN) {
+                    if (System.nanoTime() - openedAt < openNanos) {
+                        throw new RejectedException(CIRCUIT_OPEN, "Circuit open for apiName: " + apiName);
+                    }
+                    state = State.HALF_OPEN;
+                    trialsInFlight = 0;
+                    trialsSucceeded = 0;
+                    log.info(" Circuit half-open | apiName={}", apiName);
+                }
+                if (state == State.HALF_OPEN) {
+                    if (trialsInFlight + trialsSucceeded >= halfOpenCalls) {
+                        throw new RejectedException(CIRCUIT_OPEN, "Circuit half-open for apiName: " + apiName);
+                    }
+                    trialsInFlight++;
+                    return true;
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void record(String apiName, boolean trial, boolean failed, long elapsedNanos) {
+            boolean slow = elapsedNanos > slowCallNanos;
+            lock.lock();
+            try {
+                if (trial) {
+                    if (state != State.HALF_OPEN) {
+                        return;
+                    }
+                    trialsInFlight--;
+                    if (failed || slow) {
+                        open(apiName, "trial call " + (failed ? "failed" : "slow"));
+                    } else if (++trialsSucceeded >= halfOpenCalls) {
+                        clear();
+                        state = State.CLOSED;
+                        log.info(" Circuit closed | apiName={}", apiName);
+                    }
+                    return;
+                }
+
+                // calls admitted before the circuit opened say nothing new
+                if (state != State.CLOSED) {
+                    return;
+                }
+
+                byte outcome = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+                if (recorded == window.length) {
+                    byte oldest = window[next];
+                    failures -= oldest & FAILED;
+                    slowCalls -= (oldest & SLOW) >> 1;
+                } else {
+                    recorded++;
+                }
+                window[next] = outcome;
+                next = (next + 1) % window.length;
+                failures += outcome & FAILED;
+                slowCalls += (outcome & SLOW) >> 1;
+
+                if (recorded >= minimumCalls) {
+                    if (failures * 100 >= failureRateThreshold * recorded) {
+                        open(apiName, "failure rate " + (failures * 100 / recorded) + "%");
+                    } else if (slowCalls * 100 >= slowCallRateThreshold * recorded) {
+                        open(apiName, "slow call rate " + (slowCalls * 100 / recorded) + "%");
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void cancel(boolean trial) {
+            if (!trial) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (state == State.HALF_OPEN && trialsInFlight > 0) {
+                    trialsInFlight--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void reset(String apiName) {
+            lock.lock();
+            try {
+                clear();
+                state = State.CLOSED;
+                log.info(" Circuit reset | apiName={}", apiName);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Snapshot snapshot(Bulkhead bulkhead) {
+            lock.lock();
+            try {
+                boolean rated = recorded >= minimumCalls;
+                return new Snapshot(
+                        state,
+                        recorded,
+                        rated ? failures * 100.0 / recorded : -1,
+                        rated ? slowCalls * 100.0 / recorded : -1,
+                        bulkhead.active(),
+                        bulkhead.queued.get(),
+                        bulkhead.maxConcurrent,
+                        bulkhead.maxQueue
+                );
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void open(String apiName, String cause) {
+            clear();
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            log.warn(" Circuit opened | apiName={} cause={}", apiName, cause);
+        }
+
+        private void clear() {
+            next = 0;
+            recorded = 0;
+            failures = 0;
+            slowCalls = 0;
+            trialsInFlight = 0;
+            trialsSucceeded = 0;
+        }
+    }
+}
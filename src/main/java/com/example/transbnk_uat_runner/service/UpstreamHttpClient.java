@@ -0,0 +1,187 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.UpstreamHttpProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Outbound HTTP client for TrustHub calls. The engine is selected by {@code transbnk.http.engine}:
+ * <ul>
+ *     <li>{@code POOLED} - one keep-alive connection pool per apiName, so a slow endpoint
+ *     cannot exhaust the connections of the others</li>
+ *     <li>{@code HTTP2} - one shared JDK client that multiplexes calls over HTTP/2</li>
+ *     <li>{@code SIMPLE} - plain {@code HttpURLConnection}, kept for troubleshooting</li>
+ * </ul>
+ * All engines apply the configured connect and read timeouts.
+ */
+@Component
+public class UpstreamHttpClient implements DisposableBean {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(UpstreamHttpClient.class);
+
+    private final UpstreamHttpProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, PooledEndpoint> pooledEndpoints = new ConcurrentHashMap<>();
+    private final RestTemplate sharedTemplate;
+
+    public UpstreamHttpClient(UpstreamHttpProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.sharedTemplate = switch (properties.getEngine()) {
+            case SIMPLE -> new RestTemplate(simpleRequestFactory());
+            case HTTP2 -> new RestTemplate(http2RequestFactory());
+            case POOLED -> null;
+        };
+
+        log.info(
+                " Upstream HTTP engine={} | connectTimeout={} | readTimeout={} | responseTimeout={}",
+                properties.getEngine(),
+                properties.getConnectTimeout(),
+                properties.getReadTimeout(),
+                properties.getResponseTimeout()
+        );
+    }
+
+    public ResponseEntity<String> post(String apiName, String url, HttpEntity<byte[]> request) {
+        return templateFor(apiName).exchange(url, HttpMethod.POST, request, String.class);
+    }
+
+    private RestTemplate templateFor(String apiName) {
+        if (sharedTemplate != null) {
+            return sharedTemplate;
+        }
+        return pooledEndpoints.computeIfAbsent(apiName, this::createPooledEndpoint).restTemplate();
+    }
+
+    private ClientHttpRequestFactory simpleRequestFactory() {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(properties.getConnectTimeout());
+        factory.setReadTimeout(properties.getReadTimeout());
+        return factory;
+    }
+
+    private ClientHttpRequestFactory http2RequestFactory() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(properties.getResponseTimeout());
+        return factory;
+    }
+
+    private PooledEndpoint createPooledEndpoint(String apiName) {
+        int maxConnections = properties.maxConnectionsFor(apiName);
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                        .setTimeToLive(TimeValue.of(properties.getTimeToLive()))
+                        .setValidateAfterInactivity(TimeValue.of(properties.getValidateAfterInactivity()))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getPoolAcquireTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getResponseTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getIdleEviction()))
+                .disableAutomaticRetries()
+                .build();
+
+        registerPoolGauges(apiName, connectionManager);
+        log.info(" Upstream pool created | apiName={} | maxConnections={}", apiName, maxConnections);
+
+        return new PooledEndpoint(
+                connectionManager,
+                httpClient,
+                new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient))
+        );
+    }
+
+    private void registerPoolGauges(String apiName, PoolingHttpClientConnectionManager connectionManager) {
+        Gauge.builder("transbnk.upstream.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .description("Connections currently in use")
+                .tag("apiName", apiName)
+                .register(meterRegistry);
+        Gauge.builder("transbnk.upstream.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .description("Requests waiting for a connection")
+                .tag("apiName", apiName)
+                .register(meterRegistry);
+        Gauge.builder("transbnk.upstream.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .description("Idle keep-alive connections")
+                .tag("apiName", apiName)
+                .register(meterRegistry);
+        Gauge.builder("transbnk.upstream.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+                .tag("apiName", apiName)
+                .register(meterRegistry);
+        Gauge.builder("transbnk.upstream.pool.saturation", connectionManager, UpstreamHttpClient::saturation)
+                .description("Leased / max connections (1.0 = every connection busy)")
+                .tag("apiName", apiName)
+                .register(meterRegistry);
+    }
+
+    private static double saturation(PoolingHttpClientConnectionManager connectionManager) {
+        PoolStats stats = connectionManager.getTotalStats();
+        if (stats.getMax() <= 0) {
+            return 0d;
+        }
+        return (double) stats.getLeased() / stats.getMax();
+    }
+
+    @Override
+    public void destroy() {
+        pooledEndpoints.forEach((apiName, endpoint) -> {
+            try {
+                endpoint.httpClient().close();
+            } catch (Exception ex) {
+                log.warn(" Upstream pool close failed | apiName={} message={}", apiName, ex.getMessage());
+            }
+        });
+        pooledEndpoints.clear();
+    }
+
+    private record PooledEndpoint(
+            PoolingHttpClientConnectionManager connectionManager,
+            CloseableHttpClient httpClient,
+            RestTemplate restTemplate
+    ) {
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.RetryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * The retry and hedging rules shared by the servlet and reactive callers; see
+ * {@link RetryProperties}.
+ *
+ * <p>A call is retried on a 5xx answer or when the connection could not be made, with full-jitter
+ * exponential backoff. Read timeouts are not retried: a slow node is what hedging is for. The hedge
+ * delay is the configured percentile of the apiName's recent answer times, kept in a small ring
+ * per apiName.
+ */
+@Component
+public class UpstreamRetryPolicy {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(UpstreamRetryPolicy.class);
+
+    private static final Set<String> READ_ONLY_APIS = Set.of(
+            "aadhaar-validation",
+            "bank-account-validation",
+            "vpa-validation",
+            "upi-validate-vpa",
+            "docuflow-status",
+            "nach-status"
+    );
+
+    private static final int LATENCY_SAMPLES = 256;
+
+    private final RetryProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> idempotentApis;
+
+    private final Map<String, LatencyRing> latencies = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public UpstreamRetryPolicy(RetryProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.idempotentApis = properties.getIdempotentApis().stream()
+                .map(String::trim)
+                .filter(apiName -> !apiName.isEmpty())
+                .filter(apiName -> {
+                    if (!isReadOnly(apiName)) {
+                        log.warn(" Ignoring non-idempotent apiName in transbnk.retry.idempotent-apis | apiName={}", apiName);
+                        return false;
+                    }
+                    return true;
+                })
+                .collect(Collectors.toUnmodifiableSet());
+
+        log.info(" Upstream retry | idempotentApis={} | maxAttempts={} | hedge={}",
+                idempotentApis, properties.getMaxAttempts(), properties.getHedge().isEnabled());
+    }
+
+    public boolean isIdempotent(String apiName) {
+        return idempotentApis.contains(apiName);
+    }
+
+    public int maxAttempts(String apiName) {
+        return isIdempotent(apiName) ? properties.maxAttemptsFor(apiName) : 1;
+    }
+
+    public boolean isRetryable(int httpStatus) {
+        return httpStatus >= 500;
+    }
+
+    /**
+     * True when the request never reached TrustHub because the connection could not be made.
+     */
+    public boolean isRetryable(Throwable error) {
+        Throwable cause = error;
+        for (int depth = 0; cause != null && depth < 10; depth++, cause = cause.getCause()) {
+            if (cause instanceof ConnectException
+                    || cause instanceof NoRouteToHostException
+                    || cause instanceof UnknownHostException
+                    || cause instanceof HttpConnectTimeoutException
+                    || cause.getClass().getSimpleName().equals("ConnectTimeoutException")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wait before attempt {@code retry + 1}: uniform in {@code [0, min(max-backoff, initial * 2^(retry-1))]}.
+     */
+    public Duration backoff(int retry) {
+        long initial = properties.getInitialBackoff().toNanos();
+        long cap = properties.getMaxBackoff().toNanos();
+        long ceiling = Math.min(cap, initial << Math.min(30, Math.max(0, retry - 1)));
+        if (ceiling <= 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    /**
+     * How long to wait for the first attempt before sending a hedge; empty when the apiName is not
+     * hedged or too few answers have been seen.
+     */
+    public Optional<Duration> hedgeDelay(String apiName) {
+        if (!isIdempotent(apiName) || !properties.hedgeEnabledFor(apiName)) {
+            return Optional.empty();
+        }
+        LatencyRing ring = latencies.get(apiName);
+        if (ring == null) {
+            return Optional.empty();
+        }
+
+        RetryProperties.Hedge hedge = properties.getHedge();
+        long percentile = ring.percentile(hedge.getPercentile(), hedge.getMinSamples());
+        if (percentile < 0) {
+            return Optional.empty();
+        }
+        long delay = Math.max(hedge.getMinDelay().toNanos(), Math.min(hedge.getMaxDelay().toNanos(), percentile));
+        return Optional.of(Duration.ofNanos(delay));
+    }
+
+    /**
+     * Feeds the hedge percentile with the time of an answered (non-5xx) attempt.
+     */
+    public void recordLatency(String apiName, long elapsedNanos) {
+        if (isIdempotent(apiName)) {
+            latencies.computeIfAbsent(apiName, k -> new LatencyRing(LATENCY_SAMPLES)).add(elapsedNanos);
+        }
+    }
+
+    public void retried(String apiName) {
+        count("transbnk.upstream.retries", apiName, null);
+    }
+
+    /**
+     * @param outcome {@code sent} when a hedge goes out, {@code won} when its answer was used
+     */
+    public void hedged(String apiName, String outcome) {
+        count("transbnk.upstream.hedges", apiName, outcome);
+    }
+
+    private void count(String name, String apiName, String outcome) {
+        String key = name + '|' + apiName + '|' + outcome;
+        counters.computeIfAbsent(key, k -> {
+            Counter.Builder builder = Counter.builder(name).tag("api", apiName);
+            if (outcome != null) {
+                builder.tag("outcome", outcome);
+            }
+            return builder.register(meterRegistry);
+        }).increment();
+    }
+
+    /**
+     * True for the validations and status lookups, the only calls that just read at TrustHub. Every
+     * other apiName creates, resends or cancels something, so sending it twice does that twice: it
+     * is never retried or hedged, and load and replay runs leave it out unless explicitly allowed.
+     */
+    public static boolean isReadOnly(String apiName) {
+        return READ_ONLY_APIS.contains(apiName);
+    }
+
+    /**
+     * Last answer times of one apiName. The percentile is recomputed at most every
+     * {@code capacity / 16} samples.
+     */
+    private static final class LatencyRing {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long[] samples;
+        private final int recomputeEvery;
+
+        private int next;
+        private int size;
+        private int sinceRecompute;
+        private double cachedQuantile = Double.NaN;
+        private long cachedValue = -1;
+
+        LatencyRing(int capacity) {
+            this.samples = new long[capacity];
+            this.recomputeEvery = Math.max(1, capacity / 16);
+        }
+
+        void add(long nanos) {
+            lock.lock();
+            try {
+                samples[next] = nanos;
+                next = (next + 1) % samples.length;
+                if (size < samples.length) {
+                    size++;
+                }
+                sinceRecompute++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long percentile(double quantile, int minSamples) {
+            lock.lock();
+            try {
+                if (size < Math.max(1, minSamples)) {
+                    return -1;
+                }
+                if (quantile != cachedQuantile || cachedValue < 0 || sinceRecompute >= recomputeEvery) {
+                    long[] sorted = Arrays.copyOf(samples, size);
+                    Arrays.sort(sorted);
+                    int index = (int) Math.min(size - 1, Math.max(0, Math.ceil(quantile * size) - 1));
+                    cachedValue = sorted[index];
+                    cachedQuantile = quantile;
+                    sinceRecompute = 0;
+                }
+                return cachedValue;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
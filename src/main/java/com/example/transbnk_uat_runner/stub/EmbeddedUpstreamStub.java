@@ -0,0 +1,46 @@
+package com.example.transbnk_uat_runner.stub;
+
+import com.example.transbnk_uat_runner.config.ExecutorFactory;
+import com.example.transbnk_uat_runner.config.StubProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Runs {@link UpstreamStubServer} inside the application with {@code --spring.profiles.active=stub};
+ * {@code application-stub.properties} points {@code transbnk.base-url} at it. Combine with
+ * {@code load} or {@code replay} to run a performance suite without the TrustHub sandbox.
+ */
+@Component
+@Profile("stub")
+public class EmbeddedUpstreamStub {
+
+    private final StubProperties properties;
+    private final ExecutorFactory executorFactory;
+
+    private UpstreamStubServer server;
+
+    public EmbeddedUpstreamStub(StubProperties properties, ExecutorFactory executorFactory) {
+        this.properties = properties;
+        this.executorFactory = executorFactory;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        server = UpstreamStubServer.start(properties, executorFactory.newExecutor("upstream-stub", properties.getThreads()));
+    }
+
+    @PreDestroy
+    void stop() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    public UpstreamStubServer server() {
+        return server;
+    }
+}
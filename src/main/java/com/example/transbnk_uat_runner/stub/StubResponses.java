@@ -0,0 +1,74 @@
+package com.example.transbnk_uat_runner.stub;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Canned TrustHub answers per apiName, in each API's own status convention: {@code result_code}
+ * (101 found, 102 / 103 no record) for the Aadhaar, VPA and UPI calls, {@code statuscode} for
+ * Docuflow and {@code status} for bank account validation, NACH and payouts.
+ */
+final class StubResponses {
+
+    record Canned(String success, String failure) {
+    }
+
+    private static final Map<String, Canned> CANNED = new LinkedHashMap<>();
+
+    static {
+        CANNED.put("aadhaar-validation", new Canned(
+                "{\"result_code\":101,\"request_id\":\"STUB-AADH-1\",\"result\":{\"aadhaar_status\":\"VALID\",\"age_band\":\"20-30\",\"state\":\"Maharashtra\"}}",
+                "{\"result_code\":102,\"request_id\":\"STUB-AADH-1\",\"message\":\"No record found\"}"));
+        CANNED.put("bank-account-validation", new Canned(
+                "{\"statusCode\":200,\"status\":\"SUCCESS\",\"message\":\"Account validated\",\"acValidationStatus\":\"VALID\","
+                        + "\"responseId\":\"STUB-RESP-1\",\"nameAtBank\":\"TEST USER\",\"bankCode\":\"UTIB\",\"methodUsed\":\"IMPS\",\"utr\":\"UTR123\"}",
+                "{\"statusCode\":200,\"status\":\"FAILED\",\"message\":\"Account does not exist\",\"acValidationStatus\":\"INVALID\","
+                        + "\"responseId\":\"STUB-RESP-1\"}"));
+        CANNED.put("vpa-validation", new Canned(
+                "{\"result_code\":101,\"request_id\":\"STUB-VPA-1\",\"result\":{\"name_at_bank\":\"TEST USER\",\"vpa_status\":\"VALID\"}}",
+                "{\"result_code\":102,\"request_id\":\"STUB-VPA-1\",\"message\":\"VPA not found\"}"));
+
+        CANNED.put("docuflow-create", new Canned(
+                "{\"statuscode\":200,\"status\":\"SUCCESS\",\"documentId\":\"STUB-DOC-1\",\"dealReferenceId\":\"STUB-DEAL-1\"}",
+                "{\"statuscode\":400,\"status\":\"FAILED\",\"message\":\"Invalid signer details\"}"));
+        CANNED.put("docuflow-status", new Canned(
+                "{\"statuscode\":200,\"status\":\"SIGNED\",\"documentId\":\"STUB-DOC-1\"}",
+                "{\"statuscode\":404,\"status\":\"NOT_FOUND\",\"message\":\"Deal not found\"}"));
+        CANNED.put("docuflow-resend", new Canned(
+                "{\"statuscode\":200,\"status\":\"SUCCESS\",\"message\":\"Link sent\"}",
+                "{\"statuscode\":409,\"status\":\"FAILED\",\"message\":\"Document already signed\"}"));
+        CANNED.put("docuflow-cancel", new Canned(
+                "{\"statuscode\":200,\"status\":\"SUCCESS\",\"message\":\"Deal cancelled\"}",
+                "{\"statuscode\":409,\"status\":\"FAILED\",\"message\":\"Document already signed\"}"));
+
+        CANNED.put("nach-mandate-create", new Canned(
+                "{\"status\":\"SUCCESS\",\"nachRefNo\":\"STUB-NACH-1\",\"mandateStatus\":\"INITIATED\"}",
+                "{\"status\":\"FAILED\",\"message\":\"Invalid IFSC\"}"));
+        CANNED.put("nach-status", new Canned(
+                "{\"status\":\"SUCCESS\",\"nachRefNo\":\"STUB-NACH-1\",\"mandateStatus\":\"ACTIVE\",\"umrn\":\"STUB000000000001\"}",
+                "{\"status\":\"FAILED\",\"nachRefNo\":\"STUB-NACH-1\",\"mandateStatus\":\"REJECTED\"}"));
+
+        CANNED.put("upi-validate-vpa", new Canned(
+                "{\"result_code\":101,\"referenceNo\":\"STUB-UPI-1\",\"payerName\":\"TEST USER\"}",
+                "{\"result_code\":103,\"referenceNo\":\"STUB-UPI-1\",\"message\":\"Invalid VPA\"}"));
+        CANNED.put("upi-mandate-create", new Canned(
+                "{\"result_code\":101,\"referenceNo\":\"STUB-UPI-1\",\"mandateStatus\":\"PENDING\"}",
+                "{\"result_code\":102,\"referenceNo\":\"STUB-UPI-1\",\"message\":\"Payer VPA not found\"}"));
+
+        CANNED.put("payout-create", new Canned(
+                "{\"status\":\"SUCCESS\",\"custTxnRefNo\":\"STUB-TXN-1\",\"utr\":\"UTR123\"}",
+                "{\"status\":\"FAILED\",\"custTxnRefNo\":\"STUB-TXN-1\",\"message\":\"Insufficient balance\"}"));
+    }
+
+    private StubResponses() {
+    }
+
+    static Set<String> apiNames() {
+        return CANNED.keySet();
+    }
+
+    static Canned of(String apiName) {
+        return CANNED.get(apiName);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.transbnk_uat_runner.stub;
+
+import com.example.transbnk_uat_runner.config.StubProperties;
+import com.example.transbnk_uat_runner.service.ApiRunnerService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves every TrustHub path of {@link ApiRunnerService#endpoint(String)} with the canned answers
+ * of {@link StubResponses}, shaped by {@link StubProperties.Behaviour}: latency, errors, business
+ * failures, held requests and slow bodies. Runs on the JDK HTTP server, so it needs no second
+ * web stack and starts in milliseconds from a test.
+ */
+public final class UpstreamStubServer {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(UpstreamStubServer.class);
+
+    /** {@code 2.326} standard deviations from the median is the 99th percentile. */
+    private static final double Z_99 = 2.3263;
+
+    private final HttpServer server;
+    private final StubProperties properties;
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final AtomicReference<String> lastBody = new AtomicReference<>();
+
+    private UpstreamStubServer(HttpServer server, StubProperties properties) {
+        this.server = server;
+        this.properties = properties;
+    }
+
+    /**
+     * Binds {@code 127.0.0.1:port} and starts serving. The behaviours are read per request, so
+     * changes to {@code properties} apply to the next one.
+     */
+    public static UpstreamStubServer start(StubProperties properties, Executor executor) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", properties.getPort()), 0);
+        server.setExecutor(executor);
+        UpstreamStubServer stub = new UpstreamStubServer(server, properties);
+        for (String apiName : StubResponses.apiNames()) {
+            String path = ApiRunnerService.endpoint(apiName);
+            server.createContext(path, exchange -> stub.handle(apiName, path, exchange));
+        }
+        server.start();
+        log.info(" Upstream stub started | url={} | paths={}", stub.baseUrl(), StubResponses.apiNames().size());
+        return stub;
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /** Requests received on {@code path} so far. */
+    public int hits(String path) {
+        AtomicInteger count = hits.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    /** Body of the most recent request, on any path. */
+    public String lastBody() {
+        return lastBody.get();
+    }
+
+    private void handle(String apiName, String path, HttpExchange exchange) throws IOException {
+        try (exchange) {
+            int hit = hits.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            lastBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            StubProperties.Behaviour behaviour = properties.behaviourFor(apiName);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            if (random.nextDouble() < behaviour.getTimeoutRate()) {
+                // closed without an answer, unless the client gave up first
+                sleep(behaviour.getTimeoutHold());
+                return;
+            }
+            sleep(latency(behaviour, random));
+
+            int errorEvery = behaviour.getErrorEvery();
+            boolean error = (errorEvery > 0 && (hit - 1) % errorEvery == 0)
+                    || random.nextDouble() < behaviour.getErrorRate();
+            if (error) {
+                send(exchange, behaviour.getErrorStatus(), behaviour.getErrorBody(), behaviour);
+                return;
+            }
+            StubResponses.Canned canned = StubResponses.of(apiName);
+            send(exchange, 200, random.nextDouble() < behaviour.getFailureRate() ? canned.failure() : canned.success(),
+                    behaviour);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static Duration latency(StubProperties.Behaviour behaviour, ThreadLocalRandom random) {
+        long base = behaviour.getLatency().toNanos();
+        long high = behaviour.getLatencyHigh().toNanos();
+        return switch (behaviour.getLatencyDistribution()) {
+            case FIXED -> behaviour.getLatency();
+            case UNIFORM -> high <= base ? behaviour.getLatency() : Duration.ofNanos(random.nextLong(base, high + 1));
+            case LOG_NORMAL -> {
+                if (base <= 0 || high <= base) {
+                    yield behaviour.getLatency();
+                }
+                double sigma = Math.log((double) high / base) / Z_99;
+                yield Duration.ofNanos((long) (base * Math.exp(sigma * random.nextGaussian())));
+            }
+        };
+    }
+
+    private static void send(HttpExchange exchange, int status, String body, StubProperties.Behaviour behaviour)
+            throws IOException, InterruptedException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        int chunk = behaviour.getDripChunkBytes();
+        if (chunk <= 0) {
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            return;
+        }
+
+        // length 0: chunked, so each piece goes out on flush
+        exchange.sendResponseHeaders(status, 0);
+        OutputStream out = exchange.getResponseBody();
+        for (int offset = 0; offset < bytes.length; offset += chunk) {
+            if (offset > 0) {
+                sleep(behaviour.getDripInterval());
+            }
+            out.write(bytes, offset, Math.min(chunk, bytes.length - offset));
+            out.flush();
+        }
+    }
+
+    private static void sleep(Duration duration) throws InterruptedException {
+        if (!duration.isZero() && !duration.isNegative()) {
+            Thread.sleep(duration.toMillis(), duration.toNanosPart() % 1_000_000);
+        }
+    }
+}
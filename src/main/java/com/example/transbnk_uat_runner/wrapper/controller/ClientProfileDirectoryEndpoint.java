@@ -0,0 +1,49 @@
+package com.example.transbnk_uat_runner.wrapper.controller;
+
+import com.example.transbnk_uat_runner.wrapper.service.ClientProfileDirectory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/clientdirectory} shows the client directory's size and age;
+ * {@code POST /actuator/clientdirectory} reloads it from {@code client_profile} and needs
+ * {@code wrapper.admin-token}. Needs {@code clientdirectory} in
+ * {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@Endpoint(id = "clientdirectory")
+public class ClientProfileDirectoryEndpoint {
+
+	private final ClientProfileDirectory directory;
+
+	public ClientProfileDirectoryEndpoint(ClientProfileDirectory directory) {
+		this.directory = directory;
+	}
+
+	@ReadOperation
+	public Map<String, Object> status() {
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("size", directory.size());
+		body.put("lastRefreshAgeSeconds", directory.lastRefreshAge().toSeconds());
+		body.put("lastRefresh", format(directory.lastRefresh()));
+		body.put("lastFullRefresh", format(directory.lastFullRefresh()));
+		body.put("incremental", directory.isIncremental());
+		return body;
+	}
+
+	@WriteOperation
+	public Map<String, Object> refresh() {
+		directory.refreshAll();
+		return status();
+	}
+
+	private static String format(Instant instant) {
+		return instant == null ? null : instant.toString();
+	}
+}
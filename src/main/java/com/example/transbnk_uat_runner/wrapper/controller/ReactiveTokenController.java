@@ -0,0 +1,53 @@
+package com.example.transbnk_uat_runner.wrapper.controller;
+
+import com.example.transbnk_uat_runner.wrapper.dto.TokenGenerateBatchRequest;
+import com.example.transbnk_uat_runner.wrapper.dto.TokenGenerateBatchResponse;
+import com.example.transbnk_uat_runner.wrapper.dto.TokenGenerateRequest;
+import com.example.transbnk_uat_runner.wrapper.dto.TokenGenerateResponse;
+import com.example.transbnk_uat_runner.wrapper.dto.TokenValidateRequest;
+import com.example.transbnk_uat_runner.wrapper.dto.TokenValidateResponse;
+import com.example.transbnk_uat_runner.wrapper.service.WrapperTokenService;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * {@link TokenController} for the reactive stack; the JDBC work runs on the blocking scheduler.
+ */
+@RestController
+@RequestMapping("/api/v1/token")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTokenController {
+
+	private final WrapperTokenService tokenService;
+	private final Scheduler blockingScheduler;
+
+	public ReactiveTokenController(WrapperTokenService tokenService, Scheduler blockingScheduler) {
+		this.tokenService = tokenService;
+		this.blockingScheduler = blockingScheduler;
+	}
+
+	@PostMapping("/generate")
+	public Mono<ResponseEntity<TokenGenerateResponse>> generate(@RequestBody @Valid TokenGenerateRequest request) {
+		return Mono.fromCallable(() -> ResponseEntity.ok(new TokenGenerateResponse(tokenService.generateToken(request))))
+				.subscribeOn(blockingScheduler);
+	}
+
+	@PostMapping("/generate-batch")
+	public Mono<ResponseEntity<TokenGenerateBatchResponse>> generateBatch(@RequestBody @Valid TokenGenerateBatchRequest request) {
+		return Mono.fromCallable(() -> ResponseEntity.ok(tokenService.generateTokens(request.getRequests())))
+				.subscribeOn(blockingScheduler);
+	}
+
+	@PostMapping("/validate")
+	public Mono<ResponseEntity<TokenValidateResponse>> validate(@RequestBody @Valid TokenValidateRequest request) {
+		return Mono.fromCallable(() -> ResponseEntity.ok(new TokenValidateResponse(tokenService.validateToken(request))))
+				.subscribeOn(blockingScheduler);
+	}
+}
@@ -1,11 +1,14 @@
 package com.example.transbnk_uat_runner.wrapper.controller;
 
+import com.example.transbnk_uat_runner.wrapper.dto.TokenGenerateBatchRequest;
+import com.example.transbnk_uat_runner.wrapper.dto.TokenGenerateBatchResponse;
 import com.example.transbnk_uat_runner.wrapper.dto.TokenGenerateRequest;
 import com.example.transbnk_uat_runner.wrapper.dto.TokenGenerateResponse;
 import com.example.transbnk_uat_runner.wrapper.dto.TokenValidateRequest;
 import com.example.transbnk_uat_runner.wrapper.dto.TokenValidateResponse;
 import com.example.transbnk_uat_runner.wrapper.service.WrapperTokenService;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -14,6 +17,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/api/v1/token")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class TokenController {
 
 	private final WrapperTokenService tokenService;
@@ -28,6 +32,11 @@ public class TokenController {
 		return ResponseEntity.ok(new TokenGenerateResponse(token));
 	}
 
+	@PostMapping("/generate-batch")
+	public ResponseEntity<TokenGenerateBatchResponse> generateBatch(@RequestBody @Valid TokenGenerateBatchRequest request) throws Exception {
+		return ResponseEntity.ok(tokenService.generateTokens(request.getRequests()));
+	}
+
 	@PostMapping("/validate")
 	public ResponseEntity<TokenValidateResponse> validate(@RequestBody @Valid TokenValidateRequest request) {
 		boolean valid = tokenService.validateToken(request);
@@ -0,0 +1,22 @@
+package com.example.transbnk_uat_runner.wrapper.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Items are validated one by one when the batch runs, so one bad item fails only its own result.
+ */
+public class TokenGenerateBatchRequest {
+
+	@NotEmpty(message = "At least one request is required")
+	private List<TokenGenerateRequest> requests;
+
+	public List<TokenGenerateRequest> getRequests() {
+		return requests;
+	}
+
+	public void setRequests(List<TokenGenerateRequest> requests) {
+		this.requests = requests;
+	}
+}
@@ -0,0 +1,69 @@
+package com.example.transbnk_uat_runner.wrapper.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+public class TokenGenerateBatchResponse {
+
+	private List<Item> results;
+
+	public TokenGenerateBatchResponse() {
+	}
+
+	public TokenGenerateBatchResponse(List<Item> results) {
+		this.results = results;
+	}
+
+	public List<Item> getResults() {
+		return results;
+	}
+
+	public void setResults(List<Item> results) {
+		this.results = results;
+	}
+
+	/**
+	 * One result per request, in request order; exactly one of {@code token} and {@code error} is set.
+	 */
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	public static class Item {
+
+		private int index;
+		private String token;
+		private String error;
+
+		public Item() {
+		}
+
+		public Item(int index, String token, String error) {
+			this.index = index;
+			this.token = token;
+			this.error = error;
+		}
+
+		public int getIndex() {
+			return index;
+		}
+
+		public void setIndex(int index) {
+			this.index = index;
+		}
+
+		public String getToken() {
+			return token;
+		}
+
+		public void setToken(String token) {
+			this.token = token;
+		}
+
+		public String getError() {
+			return error;
+		}
+
+		public void setError(String error) {
+			this.error = error;
+		}
+	}
+}
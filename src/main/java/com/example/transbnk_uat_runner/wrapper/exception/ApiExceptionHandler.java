@@ -7,6 +7,8 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
 
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -17,8 +19,35 @@ public class ApiExceptionHandler {
 
 	@ExceptionHandler(MethodArgumentNotValidException.class)
 	public ResponseEntity<Map<String, Object>> handleValidation(MethodArgumentNotValidException ex) {
-		List<Map<String, String>> errors = ex.getBindingResult()
-				.getFieldErrors()
+		return validationFailed(ex.getBindingResult().getFieldErrors());
+	}
+
+	/** WebFlux counterpart of {@link MethodArgumentNotValidException}. */
+	@ExceptionHandler(WebExchangeBindException.class)
+	public ResponseEntity<Map<String, Object>> handleReactiveValidation(WebExchangeBindException ex) {
+		return validationFailed(ex.getFieldErrors());
+	}
+
+	@ExceptionHandler(HttpMessageNotReadableException.class)
+	public ResponseEntity<Map<String, Object>> handleBadJson(HttpMessageNotReadableException ex) {
+		return badJson();
+	}
+
+	/** WebFlux counterpart of {@link HttpMessageNotReadableException}. */
+	@ExceptionHandler(ServerWebInputException.class)
+	public ResponseEntity<Map<String, Object>> handleReactiveBadJson(ServerWebInputException ex) {
+		return badJson();
+	}
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex) {
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("message", ex.getMessage() == null ? "Bad request" : ex.getMessage());
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+	}
+
+	private static ResponseEntity<Map<String, Object>> validationFailed(List<FieldError> fieldErrors) {
+		List<Map<String, String>> errors = fieldErrors
 				.stream()
 				.map(ApiExceptionHandler::toError)
 				.toList();
@@ -29,20 +58,12 @@ public class ApiExceptionHandler {
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
 	}
 
-	@ExceptionHandler(HttpMessageNotReadableException.class)
-	public ResponseEntity<Map<String, Object>> handleBadJson(HttpMessageNotReadableException ex) {
+	private static ResponseEntity<Map<String, Object>> badJson() {
 		Map<String, Object> body = new LinkedHashMap<>();
 		body.put("message", "Invalid JSON request body");
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
 	}
 
-	@ExceptionHandler(IllegalArgumentException.class)
-	public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex) {
-		Map<String, Object> body = new LinkedHashMap<>();
-		body.put("message", ex.getMessage() == null ? "Bad request" : ex.getMessage());
-		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
-	}
-
 	private static Map<String, String> toError(FieldError fieldError) {
 		Map<String, String> error = new LinkedHashMap<>();
 		error.put("field", fieldError.getField());
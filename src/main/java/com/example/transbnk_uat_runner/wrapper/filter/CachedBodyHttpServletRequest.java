@@ -21,6 +21,10 @@ public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
 		this.cachedBody = StreamUtils.copyToByteArray(request.getInputStream());
 	}
 
+	public byte[] getCachedBody() {
+		return cachedBody;
+	}
+
 	@Override
 	public ServletInputStream getInputStream() {
 		ByteArrayInputStream inputStream = new ByteArrayInputStream(cachedBody);
@@ -0,0 +1,128 @@
+package com.example.transbnk_uat_runner.wrapper.filter;
+
+import com.example.transbnk_uat_runner.service.StageMetrics;
+import com.example.transbnk_uat_runner.wrapper.service.WrapperPayloadCryptoService;
+import com.example.transbnk_uat_runner.wrapper.service.WrapperTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link WrapperAuthFilter} for the reactive stack. A token found in the validation cache is
+ * accepted on the event loop; only a cache miss goes to the database, on the blocking scheduler.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWrapperAuthFilter implements WebFilter {
+
+	private final WrapperTokenService tokenService;
+	private final WrapperAuthSupport authSupport;
+	private final WrapperPayloadCryptoService payloadCryptoService;
+	private final ObjectMapper objectMapper;
+	private final Scheduler blockingScheduler;
+	private final StageMetrics stageMetrics;
+
+	public ReactiveWrapperAuthFilter(
+			WrapperTokenService tokenService,
+			WrapperAuthSupport authSupport,
+			WrapperPayloadCryptoService payloadCryptoService,
+			ObjectMapper objectMapper,
+			Scheduler blockingScheduler,
+			StageMetrics stageMetrics
+	) {
+		this.tokenService = tokenService;
+		this.authSupport = authSupport;
+		this.payloadCryptoService = payloadCryptoService;
+		this.objectMapper = objectMapper;
+		this.blockingScheduler = blockingScheduler;
+		this.stageMetrics = stageMetrics;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		ServerHttpRequest request = exchange.getRequest();
+		if (WrapperAuthSupport.isActuatorWrite(request.getMethod().name(), request.getPath().value())) {
+			return authSupport.isAdmin(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION))
+					? chain.filter(exchange)
+					: writeUnauthorized(exchange, WrapperAuthSupport.ADMIN_TOKEN_REQUIRED);
+		}
+		if (!WrapperAuthSupport.requiresToken(request.getMethod().name(), request.getPath().value())) {
+			return chain.filter(exchange);
+		}
+
+		String apiName = StageMetrics.apiNameOf(request.getPath().value());
+		return timed(apiName, StageMetrics.BODY_CAPTURE, RequestEnvelope.from(exchange, objectMapper, payloadCryptoService)).flatMap(envelope -> {
+			String token = authSupport.resolveToken(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION), envelope);
+			if (token == null) {
+				return writeUnauthorized(exchange, envelope, "Authorization header or body token is required");
+			}
+
+			return timed(apiName, StageMetrics.TOKEN_VALIDATION, validate(token)).flatMap(valid -> valid
+					? chain.filter(exchange.mutate().request(replayBody(request, envelope.rawBody())).build())
+					: writeUnauthorized(exchange, envelope, "Invalid or expired token"));
+		});
+	}
+
+	private Mono<Boolean> validate(String token) {
+		return tokenService.validateCached(token)
+				.map(Mono::just)
+				.orElseGet(() -> Mono.fromCallable(() -> tokenService.validateUncached(token))
+						.subscribeOn(blockingScheduler));
+	}
+
+	/**
+	 * Records the time from subscription to the value of {@code source}.
+	 */
+	private <T> Mono<T> timed(String apiName, String stage, Mono<T> source) {
+		return Mono.defer(() -> {
+			long start = System.nanoTime();
+			return source.doOnNext(value -> stageMetrics.record(apiName, stage, System.nanoTime() - start));
+		});
+	}
+
+	private Mono<Void> writeUnauthorized(ServerWebExchange exchange, RequestEnvelope envelope, String message) {
+		return Mono.fromCallable(() -> authSupport.rejectWithAudit(envelope, message))
+				.subscribeOn(blockingScheduler)
+				.flatMap(responsePayload -> writeUnauthorized(exchange, responsePayload));
+	}
+
+	private static Mono<Void> writeUnauthorized(ServerWebExchange exchange, String responsePayload) {
+		ServerHttpResponse response = exchange.getResponse();
+		response.setStatusCode(HttpStatus.UNAUTHORIZED);
+		response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+		DataBuffer buffer = response.bufferFactory().wrap(responsePayload.getBytes(StandardCharsets.UTF_8));
+		return response.writeWith(Mono.just(buffer));
+	}
+
+	/**
+	 * The body was consumed to build the envelope; downstream readers get the cached bytes, and no
+	 * body at all when none was sent.
+	 */
+	private static ServerHttpRequest replayBody(ServerHttpRequest request, byte[] body) {
+		return new ServerHttpRequestDecorator(request) {
+			@Override
+			public Flux<DataBuffer> getBody() {
+				if (body.length == 0) {
+					return Flux.empty();
+				}
+				return Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+			}
+		};
+	}
+}
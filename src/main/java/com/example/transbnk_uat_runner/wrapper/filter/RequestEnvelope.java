@@ -0,0 +1,220 @@
+package com.example.transbnk_uat_runner.wrapper.filter;
+
+import com.example.transbnk_uat_runner.wrapper.service.WrapperPayloadCryptoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Request-scoped view of an {@code /api/**} request body, parsed exactly once.
+ *
+ * <p>{@link WrapperAuthFilter} (or {@link ReactiveWrapperAuthFilter}) builds it from the raw bytes
+ * and stores it under {@link #ATTRIBUTE}; controllers read it back with {@link #from}.
+ *
+ * <p>The JSON tree is owned by the envelope, so the {@code token} field is removed in place rather
+ * than on a copy. The {@code encData} payload is decrypted on first access to {@link #payload()}
+ * so that rejected requests never pay for it.
+ */
+public final class RequestEnvelope {
+
+	public static final String ATTRIBUTE = RequestEnvelope.class.getName();
+
+	private final byte[] rawBody;
+	private final JsonNode body;
+	private final boolean malformed;
+	private final String token;
+	private final String encData;
+
+	private final ObjectMapper objectMapper;
+	private final WrapperPayloadCryptoService payloadCryptoService;
+
+	private boolean payloadResolved;
+	private JsonNode payload;
+	private Exception payloadError;
+	private String requestId;
+
+	private RequestEnvelope(
+			byte[] rawBody,
+			ObjectMapper objectMapper,
+			WrapperPayloadCryptoService payloadCryptoService
+	) {
+		this.rawBody = rawBody == null ? new byte[0] : rawBody;
+		this.objectMapper = objectMapper;
+		this.payloadCryptoService = payloadCryptoService;
+
+		JsonNode parsed = null;
+		boolean failed = false;
+		if (this.rawBody.length > 0) {
+			try {
+				parsed = objectMapper.readTree(this.rawBody);
+			} catch (IOException ex) {
+				failed = true;
+			}
+		}
+
+		this.body = parsed == null || parsed.isMissingNode() || parsed.isNull() ? null : parsed;
+		this.malformed = failed;
+		this.token = trimToNull(text(body, "token"));
+		this.encData = firstNonBlank(text(body, "encData"), text(body, "encryptedData"));
+	}
+
+	public static RequestEnvelope parse(
+			byte[] rawBody,
+			ObjectMapper objectMapper,
+			WrapperPayloadCryptoService payloadCryptoService
+	) {
+		return new RequestEnvelope(rawBody, objectMapper, payloadCryptoService);
+	}
+
+	/**
+	 * Returns the envelope captured by {@link WrapperAuthFilter}, or reads the body now when the
+	 * filter did not run for this request.
+	 */
+	public static RequestEnvelope from(
+			HttpServletRequest request,
+			ObjectMapper objectMapper,
+			WrapperPayloadCryptoService payloadCryptoService
+	) throws IOException {
+		Object attribute = request.getAttribute(ATTRIBUTE);
+		if (attribute instanceof RequestEnvelope envelope) {
+			return envelope;
+		}
+
+		RequestEnvelope envelope = parse(request.getInputStream().readAllBytes(), objectMapper, payloadCryptoService);
+		request.setAttribute(ATTRIBUTE, envelope);
+		return envelope;
+	}
+
+	/**
+	 * Reactive form of {@link #from(HttpServletRequest, ObjectMapper, WrapperPayloadCryptoService)}:
+	 * the body is aggregated without blocking and parsed once.
+	 */
+	public static Mono<RequestEnvelope> from(
+			ServerWebExchange exchange,
+			ObjectMapper objectMapper,
+			WrapperPayloadCryptoService payloadCryptoService
+	) {
+		RequestEnvelope captured = exchange.getAttribute(ATTRIBUTE);
+		if (captured != null) {
+			return Mono.just(captured);
+		}
+
+		return DataBufferUtils.join(exchange.getRequest().getBody())
+				.map(buffer -> {
+					byte[] bytes = new byte[buffer.readableByteCount()];
+					buffer.read(bytes);
+					DataBufferUtils.release(buffer);
+					return bytes;
+				})
+				.defaultIfEmpty(new byte[0])
+				.map(bytes -> {
+					RequestEnvelope envelope = parse(bytes, objectMapper, payloadCryptoService);
+					exchange.getAttributes().put(ATTRIBUTE, envelope);
+					return envelope;
+				});
+	}
+
+	public byte[] rawBody() {
+		return rawBody;
+	}
+
+	public String rawText() {
+		return rawBody.length == 0 ? null : new String(rawBody, StandardCharsets.UTF_8);
+	}
+
+	/** True when a non-empty body was not valid JSON. */
+	public boolean isMalformed() {
+		return malformed;
+	}
+
+	public String token() {
+		return token;
+	}
+
+	public String encData() {
+		return encData;
+	}
+
+	public boolean isEncrypted() {
+		return encData != null;
+	}
+
+	/**
+	 * The business payload: the decrypted {@code encData} when present, otherwise the body itself,
+	 * with the {@code token} field removed. {@code null} for an empty body.
+	 *
+	 * @throws IllegalArgumentException when {@code encData} cannot be decrypted or parsed
+	 */
+	public JsonNode payload() {
+		if (!payloadResolved) {
+			resolvePayload();
+		}
+		if (payloadError != null) {
+			throw new IllegalArgumentException(payloadError.getMessage(), payloadError);
+		}
+		return payload;
+	}
+
+	/**
+	 * {@code requestId} / {@code request_id} from the payload if it was already resolved, otherwise
+	 * from the outer body, otherwise a generated UUID. The value is fixed on first call.
+	 */
+	public String requestId() {
+		if (requestId != null) {
+			return requestId;
+		}
+
+		String fromPayload = payloadResolved && payloadError == null ? requestIdOf(payload) : null;
+		String resolved = firstNonBlank(fromPayload, requestIdOf(body));
+		requestId = resolved == null ? UUID.randomUUID().toString() : resolved;
+		return requestId;
+	}
+
+	private void resolvePayload() {
+		payloadResolved = true;
+		try {
+			JsonNode resolved = body;
+			if (encData != null) {
+				byte[] decrypted = payloadCryptoService.decryptPayload(encData.getBytes(StandardCharsets.US_ASCII));
+				resolved = objectMapper.readTree(decrypted);
+			}
+			if (resolved instanceof ObjectNode objectNode) {
+				objectNode.remove("token");
+			}
+			payload = resolved;
+		} catch (Exception ex) {
+			payloadError = ex;
+		}
+	}
+
+	private static String requestIdOf(JsonNode json) {
+		return firstNonBlank(text(json, "requestId"), text(json, "request_id"));
+	}
+
+	private static String text(JsonNode json, String fieldName) {
+		if (json == null) {
+			return null;
+		}
+		JsonNode value = json.get(fieldName);
+		if (value == null || !value.isValueNode() || value.asText().isBlank()) {
+			return null;
+		}
+		return value.asText();
+	}
+
+	private static String trimToNull(String value) {
+		return value == null ? null : value.trim();
+	}
+
+	private static String firstNonBlank(String first, String second) {
+		return first != null ? first : second;
+	}
+}
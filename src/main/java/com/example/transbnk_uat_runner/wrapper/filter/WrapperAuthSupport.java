@@ -0,0 +1,139 @@
+package com.example.transbnk_uat_runner.wrapper.filter;
+
+import com.example.transbnk_uat_runner.wrapper.service.WrapperAuditService;
+import com.example.transbnk_uat_runner.wrapper.service.WrapperPayloadCryptoService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Locale;
+
+/**
+ * Token rules shared by {@link WrapperAuthFilter} and {@link ReactiveWrapperAuthFilter}: which paths
+ * are protected, where the token comes from and what a rejected request gets back.
+ */
+@Component
+public class WrapperAuthSupport {
+
+	private final WrapperAuditService auditService;
+	private final WrapperPayloadCryptoService payloadCryptoService;
+
+	public static final String ADMIN_TOKEN_REQUIRED = "{\"message\":\"Admin token is required\"}";
+
+	private final boolean payloadRequired;
+	private final byte[] adminToken;
+
+	public WrapperAuthSupport(
+			WrapperAuditService auditService,
+			WrapperPayloadCryptoService payloadCryptoService,
+			@Value("${wrapper.payload-required:false}") boolean payloadRequired,
+			@Value("${wrapper.admin-token:}") String adminToken
+	) {
+		this.auditService = auditService;
+		this.payloadCryptoService = payloadCryptoService;
+		this.payloadRequired = payloadRequired;
+		this.adminToken = adminToken == null || adminToken.isBlank() ? null : adminToken.getBytes(StandardCharsets.UTF_8);
+	}
+
+	public static boolean requiresToken(String method, String path) {
+		if (method != null && method.equalsIgnoreCase("OPTIONS")) {
+			return false;
+		}
+
+		if (path == null || path.isBlank()) {
+			return false;
+		}
+
+		if (path.startsWith("/api/v1/token")) {
+			return false;
+		}
+
+		if (path.startsWith("/error") || path.startsWith("/actuator")) {
+			return false;
+		}
+
+		return path.startsWith("/api/");
+	}
+
+	/**
+	 * An {@code /actuator} call other than a read, such as closing a circuit or reloading the
+	 * client directory. These change the wrapper for every client, so they take
+	 * {@code wrapper.admin-token} rather than a client's transaction token.
+	 */
+	public static boolean isActuatorWrite(String method, String path) {
+		if (path == null || !path.startsWith("/actuator")) {
+			return false;
+		}
+		return method == null || !(method.equalsIgnoreCase("GET")
+				|| method.equalsIgnoreCase("HEAD")
+				|| method.equalsIgnoreCase("OPTIONS"));
+	}
+
+	/**
+	 * Whether the {@code Authorization} header carries {@code wrapper.admin-token}; always
+	 * {@code false} when none is configured, which leaves actuator writes disabled.
+	 */
+	public boolean isAdmin(String authorizationHeader) {
+		String token = extractBearerToken(authorizationHeader);
+		return adminToken != null && token != null
+				&& MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * The bearer token from the {@code Authorization} header, otherwise the {@code token} field of
+	 * the body; {@code null} when neither is present.
+	 */
+	public String resolveToken(String authorizationHeader, RequestEnvelope envelope) {
+		String token = extractBearerToken(authorizationHeader);
+		if (token == null || token.isBlank()) {
+			token = envelope.token();
+		}
+		return token == null || token.isBlank() ? null : token;
+	}
+
+	/**
+	 * Audits the rejection and returns the 401 body, encrypted when the request was.
+	 */
+	public String rejectWithAudit(RequestEnvelope envelope, String message) {
+		boolean encryptedMode = payloadRequired || envelope.isEncrypted();
+		String plainResponsePayload = "{\"message\":\"" + sanitize(message) + "\"}";
+
+		auditService.writeAudit(envelope.requestId(), envelope.rawText(), plainResponsePayload, "TOKEN_INVALID");
+
+		String responsePayload = plainResponsePayload;
+		if (encryptedMode) {
+			try {
+				String encrypted = payloadCryptoService.encryptPayload(plainResponsePayload);
+				responsePayload = "{\"encData\":\"" + sanitize(encrypted) + "\"}";
+			} catch (Exception ignored) {
+				// fall back to plain response payload
+			}
+		}
+		return responsePayload;
+	}
+
+	private static String extractBearerToken(String authorizationHeader) {
+		if (authorizationHeader == null || authorizationHeader.isBlank()) {
+			return null;
+		}
+
+		String headerValue = authorizationHeader.trim();
+		if (headerValue.toLowerCase(Locale.ROOT).startsWith("bearer ")) {
+			headerValue = headerValue.substring(7).trim();
+		}
+
+		if (headerValue.length() >= 2 && headerValue.startsWith("\"") && headerValue.endsWith("\"")) {
+			headerValue = headerValue.substring(1, headerValue.length() - 1).trim();
+		}
+
+		return headerValue;
+	}
+
+	private static String sanitize(String value) {
+		if (value == null) {
+			return "";
+		}
+		return value.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+}
@@ -0,0 +1,11 @@
+package com.example.transbnk_uat_runner.wrapper.service;
+
+/**
+ * A {@code client_profile} row: the TrustHub user and merchant ids behind a wrapper client.
+ */
+public record ClientProfile(
+		String clientId,
+		String transactionUserId,
+		String transactionMerchantId
+) {
+}
@@ -0,0 +1,291 @@
+package com.example.transbnk_uat_runner.wrapper.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of {@code client_profile}, so token generation for a known client needs no query.
+ *
+ * <p>The table is loaded at startup. Every {@code wrapper.client-directory.refresh-interval-ms} only
+ * rows whose {@code updated_at} is at or after the newest one already seen are read again; every
+ * {@code wrapper.client-directory.full-refresh-interval-ms}, and on {@code POST
+ * /actuator/clientdirectory}, the table is read in full so deleted clients disappear too. A client
+ * missing from memory is looked up in the database and kept when found. Without the
+ * {@code updated_at} column (see {@code db/migrations/002_client_profile_updated_at.sql}) every
+ * refresh is a full one.
+ */
+@Component
+public class ClientProfileDirectory {
+
+	private static final Logger log = LoggerFactory.getLogger(ClientProfileDirectory.class);
+
+	/** Bind-parameter limit per {@code IN (...)} list. */
+	private static final int IN_CHUNK = 500;
+
+	private static final String SELECT_COLUMNS = """
+			SELECT
+				client_id,
+				transaction_userid,
+				transaction_merchantid
+			FROM client_profile
+			""";
+
+	private static final RowMapper<ClientProfile> PROFILE_MAPPER = (rs, rowNum) -> new ClientProfile(
+			rs.getString("client_id"),
+			rs.getString("transaction_userid"),
+			rs.getString("transaction_merchantid")
+	);
+
+	private final JdbcTemplate jdbcTemplate;
+	private final MeterRegistry meterRegistry;
+
+	@Value("${wrapper.client-directory.enabled:true}")
+	private boolean enabled;
+
+	@Value("${wrapper.client-directory.full-refresh-interval-ms:3600000}")
+	private long fullRefreshIntervalMs;
+
+	private volatile Map<String, ClientProfile> profiles = new ConcurrentHashMap<>();
+	private final ReentrantLock refreshLock = new ReentrantLock();
+
+	/** Newest {@code updated_at} seen, as stored in the database; {@code null} until known. */
+	private Timestamp watermark;
+	private boolean incrementalSupported = true;
+	private final Instant startedAt = Instant.now();
+	private volatile Instant lastRefresh;
+	private volatile Instant lastFullRefresh;
+
+	public ClientProfileDirectory(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@PostConstruct
+	void start() {
+		Gauge.builder("wrapper.client.directory.size", this, ClientProfileDirectory::size)
+				.description("Client profiles held in memory")
+				.register(meterRegistry);
+		Gauge.builder("wrapper.client.directory.refresh.age", this, directory -> directory.lastRefreshAge().toMillis() / 1000.0)
+				.description("Seconds since the client directory was last refreshed")
+				.baseUnit("seconds")
+				.register(meterRegistry);
+
+		if (!enabled) {
+			log.info("Client directory disabled; client_profile is queried on every lookup");
+			return;
+		}
+
+		try {
+			refreshAll();
+		} catch (DataAccessException ex) {
+			// keep starting: lookups fall back to the database until a refresh succeeds
+			log.error("Client directory initial load failed", ex);
+		}
+	}
+
+	public Optional<ClientProfile> find(String clientId) {
+		if (clientId == null) {
+			return Optional.empty();
+		}
+		if (enabled) {
+			ClientProfile profile = profiles.get(clientId);
+			if (profile != null) {
+				return Optional.of(profile);
+			}
+		}
+
+		try {
+			ClientProfile profile = jdbcTemplate.queryForObject(
+					SELECT_COLUMNS + "WHERE client_id = ?",
+					PROFILE_MAPPER,
+					clientId
+			);
+			remember(profile);
+			return Optional.ofNullable(profile);
+		} catch (EmptyResultDataAccessException ex) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Profiles of the given clients that exist; clients not in memory are read with one query per
+	 * {@value #IN_CHUNK} ids.
+	 */
+	public Map<String, ClientProfile> findAll(Collection<String> clientIds) {
+		Map<String, ClientProfile> found = new HashMap<>();
+		List<String> missing = new ArrayList<>();
+		for (String clientId : clientIds) {
+			ClientProfile profile = enabled && clientId != null ? profiles.get(clientId) : null;
+			if (profile != null) {
+				found.put(clientId, profile);
+			} else if (clientId != null) {
+				missing.add(clientId);
+			}
+		}
+
+		for (int from = 0; from < missing.size(); from += IN_CHUNK) {
+			List<String> chunk = missing.subList(from, Math.min(from + IN_CHUNK, missing.size()));
+			String sql = SELECT_COLUMNS + "WHERE client_id IN (%s)"
+					.formatted(String.join(", ", Collections.nCopies(chunk.size(), "?")));
+
+			for (ClientProfile profile : jdbcTemplate.query(sql, PROFILE_MAPPER, chunk.toArray())) {
+				remember(profile);
+				found.put(profile.clientId(), profile);
+			}
+		}
+		return found;
+	}
+
+	@Scheduled(
+			initialDelayString = "${wrapper.client-directory.refresh-interval-ms:60000}",
+			fixedDelayString = "${wrapper.client-directory.refresh-interval-ms:60000}"
+	)
+	void scheduledRefresh() {
+		if (!enabled) {
+			return;
+		}
+
+		try {
+			Instant full = lastFullRefresh;
+			if (full == null || Duration.between(full, Instant.now()).toMillis() >= fullRefreshIntervalMs) {
+				refreshAll();
+			} else {
+				refreshChanged();
+			}
+		} catch (DataAccessException ex) {
+			log.warn("Client directory refresh failed: {}", ex.getMessage());
+		}
+	}
+
+	/**
+	 * Re-reads the whole table and replaces the directory, dropping deleted clients.
+	 */
+	public void refreshAll() {
+		refreshLock.lock();
+		try {
+			// read before the rows: a row changed during the SELECT is newer than the watermark and
+			// re-read by the next refreshChanged(), whose ">=" also covers rows at the watermark itself
+			Timestamp loadedWatermark = incrementalSupported ? readWatermark() : null;
+			Map<String, ClientProfile> loaded = new ConcurrentHashMap<>();
+			for (ClientProfile profile : jdbcTemplate.query(SELECT_COLUMNS, PROFILE_MAPPER)) {
+				loaded.put(profile.clientId(), profile);
+			}
+			watermark = loadedWatermark;
+			profiles = loaded;
+
+			Instant now = Instant.now();
+			lastRefresh = now;
+			lastFullRefresh = now;
+			log.info("Client directory loaded | clients={}", loaded.size());
+		} finally {
+			refreshLock.unlock();
+		}
+	}
+
+	/**
+	 * Reads only rows changed since the last refresh; falls back to {@link #refreshAll()} when the
+	 * table has no {@code updated_at} column.
+	 */
+	public void refreshChanged() {
+		refreshLock.lock();
+		try {
+			if (!incrementalSupported || watermark == null) {
+				refreshAll();
+				return;
+			}
+
+			// ">=": rows written later within the same timestamp tick are not missed
+			List<ChangedProfile> changed = jdbcTemplate.query(
+					"""
+							SELECT
+								client_id,
+								transaction_userid,
+								transaction_merchantid,
+								updated_at
+							FROM client_profile
+							WHERE updated_at >= ?
+							""",
+					(rs, rowNum) -> new ChangedProfile(PROFILE_MAPPER.mapRow(rs, rowNum), rs.getTimestamp("updated_at")),
+					watermark
+			);
+
+			for (ChangedProfile row : changed) {
+				profiles.put(row.profile().clientId(), row.profile());
+				if (row.updatedAt() != null && row.updatedAt().after(watermark)) {
+					watermark = row.updatedAt();
+				}
+			}
+			lastRefresh = Instant.now();
+			log.debug("Client directory refreshed | changed={} clients={}", changed.size(), profiles.size());
+		} finally {
+			refreshLock.unlock();
+		}
+	}
+
+	public int size() {
+		return profiles.size();
+	}
+
+	/**
+	 * Time since the last successful refresh, or since startup when there has been none.
+	 */
+	public Duration lastRefreshAge() {
+		Instant refreshed = lastRefresh;
+		return Duration.between(refreshed == null ? startedAt : refreshed, Instant.now());
+	}
+
+	public Instant lastRefresh() {
+		return lastRefresh;
+	}
+
+	public Instant lastFullRefresh() {
+		return lastFullRefresh;
+	}
+
+	public boolean isIncremental() {
+		return incrementalSupported;
+	}
+
+	private void remember(ClientProfile profile) {
+		if (enabled && profile != null) {
+			profiles.put(profile.clientId(), profile);
+		}
+	}
+
+	private Timestamp readWatermark() {
+		try {
+			return jdbcTemplate.queryForObject("SELECT MAX(updated_at) FROM client_profile", Timestamp.class);
+		} catch (BadSqlGrammarException ex) {
+			incrementalSupported = false;
+			log.warn("client_profile has no updated_at column; the client directory will only do full refreshes");
+			return null;
+		}
+	}
+
+	private record ChangedProfile(ClientProfile profile, Timestamp updatedAt) {
+	}
+}
@@ -0,0 +1,317 @@
+package com.example.transbnk_uat_runner.wrapper.service;
+
+import com.example.transbnk_uat_runner.config.ExecutorFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Removes {@code master_transactions} rows whose token expired more than
+ * {@code wrapper.token-sweeper.retention-hours} ago.
+ *
+ * <p>On a table partitioned by day ({@code db/migrations/003_master_transactions_partitioning.sql})
+ * a day is removed with {@code DROP PARTITION} once all of it is past the cutoff, and partitions for
+ * the next {@code precreate-days} days are split off {@code p_future}. On an unpartitioned table
+ * rows are deleted {@code batch-size} at a time. Either way, with {@code archive-table} set rows are
+ * first copied there in batches. Every run is bounded by {@code max-batches-per-run} and pauses
+ * {@code pause-ms} between batches, so it never holds long locks or floods replication.
+ *
+ * <p>A run can take that long, or longer on a slow partition change, so it runs on its own
+ * {@code token-sweeper} thread rather than Spring's single scheduler thread, which the client
+ * directory refresh also uses. A tick that comes while a run is still going is skipped.
+ */
+@Component
+public class TokenSweeper {
+
+	private static final Logger log = LoggerFactory.getLogger(TokenSweeper.class);
+
+	private static final DateTimeFormatter PARTITION_DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+	private static final Pattern DAY_PARTITION = Pattern.compile("p\\d{8}");
+	private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z0-9_]+");
+	private static final String FUTURE_PARTITION = "p_future";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final MeterRegistry meterRegistry;
+	private final ExecutorService sweepExecutor;
+	private final AtomicBoolean sweeping = new AtomicBoolean();
+
+	@Value("${wrapper.token-sweeper.enabled:false}")
+	private boolean enabled;
+
+	@Value("${wrapper.token-expiry-minutes:15}")
+	private long tokenExpiryMinutes;
+
+	@Value("${wrapper.token-sweeper.retention-hours:24}")
+	private long retentionHours;
+
+	@Value("${wrapper.token-sweeper.batch-size:1000}")
+	private int batchSize;
+
+	@Value("${wrapper.token-sweeper.max-batches-per-run:100}")
+	private int maxBatchesPerRun;
+
+	@Value("${wrapper.token-sweeper.pause-ms:100}")
+	private long pauseMs;
+
+	@Value("${wrapper.token-sweeper.precreate-days:3}")
+	private int precreateDays;
+
+	@Value("${wrapper.token-sweeper.archive-table:}")
+	private String archiveTable;
+
+	private Counter deletedRows;
+	private Counter archivedRows;
+	private Counter droppedPartitions;
+	private Timer runTimer;
+
+	public TokenSweeper(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry, ExecutorFactory executorFactory) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.meterRegistry = meterRegistry;
+		this.sweepExecutor = executorFactory.newExecutor("token-sweeper", 1);
+	}
+
+	@PostConstruct
+	void init() {
+		if (!archiveTable.isBlank() && !TABLE_NAME.matcher(archiveTable).matches()) {
+			throw new IllegalStateException("wrapper.token-sweeper.archive-table is not a plain table name: " + archiveTable);
+		}
+
+		deletedRows = rowCounter("deleted");
+		archivedRows = rowCounter("archived");
+		droppedPartitions = Counter.builder("wrapper.token.sweeper.partitions.dropped")
+				.description("Expired master_transactions partitions dropped")
+				.register(meterRegistry);
+		runTimer = Timer.builder("wrapper.token.sweeper.run")
+				.description("Time spent in one sweep of master_transactions")
+				.register(meterRegistry);
+	}
+
+	@Scheduled(
+			initialDelayString = "${wrapper.token-sweeper.interval-ms:600000}",
+			fixedDelayString = "${wrapper.token-sweeper.interval-ms:600000}"
+	)
+	void scheduledSweep() {
+		if (!enabled || !sweeping.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			sweepExecutor.execute(this::runSweep);
+		} catch (RuntimeException ex) {
+			sweeping.set(false);
+			throw ex;
+		}
+	}
+
+	private void runSweep() {
+		try {
+			sweep();
+		} catch (DataAccessException ex) {
+			log.warn("Token sweep failed: {}", ex.getMessage());
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} finally {
+			sweeping.set(false);
+		}
+	}
+
+	/**
+	 * One bounded sweep.
+	 *
+	 * @return rows removed from {@code master_transactions}
+	 */
+	public long sweep() throws InterruptedException {
+		long started = System.nanoTime();
+		LocalDateTime cutoff = LocalDateTime.now().minusMinutes(tokenExpiryMinutes).minusHours(retentionHours);
+
+		long removed;
+		List<String> partitions = partitions();
+		if (partitions.isEmpty()) {
+			removed = sweepRows(cutoff, maxBatchesPerRun);
+		} else {
+			List<String> days = partitions.stream()
+					.filter(name -> DAY_PARTITION.matcher(name).matches())
+					.toList();
+			removed = sweepPartitions(days, cutoff);
+			if (partitions.contains(FUTURE_PARTITION)) {
+				precreatePartitions(days);
+			}
+		}
+
+		runTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+		if (removed > 0) {
+			log.info("Token sweep | removed={} cutoff={}", removed, cutoff);
+		}
+		return removed;
+	}
+
+	private long sweepPartitions(List<String> partitions, LocalDateTime cutoff) throws InterruptedException {
+		long removed = 0;
+		int budget = maxBatchesPerRun;
+		for (String partition : partitions) {
+			LocalDate day = LocalDate.parse(partition.substring(1), PARTITION_DAY);
+			if (day.plusDays(1).atStartOfDay().isAfter(cutoff) || budget <= 0) {
+				break;
+			}
+
+			long rows = countPartition(partition);
+			if (!archiveTable.isBlank() && rows > 0) {
+				// copy and delete batch by batch first; the partition is dropped once it is empty
+				int batches = (int) Math.min(budget, (rows + batchSize - 1) / batchSize);
+				removed += sweepRows(day.plusDays(1).atStartOfDay(), batches);
+				budget -= batches;
+				if (countPartition(partition) > 0) {
+					break;
+				}
+				rows = 0;
+			}
+
+			jdbcTemplate.execute("ALTER TABLE master_transactions DROP PARTITION " + partition);
+			droppedPartitions.increment();
+			deletedRows.increment(rows);
+			removed += rows;
+			budget--;
+			log.info("Token sweep | dropped partition={} rows={}", partition, rows);
+			pause();
+		}
+		return removed;
+	}
+
+	/**
+	 * Deletes (after archiving, when configured) rows with a transaction timestamp before
+	 * {@code before}, at most {@code maxBatches} batches.
+	 */
+	private long sweepRows(LocalDateTime before, int maxBatches) throws InterruptedException {
+		Timestamp bound = Timestamp.valueOf(before);
+		long removed = 0;
+		for (int batch = 0; batch < maxBatches; batch++) {
+			int deleted;
+			if (archiveTable.isBlank()) {
+				deleted = jdbcTemplate.update(
+						"DELETE FROM master_transactions WHERE transaction_timestamp < ? LIMIT ?",
+						bound,
+						batchSize
+				);
+			} else {
+				deleted = archiveAndDelete(bound);
+			}
+
+			removed += deleted;
+			deletedRows.increment(deleted);
+			if (deleted < batchSize) {
+				break;
+			}
+			pause();
+		}
+		return removed;
+	}
+
+	private int archiveAndDelete(Timestamp bound) {
+		List<String> ids = jdbcTemplate.queryForList(
+				"SELECT id FROM master_transactions WHERE transaction_timestamp < ? ORDER BY transaction_timestamp LIMIT ?",
+				String.class,
+				bound,
+				batchSize
+		);
+		if (ids.isEmpty()) {
+			return 0;
+		}
+
+		String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+		// IGNORE: rows copied by a run that stopped before its DELETE are not copied twice
+		int archived = jdbcTemplate.update(
+				"INSERT IGNORE INTO " + archiveTable + " SELECT * FROM master_transactions WHERE id IN (" + in + ")",
+				ids.toArray()
+		);
+		archivedRows.increment(archived);
+		return jdbcTemplate.update("DELETE FROM master_transactions WHERE id IN (" + in + ")", ids.toArray());
+	}
+
+	/**
+	 * Splits {@code p_future} so that partitions exist through today plus {@code precreate-days}.
+	 * Rows already in {@code p_future} below the new bounds move to the first new partition.
+	 */
+	private void precreatePartitions(List<String> days) {
+		LocalDate last = days.isEmpty()
+				? LocalDate.now().minusDays(1)
+				: LocalDate.parse(days.get(days.size() - 1).substring(1), PARTITION_DAY);
+		LocalDate until = LocalDate.now().plusDays(precreateDays);
+		if (!last.isBefore(until)) {
+			return;
+		}
+
+		List<String> added = new ArrayList<>();
+		for (LocalDate day = last.plusDays(1); !day.isAfter(until); day = day.plusDays(1)) {
+			added.add("PARTITION p" + day.format(PARTITION_DAY)
+					+ " VALUES LESS THAN (UNIX_TIMESTAMP('" + day.plusDays(1) + " 00:00:00'))");
+		}
+		added.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE");
+
+		jdbcTemplate.execute("ALTER TABLE master_transactions REORGANIZE PARTITION " + FUTURE_PARTITION
+				+ " INTO (" + String.join(", ", added) + ")");
+		log.info("Token sweep | added partitions through {}", until);
+	}
+
+	/**
+	 * Partition names in ascending order; empty when the table is not partitioned (or the database
+	 * has no {@code information_schema.PARTITIONS}, as in tests).
+	 */
+	private List<String> partitions() {
+		try {
+			return jdbcTemplate.queryForList(
+					"""
+							SELECT PARTITION_NAME
+							FROM information_schema.PARTITIONS
+							WHERE TABLE_SCHEMA = DATABASE()
+							  AND TABLE_NAME = 'master_transactions'
+							  AND PARTITION_NAME IS NOT NULL
+							ORDER BY PARTITION_ORDINAL_POSITION
+							""",
+					String.class
+			);
+		} catch (BadSqlGrammarException ex) {
+			return List.of();
+		}
+	}
+
+	private long countPartition(String partition) {
+		Long rows = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM master_transactions PARTITION (" + partition + ")",
+				Long.class
+		);
+		return rows == null ? 0 : rows;
+	}
+
+	private void pause() throws InterruptedException {
+		if (pauseMs > 0) {
+			Thread.sleep(pauseMs);
+		}
+	}
+
+	private Counter rowCounter(String action) {
+		return Counter.builder("wrapper.token.sweeper.rows")
+				.description("master_transactions rows removed by the token sweeper")
+				.tag("action", action)
+				.register(meterRegistry);
+	}
+}
@@ -0,0 +1,172 @@
+package com.example.transbnk_uat_runner.wrapper.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of token validation outcomes used by {@link WrapperTokenService}.
+ *
+ * <p>A validated token is kept until the exact moment it expires (transaction timestamp plus
+ * {@code wrapper.token-expiry-minutes}), so a cache hit never extends a token's life. Tokens that
+ * are not found in {@code master_transactions} are cached as unknown for
+ * {@code wrapper.token-cache.negative-ttl-seconds} to absorb bursts of bad tokens. When the cache
+ * grows past {@code wrapper.token-cache.max-size}, expired entries are purged first and then the
+ * entries closest to expiry are evicted.
+ */
+@Component
+public class TokenValidationCache {
+
+	@Value("${wrapper.token-cache.enabled:true}")
+	private boolean enabled;
+
+	@Value("${wrapper.token-cache.max-size:10000}")
+	private int maxSize;
+
+	@Value("${wrapper.token-cache.negative-ttl-seconds:5}")
+	private long negativeTtlSeconds;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final Counter hits;
+	private final Counter negativeHits;
+	private final Counter misses;
+	private final Counter expiredEvictions;
+	private final Counter sizeEvictions;
+
+	public TokenValidationCache(MeterRegistry meterRegistry) {
+		this.hits = requestCounter(meterRegistry, "hit");
+		this.negativeHits = requestCounter(meterRegistry, "negative_hit");
+		this.misses = requestCounter(meterRegistry, "miss");
+		this.expiredEvictions = evictionCounter(meterRegistry, "expired");
+		this.sizeEvictions = evictionCounter(meterRegistry, "size");
+
+		Gauge.builder("wrapper.token.cache.size", entries, Map::size)
+				.description("Cached token validation outcomes")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Returns the cached outcome for {@code token}, or {@code null} when the caller must validate
+	 * against the database.
+	 */
+	public Entry get(String token) {
+		if (!enabled) {
+			return null;
+		}
+
+		Entry entry = entries.get(token);
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+
+		if (entry.isExpired(LocalDateTime.now())) {
+			if (entries.remove(token, entry)) {
+				expiredEvictions.increment();
+			}
+			misses.increment();
+			return null;
+		}
+
+		if (entry.valid()) {
+			hits.increment();
+		} else {
+			negativeHits.increment();
+		}
+		return entry;
+	}
+
+	public void putValid(String token, String clientId, String processor, LocalDateTime expiresAt) {
+		if (!enabled || !LocalDateTime.now().isBefore(expiresAt)) {
+			return;
+		}
+		put(token, new Entry(true, clientId, processor, expiresAt));
+	}
+
+	public void putUnknown(String token) {
+		if (!enabled || negativeTtlSeconds <= 0) {
+			return;
+		}
+		put(token, new Entry(false, null, null, LocalDateTime.now().plusSeconds(negativeTtlSeconds)));
+	}
+
+	public void invalidate(String token) {
+		if (token != null) {
+			entries.remove(token);
+		}
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	private void put(String token, Entry entry) {
+		entries.put(token, entry);
+		if (entries.size() > maxSize && evictionLock.tryLock()) {
+			try {
+				evict();
+			} finally {
+				evictionLock.unlock();
+			}
+		}
+	}
+
+	private void evict() {
+		LocalDateTime now = LocalDateTime.now();
+		entries.forEach((token, entry) -> {
+			if (entry.isExpired(now) && entries.remove(token, entry)) {
+				expiredEvictions.increment();
+			}
+		});
+
+		int excess = entries.size() - (int) (maxSize * 0.9);
+		if (excess <= 0) {
+			return;
+		}
+
+		entries.entrySet().stream()
+				.sorted(Comparator.comparing(e -> e.getValue().expiresAt()))
+				.limit(excess)
+				.map(Map.Entry::getKey)
+				.toList()
+				.forEach(token -> {
+					if (entries.remove(token) != null) {
+						sizeEvictions.increment();
+					}
+				});
+	}
+
+	private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+		return Counter.builder("wrapper.token.cache.requests")
+				.tag("result", result)
+				.register(meterRegistry);
+	}
+
+	private static Counter evictionCounter(MeterRegistry meterRegistry, String cause) {
+		return Counter.builder("wrapper.token.cache.evictions")
+				.tag("cause", cause)
+				.register(meterRegistry);
+	}
+
+	public record Entry(
+			boolean valid,
+			String clientId,
+			String processor,
+			LocalDateTime expiresAt
+	) {
+
+		boolean isExpired(LocalDateTime now) {
+			return !now.isBefore(expiresAt);
+		}
+	}
+}
@@ -1,54 +1,620 @@
 package com.example.transbnk_uat_runner.wrapper.service;
 
+import com.example.transbnk_uat_runner.config.ExecutorFactory;
+import com.example.transbnk_uat_runner.wrapper.util.PayloadCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Writes {@code bank_validation_audit} rows. By default records are queued and written by a
+ * dedicated thread in {@code batchUpdate} batches, flushed when {@code wrapper.audit.batch-size}
+ * records are waiting or {@code wrapper.audit.flush-interval-ms} has passed.
+ *
+ * <p>When the queue is full {@code wrapper.audit.overflow-policy} decides what happens:
+ * {@code BLOCK} waits up to {@code wrapper.audit.block-timeout-ms} for space, {@code DROP_OLDEST}
+ * discards the oldest queued record, {@code SPILL_TO_DISK} appends the record to a JSONL file that
+ * the writer replays once the queue is idle. The queue is drained on shutdown.
+ *
+ * <p>A spill file is renamed to a {@code .replay} file of its own before it is replayed and removed
+ * once all its rows are written, so a replay that was cut short is picked up again, at startup or
+ * on the next idle poll, instead of being overwritten by a later spill.
+ *
+ * <p>Payloads are stored in full. One of up to {@code wrapper.audit.inline-max-bytes} UTF-8 bytes
+ * goes into the text column as before; a larger one goes into the matching {@code *_blob} column
+ * in {@link PayloadCodec} form (deflated unless that does not make it smaller), with the text column
+ * left {@code NULL}. {@link #findByRequestId(String)} reads either form back.
+ */
 @Service
 public class WrapperAuditService {
 
+	public enum OverflowPolicy {
+		BLOCK,
+		DROP_OLDEST,
+		SPILL_TO_DISK
+	}
+
 	private static final Logger log = LoggerFactory.getLogger(WrapperAuditService.class);
 
+	private static final String INSERT_SQL = """
+			INSERT INTO bank_validation_audit (
+				request_id,
+				request_payload,
+				response_payload,
+				status,
+				created_at,
+				request_payload_blob,
+				response_payload_blob,
+				api_name,
+				latency_ms
+			) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+			""";
+
+	private static final String SPILL_FILE_NAME = "bank_validation_audit.jsonl";
+	private static final String REPLAY_SUFFIX = ".replay";
+
 	private final JdbcTemplate jdbcTemplate;
+	private final ObjectMapper objectMapper;
+	private final MeterRegistry meterRegistry;
+	private final ExecutorFactory executorFactory;
+
+	@Value("${wrapper.audit.async:true}")
+	private boolean async;
+
+	@Value("${wrapper.audit.queue-capacity:10000}")
+	private int queueCapacity;
+
+	@Value("${wrapper.audit.batch-size:200}")
+	private int batchSize;
+
+	@Value("${wrapper.audit.flush-interval-ms:200}")
+	private long flushIntervalMs;
+
+	@Value("${wrapper.audit.overflow-policy:BLOCK}")
+	private OverflowPolicy overflowPolicy;
+
+	@Value("${wrapper.audit.block-timeout-ms:1000}")
+	private long blockTimeoutMs;
+
+	@Value("${wrapper.audit.spill-dir:audit-spill}")
+	private String spillDir;
 
-	public WrapperAuditService(JdbcTemplate jdbcTemplate) {
+	@Value("${wrapper.audit.shutdown-timeout-ms:10000}")
+	private long shutdownTimeoutMs;
+
+	@Value("${wrapper.audit.inline-max-bytes:1024}")
+	private int inlineMaxBytes;
+
+	@Value("${wrapper.audit.compression-level:6}")
+	private int compressionLevel;
+
+	private PayloadCodec payloadCodec;
+
+	private BlockingQueue<AuditRecord> queue;
+	private Thread writer;
+	private volatile boolean running;
+	// replay files left by an earlier run or a failed replay; writer thread only
+	private boolean replayPending = true;
+
+	private final ReentrantLock spillLock = new ReentrantLock();
+
+	private Timer flushTimer;
+	private Counter writtenCounter;
+	private Counter droppedCounter;
+	private Counter spilledCounter;
+	private Counter failedCounter;
+	private Counter payloadBytes;
+	private Counter storedPayloadBytes;
+
+	public WrapperAuditService(
+			JdbcTemplate jdbcTemplate,
+			ObjectMapper objectMapper,
+			MeterRegistry meterRegistry,
+			ExecutorFactory executorFactory
+	) {
 		this.jdbcTemplate = jdbcTemplate;
+		this.objectMapper = objectMapper;
+		this.meterRegistry = meterRegistry;
+		this.executorFactory = executorFactory;
+	}
+
+	@PostConstruct
+	void start() {
+		flushTimer = Timer.builder("wrapper.audit.flush")
+				.description("Time spent writing one audit batch")
+				.register(meterRegistry);
+		writtenCounter = recordCounter("written");
+		droppedCounter = recordCounter("dropped");
+		spilledCounter = recordCounter("spilled");
+		failedCounter = recordCounter("failed");
+		payloadBytes = payloadByteCounter("payload");
+		storedPayloadBytes = payloadByteCounter("stored");
+		payloadCodec = new PayloadCodec(compressionLevel);
+
+		if (!async) {
+			log.info("Wrapper audit running in synchronous mode");
+			return;
+		}
+
+		queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+		Gauge.builder("wrapper.audit.queue.depth", queue, BlockingQueue::size)
+				.description("Audit records waiting to be written")
+				.register(meterRegistry);
+
+		running = true;
+		writer = executorFactory.newThread("wrapper-audit-writer", this::runWriter);
+		writer.start();
+
+		log.info(
+				"Wrapper audit writer started | queueCapacity={} batchSize={} flushIntervalMs={} overflowPolicy={}",
+				queueCapacity,
+				batchSize,
+				flushIntervalMs,
+				overflowPolicy
+		);
 	}
 
 	public void writeAudit(String requestId, String requestPayload, String responsePayload, String status) {
+		writeAudit(null, requestId, requestPayload, responsePayload, status, null);
+	}
+
+	/**
+	 * @param apiName   {@code null} when the request never got as far as an apiName
+	 * @param latencyMs time from admission to response, {@code null} when not measured
+	 */
+	public void writeAudit(
+			String apiName,
+			String requestId,
+			String requestPayload,
+			String responsePayload,
+			String status,
+			Long latencyMs
+	) {
+		AuditRecord record = new AuditRecord(
+				requestId,
+				requestPayload,
+				responsePayload,
+				status,
+				Timestamp.valueOf(LocalDateTime.now()),
+				apiName,
+				latencyMs
+		);
+
+		if (!async || !running) {
+			writeBatch(List.of(record));
+			return;
+		}
+
+		enqueue(record);
+	}
+
+	private void enqueue(AuditRecord record) {
+		switch (overflowPolicy) {
+			case BLOCK -> {
+				try {
+					if (!queue.offer(record, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+						droppedCounter.increment();
+						log.warn("Wrapper audit queue full, record dropped | requestId={}", record.requestId());
+					}
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					droppedCounter.increment();
+				}
+			}
+			case DROP_OLDEST -> {
+				while (!queue.offer(record)) {
+					if (queue.poll() != null) {
+						droppedCounter.increment();
+					}
+				}
+			}
+			case SPILL_TO_DISK -> {
+				if (!queue.offer(record)) {
+					spill(List.of(record));
+				}
+			}
+		}
+	}
+
+	private void runWriter() {
+		List<AuditRecord> batch = new ArrayList<>(batchSize);
+		long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+		while (running || !queue.isEmpty()) {
+			try {
+				AuditRecord first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					replaySpillFiles();
+					continue;
+				}
+
+				batch.add(first);
+				long deadline = System.nanoTime() + flushIntervalNanos;
+				while (batch.size() < batchSize) {
+					queue.drainTo(batch, batchSize - batch.size());
+					long remaining = deadline - System.nanoTime();
+					if (batch.size() >= batchSize || remaining <= 0) {
+						break;
+					}
+					AuditRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+				}
+
+				writeBatch(batch);
+			} catch (InterruptedException ex) {
+				if (!running) {
+					queue.drainTo(batch);
+					writeBatch(batch);
+				}
+			} catch (Exception ex) {
+				log.warn("Wrapper audit writer error | message={}", ex.getMessage());
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void writeBatch(List<AuditRecord> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		long started = System.nanoTime();
+		try {
+			jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, record) -> {
+				StoredPayload request = store(record.requestPayload());
+				StoredPayload response = store(record.responsePayload());
+				ps.setString(1, record.requestId());
+				ps.setString(2, request.text());
+				ps.setString(3, response.text());
+				ps.setString(4, record.status());
+				ps.setTimestamp(5, record.createdAt());
+				ps.setBytes(6, request.blob());
+				ps.setBytes(7, response.blob());
+				ps.setString(8, record.apiName());
+				ps.setObject(9, record.latencyMs(), Types.BIGINT);
+			});
+			writtenCounter.increment(batch.size());
+		} catch (Exception ex) {
+			log.warn("Wrapper audit insert failed | records={} message={}", batch.size(), ex.getMessage());
+			if (overflowPolicy == OverflowPolicy.SPILL_TO_DISK && running) {
+				spill(batch);
+			} else {
+				failedCounter.increment(batch.size());
+			}
+		} finally {
+			flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private StoredPayload store(String payload) {
+		if (payload == null) {
+			return new StoredPayload(null, null);
+		}
+
+		byte[] utf8 = payload.getBytes(StandardCharsets.UTF_8);
+		payloadBytes.increment(utf8.length);
+		if (utf8.length <= inlineMaxBytes) {
+			storedPayloadBytes.increment(utf8.length);
+			return new StoredPayload(payload, null);
+		}
+
+		byte[] encoded = payloadCodec.encode(utf8);
+		storedPayloadBytes.increment(encoded.length);
+		return new StoredPayload(null, encoded);
+	}
+
+	/**
+	 * Audit rows of {@code requestId}, oldest first, with payloads as they were written.
+	 */
+	public List<AuditEntry> findByRequestId(String requestId) {
+		return jdbcTemplate.query(
+				"""
+						SELECT
+							request_id,
+							request_payload,
+							response_payload,
+							request_payload_blob,
+							response_payload_blob,
+							status,
+							created_at,
+							api_name,
+							latency_ms
+						FROM bank_validation_audit
+						WHERE request_id = ?
+						ORDER BY id
+						""",
+				(rs, rowNum) -> readEntry(rs),
+				requestId
+		);
+	}
+
+	/**
+	 * Streams the audit rows created in {@code [from, to)}, oldest first, through a cursor reading
+	 * {@code fetchSize} rows at a time. Either bound may be {@code null}; {@code limit} 0 reads all rows.
+	 */
+	public void forEachEntry(
+			LocalDateTime from,
+			LocalDateTime to,
+			int limit,
+			int fetchSize,
+			Consumer<AuditEntry> action
+	) {
 		String sql = """
-				INSERT INTO bank_validation_audit (
+				SELECT
 					request_id,
 					request_payload,
 					response_payload,
+					request_payload_blob,
+					response_payload_blob,
 					status,
-					created_at
-				) VALUES (?, ?, ?, ?, NOW())
+					created_at,
+					api_name,
+					latency_ms
+				FROM bank_validation_audit
+				WHERE created_at >= ? AND created_at < ?
+				ORDER BY created_at, id
 				""";
+		jdbcTemplate.query(
+				con -> {
+					PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+					ps.setFetchSize(fetchSize);
+					ps.setMaxRows(limit);
+					ps.setTimestamp(1, Timestamp.valueOf(from == null ? LocalDateTime.of(1970, 1, 1, 0, 0) : from));
+					ps.setTimestamp(2, Timestamp.valueOf(to == null ? LocalDateTime.of(9999, 1, 1, 0, 0) : to));
+					return ps;
+				},
+				(ResultSet rs) -> action.accept(readEntry(rs))
+		);
+	}
 
+	private AuditEntry readEntry(ResultSet rs) throws SQLException {
+		long latencyMs = rs.getLong("latency_ms");
+		boolean latencyMissing = rs.wasNull();
+		return new AuditEntry(
+				rs.getString("request_id"),
+				readPayload(rs, "request_payload", "request_payload_blob"),
+				readPayload(rs, "response_payload", "response_payload_blob"),
+				rs.getString("status"),
+				rs.getTimestamp("created_at") == null ? null : rs.getTimestamp("created_at").toLocalDateTime(),
+				rs.getString("api_name"),
+				latencyMissing ? null : latencyMs
+		);
+	}
+
+	private String readPayload(ResultSet rs, String textColumn, String blobColumn) throws SQLException {
+		byte[] blob = rs.getBytes(blobColumn);
+		return blob != null ? payloadCodec.decode(blob) : rs.getString(textColumn);
+	}
+
+	private void spill(List<AuditRecord> records) {
+		spillLock.lock();
 		try {
-			jdbcTemplate.update(
-					sql,
-					requestId,
-					truncate(requestPayload),
-					truncate(responsePayload),
-					status
-			);
-		} catch (Exception ex) {
-			log.warn("Wrapper audit insert failed | requestId={} message={}", requestId, ex.getMessage());
+			Path dir = Paths.get(spillDir);
+			Files.createDirectories(dir);
+			try (BufferedWriter out = Files.newBufferedWriter(
+					dir.resolve(SPILL_FILE_NAME),
+					StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND
+			)) {
+				for (AuditRecord record : records) {
+					out.write(toJson(record));
+					out.newLine();
+				}
+			}
+			spilledCounter.increment(records.size());
+		} catch (IOException ex) {
+			failedCounter.increment(records.size());
+			log.warn("Wrapper audit spill failed | records={} message={}", records.size(), ex.getMessage());
+		} finally {
+			spillLock.unlock();
 		}
 	}
 
-	private static String truncate(String value) {
-		if (value == null) {
-			return null;
+	private void replaySpillFiles() {
+		Path dir = Paths.get(spillDir);
+		Path spillFile = dir.resolve(SPILL_FILE_NAME);
+		boolean spilled = Files.exists(spillFile);
+		if (!spilled && !replayPending) {
+			return;
 		}
-		int max = 4000;
-		if (value.length() <= max) {
-			return value;
+		replayPending = false;
+
+		if (spilled) {
+			Path replayFile = dir.resolve(SPILL_FILE_NAME + "." + System.currentTimeMillis() + REPLAY_SUFFIX);
+			spillLock.lock();
+			try {
+				// never over an existing replay file: its rows may not have been written yet
+				Files.move(spillFile, replayFile);
+			} catch (IOException ex) {
+				log.warn("Wrapper audit spill replay skipped | message={}", ex.getMessage());
+			} finally {
+				spillLock.unlock();
+			}
+		}
+
+		List<Path> replayFiles;
+		try (Stream<Path> files = Files.list(dir)) {
+			replayFiles = files
+					.filter(file -> {
+						String name = file.getFileName().toString();
+						return name.startsWith(SPILL_FILE_NAME) && name.endsWith(REPLAY_SUFFIX);
+					})
+					.sorted()
+					.toList();
+		} catch (IOException ex) {
+			// no spill directory yet
+			return;
+		}
+		for (Path replayFile : replayFiles) {
+			if (!replay(replayFile)) {
+				replayPending = true;
+			}
 		}
-		return value.substring(0, max);
 	}
-}
 
+	/**
+	 * Writes the rows of {@code replayFile} and deletes it; {@code false} when it could not be read,
+	 * in which case it is kept for the next attempt.
+	 */
+	private boolean replay(Path replayFile) {
+		List<AuditRecord> batch = new ArrayList<>(batchSize);
+		int replayed = 0;
+		try (BufferedReader in = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.isBlank()) {
+					continue;
+				}
+				batch.add(fromJson(line));
+				if (batch.size() >= batchSize) {
+					replayed += batch.size();
+					writeBatch(batch);
+					batch.clear();
+				}
+			}
+			replayed += batch.size();
+			writeBatch(batch);
+			Files.deleteIfExists(replayFile);
+			log.info("Wrapper audit spill replayed | file={} records={}", replayFile.getFileName(), replayed);
+			return true;
+		} catch (IOException ex) {
+			log.warn("Wrapper audit spill replay failed | file={} message={}", replayFile.getFileName(), ex.getMessage());
+			return false;
+		}
+	}
+
+	@PreDestroy
+	void stop() {
+		if (writer == null) {
+			return;
+		}
+
+		running = false;
+		try {
+			writer.join(shutdownTimeoutMs);
+			if (writer.isAlive()) {
+				writer.interrupt();
+				writer.join(1000);
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+
+		int remaining = queue.size();
+		if (remaining > 0) {
+			log.warn("Wrapper audit writer stopped with records still queued | records={}", remaining);
+		} else {
+			log.info("Wrapper audit writer drained and stopped");
+		}
+	}
+
+	private Counter recordCounter(String outcome) {
+		return Counter.builder("wrapper.audit.records")
+				.tag("outcome", outcome)
+				.register(meterRegistry);
+	}
+
+	private Counter payloadByteCounter(String form) {
+		return Counter.builder("wrapper.audit.payload.bytes")
+				.description("Audit payload bytes before (payload) and after (stored) the inline/compress policy")
+				.baseUnit("bytes")
+				.tag("form", form)
+				.register(meterRegistry);
+	}
+
+	private String toJson(AuditRecord record) throws IOException {
+		ObjectNode json = objectMapper.createObjectNode();
+		json.put("requestId", record.requestId());
+		json.put("requestPayload", record.requestPayload());
+		json.put("responsePayload", record.responsePayload());
+		json.put("status", record.status());
+		json.put("createdAt", record.createdAt().getTime());
+		json.put("apiName", record.apiName());
+		json.put("latencyMs", record.latencyMs());
+		return objectMapper.writeValueAsString(json);
+	}
+
+	private AuditRecord fromJson(String line) throws IOException {
+		JsonNode json = objectMapper.readTree(line);
+		return new AuditRecord(
+				json.path("requestId").asText(null),
+				json.path("requestPayload").asText(null),
+				json.path("responsePayload").asText(null),
+				json.path("status").asText(null),
+				new Timestamp(json.path("createdAt").asLong(System.currentTimeMillis())),
+				json.path("apiName").asText(null),
+				json.hasNonNull("latencyMs") ? json.get("latencyMs").asLong() : null
+		);
+	}
+
+	/**
+	 * @param apiName   {@code null} on rows written before the column existed, and on rejected tokens
+	 * @param latencyMs {@code null} where not measured, e.g. batch items
+	 */
+	public record AuditEntry(
+			String requestId,
+			String requestPayload,
+			String responsePayload,
+			String status,
+			LocalDateTime createdAt,
+			String apiName,
+			Long latencyMs
+	) {
+	}
+
+	/**
+	 * Exactly one of the two is set for a non-null payload.
+	 */
+	private record StoredPayload(String text, byte[] blob) {
+	}
+
+	private record AuditRecord(
+			String requestId,
+			String requestPayload,
+			String responsePayload,
+			String status,
+			Timestamp createdAt,
+			String apiName,
+			Long latencyMs
+	) {
+	}
+}
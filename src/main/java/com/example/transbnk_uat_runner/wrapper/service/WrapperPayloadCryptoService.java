@@ -1,6 +1,7 @@
 package com.example.transbnk_uat_runner.wrapper.service;
 
-import com.example.transbnk_uat_runner.wrapper.util.AesUtil;
+import com.example.transbnk_uat_runner.wrapper.util.AesCipher;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -13,9 +14,24 @@ public class WrapperPayloadCryptoService {
 	@Value("${wrapper.payload-iv:${wrapper.transaction-iv}}")
 	private String payloadIv;
 
+	private AesCipher cipher;
+
+	@PostConstruct
+	void init() {
+		cipher = AesCipher.fromBase64(payloadAesKey, payloadIv);
+	}
+
 	public String decryptPayload(String encryptedPayload) {
 		try {
-			return AesUtil.decrypt(encryptedPayload, payloadAesKey, payloadIv);
+			return cipher.decryptFromBase64(encryptedPayload);
+		} catch (Exception ex) {
+			throw new IllegalArgumentException("Invalid encrypted payload", ex);
+		}
+	}
+
+	public byte[] decryptPayload(byte[] base64Payload) {
+		try {
+			return cipher.decryptFromBase64(base64Payload);
 		} catch (Exception ex) {
 			throw new IllegalArgumentException("Invalid encrypted payload", ex);
 		}
@@ -23,10 +39,17 @@ public class WrapperPayloadCryptoService {
 
 	public String encryptPayload(String plainPayload) {
 		try {
-			return AesUtil.encrypt(plainPayload, payloadAesKey, payloadIv);
+			return cipher.encryptToBase64(plainPayload);
 		} catch (Exception ex) {
 			throw new RuntimeException("Failed to encrypt response payload", ex);
 		}
 	}
-}
 
+	public byte[] encryptPayload(byte[] plainPayload) {
+		try {
+			return cipher.encryptToBase64(plainPayload);
+		} catch (Exception ex) {
+			throw new RuntimeException("Failed to encrypt response payload", ex);
+		}
+	}
+}
@@ -1,23 +1,64 @@
 package com.example.transbnk_uat_runner.wrapper.service;
 
+import com.example.transbnk_uat_runner.config.ExecutorFactory;
+import com.example.transbnk_uat_runner.wrapper.dto.TokenGenerateBatchResponse;
 import com.example.transbnk_uat_runner.wrapper.dto.TokenGenerateRequest;
 import com.example.transbnk_uat_runner.wrapper.dto.TokenValidateRequest;
-import com.example.transbnk_uat_runner.wrapper.util.AesUtil;
+import com.example.transbnk_uat_runner.wrapper.util.AesCipher;
+import com.example.transbnk_uat_runner.wrapper.util.StatelessTokenCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Timestamp;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Issues and checks wrapper tokens.
+ *
+ * <p>{@code wrapper.token-format=legacy} (default) issues the AES-CBC token whose validation rebuilds
+ * the plaintext from its {@code master_transactions} row. {@code stateless} issues
+ * {@link StatelessTokenCodec} tokens that carry client, processor and expiry themselves, so
+ * validation needs no database read; their {@code master_transactions} row is written in the
+ * background as a record only. Both formats are always accepted, so the setting can be changed
+ * without invalidating tokens already handed out.
+ *
+ * <p>Tokens are looked up by {@code token_hash} (SHA-256 of the token, unique) rather than by the
+ * token text. {@code (client_id, transaction_timestamp, processor)} is unique as well, so one
+ * merchant transaction has at most one token; see {@code db/master_transactions.sql}.
+ *
+ * <p>Client profiles come from {@link ClientProfileDirectory}. {@link #generateTokens(List)} issues
+ * many tokens with encryption spread over the CPU cores and a single {@code batchUpdate}.
+ */
 @Service
 public class WrapperTokenService {
 
@@ -25,7 +66,40 @@ public class WrapperTokenService {
 
 	private static final DateTimeFormatter TS_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+	/** Bind-parameter limit per {@code IN (...)} list. */
+	private static final int IN_CHUNK = 500;
+
+	/** Smaller batches are encrypted on the calling thread. */
+	private static final int PARALLEL_THRESHOLD = 64;
+
+	private static final String INSERT_INTO = """
+			INTO master_transactions (
+				id,
+				order_reference,
+				transaction_token,
+				token_hash,
+				transaction_timestamp,
+				transaction_userid,
+				transaction_merchantid,
+				client_id,
+				processor,
+				initiated_at,
+				completed_at
+			) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+			""";
+
+	private static final String INSERT_SQL = "INSERT " + INSERT_INTO;
+
+	/** Rows of transactions that already have a token are skipped (update count 0). */
+	private static final String INSERT_IGNORE_SQL = "INSERT IGNORE " + INSERT_INTO;
+
 	private final JdbcTemplate jdbcTemplate;
+	private final TokenValidationCache tokenCache;
+	private final ClientProfileDirectory clientDirectory;
+	private final ExecutorService recordWriter;
+	private final ExecutorService encryptPool;
+	private final int encryptThreads = Runtime.getRuntime().availableProcessors();
+	private final Validator validator;
 
 	@Value("${wrapper.transaction-password}")
 	private String transactionPassword;
@@ -39,8 +113,42 @@ public class WrapperTokenService {
 	@Value("${wrapper.token-expiry-minutes:15}")
 	private long tokenExpiryMinutes;
 
-	public WrapperTokenService(JdbcTemplate jdbcTemplate) {
+	@Value("${wrapper.token-format:legacy}")
+	private String tokenFormat;
+
+	@Value("${wrapper.token-batch-max-items:5000}")
+	private int tokenBatchMaxItems;
+
+	private AesCipher tokenCipher;
+	private StatelessTokenCodec statelessCodec;
+	private boolean issueStateless;
+
+	public WrapperTokenService(
+			JdbcTemplate jdbcTemplate,
+			TokenValidationCache tokenCache,
+			ClientProfileDirectory clientDirectory,
+			ExecutorFactory executorFactory,
+			Validator validator
+	) {
 		this.jdbcTemplate = jdbcTemplate;
+		this.tokenCache = tokenCache;
+		this.clientDirectory = clientDirectory;
+		this.recordWriter = executorFactory.newExecutor("token-record-writer", 2);
+		this.encryptPool = executorFactory.newExecutor("token-encrypt", encryptThreads);
+		this.validator = validator;
+	}
+
+	@PostConstruct
+	void init() {
+		tokenCipher = AesCipher.fromBase64(transactionAesKey, transactionIv);
+		statelessCodec = StatelessTokenCodec.fromBase64(transactionAesKey);
+
+		String format = tokenFormat == null ? "" : tokenFormat.trim().toLowerCase(Locale.ROOT);
+		if (!format.equals("legacy") && !format.equals("stateless")) {
+			throw new IllegalStateException("wrapper.token-format must be legacy or stateless, was: " + tokenFormat);
+		}
+		issueStateless = format.equals("stateless");
+		log.info("Token format={}", format);
 	}
 
 	public String generateToken(TokenGenerateRequest request) throws Exception {
@@ -48,73 +156,329 @@ public class WrapperTokenService {
 			throw new IllegalArgumentException("Request is required");
 		}
 
-		ClientProfile clientProfile = findClientProfileByClientId(request.getClientId())
+		ClientProfile clientProfile = clientDirectory.find(request.getClientId())
 				.orElseThrow(() -> new IllegalArgumentException("Unknown client_id (no client_profile mapping found)"));
 
 		String processor = normalizeProcessor(request.getProcessor());
 		LocalDateTime txnTimestamp = LocalDateTime.parse(request.getTransactionTimestamp(), TS_FORMATTER);
 
-		Optional<MasterTransaction> existing = findLatestByClientIdAndTransactionTimestampAndProcessor(
-				request.getClientId(),
-				txnTimestamp,
-				processor
-		);
+		if (issueStateless) {
+			return generateStatelessToken(request.getClientId(), clientProfile, processor, txnTimestamp);
+		}
 
-		if (existing.isPresent()) {
-			long minutesPassed = Duration.between(txnTimestamp, LocalDateTime.now()).toMinutes();
-			if (minutesPassed < tokenExpiryMinutes) {
-				log.info("Token already exists (within expiry) | Returning existing token");
-				return existing.get().transactionToken();
-			}
+		String encryptedToken = encryptLegacyToken(clientProfile, txnTimestamp, processor);
+
+		// Insert first: a new transaction costs one round trip, and a concurrent or repeated call for
+		// the same transaction loses on the unique key and returns the stored token instead. The
+		// stored token may be expired, but a new one for the same timestamp would be too.
+		String orderReference = newOrderReference();
+		try {
+			insertMasterTransaction(
+					UUID.randomUUID().toString(),
+					orderReference,
+					encryptedToken,
+					txnTimestamp,
+					clientProfile,
+					request.getClientId(),
+					processor
+			);
+		} catch (DuplicateKeyException ex) {
+			MasterTransaction existing = findByClientIdAndTransactionTimestampAndProcessor(
+					request.getClientId(),
+					txnTimestamp,
+					processor
+			).orElseThrow(() -> ex);
+			log.info("Token already exists | Returning existing token");
+			return existing.transactionToken();
 		}
+		tokenCache.invalidate(encryptedToken);
 
-		String normalizedTs = txnTimestamp.format(TS_FORMATTER);
+		log.info("Token generated | clientId={} processor={} orderReference={}", request.getClientId(), processor, orderReference);
+		return encryptedToken;
+	}
+
+	private String generateStatelessToken(
+			String clientId,
+			ClientProfile clientProfile,
+			String processor,
+			LocalDateTime txnTimestamp
+	) throws Exception {
+		String id = UUID.randomUUID().toString();
+		long expiresAt = epochSeconds(txnTimestamp.plusMinutes(tokenExpiryMinutes));
+
+		String token = statelessCodec.seal(new StatelessTokenCodec.Claims(
+				clientId,
+				processor,
+				epochSeconds(txnTimestamp),
+				expiresAt,
+				id
+		));
+
+		String orderReference = newOrderReference();
+		recordWriter.execute(() -> {
+			try {
+				insertMasterTransaction(id, orderReference, token, txnTimestamp, clientProfile, clientId, processor);
+			} catch (DuplicateKeyException ex) {
+				// the transaction already has a record; the token does not depend on it
+				log.info("Token record already exists | clientId={} processor={}", clientId, processor);
+			} catch (Exception ex) {
+				log.error("Token record write failed | clientId={} orderReference={}", clientId, orderReference, ex);
+			}
+		});
+
+		log.info("Stateless token generated | clientId={} processor={} orderReference={}", clientId, processor, orderReference);
+		return token;
+	}
+
+	private String encryptLegacyToken(ClientProfile clientProfile, LocalDateTime txnTimestamp, String processor) throws Exception {
 		String raw = clientProfile.transactionUserId()
 				+ clientProfile.transactionMerchantId()
 				+ String.valueOf(transactionPassword)
-				+ normalizedTs
+				+ txnTimestamp.format(TS_FORMATTER)
 				+ processor;
+		return tokenCipher.encryptToBase64(raw);
+	}
 
-		String encryptedToken = AesUtil.encrypt(raw, transactionAesKey, transactionIv);
+	/**
+	 * Issues one token per request, with the same rules as {@link #generateToken}. Results come back
+	 * in request order; an invalid request, an unknown client or a failed write fails only its own
+	 * result. Requests for the same transaction get the same token.
+	 */
+	public TokenGenerateBatchResponse generateTokens(List<TokenGenerateRequest> requests) throws Exception {
+		if (requests == null || requests.isEmpty()) {
+			throw new IllegalArgumentException("At least one request is required");
+		}
+		if (requests.size() > tokenBatchMaxItems) {
+			throw new IllegalArgumentException("At most " + tokenBatchMaxItems + " requests per batch");
+		}
 
-		String orderReference = "TXN"
-				+ LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"))
-				+ UUID.randomUUID().toString().substring(0, 8).toUpperCase(Locale.ROOT);
+		String[] tokens = new String[requests.size()];
+		String[] errors = new String[requests.size()];
 
-		LocalDateTime now = LocalDateTime.now();
-		String id = UUID.randomUUID().toString();
+		Map<TxnKey, List<Integer>> indexesByTxn = new LinkedHashMap<>();
+		for (int index = 0; index < requests.size(); index++) {
+			try {
+				TxnKey txn = toTxnKey(requests.get(index));
+				indexesByTxn.computeIfAbsent(txn, key -> new ArrayList<>()).add(index);
+			} catch (IllegalArgumentException ex) {
+				errors[index] = ex.getMessage();
+			}
+		}
 
-		String insertSql = """
-				INSERT INTO master_transactions (
-					id,
-					order_reference,
-					transaction_token,
-					transaction_timestamp,
-					transaction_userid,
-					transaction_merchantid,
-					client_id,
-					processor,
-					initiated_at,
-					completed_at
-				) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-				""";
+		Map<String, ClientProfile> profiles = clientDirectory.findAll(
+				indexesByTxn.keySet().stream().map(TxnKey::clientId).distinct().toList()
+		);
+
+		List<PendingToken> pending = new ArrayList<>(indexesByTxn.size());
+		indexesByTxn.forEach((txn, indexes) -> {
+			ClientProfile profile = profiles.get(txn.clientId());
+			if (profile == null) {
+				indexes.forEach(index -> errors[index] = "Unknown client_id (no client_profile mapping found)");
+			} else {
+				pending.add(new PendingToken(txn, profile, UUID.randomUUID().toString(), newOrderReference()));
+			}
+		});
+
+		List<String> issued = issueAll(pending);
+		Map<TxnKey, String> stored = issueStateless ? Map.of() : storeLegacyTokens(pending, issued);
+		if (issueStateless) {
+			recordWriter.execute(() -> recordStatelessTokens(pending, issued));
+		}
+
+		for (int i = 0; i < pending.size(); i++) {
+			TxnKey txn = pending.get(i).txn();
+			String token = issueStateless ? issued.get(i) : stored.get(txn);
+			for (int index : indexesByTxn.get(txn)) {
+				if (token == null) {
+					errors[index] = "Token could not be stored (token already used by another transaction)";
+				} else {
+					tokens[index] = token;
+				}
+			}
+		}
+
+		List<TokenGenerateBatchResponse.Item> items = new ArrayList<>(requests.size());
+		int failed = 0;
+		for (int index = 0; index < requests.size(); index++) {
+			items.add(new TokenGenerateBatchResponse.Item(index, tokens[index], errors[index]));
+			if (errors[index] != null) {
+				failed++;
+			}
+		}
+		log.info("Token batch generated | requests={} transactions={} failed={}", requests.size(), pending.size(), failed);
+		return new TokenGenerateBatchResponse(items);
+	}
+
+	private TxnKey toTxnKey(TokenGenerateRequest request) {
+		if (request == null) {
+			throw new IllegalArgumentException("Request is required");
+		}
 
+		List<ConstraintViolation<TokenGenerateRequest>> violations = new ArrayList<>(validator.validate(request));
+		if (!violations.isEmpty()) {
+			violations.sort(Comparator.comparing(violation -> violation.getPropertyPath().toString()));
+			throw new IllegalArgumentException(violations.get(0).getMessage());
+		}
+
+		try {
+			LocalDateTime txnTimestamp = LocalDateTime.parse(request.getTransactionTimestamp(), TS_FORMATTER);
+			return new TxnKey(request.getClientId(), txnTimestamp, normalizeProcessor(request.getProcessor()));
+		} catch (DateTimeParseException ex) {
+			throw new IllegalArgumentException("Invalid transaction timestamp: " + request.getTransactionTimestamp());
+		}
+	}
+
+	/**
+	 * Tokens for {@code pending}, in the same order. Larger batches are split into one slice per
+	 * core; the ciphers are thread-safe.
+	 */
+	private List<String> issueAll(List<PendingToken> pending) throws Exception {
+		String[] tokens = new String[pending.size()];
+		if (pending.size() < PARALLEL_THRESHOLD) {
+			issueSlice(pending, tokens, 0, pending.size());
+			return List.of(tokens);
+		}
+
+		int sliceSize = (pending.size() + encryptThreads - 1) / encryptThreads;
+		List<Callable<Void>> slices = new ArrayList<>();
+		for (int from = 0; from < pending.size(); from += sliceSize) {
+			int start = from;
+			int end = Math.min(from + sliceSize, pending.size());
+			slices.add(() -> {
+				issueSlice(pending, tokens, start, end);
+				return null;
+			});
+		}
+		for (Future<Void> slice : encryptPool.invokeAll(slices)) {
+			slice.get();
+		}
+		return List.of(tokens);
+	}
+
+	private void issueSlice(List<PendingToken> pending, String[] tokens, int from, int to) throws Exception {
+		for (int i = from; i < to; i++) {
+			PendingToken item = pending.get(i);
+			TxnKey txn = item.txn();
+			tokens[i] = issueStateless
+					? statelessCodec.seal(new StatelessTokenCodec.Claims(
+							txn.clientId(),
+							txn.processor(),
+							epochSeconds(txn.timestamp()),
+							epochSeconds(txn.timestamp().plusMinutes(tokenExpiryMinutes)),
+							item.id()))
+					: encryptLegacyToken(item.profile(), txn.timestamp(), txn.processor());
+		}
+	}
+
+	/**
+	 * Writes the new rows with one {@code batchUpdate}; transactions that already had a token keep
+	 * it, and that stored token is what this returns for them. A token missing from the result
+	 * could not be stored.
+	 */
+	private Map<TxnKey, String> storeLegacyTokens(List<PendingToken> pending, List<String> tokens) {
+		if (pending.isEmpty()) {
+			return Map.of();
+		}
+
+		int[] counts = jdbcTemplate.batchUpdate(INSERT_IGNORE_SQL, masterTransactionRows(pending, tokens));
+
+		Map<TxnKey, String> stored = new HashMap<>();
+		List<TxnKey> unresolved = new ArrayList<>();
+		for (int i = 0; i < pending.size(); i++) {
+			// 1 = inserted; 0 = already had a token; a driver may also report "success, no count"
+			if (counts[i] == 1) {
+				stored.put(pending.get(i).txn(), tokens.get(i));
+				tokenCache.invalidate(tokens.get(i));
+			} else {
+				unresolved.add(pending.get(i).txn());
+			}
+		}
+
+		stored.putAll(findTokensByTxn(unresolved));
+		return stored;
+	}
+
+	private void recordStatelessTokens(List<PendingToken> pending, List<String> tokens) {
+		try {
+			jdbcTemplate.batchUpdate(INSERT_IGNORE_SQL, masterTransactionRows(pending, tokens));
+		} catch (Exception ex) {
+			log.error("Token record batch write failed | transactions={}", pending.size(), ex);
+		}
+	}
+
+	private static List<Object[]> masterTransactionRows(List<PendingToken> pending, List<String> tokens) {
+		List<Object[]> rows = new ArrayList<>(pending.size());
+		for (int i = 0; i < pending.size(); i++) {
+			PendingToken item = pending.get(i);
+			rows.add(masterTransactionRow(
+					item.id(),
+					item.orderReference(),
+					tokens.get(i),
+					item.txn().timestamp(),
+					item.profile(),
+					item.txn().clientId(),
+					item.txn().processor()
+			));
+		}
+		return rows;
+	}
+
+	private void insertMasterTransaction(
+			String id,
+			String orderReference,
+			String token,
+			LocalDateTime txnTimestamp,
+			ClientProfile clientProfile,
+			String clientId,
+			String processor
+	) {
 		jdbcTemplate.update(
-				insertSql,
+				INSERT_SQL,
+				masterTransactionRow(id, orderReference, token, txnTimestamp, clientProfile, clientId, processor)
+		);
+	}
+
+	private static Object[] masterTransactionRow(
+			String id,
+			String orderReference,
+			String token,
+			LocalDateTime txnTimestamp,
+			ClientProfile clientProfile,
+			String clientId,
+			String processor
+	) {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		return new Object[] {
 				id,
 				orderReference,
-				encryptedToken,
+				token,
+				tokenHash(token),
 				Timestamp.valueOf(txnTimestamp),
 				clientProfile.transactionUserId(),
 				clientProfile.transactionMerchantId(),
-				request.getClientId(),
+				clientId,
 				processor,
-				Timestamp.valueOf(now),
-				Timestamp.valueOf(now)
-		);
+				now,
+				now
+		};
+	}
 
-		log.info("Token generated | clientId={} processor={} orderReference={}", request.getClientId(), processor, orderReference);
-		return encryptedToken;
+	/**
+	 * Lowercase hex SHA-256, the same value as MySQL {@code SHA2(transaction_token, 256)}.
+	 */
+	static String tokenHash(String token) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 is not available", ex);
+		}
+	}
+
+	private static String newOrderReference() {
+		return "TXN"
+				+ LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"))
+				+ UUID.randomUUID().toString().substring(0, 8).toUpperCase(Locale.ROOT);
 	}
 
 	public boolean validateToken(TokenValidateRequest request) {
@@ -128,44 +492,59 @@ public class WrapperTokenService {
 		return validateToken(token, null, null);
 	}
 
+	/**
+	 * Answers from the validation cache only; empty when the token still has to be checked against
+	 * {@code master_transactions}. Lets non-blocking callers skip the database hop on a hit.
+	 */
+	public Optional<Boolean> validateCached(String token) {
+		if (token == null || token.isBlank()) {
+			return Optional.of(false);
+		}
+		if (StatelessTokenCodec.isStateless(token)) {
+			return Optional.of(validateToken(token));
+		}
+		TokenValidationCache.Entry cached = tokenCache.get(token);
+		return cached == null ? Optional.empty() : Optional.of(cached.valid());
+	}
+
 	public boolean validateToken(String token, String clientId, String processor) {
 		try {
 			if (token == null || token.isBlank()) {
 				return false;
 			}
 
-			MasterTransaction masterTxn = findByTransactionToken(token)
-					.orElseThrow(() -> new IllegalArgumentException("Invalid or unknown transaction token"));
-
-			if (clientId != null && !clientId.isBlank() && !masterTxn.clientId().equals(clientId)) {
-				throw new IllegalArgumentException("Token does not belong to this client");
+			if (StatelessTokenCodec.isStateless(token)) {
+				validateStateless(token, clientId, processor);
+				return true;
 			}
 
-			if (processor != null && !processor.isBlank() && !masterTxn.processor().equalsIgnoreCase(processor)) {
-				throw new IllegalArgumentException("Token processor mismatch");
+			TokenValidationCache.Entry cached = tokenCache.get(token);
+			if (cached != null) {
+				if (!cached.valid()) {
+					throw new IllegalArgumentException("Invalid or unknown transaction token");
+				}
+				checkOwnership(cached.clientId(), cached.processor(), clientId, processor);
+				return true;
 			}
 
-			LocalDateTime ts = masterTxn.transactionTimestamp();
-			if (ts == null) {
-				throw new IllegalStateException("Missing merchant transaction timestamp");
-			}
-
-			long minutesPassed = Duration.between(ts, LocalDateTime.now()).toMinutes();
-			if (minutesPassed >= tokenExpiryMinutes) {
-				throw new IllegalArgumentException("Transaction token expired");
-			}
-
-			String expectedRaw = String.valueOf(masterTxn.transactionUserId())
-					+ String.valueOf(masterTxn.transactionMerchantId())
-					+ String.valueOf(transactionPassword)
-					+ ts.format(TS_FORMATTER)
-					+ masterTxn.processor();
-
-			String decryptedRaw = AesUtil.decrypt(token, transactionAesKey, transactionIv);
-			if (!expectedRaw.equals(decryptedRaw)) {
-				throw new IllegalArgumentException("Invalid transaction token (payload mismatch)");
-			}
+			validateAgainstDatabase(token, clientId, processor);
+			return true;
+		} catch (Exception ex) {
+			log.warn("Token validation failed: {}", ex.getMessage());
+			return false;
+		}
+	}
 
+	/**
+	 * The database half of {@link #validateToken(String)} for callers that already missed the cache
+	 * through {@link #validateCached(String)}.
+	 */
+	public boolean validateUncached(String token) {
+		if (StatelessTokenCodec.isStateless(token)) {
+			return validateToken(token);
+		}
+		try {
+			validateAgainstDatabase(token, null, null);
 			return true;
 		} catch (Exception ex) {
 			log.warn("Token validation failed: {}", ex.getMessage());
@@ -173,6 +552,62 @@ public class WrapperTokenService {
 		}
 	}
 
+	private void validateStateless(String token, String clientId, String processor) {
+		StatelessTokenCodec.Claims claims = statelessCodec.open(token)
+				.orElseThrow(() -> new IllegalArgumentException("Invalid transaction token (authentication failed)"));
+
+		checkOwnership(claims.clientId(), claims.processor(), clientId, processor);
+
+		if (Instant.now().getEpochSecond() >= claims.expiresAt()) {
+			throw new IllegalArgumentException("Transaction token expired");
+		}
+	}
+
+	private void validateAgainstDatabase(String token, String clientId, String processor) throws Exception {
+
+		Optional<MasterTransaction> found = findByTokenHash(tokenHash(token));
+		if (found.isEmpty()) {
+			tokenCache.putUnknown(token);
+			throw new IllegalArgumentException("Invalid or unknown transaction token");
+		}
+		MasterTransaction masterTxn = found.get();
+
+		checkOwnership(masterTxn.clientId(), masterTxn.processor(), clientId, processor);
+
+		LocalDateTime ts = masterTxn.transactionTimestamp();
+		if (ts == null) {
+			throw new IllegalStateException("Missing merchant transaction timestamp");
+		}
+
+		long minutesPassed = Duration.between(ts, LocalDateTime.now()).toMinutes();
+		if (minutesPassed >= tokenExpiryMinutes) {
+			throw new IllegalArgumentException("Transaction token expired");
+		}
+
+		String expectedRaw = String.valueOf(masterTxn.transactionUserId())
+				+ String.valueOf(masterTxn.transactionMerchantId())
+				+ String.valueOf(transactionPassword)
+				+ ts.format(TS_FORMATTER)
+				+ masterTxn.processor();
+
+		String decryptedRaw = tokenCipher.decryptFromBase64(token);
+		if (!expectedRaw.equals(decryptedRaw)) {
+			throw new IllegalArgumentException("Invalid transaction token (payload mismatch)");
+		}
+
+		tokenCache.putValid(token, masterTxn.clientId(), masterTxn.processor(), ts.plusMinutes(tokenExpiryMinutes));
+	}
+
+	private static void checkOwnership(String tokenClientId, String tokenProcessor, String clientId, String processor) {
+		if (clientId != null && !clientId.isBlank() && !tokenClientId.equals(clientId)) {
+			throw new IllegalArgumentException("Token does not belong to this client");
+		}
+
+		if (processor != null && !processor.isBlank() && !tokenProcessor.equalsIgnoreCase(processor)) {
+			throw new IllegalArgumentException("Token processor mismatch");
+		}
+	}
+
 	private String normalizeProcessor(String processor) {
 		if (processor == null || processor.isBlank()) {
 			throw new IllegalArgumentException("Processor is required");
@@ -180,7 +615,7 @@ public class WrapperTokenService {
 		return processor.trim().toUpperCase(Locale.ROOT);
 	}
 
-	private Optional<MasterTransaction> findLatestByClientIdAndTransactionTimestampAndProcessor(
+	private Optional<MasterTransaction> findByClientIdAndTransactionTimestampAndProcessor(
 			String clientId,
 			LocalDateTime transactionTimestamp,
 			String processor
@@ -201,8 +636,6 @@ public class WrapperTokenService {
 				WHERE client_id = ?
 				  AND transaction_timestamp = ?
 				  AND processor = ?
-				ORDER BY initiated_at DESC
-				LIMIT 1
 				""";
 
 		try {
@@ -230,7 +663,7 @@ public class WrapperTokenService {
 		}
 	}
 
-	private Optional<MasterTransaction> findByTransactionToken(String token) {
+	private Optional<MasterTransaction> findByTokenHash(String tokenHash) {
 		String sql = """
 				SELECT
 					id,
@@ -244,8 +677,7 @@ public class WrapperTokenService {
 					initiated_at,
 					completed_at
 				FROM master_transactions
-				WHERE transaction_token = ?
-				LIMIT 1
+				WHERE token_hash = ?
 				""";
 
 		try {
@@ -263,7 +695,7 @@ public class WrapperTokenService {
 							toLdt(rs.getTimestamp("initiated_at")),
 							toLdt(rs.getTimestamp("completed_at"))
 					),
-					token
+					tokenHash
 			);
 			return Optional.ofNullable(row);
 		} catch (EmptyResultDataAccessException ex) {
@@ -271,42 +703,58 @@ public class WrapperTokenService {
 		}
 	}
 
-	private Optional<ClientProfile> findClientProfileByClientId(String clientId) {
-		String sql = """
-				SELECT
-					client_id,
-					transaction_userid,
-					transaction_merchantid
-				FROM client_profile
-				WHERE client_id = ?
-				LIMIT 1
-				""";
+	private Map<TxnKey, String> findTokensByTxn(List<TxnKey> txns) {
+		Map<TxnKey, String> tokens = new HashMap<>();
+		for (int from = 0; from < txns.size(); from += IN_CHUNK) {
+			List<TxnKey> chunk = txns.subList(from, Math.min(from + IN_CHUNK, txns.size()));
+			String sql = """
+					SELECT
+						client_id,
+						transaction_timestamp,
+						processor,
+						transaction_token
+					FROM master_transactions
+					WHERE (client_id, transaction_timestamp, processor) IN (%s)
+					""".formatted(String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?)")));
+
+			List<Object> args = new ArrayList<>(chunk.size() * 3);
+			for (TxnKey txn : chunk) {
+				args.add(txn.clientId());
+				args.add(Timestamp.valueOf(txn.timestamp()));
+				args.add(txn.processor());
+			}
 
-		try {
-			ClientProfile row = jdbcTemplate.queryForObject(
+			jdbcTemplate.query(
 					sql,
-					(rs, rowNum) -> new ClientProfile(
-							rs.getString("client_id"),
-							rs.getString("transaction_userid"),
-							rs.getString("transaction_merchantid")
-					),
-					clientId
+					rs -> {
+						TxnKey txn = new TxnKey(
+								rs.getString("client_id"),
+								toLdt(rs.getTimestamp("transaction_timestamp")),
+								rs.getString("processor")
+						);
+						tokens.put(txn, rs.getString("transaction_token"));
+					},
+					args.toArray()
 			);
-			return Optional.ofNullable(row);
-		} catch (EmptyResultDataAccessException ex) {
-			return Optional.empty();
 		}
+		return tokens;
+	}
+
+	private static long epochSeconds(LocalDateTime timestamp) {
+		return timestamp.atZone(ZoneId.systemDefault()).toEpochSecond();
 	}
 
 	private static LocalDateTime toLdt(Timestamp ts) {
 		return ts == null ? null : ts.toLocalDateTime();
 	}
 
-	private record ClientProfile(
-			String clientId,
-			String transactionUserId,
-			String transactionMerchantId
-	) {
+	/**
+	 * The merchant transaction a token is issued for; unique in {@code master_transactions}.
+	 */
+	private record TxnKey(String clientId, LocalDateTime timestamp, String processor) {
+	}
+
+	private record PendingToken(TxnKey txn, ClientProfile profile, String id, String orderReference) {
 	}
 
 	private record MasterTransaction(
@@ -0,0 +1,177 @@
+package com.example.transbnk_uat_runner.wrapper.util;
+
+import com.example.transbnk_uat_runner.config.VirtualThreads;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AES/CBC/PKCS5Padding with key material parsed once. Each platform thread keeps one initialized
+ * {@link Cipher} per direction, so a call costs only the {@code doFinal}: no Base64 key decode,
+ * no {@code Cipher.getInstance} and no {@code init}. Virtual threads are short-lived, so they
+ * borrow Ciphers from a small shared pool instead of building one per thread.
+ *
+ * <p>The byte[] and {@link ByteBuffer} methods avoid intermediate Strings; the String methods keep
+ * the Base64 wire format used by tokens and {@code encData}.
+ */
+public final class AesCipher {
+
+	private static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+	private static final int SHARED_POOL_LIMIT = Runtime.getRuntime().availableProcessors() * 4;
+
+	private final SecretKeySpec keySpec;
+	private final IvParameterSpec ivSpec;
+
+	private final CipherPool encryptors;
+	private final CipherPool decryptors;
+
+	private AesCipher(byte[] keyBytes, byte[] ivBytes) throws GeneralSecurityException {
+		this.keySpec = new SecretKeySpec(keyBytes, "AES");
+		this.ivSpec = new IvParameterSpec(ivBytes);
+
+		// fail fast on a bad key/IV instead of on the first request
+		newCipher(Cipher.ENCRYPT_MODE);
+
+		this.encryptors = new CipherPool(Cipher.ENCRYPT_MODE);
+		this.decryptors = new CipherPool(Cipher.DECRYPT_MODE);
+	}
+
+	public static AesCipher fromBase64(String base64Key, String base64IV) {
+		if (base64Key == null || base64IV == null) {
+			throw new IllegalArgumentException("AES key and IV are required");
+		}
+
+		try {
+			return new AesCipher(Base64.getDecoder().decode(base64Key), Base64.getDecoder().decode(base64IV));
+		} catch (IllegalArgumentException | GeneralSecurityException ex) {
+			throw new IllegalArgumentException("Invalid AES key or IV: " + ex.getMessage(), ex);
+		}
+	}
+
+	public byte[] encrypt(byte[] plain) throws GeneralSecurityException {
+		return doFinal(encryptors, plain);
+	}
+
+	public byte[] decrypt(byte[] encrypted) throws GeneralSecurityException {
+		return doFinal(decryptors, encrypted);
+	}
+
+	/**
+	 * Encrypts the remaining bytes of {@code input} into {@code output}; see {@link #encryptedSize(int)}.
+	 */
+	public int encrypt(ByteBuffer input, ByteBuffer output) throws GeneralSecurityException {
+		return doFinal(encryptors, input, output);
+	}
+
+	public int decrypt(ByteBuffer input, ByteBuffer output) throws GeneralSecurityException {
+		return doFinal(decryptors, input, output);
+	}
+
+	public int encryptedSize(int plainLength) {
+		return (plainLength / 16 + 1) * 16;
+	}
+
+	public byte[] encryptToBase64(byte[] plain) throws GeneralSecurityException {
+		return Base64.getEncoder().encode(encrypt(plain));
+	}
+
+	public byte[] decryptFromBase64(byte[] base64) throws GeneralSecurityException {
+		return decrypt(Base64.getDecoder().decode(base64));
+	}
+
+	public String encryptToBase64(String plainText) throws GeneralSecurityException {
+		return Base64.getEncoder().encodeToString(encrypt(plainText.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	public String decryptFromBase64(String encryptedText) throws GeneralSecurityException {
+		return new String(decrypt(Base64.getDecoder().decode(encryptedText)), StandardCharsets.UTF_8);
+	}
+
+	private byte[] doFinal(CipherPool ciphers, byte[] input) throws GeneralSecurityException {
+		Cipher cipher = ciphers.acquire();
+		boolean healthy = false;
+		try {
+			byte[] result = cipher.doFinal(input);
+			healthy = true;
+			return result;
+		} finally {
+			ciphers.release(cipher, healthy);
+		}
+	}
+
+	private int doFinal(CipherPool ciphers, ByteBuffer input, ByteBuffer output) throws GeneralSecurityException {
+		Cipher cipher = ciphers.acquire();
+		boolean healthy = false;
+		try {
+			int written = cipher.doFinal(input, output);
+			healthy = true;
+			return written;
+		} finally {
+			ciphers.release(cipher, healthy);
+		}
+	}
+
+	private Cipher newCipher(int mode) throws GeneralSecurityException {
+		Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+		cipher.init(mode, keySpec, ivSpec);
+		return cipher;
+	}
+
+	private Cipher newCipherUnchecked(int mode) {
+		try {
+			return newCipher(mode);
+		} catch (GeneralSecurityException ex) {
+			throw new IllegalStateException("Failed to initialize AES cipher", ex);
+		}
+	}
+
+	/**
+	 * A cipher that failed mid-operation is discarded rather than reused.
+	 */
+	private final class CipherPool {
+
+		private final int mode;
+		private final ThreadLocal<Cipher> perThread;
+		private final Queue<Cipher> shared = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger sharedSize = new AtomicInteger();
+
+		private CipherPool(int mode) {
+			this.mode = mode;
+			this.perThread = ThreadLocal.withInitial(() -> newCipherUnchecked(mode));
+		}
+
+		Cipher acquire() {
+			if (!VirtualThreads.isCurrentThreadVirtual()) {
+				return perThread.get();
+			}
+			Cipher cipher = shared.poll();
+			if (cipher == null) {
+				return newCipherUnchecked(mode);
+			}
+			sharedSize.decrementAndGet();
+			return cipher;
+		}
+
+		void release(Cipher cipher, boolean healthy) {
+			if (!VirtualThreads.isCurrentThreadVirtual()) {
+				if (!healthy) {
+					perThread.remove();
+				}
+				return;
+			}
+			if (healthy && sharedSize.incrementAndGet() <= SHARED_POOL_LIMIT) {
+				shared.offer(cipher);
+			} else if (healthy) {
+				sharedSize.decrementAndGet();
+			}
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package com.example.transbnk_uat_runner.wrapper.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary form of a stored text payload: a 6-byte header followed by the body.
+ *
+ * <pre>
+ * byte 0     format version (1)
+ * byte 1     codec: 0 = UTF-8 as is, 1 = DEFLATE (raw, no zlib wrapper)
+ * bytes 2-5  length of the UTF-8 text, big-endian
+ * </pre>
+ * The length lets {@link #decode(byte[])} size its buffer once and detect a short body. Text that
+ * does not get smaller when deflated is stored as is. Deflaters are reused per thread.
+ */
+public final class PayloadCodec {
+
+	public static final byte CODEC_NONE = 0;
+	public static final byte CODEC_DEFLATE = 1;
+
+	private static final byte VERSION = 1;
+	private static final int HEADER_LENGTH = 6;
+
+	private final int level;
+	private final ThreadLocal<Deflater> deflaters;
+	private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+
+	/**
+	 * @param level {@link Deflater} level, 1 (fastest) to 9 (smallest)
+	 */
+	public PayloadCodec(int level) {
+		if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException("Compression level must be 1-9, was: " + level);
+		}
+		this.level = level;
+		this.deflaters = ThreadLocal.withInitial(() -> new Deflater(this.level, true));
+	}
+
+	public byte[] encode(byte[] utf8) {
+		Deflater deflater = deflaters.get();
+		deflater.reset();
+		deflater.setInput(utf8);
+		deflater.finish();
+
+		// a body at least as long as the input is not worth inflating on read
+		byte[] out = new byte[HEADER_LENGTH + utf8.length];
+		int length = HEADER_LENGTH;
+		while (!deflater.finished() && length < out.length) {
+			length += deflater.deflate(out, length, out.length - length);
+		}
+
+		if (!deflater.finished()) {
+			header(out, CODEC_NONE, utf8.length);
+			System.arraycopy(utf8, 0, out, HEADER_LENGTH, utf8.length);
+			return out;
+		}
+
+		header(out, CODEC_DEFLATE, utf8.length);
+		byte[] encoded = new byte[length];
+		System.arraycopy(out, 0, encoded, 0, length);
+		return encoded;
+	}
+
+	public String decode(byte[] encoded) {
+		if (encoded == null) {
+			return null;
+		}
+		if (encoded.length < HEADER_LENGTH || encoded[0] != VERSION) {
+			throw new IllegalArgumentException("Not an encoded payload");
+		}
+
+		int textLength = ByteBuffer.wrap(encoded, 2, 4).getInt();
+		byte codec = encoded[1];
+		if (codec == CODEC_NONE) {
+			return new String(encoded, HEADER_LENGTH, encoded.length - HEADER_LENGTH, StandardCharsets.UTF_8);
+		}
+		if (codec != CODEC_DEFLATE) {
+			throw new IllegalArgumentException("Unknown payload codec: " + codec);
+		}
+
+		Inflater inflater = inflaters.get();
+		inflater.reset();
+		inflater.setInput(encoded, HEADER_LENGTH, encoded.length - HEADER_LENGTH);
+		byte[] text = new byte[textLength];
+		try {
+			int length = 0;
+			while (length < textLength && !inflater.finished()) {
+				int read = inflater.inflate(text, length, textLength - length);
+				if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				length += read;
+			}
+			if (length != textLength) {
+				throw new IllegalArgumentException("Truncated payload: " + length + " of " + textLength + " bytes");
+			}
+		} catch (DataFormatException ex) {
+			throw new IllegalArgumentException("Corrupt payload: " + ex.getMessage(), ex);
+		}
+		return new String(text, StandardCharsets.UTF_8);
+	}
+
+	private static void header(byte[] out, byte codec, int textLength) {
+		out[0] = VERSION;
+		out[1] = codec;
+		ByteBuffer.wrap(out, 2, 4).putInt(textLength);
+	}
+}
@@ -0,0 +1,144 @@
+package com.example.transbnk_uat_runner.wrapper.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Self-verifying wrapper tokens: {@code v1.<base64url(nonce | AES-GCM(claims) | tag)>}.
+ *
+ * <p>The claims are encrypted and authenticated with AES-256-GCM under a random 96-bit nonce, so a
+ * token can be checked with CPU work only and any change to it fails the tag check. The key is
+ * derived from the wrapper AES key with HMAC-SHA256, so the CBC payload key is never used for GCM
+ * directly.
+ */
+public final class StatelessTokenCodec {
+
+	public static final String PREFIX = "v1.";
+
+	private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+	private static final byte[] KEY_LABEL = "transbnk-wrapper-token-v1".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] AAD = PREFIX.getBytes(StandardCharsets.US_ASCII);
+	private static final int NONCE_LENGTH = 12;
+	private static final int TAG_BITS = 128;
+
+	private final SecretKeySpec key;
+	private final SecureRandom random = new SecureRandom();
+	private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(StatelessTokenCodec::newCipher);
+
+	private StatelessTokenCodec(byte[] keyBytes) {
+		this.key = new SecretKeySpec(keyBytes, "AES");
+	}
+
+	/**
+	 * @param base64MasterKey the wrapper AES key; the token key is derived from it
+	 */
+	public static StatelessTokenCodec fromBase64(String base64MasterKey) {
+		if (base64MasterKey == null || base64MasterKey.isBlank()) {
+			throw new IllegalArgumentException("Token key is required");
+		}
+
+		try {
+			Mac hmac = Mac.getInstance("HmacSHA256");
+			hmac.init(new SecretKeySpec(Base64.getDecoder().decode(base64MasterKey), "HmacSHA256"));
+			StatelessTokenCodec codec = new StatelessTokenCodec(hmac.doFinal(KEY_LABEL));
+			// fail fast on a provider without AES-GCM instead of on the first request
+			if (codec.open(codec.seal(new Claims("probe", "probe", 0, 0, "probe"))).isEmpty()) {
+				throw new GeneralSecurityException("AES-GCM self-check failed");
+			}
+			return codec;
+		} catch (IllegalArgumentException | GeneralSecurityException ex) {
+			throw new IllegalArgumentException("Invalid token key: " + ex.getMessage(), ex);
+		}
+	}
+
+	public static boolean isStateless(String token) {
+		return token != null && token.startsWith(PREFIX);
+	}
+
+	public String seal(Claims claims) throws GeneralSecurityException {
+		byte[] nonce = new byte[NONCE_LENGTH];
+		random.nextBytes(nonce);
+
+		Cipher cipher = ciphers.get();
+		cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, nonce));
+		cipher.updateAAD(AAD);
+		byte[] sealed = cipher.doFinal(claims.toBytes());
+
+		byte[] token = ByteBuffer.allocate(NONCE_LENGTH + sealed.length).put(nonce).put(sealed).array();
+		return PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+	}
+
+	/**
+	 * The claims of an authentic token; empty when the token is malformed or was not issued with
+	 * this key. Expiry is left to the caller.
+	 */
+	public Optional<Claims> open(String token) {
+		if (!isStateless(token)) {
+			return Optional.empty();
+		}
+
+		try {
+			byte[] raw = Base64.getUrlDecoder().decode(token.substring(PREFIX.length()));
+			if (raw.length <= NONCE_LENGTH) {
+				return Optional.empty();
+			}
+
+			Cipher cipher = ciphers.get();
+			cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, raw, 0, NONCE_LENGTH));
+			cipher.updateAAD(AAD);
+			byte[] plain = cipher.doFinal(raw, NONCE_LENGTH, raw.length - NONCE_LENGTH);
+			return Optional.of(Claims.fromBytes(plain));
+		} catch (IllegalArgumentException | GeneralSecurityException | IOException ex) {
+			return Optional.empty();
+		}
+	}
+
+	private static Cipher newCipher() {
+		try {
+			return Cipher.getInstance(TRANSFORMATION);
+		} catch (GeneralSecurityException ex) {
+			throw new IllegalStateException("AES-GCM is not available", ex);
+		}
+	}
+
+	/**
+	 * @param transactionTimestamp epoch seconds of the merchant transaction the token was issued for
+	 * @param expiresAt            epoch seconds
+	 * @param id                   {@code master_transactions.id} of the record written for the token
+	 */
+	public record Claims(String clientId, String processor, long transactionTimestamp, long expiresAt, String id) {
+
+		byte[] toBytes() {
+			try {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+				DataOutputStream out = new DataOutputStream(bytes);
+				out.writeUTF(clientId);
+				out.writeUTF(processor);
+				out.writeLong(transactionTimestamp);
+				out.writeLong(expiresAt);
+				out.writeUTF(id);
+				return bytes.toByteArray();
+			} catch (IOException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+
+		static Claims fromBytes(byte[] bytes) throws IOException {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+			return new Claims(in.readUTF(), in.readUTF(), in.readLong(), in.readLong(), in.readUTF());
+		}
+	}
+}
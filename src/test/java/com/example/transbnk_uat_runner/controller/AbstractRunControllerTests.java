@@ -0,0 +1,515 @@
+package com.example.transbnk_uat_runner.controller;
+
+import com.example.transbnk_uat_runner.config.ReplayProperties;
+import com.example.transbnk_uat_runner.service.ReplayEngine;
+import com.example.transbnk_uat_runner.service.ReplayReport;
+import com.example.transbnk_uat_runner.service.ReplaySource;
+import com.example.transbnk_uat_runner.stub.UpstreamStubServer;
+import com.example.transbnk_uat_runner.wrapper.service.WrapperPayloadCryptoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Behaviour of {@code POST /api/{apiName}} and the token endpoints, run once per web stack against
+ * a local TrustHub stub.
+ */
+@AutoConfigureObservability(tracing = false)
+abstract class AbstractRunControllerTests {
+
+    private static final String CLIENT_ID = "client-1";
+
+    /** {@code wrapper.admin-token} of the test configuration. */
+    private static final String ADMIN_TOKEN = "test-admin";
+
+    private static final UpstreamStubServer UPSTREAM = TestUpstream.start();
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WrapperPayloadCryptoService payloadCryptoService;
+
+    @Autowired
+    private ReplaySource replaySource;
+
+    @Autowired
+    private ReplayEngine replayEngine;
+
+    @LocalServerPort
+    private int port;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) {
+        registry.add("transbnk.base-url", UPSTREAM::baseUrl);
+    }
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM master_transactions");
+        jdbcTemplate.update("DELETE FROM client_profile");
+        jdbcTemplate.update("DELETE FROM bank_account_validation_log");
+        jdbcTemplate.update(
+                "INSERT INTO client_profile (client_id, transaction_userid, transaction_merchantid) VALUES (?, ?, ?)",
+                CLIENT_ID, "317161", "446442"
+        );
+    }
+
+    @Test
+    void requestWithoutTokenIsRejected() {
+        client.post().uri("/api/vpa-validation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"vpa\":\"test@upi\"}")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody().jsonPath("$.message").isEqualTo("Authorization header or body token is required");
+    }
+
+    @Test
+    void requestWithUnknownTokenIsRejected() {
+        client.post().uri("/api/vpa-validation")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer bm90LWEtdG9rZW4=")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"vpa\":\"test@upi\"}")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody().jsonPath("$.message").isEqualTo("Invalid or expired token");
+    }
+
+    @Test
+    void bankAccountValidationIsCustomizedAndLogged() {
+        client.post().uri("/api/bank-account-validation")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + generateToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"requestId\":\"req-1\",\"custName\":\"TEST USER\",\"custAcctNo\":\"1234567890\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.requestId").isEqualTo("req-1")
+                .jsonPath("$.statusCode").isEqualTo("200")
+                .jsonPath("$.data.nameAtBank").isEqualTo("TEST USER");
+
+        Integer logged = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bank_account_validation_log WHERE request_id = ? AND business_status = 'SUCCESS'",
+                Integer.class,
+                "req-1"
+        );
+        assertEquals(1, logged);
+    }
+
+    @Test
+    void archivedResponseCanBeFetchedByArchiveId() throws Exception {
+        String token = generateToken();
+        HttpHeaders headers = client.post().uri("/api/vpa-validation")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"vpa\":\"archive@upi\",\"requestId\":\"archive-req\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(JsonNode.class).getResponseHeaders();
+        assertEquals("archive-req", headers.getFirst("X-Request-Id"));
+        String archiveId = headers.getFirst("X-Archive-Id");
+        assertNotNull(archiveId);
+
+        // the archive is written in the background
+        JsonNode archived = null;
+        for (int attempt = 0; attempt < 50 && archived == null; attempt++) {
+            archived = client.get().uri("/api/v1/archive/responses/{archiveId}", archiveId)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .exchange()
+                    .expectBody(JsonNode.class).returnResult().getResponseBody();
+            if (!archived.has("response")) {
+                archived = null;
+                Thread.sleep(100);
+            }
+        }
+        assertNotNull(archived);
+        assertEquals("vpa-validation", archived.get("apiName").asText());
+        assertEquals(101, archived.get("response").get("result_code").asInt());
+        assertEquals("archive-req", archived.get("requestId").asText());
+
+        // the client-supplied requestId is not a key
+        client.get().uri("/api/v1/archive/responses/{archiveId}", "archive-req")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void encryptedRequestGetsEncryptedResponse() throws Exception {
+        // a VPA no other test looks up, so the answer is not served from the response cache
+        String encData = payloadCryptoService.encryptPayload("{\"vpa\":\"encrypted@upi\",\"token\":\"stale\"}");
+
+        byte[] body = client.post().uri("/api/vpa-validation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("encData", encData, "token", generateToken()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBody();
+
+        JsonNode outer = mapper.readTree(body);
+        JsonNode response = mapper.readTree(payloadCryptoService.decryptPayload(outer.get("encData").asText()));
+        assertEquals(101, response.get("result_code").asInt());
+
+        JsonNode sent = mapper.readTree(UPSTREAM.lastBody());
+        assertEquals("encrypted@upi", sent.get("vpa").asText());
+        assertTrue(sent.hasNonNull("entityId"));
+        assertFalse(sent.has("token"));
+    }
+
+    @Test
+    void stageTimingsAreScrapeable() throws Exception {
+        String encData = payloadCryptoService.encryptPayload("{\"vpa\":\"test@upi\"}");
+        client.post().uri("/api/vpa-validation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("encData", encData, "token", generateToken()))
+                .exchange()
+                .expectStatus().isOk();
+
+        String scrape = client.get().uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        for (String stage : new String[] {"body-capture", "token-validation", "decrypt", "template-build", "audit", "archive", "encrypt"}) {
+            assertTrue(scrape.contains("transbnk_request_stage_seconds_count{api=\"vpa-validation\",stage=\"" + stage + "\"}"), stage);
+        }
+        assertTrue(scrape.contains("transbnk_request_stage_seconds_bucket{api=\"vpa-validation\",stage=\"decrypt\",le="));
+        assertTrue(scrape.contains(
+                "transbnk_upstream_call_seconds_count{api=\"vpa-validation\",business_status=\"SUCCESS\",http_status=\"200\"}"));
+    }
+
+    @Test
+    void upstreamErrorIsPassedThrough() {
+        client.post().uri("/api/docuflow-create")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + generateToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"documentName\":\"loan.pdf\"}")
+                .exchange()
+                .expectStatus().isEqualTo(502)
+                .expectBody().jsonPath("$.message").isEqualTo("upstream down");
+    }
+
+    @Test
+    void idempotentLookupIsRetriedOnServerError() {
+        int before = UPSTREAM.hits("/upiap-validate-vpa");
+
+        client.post().uri("/api/upi-validate-vpa")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + generateToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"vpa\":\"test@upi\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.result_code").isEqualTo(101);
+
+        assertEquals(2, UPSTREAM.hits("/upiap-validate-vpa") - before);
+    }
+
+    @Test
+    void repeatedLookupIsServedFromCache() {
+        String token = generateToken();
+        int before = UPSTREAM.hits("/vpa-lookup");
+
+        client.post().uri("/api/vpa-validation")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"vpa\":\"cached@upi\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Cache", "MISS");
+
+        client.post().uri("/api/vpa-validation")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"vpa\":\" Cached@UPI \",\"client_ref_num\":\"other\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Cache", "HIT")
+                .expectBody().jsonPath("$.result_code").isEqualTo(101);
+
+        assertEquals(1, UPSTREAM.hits("/vpa-lookup") - before);
+    }
+
+    @Test
+    void cacheHitCarriesItsOwnRequestIdAndIsNotLogged() {
+        String token = generateToken();
+        int before = UPSTREAM.hits("/validate-acct-3");
+        for (String requestId : List.of("cache-req-1", "cache-req-2")) {
+            client.post().uri("/api/bank-account-validation")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"requestId\":\"" + requestId + "\",\"custAcctNo\":\"5550001111\",\"custIfsc\":\"UTIB0000001\"}")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals("X-Request-Id", requestId);
+        }
+
+        client.post().uri("/api/bank-account-validation")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"requestId\":\"cache-req-3\",\"custAcctNo\":\"5550001111\",\"custIfsc\":\"UTIB0000001\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Cache", "HIT")
+                .expectHeader().doesNotExist("X-Archive-Id")
+                .expectBody()
+                .jsonPath("$.requestId").isEqualTo("cache-req-3")
+                .jsonPath("$.data.nameAtBank").isEqualTo("TEST USER")
+                .jsonPath("$.data.responseId").doesNotExist()
+                .jsonPath("$.data.utr").doesNotExist();
+
+        assertEquals(1, UPSTREAM.hits("/validate-acct-3") - before);
+        assertEquals(List.of("cache-req-1"), jdbcTemplate.queryForList(
+                "SELECT request_id FROM bank_account_validation_log WHERE request_id LIKE 'cache-req-%'", String.class));
+    }
+
+    @Test
+    void identicalCallsInFlightShareOneUpstreamCall() {
+        String token = generateToken();
+        int before = UPSTREAM.hits("/docuflow-status");
+
+        List<CompletableFuture<EntityExchangeResult<String>>> responses = List.of(
+                "{\"documentId\":\"DOC-1\",\"referenceNo\":\"REF-1\"}",
+                "{\"referenceNo\":\"REF-1\",\"documentId\":\"DOC-1\"}"
+        ).stream().map(body -> CompletableFuture.supplyAsync(() -> client.post().uri("/api/docuflow-status")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult())).toList();
+
+        Set<String> requestIds = new HashSet<>();
+        List<String> archiveIds = new ArrayList<>();
+        for (CompletableFuture<EntityExchangeResult<String>> response : responses) {
+            EntityExchangeResult<String> result = response.join();
+            assertTrue(result.getResponseBody().contains("SIGNED"));
+            requestIds.add(result.getResponseHeaders().getFirst("X-Request-Id"));
+            String archiveId = result.getResponseHeaders().getFirst("X-Archive-Id");
+            if (archiveId != null) {
+                archiveIds.add(archiveId);
+            }
+        }
+        assertEquals(1, UPSTREAM.hits("/docuflow-status") - before);
+        // the caller that waited gets its own requestId, and the archived record stays the sender's
+        assertEquals(2, requestIds.size());
+        assertTrue(archiveIds.size() <= 1);
+    }
+
+    @Test
+    void auditedCallsCanBeReplayed(@TempDir Path dir) throws Exception {
+        String token = generateToken();
+        LocalDateTime from = LocalDateTime.now().minusSeconds(1);
+
+        client.post().uri("/api/vpa-validation")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"vpa\":\"replay@upi\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Business-Status", "SUCCESS");
+
+        // the audit is written in the background
+        long deadline = System.currentTimeMillis() + 5000;
+        while (jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bank_validation_audit WHERE api_name = 'vpa-validation'"
+                        + " AND latency_ms IS NOT NULL AND request_payload LIKE '%replay@upi%' AND created_at >= ?",
+                Integer.class, Timestamp.valueOf(from)) == 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "audit row not written");
+            Thread.sleep(100);
+        }
+
+        ReplayProperties properties = new ReplayProperties();
+        properties.setSource(ReplayProperties.Source.AUDIT);
+        properties.setApiName("vpa-validation");
+        properties.setFrom(from.toString());
+        properties.setFetchSize(2);
+        Path output = dir.resolve("replay.jsonl");
+        ReplayReport report = replayEngine.run(
+                action -> replaySource.forEach(properties, action),
+                new ReplayEngine.ReplayPlan("http://localhost:" + port, token, ReplayProperties.Pacing.MAX, 1, 2,
+                        Duration.ofSeconds(10), output));
+
+        assertTrue(report.requests() >= 1);
+        assertEquals(0, report.mismatches());
+        assertTrue(report.originalLatency("vpa-validation").getTotalCount() >= 1);
+        assertTrue(Files.readString(output).contains("replay@upi"));
+    }
+
+    @Test
+    void createCallIsNotRetried() {
+        String token = generateToken();
+        int before = UPSTREAM.hits("/docuflow-1call");
+        client.post().uri("/actuator/circuitbreakers/docuflow-create")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + ADMIN_TOKEN)
+                .exchange();
+
+        client.post().uri("/api/docuflow-create")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"documentName\":\"loan.pdf\"}")
+                .exchange()
+                .expectStatus().isEqualTo(502);
+
+        assertEquals(1, UPSTREAM.hits("/docuflow-1call") - before);
+    }
+
+    @Test
+    void failingEndpointOpensItsCircuit() {
+        String token = generateToken();
+        client.post().uri("/actuator/circuitbreakers/docuflow-create")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + ADMIN_TOKEN)
+                .exchange();
+        try {
+            // default minimum-calls is 20, all of them 502
+            for (int i = 0; i < 20; i++) {
+                client.post().uri("/api/docuflow-create")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue("{\"documentName\":\"loan.pdf\"}")
+                        .exchange()
+                        .expectStatus().isEqualTo(502);
+            }
+
+            client.post().uri("/api/docuflow-create")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"documentName\":\"loan.pdf\"}")
+                    .exchange()
+                    .expectStatus().isEqualTo(503)
+                    .expectBody().jsonPath("$.businessStatus").isEqualTo("CIRCUIT_OPEN");
+
+            client.get().uri("/actuator/circuitbreakers")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$['docuflow-create'].state").isEqualTo("OPEN")
+                    .jsonPath("$['docuflow-create'].maxConcurrent").isEqualTo(20);
+
+            // other endpoints are not affected
+            client.post().uri("/api/vpa-validation")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"vpa\":\"test@upi\"}")
+                    .exchange()
+                    .expectStatus().isOk();
+        } finally {
+            client.post().uri("/actuator/circuitbreakers/docuflow-create")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + ADMIN_TOKEN)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.state").isEqualTo("CLOSED");
+        }
+    }
+
+    @Test
+    void actuatorWritesNeedTheAdminToken() {
+        String clientToken = generateToken();
+        client.post().uri("/actuator/circuitbreakers/docuflow-create")
+                .exchange()
+                .expectStatus().isUnauthorized();
+        client.post().uri("/actuator/circuitbreakers/docuflow-create")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + clientToken)
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody().jsonPath("$.message").isEqualTo("Admin token is required");
+
+        client.get().uri("/actuator/circuitbreakers")
+                .exchange()
+                .expectStatus().isOk();
+
+        client.post().uri("/actuator/clientdirectory")
+                .exchange()
+                .expectStatus().isUnauthorized();
+        client.post().uri("/actuator/clientdirectory")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + clientToken)
+                .exchange()
+                .expectStatus().isUnauthorized();
+        client.post().uri("/actuator/clientdirectory")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + ADMIN_TOKEN)
+                .exchange()
+                .expectStatus().is2xxSuccessful();
+    }
+
+    @Test
+    void unknownApiNameIsBadRequest() {
+        client.post().uri("/api/not-an-api")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + generateToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"a\":1}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Failed to run api");
+    }
+
+    @Test
+    void malformedBodyIsBadRequest() {
+        client.post().uri("/api/vpa-validation")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + generateToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{not json")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Invalid JSON request body");
+    }
+
+    @Test
+    void tokenRequestIsValidated() {
+        client.post().uri("/api/v1/token/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"processor\":\"TRANSBANK\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Validation failed");
+    }
+
+    private String generateToken() {
+        String timestamp = LocalDateTime.now().minusMinutes(1).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        JsonNode response = client.post().uri("/api/v1/token/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of(
+                        "client_id", CLIENT_ID,
+                        "transaction_timestamp", timestamp,
+                        "processor", "TRANSBANK"
+                ))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+        return response.get("token").asText();
+    }
+}
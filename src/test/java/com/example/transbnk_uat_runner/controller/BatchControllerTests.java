@@ -0,0 +1,162 @@
+package com.example.transbnk_uat_runner.controller;
+
+import com.example.transbnk_uat_runner.stub.UpstreamStubServer;
+import com.example.transbnk_uat_runner.wrapper.service.WrapperPayloadCryptoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "transbnk.batch.endpoints.aadhaar-validation.timeout=500ms"
+)
+class BatchControllerTests {
+
+    private static final String CLIENT_ID = "client-1";
+
+    private static final UpstreamStubServer UPSTREAM = TestUpstream.start();
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WrapperPayloadCryptoService payloadCryptoService;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) {
+        registry.add("transbnk.base-url", UPSTREAM::baseUrl);
+    }
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("DELETE FROM master_transactions");
+        jdbcTemplate.update("DELETE FROM client_profile");
+        jdbcTemplate.update(
+                "INSERT INTO client_profile (client_id, transaction_userid, transaction_merchantid) VALUES (?, ?, ?)",
+                CLIENT_ID, "317161", "446442"
+        );
+    }
+
+    @Test
+    void itemsRunConcurrentlyAndComeBackInOrder() {
+        long start = System.nanoTime();
+
+        client.post().uri("/api/batch")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + generateToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("""
+                        {"requestId": "batch-1", "items": [
+                            {"apiName": "aadhaar-validation", "body": {"aadhaarNumber": "999999990019"}},
+                            {"apiName": "vpa-validation", "body": {"vpa": "test@upi"}},
+                            {"apiName": "bank-account-validation", "body": {"requestId": "req-2"}},
+                            {"apiName": "not-an-api", "body": {}}
+                        ]}
+                        """)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.requestId").isEqualTo("batch-1")
+                .jsonPath("$.items[0].businessStatus").isEqualTo("TIMEOUT")
+                .jsonPath("$.items[0].statusCode").isEqualTo(504)
+                .jsonPath("$.items[1].apiName").isEqualTo("vpa-validation")
+                .jsonPath("$.items[1].businessStatus").isEqualTo("SUCCESS")
+                .jsonPath("$.items[2].response.requestId").isEqualTo("req-2")
+                .jsonPath("$.items[3].statusCode").isEqualTo(400);
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMs < TestUpstream.SLOW_DELAY_MS, "batch waited for the slow item: " + elapsedMs + " ms");
+    }
+
+    @Test
+    void ndjsonStreamsOneLinePerItem() throws Exception {
+        byte[] body = client.post().uri("/api/batch")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + generateToken())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("""
+                        {"items": [
+                            {"apiName": "docuflow-create", "body": {"documentName": "loan.pdf"}},
+                            {"apiName": "vpa-validation", "body": {"vpa": "test@upi"}}
+                        ]}
+                        """)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody().returnResult().getResponseBody();
+
+        String[] lines = new String(body, StandardCharsets.UTF_8).trim().split("\n");
+        assertEquals(2, lines.length);
+
+        Set<String> apiNames = new HashSet<>();
+        for (String line : lines) {
+            apiNames.add(mapper.readTree(line).get("apiName").asText());
+        }
+        assertEquals(Set.of("docuflow-create", "vpa-validation"), apiNames);
+    }
+
+    @Test
+    void encryptedBatchGetsOneEncryptedEnvelope() throws Exception {
+        String encData = payloadCryptoService.encryptPayload(
+                "{\"items\":[{\"apiName\":\"vpa-validation\",\"body\":{\"vpa\":\"test@upi\"}}]}");
+
+        JsonNode outer = client.post().uri("/api/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("encData", encData, "token", generateToken()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+
+        JsonNode response = mapper.readTree(payloadCryptoService.decryptPayload(outer.get("encData").asText()));
+        assertEquals(101, response.at("/items/0/response/result_code").asInt());
+    }
+
+    @Test
+    void emptyBatchIsBadRequest() {
+        client.post().uri("/api/batch")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + generateToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"items\":[]}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Invalid batch request");
+    }
+
+    private String generateToken() {
+        String timestamp = LocalDateTime.now().minusMinutes(1).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        JsonNode response = client.post().uri("/api/v1/token/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of(
+                        "client_id", CLIENT_ID,
+                        "transaction_timestamp", timestamp,
+                        "processor", "TRANSBANK"
+                ))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+        return response.get("token").asText();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.transbnk_uat_runner.controller;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class ReactiveRunControllerTests extends AbstractRunControllerTests {
+}
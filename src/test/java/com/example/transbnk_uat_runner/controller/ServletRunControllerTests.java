@@ -0,0 +1,7 @@
+package com.example.transbnk_uat_runner.controller;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ServletRunControllerTests extends AbstractRunControllerTests {
+}
@@ -0,0 +1,44 @@
+package com.example.transbnk_uat_runner.controller;
+
+import com.example.transbnk_uat_runner.config.StubProperties;
+import com.example.transbnk_uat_runner.stub.UpstreamStubServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * The {@link UpstreamStubServer} the controller tests run against, on a free port.
+ * {@code aadhaar-validation} answers after {@link #SLOW_DELAY_MS} and {@code docuflow-status} after
+ * {@link #STATUS_DELAY_MS}; {@code docuflow-create} always fails with 502 and
+ * {@code upi-validate-vpa} answers 503 and 200 in turn.
+ */
+final class TestUpstream {
+
+    static final long SLOW_DELAY_MS = 1_500;
+    static final long STATUS_DELAY_MS = 500;
+
+    private TestUpstream() {
+    }
+
+    static UpstreamStubServer start() {
+        StubProperties properties = new StubProperties();
+        properties.setPort(0);
+        properties.endpoint("aadhaar-validation").setLatency(Duration.ofMillis(SLOW_DELAY_MS));
+        properties.endpoint("docuflow-status").setLatency(Duration.ofMillis(STATUS_DELAY_MS));
+        properties.endpoint("docuflow-create").setErrorRate(1.0);
+        properties.endpoint("docuflow-create").setErrorStatus(502);
+        properties.endpoint("docuflow-create").setErrorBody("{\"message\":\"upstream down\"}");
+        properties.endpoint("upi-validate-vpa").setErrorEvery(2);
+        try {
+            return UpstreamStubServer.start(properties, Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "upstream-stub");
+                thread.setDaemon(true);
+                return thread;
+            }));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BusinessStatusClassifierTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void defaultRulesMatchTrustHubConventions() throws Exception {
+        BusinessStatusClassifier classifier = new BusinessStatusClassifier(new MockEnvironment());
+
+        assertEquals("SUCCESS", classifier.classify("vpa-validation", mapper.readTree("{\"result_code\":101}")));
+        assertEquals("NO_RECORD", classifier.classify("aadhaar-validation", mapper.readTree("{\"result_code\":\"103\"}")));
+        assertEquals("FAILED", classifier.classify("vpa-validation", mapper.readTree("{\"result_code\":104,\"status\":\"OK\"}")));
+        assertEquals("SUCCESS", classifier.classify("docuflow-status", mapper.readTree("{\"statuscode\":200}")));
+        assertEquals("FAILED", classifier.classify("docuflow-status", mapper.readTree("{\"statuscode\":500}")));
+        assertEquals("ACTIVE", classifier.classify("nach-status", mapper.readTree("{\"status\":\"ACTIVE\"}")));
+        assertEquals("UNKNOWN", classifier.classify("payout-create", mapper.readTree("{}")));
+        assertEquals("EMPTY_RESPONSE", classifier.classify("payout-create", MissingNode.getInstance()));
+    }
+
+    @Test
+    void ruleOrderCanBeConfiguredPerApi() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("transbnk.business-status.nach-status", "status, result_code");
+        BusinessStatusClassifier classifier = new BusinessStatusClassifier(environment);
+
+        String body = "{\"result_code\":101,\"status\":\"PENDING\"}";
+        assertEquals("PENDING", classifier.classify("nach-status", mapper.readTree(body)));
+        assertEquals("SUCCESS", classifier.classify("vpa-validation", mapper.readTree(body)));
+
+        MockEnvironment invalid = new MockEnvironment()
+                .withProperty("transbnk.business-status.nach-status", "statusCode");
+        assertThrows(IllegalStateException.class, () -> new BusinessStatusClassifier(invalid));
+    }
+}
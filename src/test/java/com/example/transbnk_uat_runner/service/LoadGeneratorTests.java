@@ -0,0 +1,111 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ExecutorFactory;
+import com.example.transbnk_uat_runner.model.ApiResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LoadGeneratorTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ExecutorFactory executorFactory = new ExecutorFactory(false);
+    private final ApiRunnerService apiRunnerService = mock(ApiRunnerService.class);
+    private final LoadGenerator generator = new LoadGenerator(apiRunnerService, executorFactory);
+
+    @AfterEach
+    void shutdown() throws Exception {
+        executorFactory.destroy();
+    }
+
+    @Test
+    void closedLoopReportsLatencyAndOutcomesPerApi() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        when(apiRunnerService.runApi(eq("vpa-validation"), any(), anyBoolean())).thenAnswer(invocation -> {
+            Thread.sleep(5);
+            return result("SUCCESS", calls.incrementAndGet() % 4 == 0 ? "NO_RECORD" : "SUCCESS");
+        });
+        when(apiRunnerService.runApi(eq("docuflow-create"), any(), anyBoolean()))
+                .thenThrow(new IllegalStateException("boom"));
+
+        LoadReport report = generator.run(new LoadGenerator.LoadPlan(
+                List.of(new BatchRunnerService.BatchItem("vpa-validation", null),
+                        new BatchRunnerService.BatchItem("docuflow-create", null)),
+                0, 4, Duration.ofMillis(300), Duration.ofSeconds(5)));
+
+        assertTrue(report.latency("vpa-validation").getTotalCount() > 10);
+        assertTrue(report.latency("vpa-validation").getValueAtPercentile(50) >= 5_000);
+        assertTrue(report.outcomes("vpa-validation").get("SUCCESS/NO_RECORD") > 0);
+        assertTrue(report.outcomes("docuflow-create").get("EXCEPTION/IllegalStateException") > 0);
+        assertEquals(report.requests() - report.outcomes(null).get("SUCCESS/SUCCESS"), report.failures());
+
+        JsonNode json = report.toJson(mapper);
+        assertEquals("closed-loop", json.get("mode").asText());
+        assertTrue(json.at("/apis/vpa-validation/latencyMs/p99").asDouble() >= 5);
+        assertTrue(json.at("/total/statusCategory/EXCEPTION").asLong() > 0);
+        assertTrue(json.at("/total/businessStatus/NO_RECORD").asLong() > 0);
+
+        String table = report.toTable();
+        assertTrue(table.contains("vpa-validation"));
+        assertTrue(table.contains("EXCEPTION/IllegalStateException"));
+    }
+
+    @Test
+    void openLoopKeepsTheRateAndCountsWhatCouldNotBeSent() throws Exception {
+        when(apiRunnerService.runApi(any(), any(), anyBoolean())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return result("SUCCESS", "SUCCESS");
+        });
+
+        LoadReport report = generator.run(new LoadGenerator.LoadPlan(
+                List.of(new BatchRunnerService.BatchItem("nach-status", mapper.readTree("{\"mandateId\":\"M1\"}"))),
+                100, 1, Duration.ofMillis(500), Duration.ofSeconds(5)));
+
+        // 50 due in 0.5s, one at a time at 50ms each
+        assertEquals(50, report.requests(), 2);
+        assertTrue(report.outcomes("nach-status").get("NOT_SENT/CONCURRENCY_LIMIT") > 25);
+        assertTrue(report.latency("nach-status").getValueAtPercentile(50) >= 50_000);
+    }
+
+    @Test
+    void bodiesAreReadFromJsonLines(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("bodies.jsonl");
+        Files.writeString(file, """
+                {"apiName":"vpa-validation","body":{"vpa":"a@upi"}}
+
+                {"apiName":"bank-account-validation"}
+                """);
+
+        List<BatchRunnerService.BatchItem> items = LoadGenerator.readItems(file);
+
+        assertEquals(2, items.size());
+        assertEquals("a@upi", items.get(0).body().get("vpa").asText());
+        assertEquals("bank-account-validation", items.get(1).apiName());
+        assertNull(items.get(1).body());
+    }
+
+    private static ApiResult result(String statusCategory, String businessStatus) {
+        ApiResult result = new ApiResult();
+        result.setStatusCode(200);
+        result.setStatusCategory(statusCategory);
+        result.setBusinessStatus(businessStatus);
+        return result;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ExecutorFactory;
+import com.example.transbnk_uat_runner.config.ReplayProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayEngineTests {
+
+    private static final Instant T0 = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ExecutorFactory executorFactory = new ExecutorFactory(false);
+    private final ReplayEngine engine = new ReplayEngine(executorFactory, new BusinessStatusClassifier(new MockEnvironment()));
+    private HttpServer target;
+
+    @BeforeEach
+    void startTarget() throws Exception {
+        // answers with the status asked for in the body, the classified one in the header
+        target = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        target.createContext("/api/", exchange -> {
+            JsonNode body = mapper.readTree(exchange.getRequestBody());
+            byte[] bytes = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("X-Business-Status", body.path("answer").asText("SUCCESS"));
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        target.start();
+    }
+
+    @AfterEach
+    void shutdown() throws Exception {
+        target.stop(0);
+        executorFactory.destroy();
+    }
+
+    @Test
+    void acceleratedReplayKeepsTheRecordedGapsAndReportsStatusChanges(@TempDir Path dir) throws Exception {
+        Path output = dir.resolve("replay.jsonl");
+        List<ReplayRecord> records = List.of(
+                record("R1", 0, "{}", "SUCCESS", 40L),
+                record("R2", 300, "{}", "SUCCESS", 40L),
+                record("R3", 600, "{\"answer\":\"NO_RECORD\"}", "SUCCESS", 40L)
+        );
+
+        long start = System.nanoTime();
+        ReplayReport report = engine.run(records::forEach, plan(ReplayProperties.Pacing.ACCELERATED, 2, output));
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        // 600 ms recorded at 2x
+        assertTrue(elapsedMs >= 300, "elapsed " + elapsedMs);
+        assertTrue(elapsedMs < 600, "elapsed " + elapsedMs);
+        assertEquals(3, report.requests());
+        assertEquals(1, report.mismatches());
+        assertEquals(Map.of("SUCCESS -> NO_RECORD", 1L), report.changes("vpa-validation"));
+        assertEquals(3, report.originalLatency("vpa-validation").getTotalCount());
+        assertEquals(3, report.replayLatency(null).getTotalCount());
+
+        JsonNode json = report.toJson(mapper);
+        assertEquals(1, json.at("/apis/vpa-validation/businessStatusChanges/SUCCESS -> NO_RECORD").asLong());
+        assertEquals(40.0, json.at("/total/originalLatencyMs/p50").asDouble(), 0.1);
+        assertTrue(report.toTable().contains("SUCCESS -> NO_RECORD"));
+
+        // the output is itself a replay input, with the new run as its baseline
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(3, lines.size());
+        JsonNode changed = lines.stream().map(this::readTree)
+                .filter(line -> line.get("requestId").asText().equals("R3"))
+                .findFirst().orElseThrow();
+        assertEquals("SUCCESS", changed.at("/original/businessStatus").asText());
+        assertEquals(200, changed.get("statusCode").asInt());
+        ReplayRecord baseline = ReplayRecord.fromJson(changed);
+        assertEquals("NO_RECORD", baseline.businessStatus());
+        assertEquals(T0.plusMillis(600), baseline.at());
+    }
+
+    @Test
+    void maxSpeedIgnoresTheRecordedGapsAndUnreachableTargetsAreCounted() throws Exception {
+        List<ReplayRecord> records = List.of(
+                record("R1", 0, "{}", "SUCCESS", null),
+                record("R2", 5_000, "{}", null, null)
+        );
+
+        long start = System.nanoTime();
+        ReplayReport report = engine.run(records::forEach, plan(ReplayProperties.Pacing.MAX, 1, null));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2_000);
+        assertEquals(2, report.requests());
+        assertEquals(0, report.mismatches());
+        assertEquals(0, report.originalLatency(null).getTotalCount());
+
+        target.stop(0);
+        ReplayReport unreachable = engine.run(records::forEach, plan(ReplayProperties.Pacing.MAX, 1, null));
+        assertEquals(Map.of("SUCCESS -> EXCEPTION", 1L), unreachable.changes(null));
+        assertEquals(0, unreachable.replayLatency(null).getTotalCount());
+    }
+
+    @Test
+    void rejectionsCompareAsTheHttpErrorTheAuditRecorded() throws Exception {
+        List<ReplayRecord> records = List.of(
+                record("R1", 0, "{\"answer\":\"BULKHEAD_FULL\"}", "HTTP_ERROR", null),
+                record("R2", 0, "{\"answer\":\"CIRCUIT_OPEN\"}", "HTTP_ERROR", null),
+                record("R3", 0, "{\"answer\":\"HTTP_ERROR\"}", "CIRCUIT_OPEN", null)
+        );
+
+        ReplayReport report = engine.run(records::forEach, plan(ReplayProperties.Pacing.MAX, 1, null));
+        assertEquals(3, report.requests());
+        assertEquals(0, report.mismatches());
+    }
+
+    private ReplayEngine.ReplayPlan plan(ReplayProperties.Pacing pacing, double speed, Path output) {
+        return new ReplayEngine.ReplayPlan("http://127.0.0.1:" + target.getAddress().getPort() + "/",
+                "token", pacing, speed, 4, Duration.ofSeconds(5), output);
+    }
+
+    private ReplayRecord record(String requestId, long offsetMs, String body, String businessStatus, Long latencyMs) {
+        return new ReplayRecord("vpa-validation", requestId, T0.plusMillis(offsetMs), readTree(body), businessStatus, latencyMs);
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return mapper.readTree(json);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ReplayProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplaySourceTests {
+
+    private final ReplaySource source = new ReplaySource(null, null, new BusinessStatusClassifier(new MockEnvironment()));
+
+    @Test
+    void nonIdempotentRecordsAreSkippedUnlessAllowed(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("requests.jsonl");
+        Files.write(file, List.of(
+                "{\"apiName\":\"vpa-validation\",\"requestId\":\"R1\",\"body\":{},\"businessStatus\":\"SUCCESS\"}",
+                "{\"apiName\":\"payout-create\",\"requestId\":\"R2\",\"body\":{},\"businessStatus\":\"SUCCESS\"}",
+                "{\"apiName\":\"nach-mandate-create\",\"requestId\":\"R3\",\"body\":{},\"businessStatus\":\"SUCCESS\"}",
+                "{\"apiName\":\"nach-status\",\"requestId\":\"R4\",\"body\":{},\"businessStatus\":\"SUCCESS\"}",
+                "{\"apiName\":\"docuflow-cancel\",\"requestId\":\"R5\",\"body\":{},\"businessStatus\":\"SUCCESS\"}"
+        ));
+        ReplayProperties properties = new ReplayProperties();
+        properties.setSource(ReplayProperties.Source.FILE);
+        properties.setFile(file.toString());
+
+        assertEquals(List.of("R1", "R4"), requestIds(properties));
+
+        properties.setAllowNonIdempotent(true);
+        assertEquals(List.of("R1", "R2", "R3", "R4", "R5"), requestIds(properties));
+    }
+
+    private List<String> requestIds(ReplayProperties properties) throws Exception {
+        List<String> requestIds = new ArrayList<>();
+        source.forEach(properties, record -> requestIds.add(record.requestId()));
+        return requestIds;
+    }
+}
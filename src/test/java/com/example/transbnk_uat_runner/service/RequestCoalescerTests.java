@@ -0,0 +1,120 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.CoalescingProperties;
+import com.example.transbnk_uat_runner.model.ApiResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestCoalescerTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(new CoalescingProperties(), meterRegistry);
+
+    @Test
+    void keyIgnoresFieldOrderButNotValues() throws Exception {
+        String key = coalescer.keyFor("nach-status", mapper.readTree("{\"a\":1,\"b\":{\"y\":[1,2],\"x\":\"v\"}}"));
+
+        assertEquals(key, coalescer.keyFor("nach-status", mapper.readTree("{\"b\":{\"x\":\"v\",\"y\":[1,2]},\"a\":1}")));
+        assertNotEquals(key, coalescer.keyFor("nach-status", mapper.readTree("{\"a\":1,\"b\":{\"y\":[2,1],\"x\":\"v\"}}")));
+        assertNotEquals(key, coalescer.keyFor("docuflow-status", mapper.readTree("{\"a\":1,\"b\":{\"y\":[1,2],\"x\":\"v\"}}")));
+        assertNull(coalescer.keyFor("payout-create", mapper.readTree("{\"a\":1}")));
+    }
+
+    @Test
+    void callsInFlightShareOneCallAndFollowersGetACopy() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ApiResult shared = new ApiResult();
+
+        CompletableFuture<ApiResult> leader = CompletableFuture.supplyAsync(() -> join("k", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return shared;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<ApiResult> follower = CompletableFuture.supplyAsync(() -> join("k", () -> {
+            calls.incrementAndGet();
+            return new ApiResult();
+        }));
+        while (meterRegistry.find("transbnk.coalesced.calls").counter() == null) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertSame(shared, leader.get(5, TimeUnit.SECONDS));
+        ApiResult followed = follower.get(5, TimeUnit.SECONDS);
+        assertNotSame(shared, followed);
+        assertEquals("follower", followed.getRequestId());
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.get("transbnk.coalesced.calls").tag("api", "nach-status").counter().count());
+
+        // finished calls are not reused
+        ApiResult next = coalescer.join("nach-status", "k", ApiResult::new, RequestCoalescerTests::copy);
+        assertNotEquals(shared, next);
+    }
+
+    @Test
+    void failureIsThrownToTheCaller() {
+        Callable<ApiResult> failing = () -> {
+            throw new IllegalStateException("upstream down");
+        };
+        assertThrows(IllegalStateException.class, () -> coalescer.join("nach-status", "k", failing, RequestCoalescerTests::copy));
+    }
+
+    @Test
+    void reactiveCallsInFlightShareOneSubscription() {
+        Sinks.One<ApiResult> answer = Sinks.one();
+        AtomicInteger subscriptions = new AtomicInteger();
+        ApiResult shared = new ApiResult();
+
+        Mono<ApiResult> first = coalescer.join("nach-status", "k",
+                () -> answer.asMono().doOnSubscribe(s -> subscriptions.incrementAndGet()), RequestCoalescerTests::copy);
+        Mono<ApiResult> second = coalescer.join("nach-status", "k",
+                () -> answer.asMono().doOnSubscribe(s -> subscriptions.incrementAndGet()), RequestCoalescerTests::copy);
+
+        CompletableFuture<ApiResult> firstResult = first.toFuture();
+        CompletableFuture<ApiResult> secondResult = second.toFuture();
+        answer.tryEmitValue(shared);
+
+        assertSame(shared, Mono.fromFuture(firstResult).block(Duration.ofSeconds(5)));
+        assertEquals("follower", Mono.fromFuture(secondResult).block(Duration.ofSeconds(5)).getRequestId());
+        assertEquals(1, subscriptions.get());
+    }
+
+    private ApiResult join(String key, Callable<ApiResult> call) {
+        try {
+            return coalescer.join("nach-status", key, call, RequestCoalescerTests::copy);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static ApiResult copy(ApiResult shared) {
+        ApiResult result = new ApiResult();
+        result.setRequestId("follower");
+        result.setBusinessStatus(shared.getBusinessStatus());
+        return result;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ExecutorFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseArchiveTests {
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ExecutorFactory executorFactory = new ExecutorFactory(false);
+
+    @AfterEach
+    void shutdown() throws Exception {
+        executorFactory.destroy();
+    }
+
+    @Test
+    void segmentsRollAndIndexIsRebuiltOnRestart() throws Exception {
+        ResponseArchive archive = start(200, Long.MAX_VALUE);
+        for (int i = 0; i < 10; i++) {
+            archive.append("arch-" + i, "req-" + i, "vpa-validation", mapper.readTree("{\"result_code\":101,\"n\":" + i + "}"));
+        }
+        archive.stop();
+
+        long segments;
+        try (var files = Files.list(dir)) {
+            segments = files.count();
+        }
+        assertTrue(segments > 1, "expected several segments, got " + segments);
+
+        ResponseArchive restarted = start(200, Long.MAX_VALUE);
+        try {
+            awaitIndexed(restarted, "arch-0");
+            for (int i = 0; i < 10; i++) {
+                JsonNode record = restarted.find("arch-" + i).orElseThrow();
+                assertEquals(i, record.get("response").get("n").asInt());
+                assertEquals("req-" + i, record.get("requestId").asText());
+            }
+            assertEquals(Optional.empty(), restarted.find("arch-missing"));
+            assertEquals(Optional.empty(), restarted.find("req-0"));
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    void oldestSegmentsAreDeletedOverTheSizeCap() throws Exception {
+        ResponseArchive archive = start(200, 400);
+        for (int i = 0; i < 10; i++) {
+            archive.append("arch-" + i, "req-" + i, "vpa-validation", mapper.readTree("{\"result_code\":101,\"n\":" + i + "}"));
+        }
+        archive.stop();
+
+        ResponseArchive restarted = start(200, 400);
+        try {
+            awaitIndexed(restarted, "arch-9");
+            assertTrue(restarted.find("arch-0").isEmpty());
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    void reusedRequestIdsDoNotReplaceEachOther() throws Exception {
+        ResponseArchive archive = start(Long.MAX_VALUE, Long.MAX_VALUE);
+        try {
+            archive.append("arch-a", "req-1", "vpa-validation", mapper.readTree("{\"owner\":\"a\"}"));
+            archive.append("arch-b", "req-1", "vpa-validation", mapper.readTree("{\"owner\":\"b\"}"));
+            awaitIndexed(archive, "arch-b");
+            awaitIndexed(archive, "arch-a");
+
+            assertEquals("a", archive.find("arch-a").orElseThrow().at("/response/owner").asText());
+            assertEquals("b", archive.find("arch-b").orElseThrow().at("/response/owner").asText());
+        } finally {
+            archive.stop();
+        }
+    }
+
+    /** Both the writer and the startup index rebuild run in the background. */
+    private static void awaitIndexed(ResponseArchive archive, String archiveId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (archive.find(archiveId).isEmpty()) {
+            assertTrue(System.currentTimeMillis() < deadline, archiveId + " not indexed");
+            Thread.sleep(20);
+        }
+    }
+
+    private ResponseArchive start(long segmentMaxBytes, long maxTotalBytes) throws Exception {
+        ResponseArchive archive = new ResponseArchive(new SimpleMeterRegistry(), executorFactory);
+        ReflectionTestUtils.setField(archive, "enabled", true);
+        ReflectionTestUtils.setField(archive, "dir", dir.toString());
+        ReflectionTestUtils.setField(archive, "segmentMaxBytes", segmentMaxBytes);
+        ReflectionTestUtils.setField(archive, "segmentMaxAgeMs", 3_600_000L);
+        ReflectionTestUtils.setField(archive, "retentionHours", 168L);
+        ReflectionTestUtils.setField(archive, "maxTotalBytes", maxTotalBytes);
+        ReflectionTestUtils.setField(archive, "queueCapacity", 100);
+        // one record per write so that rotation happens between records
+        ReflectionTestUtils.setField(archive, "batchSize", 1);
+        archive.start();
+        return archive;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ResponseCacheProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTests {
+
+    private static final String API = "bank-account-validation";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void keyIgnoresCaseWhitespaceAndOtherFields() throws Exception {
+        ResponseCache cache = cache(new ResponseCacheProperties());
+
+        String key = cache.keyFor(API, mapper.readTree("{\"custAcctNo\":\"123\",\"custIfsc\":\"UTIB0001600\",\"requestId\":\"a\"}"));
+        assertNotNull(key);
+        assertEquals(key, cache.keyFor(API, mapper.readTree("{\"custAcctNo\":\" 123 \",\"custIfsc\":\"utib0001600\",\"requestId\":\"b\"}")));
+        assertNotEquals(key, cache.keyFor(API, mapper.readTree("{\"custAcctNo\":\"124\",\"custIfsc\":\"UTIB0001600\"}")));
+        assertFalse(key.contains("123"));
+
+        assertNull(cache.keyFor(API, mapper.readTree("{\"custAcctNo\":\"123\"}")));
+        assertNull(cache.keyFor("payout-create", mapper.readTree("{\"custAcctNo\":\"123\",\"custIfsc\":\"UTIB0001600\"}")));
+    }
+
+    @Test
+    void onlySuccessfulAnswersAreKeptUntilTheyExpire() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setTtl(Duration.ofSeconds(30));
+        ResponseCache cache = cache(properties);
+
+        cache.put(API, "failed", 200, "FAILED", body("{}"));
+        cache.put(API, "error", 500, "SUCCESS", body("{}"));
+        cache.put(API, "ok", 200, "SUCCESS", body("{\"status\":\"SUCCESS\"}"));
+
+        assertTrue(cache.get(API, "failed").isEmpty());
+        assertTrue(cache.get(API, "error").isEmpty());
+        assertEquals("{\"status\":\"SUCCESS\"}", new String(cache.get(API, "ok").orElseThrow().body(), StandardCharsets.UTF_8));
+
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertTrue(cache.get(API, "ok").isEmpty());
+        assertEquals(0, cache.size(API));
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setMaxEntries(2);
+        ResponseCache cache = cache(properties);
+
+        cache.put(API, "a", 200, "SUCCESS", body("{}"));
+        cache.put(API, "b", 200, "SUCCESS", body("{}"));
+        assertTrue(cache.get(API, "a").isPresent());
+        cache.put(API, "c", 200, "SUCCESS", body("{}"));
+
+        assertTrue(cache.get(API, "a").isPresent());
+        assertTrue(cache.get(API, "b").isEmpty());
+        assertTrue(cache.get(API, "c").isPresent());
+    }
+
+    @Test
+    void evictedEntriesMoveOffHeapAndBack() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setMaxEntries(1);
+        properties.getOffHeap().setEnabled(true);
+        properties.getOffHeap().setMaxBytes(DataSize.ofBytes(100));
+        ResponseCache cache = cache(properties);
+
+        cache.put(API, "a", 200, "SUCCESS", body("{\"n\":\"a\"}"));
+        cache.put(API, "b", 200, "SUCCESS", body("{\"n\":\"b\"}"));
+        assertEquals(2, cache.size(API));
+
+        ResponseCache.Hit promoted = cache.get(API, "a").orElseThrow();
+        assertEquals(200, promoted.statusCode());
+        assertEquals("SUCCESS", promoted.businessStatus());
+        assertEquals("{\"n\":\"a\"}", new String(promoted.body(), StandardCharsets.UTF_8));
+        assertTrue(cache.get(API, "b").isPresent());
+
+        // each off-heap entry takes 30 bytes here; the fourth pushes the oldest out
+        for (String key : new String[] {"c", "d", "e", "f"}) {
+            cache.put(API, key, 200, "SUCCESS", body("{\"n\":\"" + key + "\"}"));
+        }
+        assertTrue(cache.get(API, "a").isEmpty());
+        assertTrue(cache.get(API, "c").isPresent());
+    }
+
+    private ResponseCache cache(ResponseCacheProperties properties) {
+        return new ResponseCache(properties, new SimpleMeterRegistry(), now::get);
+    }
+
+    private static byte[] body(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.transbnk_uat_runner.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class StageMetricsTests {
+
+    @Test
+    void unknownApiNamesAreTaggedAsOther() {
+        assertEquals("vpa-validation", StageMetrics.apiNameOf("/api/vpa-validation"));
+        assertEquals("other", StageMetrics.apiNameOf("/api/made-up-1"));
+        assertEquals("other", StageMetrics.apiNameOf("/api/vpa-validation/extra"));
+        assertEquals("other", StageMetrics.apiNameOf("/actuator/health"));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StageMetrics metrics = new StageMetrics(registry);
+        for (int i = 0; i < 100; i++) {
+            metrics.record(StageMetrics.apiNameOf("/api/made-up-" + i), StageMetrics.BODY_CAPTURE, 1_000);
+        }
+        // made-up paths arriving first do not push real apiNames out
+        metrics.record("vpa-validation", StageMetrics.BODY_CAPTURE, 1_000);
+
+        assertEquals(100, registry.get("transbnk.request.stage").tag("api", "other").timer().count());
+        assertNotNull(registry.get("transbnk.request.stage").tag("api", "vpa-validation").timer());
+        assertEquals(2, registry.get("transbnk.request.stage").timers().size());
+    }
+}
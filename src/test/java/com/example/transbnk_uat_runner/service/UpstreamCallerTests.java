@@ -0,0 +1,71 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ExecutorFactory;
+import com.example.transbnk_uat_runner.config.ResilienceProperties;
+import com.example.transbnk_uat_runner.config.RetryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UpstreamCallerTests {
+
+    private static final String API = "vpa-validation";
+
+    private final ExecutorFactory executorFactory = new ExecutorFactory(false);
+
+    @AfterEach
+    void shutdown() throws Exception {
+        executorFactory.destroy();
+    }
+
+    @Test
+    void hedgedOutAttemptKeepsItsSlotUntilItFinishes() throws Exception {
+        RetryProperties retryProperties = new RetryProperties();
+        retryProperties.getHedge().setEnabled(true);
+        retryProperties.getHedge().setMinSamples(1);
+        retryProperties.getHedge().setMinDelay(Duration.ofMillis(1));
+        UpstreamRetryPolicy retryPolicy = new UpstreamRetryPolicy(retryProperties, new SimpleMeterRegistry());
+        retryPolicy.recordLatency(API, TimeUnit.MILLISECONDS.toNanos(5));
+        UpstreamGuard guard = new UpstreamGuard(new ResilienceProperties(), new SimpleMeterRegistry());
+
+        CountDownLatch slowDone = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        UpstreamHttpClient http = mock(UpstreamHttpClient.class);
+        when(http.post(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                slowDone.await(5, TimeUnit.SECONDS);
+                return ResponseEntity.ok("slow");
+            }
+            return ResponseEntity.ok("fast");
+        });
+        UpstreamCaller caller = new UpstreamCaller(http, guard, retryPolicy,
+                new StageMetrics(new SimpleMeterRegistry()), retryProperties, executorFactory);
+
+        UpstreamCaller.Answer answer = caller.call(new ApiRunnerService.PreparedCall(API, "req-1", "archive-1",
+                "/vpa-lookup", "http://localhost/vpa-lookup", new HttpHeaders(), null, new byte[0], null));
+
+        assertEquals("fast", answer.body());
+        // the losing request is still out at TrustHub
+        assertEquals(1, guard.snapshot().get(API).active());
+
+        slowDone.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (guard.snapshot().get(API).active() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, guard.snapshot().get(API).active());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.ResilienceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamGuardTests {
+
+    private static final String API = "docuflow-create";
+
+    @Test
+    void failuresOpenTheCircuitAndTrialCallsCloseIt() throws Exception {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(50);
+        properties.setOpenDuration(Duration.ofMillis(100));
+        properties.setHalfOpenCalls(2);
+        UpstreamGuard guard = new UpstreamGuard(properties, new SimpleMeterRegistry());
+
+        guard.acquire(API).release(200, 1);
+        guard.acquire(API).release(404, 1);
+        guard.acquire(API).release(502, 1);
+        assertEquals(UpstreamGuard.State.CLOSED, guard.state(API));
+        guard.acquire(API).release(0, 1);
+        assertEquals(UpstreamGuard.State.OPEN, guard.state(API));
+
+        UpstreamGuard.RejectedException rejected = assertThrows(UpstreamGuard.RejectedException.class, () -> guard.acquire(API));
+        assertEquals(UpstreamGuard.CIRCUIT_OPEN, rejected.reason());
+
+        Thread.sleep(150);
+        UpstreamGuard.Permit first = guard.acquire(API);
+        UpstreamGuard.Permit second = guard.acquire(API);
+        assertEquals(UpstreamGuard.State.HALF_OPEN, guard.state(API));
+        assertThrows(UpstreamGuard.RejectedException.class, () -> guard.acquire(API));
+
+        first.release(200, 1);
+        second.release(200, 1);
+        assertEquals(UpstreamGuard.State.CLOSED, guard.state(API));
+    }
+
+    @Test
+    void slowCallsOpenTheCircuit() {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.setMinimumCalls(2);
+        properties.setSlowCallRateThreshold(100);
+        properties.setSlowCallDuration(Duration.ofSeconds(1));
+        UpstreamGuard guard = new UpstreamGuard(properties, new SimpleMeterRegistry());
+
+        guard.acquire(API).release(200, TimeUnit.SECONDS.toNanos(2));
+        guard.acquire(API).release(200, TimeUnit.SECONDS.toNanos(2));
+
+        assertEquals(UpstreamGuard.State.OPEN, guard.state(API));
+    }
+
+    @Test
+    void fullBulkheadRejectsWithoutTouchingTheCircuit() {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.setMaxConcurrent(1);
+        properties.setMaxQueue(0);
+        UpstreamGuard guard = new UpstreamGuard(properties, new SimpleMeterRegistry());
+
+        UpstreamGuard.Permit held = guard.acquire(API);
+        UpstreamGuard.RejectedException rejected = assertThrows(UpstreamGuard.RejectedException.class, () -> guard.acquire(API));
+        assertEquals(UpstreamGuard.BULKHEAD_FULL, rejected.reason());
+        assertTrue(guard.tryAcquire(API).isEmpty());
+        assertTrue(guard.tryAcquire("vpa-validation").isPresent());
+
+        held.release(200, 1);
+        held.release(200, 1);
+        assertEquals(1, guard.snapshot().get(API).bufferedCalls());
+        assertTrue(guard.tryAcquire(API).isPresent());
+        assertEquals(UpstreamGuard.State.CLOSED, guard.state(API));
+    }
+
+    @Test
+    void openCircuitRejectionsAreCounted() {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.setMinimumCalls(2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UpstreamGuard guard = new UpstreamGuard(properties, registry);
+
+        guard.acquire(API).release(502, 1);
+        guard.acquire(API).release(502, 1);
+        assertEquals(UpstreamGuard.State.OPEN, guard.state(API));
+
+        assertThrows(UpstreamGuard.RejectedException.class, () -> guard.acquire(API));
+        assertThrows(UpstreamGuard.RejectedException.class, () -> guard.tryAcquire(API));
+
+        assertEquals(2, registry.get("transbnk.upstream.rejected")
+                .tag("api", API)
+                .tag("reason", UpstreamGuard.CIRCUIT_OPEN)
+                .counter().count());
+    }
+}
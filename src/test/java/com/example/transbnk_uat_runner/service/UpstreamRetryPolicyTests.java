@@ -0,0 +1,80 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.RetryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamRetryPolicyTests {
+
+    @Test
+    void onlyReadOnlyApisAreRepeated() {
+        RetryProperties properties = new RetryProperties();
+        properties.setIdempotentApis(List.of("nach-status", "docuflow-create", "payout-create",
+                "docuflow-resend", "docuflow-cancel"));
+        UpstreamRetryPolicy policy = new UpstreamRetryPolicy(properties, new SimpleMeterRegistry());
+
+        assertTrue(policy.isIdempotent("nach-status"));
+        assertEquals(3, policy.maxAttempts("nach-status"));
+        assertFalse(policy.isIdempotent("docuflow-create"));
+        assertEquals(1, policy.maxAttempts("payout-create"));
+        assertFalse(policy.isIdempotent("docuflow-resend"));
+        assertFalse(policy.isIdempotent("docuflow-cancel"));
+        assertFalse(UpstreamRetryPolicy.isReadOnly("docuflow-cancel"));
+        assertTrue(UpstreamRetryPolicy.isReadOnly("bank-account-validation"));
+    }
+
+    @Test
+    void onlyConnectFailuresAndServerErrorsAreRetried() {
+        UpstreamRetryPolicy policy = new UpstreamRetryPolicy(new RetryProperties(), new SimpleMeterRegistry());
+
+        assertTrue(policy.isRetryable(503));
+        assertFalse(policy.isRetryable(429));
+        assertTrue(policy.isRetryable(new IllegalStateException("I/O error", new ConnectException("refused"))));
+        assertFalse(policy.isRetryable(new IllegalStateException("I/O error", new SocketTimeoutException("read timed out"))));
+    }
+
+    @Test
+    void backoffIsJitteredBelowTheCap() {
+        RetryProperties properties = new RetryProperties();
+        properties.setInitialBackoff(Duration.ofMillis(100));
+        properties.setMaxBackoff(Duration.ofMillis(300));
+        UpstreamRetryPolicy policy = new UpstreamRetryPolicy(properties, new SimpleMeterRegistry());
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(policy.backoff(1).compareTo(Duration.ofMillis(100)) <= 0);
+            assertTrue(policy.backoff(5).compareTo(Duration.ofMillis(300)) <= 0);
+        }
+    }
+
+    @Test
+    void hedgeDelayFollowsTheLatencyPercentile() {
+        RetryProperties properties = new RetryProperties();
+        properties.getHedge().setEnabled(true);
+        properties.getHedge().setPercentile(0.9);
+        properties.getHedge().setMinSamples(10);
+        properties.getHedge().setMinDelay(Duration.ofMillis(1));
+        UpstreamRetryPolicy policy = new UpstreamRetryPolicy(properties, new SimpleMeterRegistry());
+
+        for (int ms = 1; ms <= 9; ms++) {
+            policy.recordLatency("vpa-validation", TimeUnit.MILLISECONDS.toNanos(ms * 10));
+        }
+        assertEquals(Optional.empty(), policy.hedgeDelay("vpa-validation"));
+
+        policy.recordLatency("vpa-validation", TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(Optional.of(Duration.ofMillis(90)), policy.hedgeDelay("vpa-validation"));
+
+        policy.recordLatency("docuflow-create", TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(Optional.empty(), policy.hedgeDelay("docuflow-create"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.transbnk_uat_runner.service;
+
+import com.example.transbnk_uat_runner.config.UpstreamHttpProperties;
+import com.example.transbnk_uat_runner.config.VirtualThreads;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Blocking upstream calls at high upstream latency: a Tomcat-sized platform pool against one
+ * virtual thread per request. The virtual run is skipped on runtimes without virtual threads.
+ * Run with {@code mvn -P benchmark test}.
+ */
+@Tag("benchmark")
+class VirtualThreadLoadBenchmarkTests {
+
+    private static final int UPSTREAM_LATENCY_MS = 250;
+    private static final int REQUESTS = 2_000;
+    private static final int PLATFORM_THREADS = 200;
+
+    private HttpServer upstream;
+    private ExecutorService upstreamExecutor;
+    private UpstreamHttpClient client;
+    private String url;
+
+    @BeforeEach
+    void startUpstream() throws Exception {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        upstreamExecutor = Executors.newCachedThreadPool();
+        upstream.setExecutor(upstreamExecutor);
+        upstream.createContext("/vpa-lookup", exchange -> {
+            try {
+                Thread.sleep(UPSTREAM_LATENCY_MS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"result_code\":101}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        upstream.start();
+        url = "http://127.0.0.1:" + upstream.getAddress().getPort() + "/vpa-lookup";
+
+        UpstreamHttpProperties properties = new UpstreamHttpProperties();
+        properties.setMaxConnections(REQUESTS);
+        client = new UpstreamHttpClient(properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void stopUpstream() {
+        client.destroy();
+        upstream.stop(0);
+        upstreamExecutor.shutdownNow();
+    }
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        ExecutorService platform = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        try {
+            run("platform(" + PLATFORM_THREADS + ")", platform);
+        } finally {
+            platform.shutdownNow();
+        }
+
+        if (!VirtualThreads.isSupported()) {
+            System.out.printf("%-16s skipped: Java %s has no virtual threads%n", "virtual", Runtime.version());
+            return;
+        }
+
+        ExecutorService virtual = VirtualThreads.newThreadPerTaskExecutor("load-");
+        try {
+            run("virtual", virtual);
+        } finally {
+            virtual.shutdownNow();
+        }
+    }
+
+    private void run(String name, ExecutorService executor) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<byte[]> request = new HttpEntity<>("{}".getBytes(StandardCharsets.UTF_8), headers);
+
+        long started = System.nanoTime();
+        List<Future<Long>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            long submitted = System.nanoTime();
+            futures.add(executor.submit(() -> {
+                client.post("vpa-validation", url, request);
+                return System.nanoTime() - submitted;
+            }));
+        }
+
+        long[] latencies = new long[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            latencies[i] = futures.get(i).get();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        Arrays.sort(latencies);
+        assertEquals(REQUESTS, latencies.length);
+
+        System.out.printf(
+                "%-16s %7.0f req/s  p50=%5d ms  p99=%5d ms%n",
+                name,
+                REQUESTS / seconds,
+                latencies[REQUESTS / 2] / 1_000_000,
+                latencies[REQUESTS * 99 / 100] / 1_000_000
+        );
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.transbnk_uat_runner.stub;
+
+import com.example.transbnk_uat_runner.config.StubProperties;
+import com.example.transbnk_uat_runner.service.ApiRunnerService;
+import com.example.transbnk_uat_runner.service.BusinessStatusClassifier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamStubServerTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final BusinessStatusClassifier classifier = new BusinessStatusClassifier(new MockEnvironment());
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final StubProperties properties = new StubProperties();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private UpstreamStubServer stub;
+
+    @BeforeEach
+    void start() throws Exception {
+        properties.setPort(0);
+        stub = UpstreamStubServer.start(properties, executor);
+    }
+
+    @AfterEach
+    void stop() {
+        stub.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void everyApiIsServedInItsOwnStatusConvention() throws Exception {
+        assertEquals(12, StubResponses.apiNames().size());
+        for (String apiName : StubResponses.apiNames()) {
+            HttpResponse<String> response = post(apiName, null);
+            assertEquals(200, response.statusCode(), apiName);
+            assertEquals("SUCCESS", classifier.classify(apiName, mapper.readTree(response.body())), apiName);
+            assertEquals(1, stub.hits(ApiRunnerService.endpoint(apiName)));
+        }
+
+        properties.getDefaults().setFailureRate(1.0);
+        for (String apiName : StubResponses.apiNames()) {
+            String status = classifier.classify(apiName, mapper.readTree(post(apiName, null).body()));
+            assertNotEquals("SUCCESS", status, apiName);
+            assertNotEquals(BusinessStatusClassifier.UNKNOWN, status, apiName);
+        }
+        assertEquals("NO_RECORD", classifier.classify("vpa-validation",
+                mapper.readTree(post("vpa-validation", null).body())));
+    }
+
+    @Test
+    void errorsLatencyAndOverridesApplyPerApi() throws Exception {
+        properties.getDefaults().setLatency(Duration.ofMillis(150));
+        properties.endpoint("nach-status").setErrorEvery(2);
+        properties.endpoint("nach-status").setLatency(Duration.ZERO);
+
+        long start = System.nanoTime();
+        assertEquals(200, post("payout-create", null).statusCode());
+        assertTrue((System.nanoTime() - start) / 1_000_000 >= 150);
+
+        List<Integer> statuses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            statuses.add(post("nach-status", null).statusCode());
+        }
+        assertEquals(List.of(503, 200, 503, 200), statuses);
+        assertEquals("{\"message\":\"stub error\"}", post("nach-status", null).body());
+        assertEquals(200, post("nach-status", "{\"mandate\":\"M1\"}").statusCode());
+        assertEquals("{\"mandate\":\"M1\"}", stub.lastBody());
+    }
+
+    @Test
+    void timeoutsHoldTheRequestAndSlowBodiesDrip() throws Exception {
+        properties.endpoint("docuflow-create").setTimeoutRate(1.0);
+        properties.endpoint("docuflow-create").setTimeoutHold(Duration.ofSeconds(2));
+        HttpRequest held = HttpRequest.newBuilder(URI.create(stub.baseUrl() + "/docuflow-1call"))
+                .timeout(Duration.ofMillis(300))
+                .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                .build();
+        assertThrows(HttpTimeoutException.class, () -> client.send(held, HttpResponse.BodyHandlers.ofString()));
+
+        properties.endpoint("docuflow-status").setDripChunkBytes(10);
+        properties.endpoint("docuflow-status").setDripInterval(Duration.ofMillis(100));
+        HttpRequest dripping = HttpRequest.newBuilder(URI.create(stub.baseUrl() + "/docuflow-status"))
+                .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(dripping, HttpResponse.BodyHandlers.ofInputStream());
+        long headersMs = (System.nanoTime() - start) / 1_000_000;
+        String body;
+        try (InputStream in = response.body()) {
+            body = new String(in.readAllBytes());
+        }
+        long bodyMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(headersMs < 100, "headers after " + headersMs + " ms");
+        // 62 bytes in 7 chunks, 6 intervals apart
+        assertTrue(bodyMs >= 500, "body after " + bodyMs + " ms");
+        assertEquals("SIGNED", mapper.readTree(body).get("status").asText());
+    }
+
+    @Test
+    void logNormalLatencyHasTheConfiguredMedianAndTail() {
+        StubProperties.Behaviour behaviour = new StubProperties().getDefaults();
+        behaviour.setLatencyDistribution(StubProperties.LatencyDistribution.LOG_NORMAL);
+        behaviour.setLatency(Duration.ofMillis(100));
+        behaviour.setLatencyHigh(Duration.ofMillis(1000));
+
+        long[] samples = new long[20_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = UpstreamStubServer.latency(behaviour, ThreadLocalRandom.current()).toMillis();
+        }
+        Arrays.sort(samples);
+        assertEquals(100, samples[samples.length / 2], 10);
+        assertEquals(1000, samples[samples.length * 99 / 100], 150);
+
+        behaviour.setLatencyDistribution(StubProperties.LatencyDistribution.UNIFORM);
+        for (int i = 0; i < 1_000; i++) {
+            long millis = UpstreamStubServer.latency(behaviour, ThreadLocalRandom.current()).toMillis();
+            assertTrue(millis >= 100 && millis <= 1000, "uniform sample " + millis);
+        }
+    }
+
+    private HttpResponse<String> post(String apiName, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(stub.baseUrl() + ApiRunnerService.endpoint(apiName)))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body == null ? "{}" : body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
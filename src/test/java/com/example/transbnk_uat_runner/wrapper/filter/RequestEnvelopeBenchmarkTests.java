@@ -0,0 +1,102 @@
+package com.example.transbnk_uat_runner.wrapper.filter;
+
+import com.example.transbnk_uat_runner.wrapper.service.WrapperPayloadCryptoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Bytes allocated per request to get from the raw encrypted body to the sanitized payload,
+ * comparing the previous filter + controller parsing with {@link RequestEnvelope}.
+ * Run with {@code mvn -P benchmark test}.
+ */
+@Tag("benchmark")
+class RequestEnvelopeBenchmarkTests {
+
+	private static final int WARMUP = 20_000;
+	private static final int ITERATIONS = 50_000;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private static volatile Object sink;
+
+	@Test
+	void compareAllocationsPerRequest() throws Exception {
+		WrapperPayloadCryptoService crypto = new WrapperPayloadCryptoService();
+		ReflectionTestUtils.setField(crypto, "payloadAesKey", "AAAAAAAAAAAAAAAAAAAAAA==");
+		ReflectionTestUtils.setField(crypto, "payloadIv", "AAAAAAAAAAAAAAAAAAAAAA==");
+		ReflectionTestUtils.invokeMethod(crypto, "init");
+
+		String plain = "{\"requestId\":\"REQ-0001\",\"custName\":\"Test User\",\"custIfsc\":\"ICIC0000000\","
+				+ "\"custAcctNo\":\"000000000000\",\"trackingRefNo\":\"TRACK-0001\",\"txnType\":\"IMPS\"}";
+		byte[] raw = ("{\"token\":\"abc\",\"encData\":\"" + crypto.encryptPayload(plain) + "\"}")
+				.getBytes(StandardCharsets.UTF_8);
+
+		assertEquals(legacy(raw, crypto), envelope(raw, crypto));
+
+		long legacyBytes = allocatedPerOp(() -> legacy(raw, crypto));
+		long envelopeBytes = allocatedPerOp(() -> envelope(raw, crypto));
+
+		System.out.printf("%-24s %8d bytes/request%n", "legacy parsing", legacyBytes);
+		System.out.printf("%-24s %8d bytes/request%n", "RequestEnvelope", envelopeBytes);
+	}
+
+	/** Mirrors safeReadBody, extractTokenFromBody, tryExtractEncData, extractRequestId, @RequestBody, stripTokenField and applyDefaults. */
+	private String legacy(byte[] raw, WrapperPayloadCryptoService crypto) throws Exception {
+		String requestPayload = new String(raw, StandardCharsets.UTF_8);
+		sink = objectMapper.readTree(requestPayload).get("token");
+		sink = objectMapper.readTree(requestPayload).get("encData");
+		sink = objectMapper.readTree(requestPayload).get("requestId");
+
+		JsonNode body = objectMapper.readTree(raw);
+		JsonNode decrypted = objectMapper.readTree(crypto.decryptPayload(body.get("encData").asText()));
+		ObjectNode sanitized = ((ObjectNode) decrypted).deepCopy();
+		sanitized.remove("token");
+		String auditPayload = sanitized.toString();
+
+		ObjectNode prepared = sanitized.deepCopy();
+		prepared.put("entityId", "00000000-0000-0000-0000-000000000000");
+		sink = objectMapper.writeValueAsString(prepared);
+		return auditPayload;
+	}
+
+	private String envelope(byte[] raw, WrapperPayloadCryptoService crypto) throws Exception {
+		RequestEnvelope envelope = RequestEnvelope.parse(raw, objectMapper, crypto);
+		sink = envelope.token();
+		ObjectNode payload = (ObjectNode) envelope.payload();
+		sink = envelope.requestId();
+		String auditPayload = payload.toString();
+
+		payload.put("entityId", "00000000-0000-0000-0000-000000000000");
+		sink = objectMapper.writeValueAsBytes(payload);
+		return auditPayload;
+	}
+
+	private static long allocatedPerOp(Op op) throws Exception {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		for (int i = 0; i < WARMUP; i++) {
+			sink = op.run();
+		}
+
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < ITERATIONS; i++) {
+			sink = op.run();
+		}
+		return (threads.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+	}
+
+	@FunctionalInterface
+	private interface Op {
+		Object run() throws Exception;
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.transbnk_uat_runner.wrapper.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ClientProfileDirectoryTests {
+
+	@Autowired
+	private ClientProfileDirectory directory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final LocalDateTime base = LocalDateTime.now().withNano(0);
+
+	@BeforeEach
+	void reset() {
+		jdbcTemplate.update("DELETE FROM client_profile");
+		insert("client-a", "100", base);
+		directory.refreshAll();
+	}
+
+	@Test
+	void incrementalRefreshPicksUpChangedRowsOnly() {
+		assertEquals(1, directory.size());
+		assertEquals("100", directory.find("client-a").orElseThrow().transactionMerchantId());
+
+		insert("client-b", "200", base.plusSeconds(5));
+		jdbcTemplate.update(
+				"UPDATE client_profile SET transaction_merchantid = ?, updated_at = ? WHERE client_id = ?",
+				"101", Timestamp.valueOf(base.plusSeconds(6)), "client-a"
+		);
+		directory.refreshChanged();
+
+		// served from memory even after the rows are gone from the table
+		jdbcTemplate.update("DELETE FROM client_profile");
+		assertEquals("101", directory.find("client-a").orElseThrow().transactionMerchantId());
+		assertEquals(Map.of("client-b", new ClientProfile("client-b", "1", "200")), directory.findAll(List.of("client-b", "client-x")));
+
+		directory.refreshAll();
+		assertEquals(0, directory.size());
+		assertFalse(directory.find("client-a").isPresent());
+	}
+
+	@Test
+	void missFallsBackToDatabaseAndIsKept() {
+		insert("client-c", "300", base);
+		assertTrue(directory.find("client-c").isPresent());
+
+		jdbcTemplate.update("DELETE FROM client_profile WHERE client_id = ?", "client-c");
+		assertTrue(directory.find("client-c").isPresent());
+		assertTrue(directory.lastRefreshAge().toSeconds() < 60);
+	}
+
+	private void insert(String clientId, String merchantId, LocalDateTime updatedAt) {
+		jdbcTemplate.update(
+				"INSERT INTO client_profile (client_id, transaction_userid, transaction_merchantid, updated_at) VALUES (?, ?, ?, ?)",
+				clientId, "1", merchantId, Timestamp.valueOf(updatedAt)
+		);
+	}
+}
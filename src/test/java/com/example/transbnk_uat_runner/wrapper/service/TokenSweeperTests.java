@@ -0,0 +1,110 @@
+package com.example.transbnk_uat_runner.wrapper.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class TokenSweeperTests {
+
+	@Autowired
+	private TokenSweeper sweeper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void seed() {
+		jdbcTemplate.update("DELETE FROM master_transactions");
+		jdbcTemplate.update("DELETE FROM master_transactions_archive");
+
+		LocalDateTime expired = LocalDateTime.now().minusDays(3);
+		for (int i = 0; i < 5; i++) {
+			insert(expired.plusSeconds(i));
+		}
+		insert(LocalDateTime.now().minusMinutes(1));
+
+		ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+		ReflectionTestUtils.setField(sweeper, "pauseMs", 0L);
+	}
+
+	@AfterEach
+	void restore() {
+		ReflectionTestUtils.setField(sweeper, "batchSize", 1000);
+		ReflectionTestUtils.setField(sweeper, "pauseMs", 100L);
+		ReflectionTestUtils.setField(sweeper, "maxBatchesPerRun", 100);
+		ReflectionTestUtils.setField(sweeper, "archiveTable", "");
+	}
+
+	@Test
+	void expiredRowsAreDeletedInBoundedBatches() throws Exception {
+		double before = deletedCount();
+
+		ReflectionTestUtils.setField(sweeper, "maxBatchesPerRun", 2);
+		assertEquals(4, sweeper.sweep());
+		assertEquals(2, rows("master_transactions"));
+
+		ReflectionTestUtils.setField(sweeper, "maxBatchesPerRun", 100);
+		assertEquals(1, sweeper.sweep());
+		assertEquals(0, sweeper.sweep());
+		assertEquals(1, rows("master_transactions"));
+
+		assertEquals(5, deletedCount() - before);
+		assertTrue(meterRegistry.get("wrapper.token.sweeper.run").timer().count() >= 3);
+	}
+
+	@Test
+	void expiredRowsAreArchivedBeforeDelete() throws Exception {
+		ReflectionTestUtils.setField(sweeper, "archiveTable", "master_transactions_archive");
+
+		assertEquals(5, sweeper.sweep());
+		assertEquals(1, rows("master_transactions"));
+		assertEquals(5, rows("master_transactions_archive"));
+	}
+
+	private double deletedCount() {
+		return meterRegistry.get("wrapper.token.sweeper.rows").tag("action", "deleted").counter().count();
+	}
+
+	private int rows(String table) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+	}
+
+	private void insert(LocalDateTime transactionTimestamp) {
+		String token = UUID.randomUUID().toString();
+		jdbcTemplate.update(
+				"""
+						INSERT INTO master_transactions (
+							id, order_reference, transaction_token, token_hash, transaction_timestamp,
+							transaction_userid, transaction_merchantid, client_id, processor, initiated_at, completed_at
+						) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+						""",
+				UUID.randomUUID().toString(),
+				"TXN-TEST",
+				token,
+				WrapperTokenService.tokenHash(token),
+				Timestamp.valueOf(transactionTimestamp),
+				"317161",
+				"446442",
+				"client-1",
+				"TRANSBANK",
+				Timestamp.valueOf(transactionTimestamp),
+				Timestamp.valueOf(transactionTimestamp)
+		);
+	}
+}
@@ -0,0 +1,109 @@
+package com.example.transbnk_uat_runner.wrapper.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "wrapper.audit.spill-dir=" + WrapperAuditServiceTests.SPILL_DIR)
+class WrapperAuditServiceTests {
+
+	static final String SPILL_DIR = "target/audit-spill-test";
+
+	@Autowired
+	private WrapperAuditService auditService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void clean() {
+		jdbcTemplate.update("DELETE FROM bank_validation_audit");
+	}
+
+	@Test
+	void writesQueuedRecordsInBackground() throws Exception {
+		for (int i = 0; i < 50; i++) {
+			auditService.writeAudit("REQ-" + i, "{\"i\":" + i + "}", "{}", "SUCCESS");
+		}
+
+		assertEquals(50, awaitRowCount(50));
+	}
+
+	@Test
+	void largePayloadsAreStoredCompressedInFull() throws Exception {
+		String large = "{\"signers\":[" + "{\"name\":\"Test User\",\"status\":\"PENDING\"},".repeat(500) + "{}]}";
+		auditService.writeAudit("REQ-LARGE", "{\"small\":true}", large, "SUCCESS");
+		awaitRowCount(1);
+
+		Map<String, Object> row = jdbcTemplate.queryForMap(
+				"SELECT request_payload, response_payload, response_payload_blob FROM bank_validation_audit");
+		assertEquals("{\"small\":true}", row.get("REQUEST_PAYLOAD"));
+		assertNull(row.get("RESPONSE_PAYLOAD"));
+		byte[] blob = (byte[]) row.get("RESPONSE_PAYLOAD_BLOB");
+		assertNotNull(blob);
+		assertTrue(blob.length < large.length() / 10);
+
+		List<WrapperAuditService.AuditEntry> entries = auditService.findByRequestId("REQ-LARGE");
+		assertEquals(1, entries.size());
+		assertEquals("{\"small\":true}", entries.get(0).requestPayload());
+		assertEquals(large, entries.get(0).responsePayload());
+	}
+
+	@Test
+	void unfinishedReplayIsNotOverwrittenByTheNextSpill() throws Exception {
+		Path dir = Path.of(SPILL_DIR);
+		Files.createDirectories(dir);
+		// left behind by a replay that was cut short
+		Files.writeString(dir.resolve("bank_validation_audit.jsonl.replay"),
+				"{\"requestId\":\"REQ-LEFTOVER\",\"status\":\"SUCCESS\",\"createdAt\":0}\n", StandardCharsets.UTF_8);
+		Path spill = Files.writeString(dir.resolve("spill.tmp"),
+				"{\"requestId\":\"REQ-SPILLED\",\"status\":\"SUCCESS\",\"createdAt\":0}\n", StandardCharsets.UTF_8);
+		Files.move(spill, dir.resolve("bank_validation_audit.jsonl"), StandardCopyOption.ATOMIC_MOVE);
+
+		assertEquals(2, awaitRowCount(2));
+		assertEquals(1, auditService.findByRequestId("REQ-LEFTOVER").size());
+		assertEquals(1, auditService.findByRequestId("REQ-SPILLED").size());
+		// each replay file is deleted right after its rows are written
+		long deadline = System.currentTimeMillis() + 5000;
+		while (hasFiles(dir) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertFalse(hasFiles(dir));
+	}
+
+	private static boolean hasFiles(Path dir) throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.findAny().isPresent();
+		}
+	}
+
+	private int awaitRowCount(int expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		int count = 0;
+		while (System.currentTimeMillis() < deadline) {
+			count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bank_validation_audit", Integer.class);
+			if (count >= expected) {
+				return count;
+			}
+			Thread.sleep(50);
+		}
+		return count;
+	}
+}
@@ -0,0 +1,193 @@
+package com.example.transbnk_uat_runner.wrapper.service;
+
+import com.example.transbnk_uat_runner.wrapper.dto.TokenGenerateBatchResponse;
+import com.example.transbnk_uat_runner.wrapper.dto.TokenGenerateRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@SpringBootTest
+class WrapperTokenServiceTests {
+
+	private static final String CLIENT_ID = "client-1";
+
+	@Autowired
+	private WrapperTokenService tokenService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void seed() {
+		jdbcTemplate.update("DELETE FROM master_transactions");
+		jdbcTemplate.update("DELETE FROM client_profile");
+		jdbcTemplate.update(
+				"INSERT INTO client_profile (client_id, transaction_userid, transaction_merchantid) VALUES (?, ?, ?)",
+				CLIENT_ID, "317161", "446442"
+		);
+	}
+
+	@Test
+	void validatedTokenIsServedFromCacheWithoutDatabase() throws Exception {
+		String token = tokenService.generateToken(request(LocalDateTime.now().minusMinutes(1)));
+
+		assertTrue(tokenService.validateToken(token, CLIENT_ID, "TRANSBANK"));
+
+		jdbcTemplate.update("DELETE FROM master_transactions");
+
+		assertTrue(tokenService.validateToken(token, CLIENT_ID, "transbank"));
+		assertFalse(tokenService.validateToken(token, "other-client", null));
+	}
+
+	@Test
+	void unknownAndExpiredTokensAreRejected() throws Exception {
+		assertFalse(tokenService.validateToken("bm90LWEtdG9rZW4="));
+		assertFalse(tokenService.validateToken("bm90LWEtdG9rZW4="));
+
+		String expired = tokenService.generateToken(request(LocalDateTime.now().minusMinutes(30)));
+		assertFalse(tokenService.validateToken(expired));
+	}
+
+	@Test
+	void concurrentGenerateForOneTransactionStoresOneToken() throws Exception {
+		TokenGenerateRequest request = request(LocalDateTime.now().minusMinutes(1));
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Callable<String>> calls = IntStream.range(0, 8)
+					.<Callable<String>>mapToObj(i -> () -> {
+						start.await();
+						return tokenService.generateToken(request);
+					})
+					.toList();
+			List<Future<String>> futures = calls.stream().map(pool::submit).toList();
+			start.countDown();
+
+			Set<String> tokens = new HashSet<>();
+			for (Future<String> future : futures) {
+				tokens.add(future.get());
+			}
+			assertEquals(1, tokens.size());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM master_transactions", Integer.class));
+		String stored = jdbcTemplate.queryForObject("SELECT token_hash FROM master_transactions", String.class);
+		String token = jdbcTemplate.queryForObject("SELECT transaction_token FROM master_transactions", String.class);
+		assertEquals(WrapperTokenService.tokenHash(token), stored);
+		assertTrue(tokenService.validateToken(token, CLIENT_ID, "TRANSBANK"));
+	}
+
+	@Test
+	void batchGenerateReturnsPerItemResultsInOrder() throws Exception {
+		LocalDateTime now = LocalDateTime.now();
+		String existing = tokenService.generateToken(request(now.minusMinutes(1)));
+
+		TokenGenerateRequest unknownClient = request(now.minusMinutes(2));
+		unknownClient.setClientId("no-such-client");
+		TokenGenerateRequest badTimestamp = request(now);
+		badTimestamp.setTransactionTimestamp("yesterday");
+
+		List<TokenGenerateRequest> requests = new ArrayList<>(List.of(
+				request(now.minusMinutes(2)),
+				unknownClient,
+				request(now.minusMinutes(1)),
+				badTimestamp,
+				request(now.minusMinutes(2))
+		));
+		for (int i = 0; i < 100; i++) {
+			requests.add(request(now.minusSeconds(200 + i)));
+		}
+
+		List<TokenGenerateBatchResponse.Item> results = tokenService.generateTokens(requests).getResults();
+
+		assertEquals(requests.size(), results.size());
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(i, results.get(i).getIndex());
+		}
+
+		String fresh = results.get(0).getToken();
+		assertNull(results.get(0).getError());
+		assertNotEquals(existing, fresh);
+		assertTrue(tokenService.validateToken(fresh, CLIENT_ID, "TRANSBANK"));
+
+		assertNull(results.get(1).getToken());
+		assertEquals("Unknown client_id (no client_profile mapping found)", results.get(1).getError());
+		assertEquals(existing, results.get(2).getToken());
+		assertEquals("Timestamp must be in format: yyyy-MM-dd HH:mm:ss", results.get(3).getError());
+		assertEquals(fresh, results.get(4).getToken());
+		assertTrue(tokenService.validateToken(results.get(104).getToken(), CLIENT_ID, "TRANSBANK"));
+
+		assertEquals(102, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM master_transactions", Integer.class));
+	}
+
+	@Test
+	void statelessTokenValidatesWithoutDatabase() throws Exception {
+		ReflectionTestUtils.setField(tokenService, "issueStateless", true);
+		try {
+			String token = tokenService.generateToken(request(LocalDateTime.now().minusMinutes(1)));
+			assertTrue(token.startsWith("v1."));
+			awaitRecord(token);
+
+			jdbcTemplate.update("DELETE FROM master_transactions");
+
+			assertTrue(tokenService.validateToken(token, CLIENT_ID, "transbank"));
+			assertFalse(tokenService.validateToken(token, "other-client", null));
+
+			int at = token.length() / 2;
+			char flipped = token.charAt(at) == 'A' ? 'B' : 'A';
+			assertFalse(tokenService.validateToken(token.substring(0, at) + flipped + token.substring(at + 1)));
+
+			String expired = tokenService.generateToken(request(LocalDateTime.now().minusMinutes(30)));
+			assertFalse(tokenService.validateToken(expired));
+		} finally {
+			ReflectionTestUtils.setField(tokenService, "issueStateless", false);
+		}
+	}
+
+	private void awaitRecord(String token) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (System.currentTimeMillis() < deadline) {
+			Integer count = jdbcTemplate.queryForObject(
+					"SELECT COUNT(*) FROM master_transactions WHERE transaction_token = ?", Integer.class, token);
+			if (count != null && count == 1) {
+				return;
+			}
+			Thread.sleep(20);
+		}
+		fail("master_transactions record was not written for the stateless token");
+	}
+
+	private static TokenGenerateRequest request(LocalDateTime timestamp) {
+		TokenGenerateRequest request = new TokenGenerateRequest();
+		request.setClientId(CLIENT_ID);
+		request.setProcessor("TRANSBANK");
+		request.setTransactionTimestamp(timestamp.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+		return request;
+	}
+}
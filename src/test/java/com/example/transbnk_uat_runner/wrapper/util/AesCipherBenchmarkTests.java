@@ -0,0 +1,95 @@
+package com.example.transbnk_uat_runner.wrapper.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Per-call cost of the previous AesUtil implementation against {@link AesCipher}.
+ * Run with {@code mvn -P benchmark test}.
+ */
+@Tag("benchmark")
+class AesCipherBenchmarkTests {
+
+	private static final String KEY = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+	private static final String IV = Base64.getEncoder().encodeToString("fedcba9876543210".getBytes(StandardCharsets.UTF_8));
+
+	private static final String TOKEN_PLAIN = "317161446442secret-password2026-02-27 09:10:00TRANSBANK";
+
+	private static final int WARMUP = 50_000;
+	private static final int ITERATIONS = 200_000;
+
+	private static volatile Object sink;
+
+	@Test
+	void compareEncryptDecrypt() throws Exception {
+		AesCipher cipher = AesCipher.fromBase64(KEY, IV);
+		byte[] plainBytes = TOKEN_PLAIN.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer in = ByteBuffer.wrap(plainBytes);
+		ByteBuffer out = ByteBuffer.allocate(cipher.encryptedSize(plainBytes.length));
+
+		String legacyToken = legacyEncrypt(TOKEN_PLAIN, KEY, IV);
+		assertEquals(legacyToken, cipher.encryptToBase64(TOKEN_PLAIN));
+		assertEquals(TOKEN_PLAIN, cipher.decryptFromBase64(legacyToken));
+
+		report("legacy encrypt (String)", () -> legacyEncrypt(TOKEN_PLAIN, KEY, IV));
+		report("AesCipher encrypt (String)", () -> cipher.encryptToBase64(TOKEN_PLAIN));
+		report("AesCipher encrypt (byte[])", () -> cipher.encrypt(plainBytes));
+		report("AesCipher encrypt (ByteBuffer)", () -> {
+			in.rewind();
+			out.clear();
+			return cipher.encrypt(in, out);
+		});
+
+		report("legacy decrypt (String)", () -> legacyDecrypt(legacyToken, KEY, IV));
+		report("AesCipher decrypt (String)", () -> cipher.decryptFromBase64(legacyToken));
+
+		byte[] raw = cipher.encrypt(plainBytes);
+		assertArrayEquals(plainBytes, cipher.decrypt(raw));
+		report("AesCipher decrypt (byte[])", () -> cipher.decrypt(raw));
+	}
+
+	private static void report(String name, Op op) throws Exception {
+		for (int i = 0; i < WARMUP; i++) {
+			sink = op.run();
+		}
+
+		long started = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			sink = op.run();
+		}
+		long elapsed = System.nanoTime() - started;
+
+		System.out.printf("%-32s %8.0f ns/op%n", name, (double) elapsed / ITERATIONS);
+	}
+
+	private static String legacyEncrypt(String plainText, String base64Key, String base64IV) throws Exception {
+		byte[] keyBytes = Base64.getDecoder().decode(base64Key);
+		byte[] ivBytes = Base64.getDecoder().decode(base64IV);
+		Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+		cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(keyBytes, "AES"), new IvParameterSpec(ivBytes));
+		return Base64.getEncoder().encodeToString(cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static String legacyDecrypt(String encryptedText, String base64Key, String base64IV) throws Exception {
+		byte[] keyBytes = Base64.getDecoder().decode(base64Key);
+		byte[] ivBytes = Base64.getDecoder().decode(base64IV);
+		Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+		cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(keyBytes, "AES"), new IvParameterSpec(ivBytes));
+		return new String(cipher.doFinal(Base64.getDecoder().decode(encryptedText)), StandardCharsets.UTF_8);
+	}
+
+	@FunctionalInterface
+	private interface Op {
+		Object run() throws Exception;
+	}
+}
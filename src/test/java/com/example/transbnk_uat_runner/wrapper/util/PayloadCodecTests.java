@@ -0,0 +1,41 @@
+package com.example.transbnk_uat_runner.wrapper.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayloadCodecTests {
+
+	private final PayloadCodec codec = new PayloadCodec(6);
+
+	@Test
+	void repetitiveJsonIsDeflatedAndRoundTrips() {
+		String json = "{\"items\":[" + "{\"status\":\"SUCCESS\",\"name\":\"Test Usér\"},".repeat(2000) + "{}]}";
+		byte[] encoded = codec.encode(json.getBytes(StandardCharsets.UTF_8));
+
+		assertEquals(PayloadCodec.CODEC_DEFLATE, encoded[1]);
+		assertTrue(encoded.length < json.length() / 10);
+		assertEquals(json, codec.decode(encoded));
+	}
+
+	@Test
+	void payloadThatDoesNotShrinkIsStoredAsIs() {
+		byte[] encoded = codec.encode("{}".getBytes(StandardCharsets.UTF_8));
+
+		assertEquals(PayloadCodec.CODEC_NONE, encoded[1]);
+		assertEquals(8, encoded.length);
+		assertEquals("{}", codec.decode(encoded));
+	}
+
+	@Test
+	void truncatedPayloadIsRejected() {
+		byte[] encoded = codec.encode("abc".repeat(1000).getBytes(StandardCharsets.UTF_8));
+
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(Arrays.copyOf(encoded, encoded.length - 4)));
+	}
+}
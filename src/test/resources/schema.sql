@@ -0,0 +1,80 @@
+CREATE TABLE IF NOT EXISTS bank_validation_audit (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  request_id VARCHAR(128),
+  request_payload TEXT,
+  response_payload TEXT,
+  status VARCHAR(32),
+  created_at TIMESTAMP,
+  request_payload_blob MEDIUMBLOB,
+  response_payload_blob MEDIUMBLOB,
+  api_name VARCHAR(64),
+  latency_ms BIGINT
+);
+
+CREATE TABLE IF NOT EXISTS client_profile (
+  client_id VARCHAR(64) NOT NULL,
+  transaction_userid VARCHAR(64) NOT NULL,
+  transaction_merchantid VARCHAR(64) NOT NULL,
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (client_id)
+);
+
+CREATE TABLE IF NOT EXISTS master_transactions (
+  id VARCHAR(36) NOT NULL,
+  order_reference VARCHAR(64),
+  transaction_token VARCHAR(512) NOT NULL,
+  token_hash CHAR(64) NOT NULL,
+  transaction_timestamp TIMESTAMP NOT NULL,
+  transaction_userid VARCHAR(64),
+  transaction_merchantid VARCHAR(64),
+  client_id VARCHAR(64) NOT NULL,
+  processor VARCHAR(32) NOT NULL,
+  initiated_at TIMESTAMP,
+  completed_at TIMESTAMP,
+  PRIMARY KEY (id),
+  UNIQUE KEY uk_master_transactions_token_hash (token_hash),
+  UNIQUE KEY uk_master_transactions_txn (client_id, transaction_timestamp, processor)
+);
+
+CREATE TABLE IF NOT EXISTS bank_account_validation_log (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  endpoint_path VARCHAR(128),
+  full_url VARCHAR(512),
+  http_status INT,
+  http_category VARCHAR(32),
+  business_status VARCHAR(64),
+  entity_id VARCHAR(64),
+  program_id VARCHAR(64),
+  request_id VARCHAR(128),
+  cust_name VARCHAR(255),
+  cust_ifsc VARCHAR(32),
+  cust_acct_no VARCHAR(64),
+  tracking_ref_no VARCHAR(128),
+  txn_type VARCHAR(32),
+  tb_status_code VARCHAR(32),
+  tb_status VARCHAR(64),
+  ac_validation_status VARCHAR(64),
+  message VARCHAR(512),
+  response_id VARCHAR(128),
+  name_at_bank VARCHAR(255),
+  bank_code VARCHAR(32),
+  method_used VARCHAR(64),
+  utr VARCHAR(64),
+  request_json TEXT,
+  response_json TEXT
+);
+
+CREATE TABLE IF NOT EXISTS master_transactions_archive (
+  id VARCHAR(36) NOT NULL,
+  order_reference VARCHAR(64),
+  transaction_token VARCHAR(512) NOT NULL,
+  token_hash CHAR(64) NOT NULL,
+  transaction_timestamp TIMESTAMP NOT NULL,
+  transaction_userid VARCHAR(64),
+  transaction_merchantid VARCHAR(64),
+  client_id VARCHAR(64) NOT NULL,
+  processor VARCHAR(32) NOT NULL,
+  initiated_at TIMESTAMP,
+  completed_at TIMESTAMP,
+  PRIMARY KEY (id)
+);